@@ -1,14 +1,29 @@
 package com.web.config;
 
+import com.amazonaws.ClientConfiguration;
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.client.builder.AwsClientBuilder;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.web.storage.ResilientS3Client;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Configuration;
+
+import java.net.URI;
+import java.time.Duration;
 
 @Data
 @Configuration
@@ -29,13 +44,128 @@ public class AwsS3Config {
     @Value("${config.aws.s3.secret-key}")
     private String secretKey;
 
+    @Value("${config.aws.s3.upload-read-limit}")
+    private int uploadReadLimit;
+
+    @Value("${config.aws.s3.multipart.threshold}")
+    private long multipartThreshold;
+
+    @Value("${config.aws.s3.multipart.part-size}")
+    private int multipartPartSize;
+
+    @Value("${config.aws.s3.multipart.concurrency}")
+    private int multipartConcurrency;
+
+    @Value("${config.aws.s3.multipart.part-retries}")
+    private int multipartPartRetries;
+
+    @Value("${config.aws.s3.metadata-cache.max-size}")
+    private long metadataCacheMaxSize;
+
+    @Value("${config.aws.s3.metadata-cache.ttl-seconds}")
+    private long metadataCacheTtlSeconds;
+
+    @Value("${config.aws.s3.presigned.upload-ttl-seconds}")
+    private long presignedUploadTtlSeconds;
+
+    @Value("${config.aws.s3.presigned.download-ttl-seconds}")
+    private long presignedDownloadTtlSeconds;
+
+    @Value("${config.aws.s3.presigned.download-cache-ttl-seconds}")
+    private long presignedDownloadCacheTtlSeconds;
+
+    @Value("${config.aws.s3.resilience.connect-timeout-ms}")
+    private int connectTimeoutMs;
+
+    @Value("${config.aws.s3.resilience.socket-timeout-ms}")
+    private int socketTimeoutMs;
+
+    @Value("${config.aws.s3.resilience.read-timeout-ms}")
+    private int readTimeoutMs;
+
+    @Value("${config.aws.s3.resilience.write-timeout-ms}")
+    private int writeTimeoutMs;
+
+    @Value("${config.aws.s3.resilience.max-error-retry}")
+    private int maxErrorRetry;
+
+    @Value("${config.aws.s3.resilience.bulkhead.max-concurrent-calls}")
+    private int maxConcurrentCalls;
+
+    @Value("${config.aws.s3.resilience.bulkhead.max-wait-ms}")
+    private long bulkheadMaxWaitMs;
+
+    @Value("${config.aws.s3.resilience.circuit-breaker.window-size}")
+    private int circuitBreakerWindowSize;
+
+    @Value("${config.aws.s3.resilience.circuit-breaker.minimum-calls}")
+    private int circuitBreakerMinimumCalls;
+
+    @Value("${config.aws.s3.resilience.circuit-breaker.failure-rate-threshold}")
+    private int circuitBreakerFailureRateThreshold;
+
+    @Value("${config.aws.s3.resilience.circuit-breaker.open-duration-ms}")
+    private long circuitBreakerOpenDurationMs;
+
+    @Value("${config.aws.s3.resilience.circuit-breaker.half-open-calls}")
+    private int circuitBreakerHalfOpenCalls;
+
+    @Value("${config.aws.s3.hedging.enabled}")
+    private boolean hedgingEnabled;
+
+    @Value("${config.aws.s3.hedging.percentile}")
+    private double hedgingPercentile;
+
+    @Value("${config.aws.s3.hedging.min-delay-ms}")
+    private long hedgingMinDelayMs;
+
+    @Value("${config.aws.s3.hedging.max-delay-ms}")
+    private long hedgingMaxDelayMs;
+
+    @Value("${config.aws.s3.hedging.max-percent}")
+    private double hedgingMaxPercent;
+
+    @Value("${config.aws.s3.async.max-concurrency}")
+    private int asyncMaxConcurrency;
+
     @Bean(name = "amazonS3")
-    public AmazonS3 amazonS3() {
-        return AmazonS3ClientBuilder.standard()
+    public AmazonS3 amazonS3(MeterRegistry meterRegistry) {
+        AmazonS3 s3Client = AmazonS3ClientBuilder.standard()
                 .withCredentials(getCredentialsProvider())
                 .withEndpointConfiguration(getEndpointConfiguration(s3EndpointUrl))
+                .withClientConfiguration(getClientConfiguration())
                 .withPathStyleAccessEnabled(true)
                 .build();
+        return ResilientS3Client.wrap(s3Client, this, meterRegistry);
+    }
+
+    // Only the non-blocking document API streams through the async client, the rest of the application keeps the
+    // blocking one
+    @Bean(name = "s3AsyncClient", destroyMethod = "close")
+    @ConditionalOnProperty(name = "config.document.api.non-blocking", havingValue = "true")
+    public S3AsyncClient s3AsyncClient() {
+        return S3AsyncClient.builder()
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)))
+                .region(Region.of(region))
+                .endpointOverride(URI.create(s3EndpointUrl))
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(asyncMaxConcurrency)
+                        .connectionTimeout(Duration.ofMillis(connectTimeoutMs))
+                        .readTimeout(Duration.ofMillis(socketTimeoutMs)))
+                .overrideConfiguration(ClientOverrideConfiguration.builder()
+                        .retryPolicy(RetryPolicy.builder().numRetries(maxErrorRetry).build())
+                        .build())
+                .build();
+    }
+
+    private ClientConfiguration getClientConfiguration() {
+        // Object downloads stream past the execution timeout, so the socket timeout bounds a stalled body read
+        return new ClientConfiguration()
+                .withConnectionTimeout(connectTimeoutMs)
+                .withSocketTimeout(socketTimeoutMs)
+                .withClientExecutionTimeout(readTimeoutMs)
+                .withMaxErrorRetry(maxErrorRetry);
     }
 
     private AwsClientBuilder.EndpointConfiguration getEndpointConfiguration(String url) {
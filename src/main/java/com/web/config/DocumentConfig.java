@@ -0,0 +1,140 @@
+package com.web.config;
+
+import com.web.model.enumeration.DocumentPart;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+@Data
+@Configuration
+public class DocumentConfig {
+
+    @Value("${config.document.download.chunk-size}")
+    private int downloadChunkSize;
+
+    @Value("${config.document.api.non-blocking}")
+    private boolean nonBlockingApi;
+
+    @Value("${config.document.api.transfer-timeout-ms}")
+    private long transferTimeoutMs;
+
+    @Value("${config.document.max-size.identity-card}")
+    private long identityCardMaxSize;
+
+    @Value("${config.document.max-size.medical-certificate}")
+    private long medicalCertificateMaxSize;
+
+    @Value("${config.document.max-size.diploma}")
+    private long diplomaMaxSize;
+
+    @Value("${config.document.upload-budget.max-bytes}")
+    private long uploadBudgetMaxBytes;
+
+    @Value("${config.document.upload-budget.max-waiting}")
+    private int uploadBudgetMaxWaiting;
+
+    @Value("${config.document.upload-budget.wait-timeout-ms}")
+    private long uploadBudgetWaitTimeoutMs;
+
+    @Value("${config.document.upload-budget.retry-after-seconds}")
+    private long uploadBudgetRetryAfterSeconds;
+
+    @Value("${spring.servlet.multipart.max-request-size}")
+    private DataSize maxRequestSize;
+
+    @Value("${config.document.upload-session.ttl-minutes}")
+    private long uploadSessionTtlMinutes;
+
+    @Value("${config.document.upload-session.max-chunk-size}")
+    private long uploadSessionMaxChunkSize;
+
+    @Value("${config.document.export.read-ahead}")
+    private int exportReadAhead;
+
+    @Value("${config.document.export.prefetch-size}")
+    private int exportPrefetchSize;
+
+    @Value("${config.document.export.page-size}")
+    private int exportPageSize;
+
+    @Value("${config.document.storage.local.root-directory}")
+    private String localStorageRoot;
+
+    @Value("${config.document.staging.directory}")
+    private String stagingDirectory;
+
+    @Value("${config.document.staging.max-attempts}")
+    private int stagingMaxAttempts;
+
+    @Value("${config.document.staging.retry-backoff-ms}")
+    private long stagingRetryBackoffMs;
+
+    @Value("${config.document.staging.recovery-interval-ms}")
+    private long stagingRecoveryIntervalMs;
+
+    @Value("${config.document.staging.max-recovery-backoff-ms}")
+    private long stagingMaxRecoveryBackoffMs;
+
+    // Has to stay the same across restarts, staged blobs are only recovered by the node that staged them
+    @Value("${config.document.staging.node-id}")
+    private String stagingNodeId;
+
+    @Value("${config.document.encryption.enabled}")
+    private boolean encryptionEnabled;
+
+    @Value("${config.document.encryption.chunk-size}")
+    private int encryptionChunkSize;
+
+    @Value("${config.document.encryption.master-keys}")
+    private List<String> encryptionMasterKeys = List.of();
+
+    @Value("${config.document.cache.enabled}")
+    private boolean cacheEnabled;
+
+    @Value("${config.document.cache.memory.max-bytes}")
+    private long cacheMemoryMaxBytes;
+
+    @Value("${config.document.cache.memory.max-object-bytes}")
+    private long cacheMemoryMaxObjectBytes;
+
+    @Value("${config.document.cache.disk.directory}")
+    private String cacheDirectory;
+
+    @Value("${config.document.cache.disk.max-bytes}")
+    private long cacheDiskMaxBytes;
+
+    @Value("${config.document.cache.disk.max-object-bytes}")
+    private long cacheDiskMaxObjectBytes;
+
+    @Value("${config.document.preview.max-size}")
+    private int previewMaxSize;
+
+    @Value("${config.document.preview.cache-max-age-days}")
+    private long previewCacheMaxAgeDays;
+
+    @Value("${config.document.migration.batch-size}")
+    private int migrationBatchSize;
+
+    @Value("${config.document.gc.page-size}")
+    private int gcPageSize;
+
+    @Value("${config.document.gc.delete-batch-size}")
+    private int gcDeleteBatchSize;
+
+    @Value("${config.document.gc.max-deletes-per-second}")
+    private int gcMaxDeletesPerSecond;
+
+    @Value("${config.document.gc.grace-period-hours}")
+    private long gcGracePeriodHours;
+
+    public long getMaxSize(DocumentPart part) {
+        return switch (part) {
+            case IDENTITY_CARD -> identityCardMaxSize;
+            case MEDICAL_CERTIFICATE -> medicalCertificateMaxSize;
+            case DIPLOMA -> diplomaMaxSize;
+        };
+    }
+}
@@ -0,0 +1,156 @@
+package com.web.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableScheduling
+public class ExecutorConfig {
+
+    @Value("${config.document.upload.pool-size}")
+    private int uploadPoolSize;
+
+    @Value("${config.document.upload.queue-capacity}")
+    private int uploadQueueCapacity;
+
+    @Value("${config.document.part-upload.pool-size}")
+    private int partUploadPoolSize;
+
+    @Value("${config.document.part-upload.queue-capacity}")
+    private int partUploadQueueCapacity;
+
+    @Value("${config.document.read.pool-size}")
+    private int readPoolSize;
+
+    @Value("${config.document.read.queue-capacity}")
+    private int readQueueCapacity;
+
+    @Value("${config.document.staging.pool-size}")
+    private int stagingPoolSize;
+
+    @Value("${config.document.staging.queue-capacity}")
+    private int stagingQueueCapacity;
+
+    @Value("${config.document.export.pool-size}")
+    private int exportPoolSize;
+
+    @Value("${config.document.export.queue-capacity}")
+    private int exportQueueCapacity;
+
+    @Value("${config.document.preview.pool-size}")
+    private int previewPoolSize;
+
+    @Value("${config.document.preview.queue-capacity}")
+    private int previewQueueCapacity;
+
+    @Value("${config.document.migration.pool-size}")
+    private int migrationPoolSize;
+
+    @Value("${config.document.migration.batch-size}")
+    private int migrationBatchSize;
+
+    @Value("${config.document.cache.fill.pool-size}")
+    private int cacheFillPoolSize;
+
+    @Value("${config.document.cache.fill.queue-capacity}")
+    private int cacheFillQueueCapacity;
+
+    @Value("${config.security.password.pool-size}")
+    private int passwordPoolSize;
+
+    @Value("${config.security.password.queue-capacity}")
+    private int passwordQueueCapacity;
+
+    // Declaring our own executors turns off the auto-configured one, which Spring MVC relies on for async requests
+    @Lazy
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean(name = "documentUploadExecutor")
+    public ThreadPoolTaskExecutor documentUploadExecutor(MeterRegistry meterRegistry) {
+        return createExecutor("documentUploadExecutor", "document-upload-",
+                uploadPoolSize, uploadQueueCapacity, meterRegistry);
+    }
+
+    @Bean(name = "documentPartUploadExecutor")
+    public ThreadPoolTaskExecutor documentPartUploadExecutor(MeterRegistry meterRegistry) {
+        return createExecutor("documentPartUploadExecutor", "document-part-upload-",
+                partUploadPoolSize, partUploadQueueCapacity, meterRegistry);
+    }
+
+    @Bean(name = "documentReadExecutor")
+    public ThreadPoolTaskExecutor documentReadExecutor(MeterRegistry meterRegistry) {
+        return createExecutor("documentReadExecutor", "document-read-",
+                readPoolSize, readQueueCapacity, meterRegistry);
+    }
+
+    @Bean(name = "documentStagingExecutor")
+    public ThreadPoolTaskExecutor documentStagingExecutor(MeterRegistry meterRegistry) {
+        return createExecutor("documentStagingExecutor", "document-staging-",
+                stagingPoolSize, stagingQueueCapacity, meterRegistry);
+    }
+
+    @Bean(name = "documentExportExecutor")
+    public ThreadPoolTaskExecutor documentExportExecutor(MeterRegistry meterRegistry) {
+        return createExecutor("documentExportExecutor", "document-export-",
+                exportPoolSize, exportQueueCapacity, meterRegistry);
+    }
+
+    @Bean(name = "documentPreviewExecutor")
+    public ThreadPoolTaskExecutor documentPreviewExecutor(MeterRegistry meterRegistry) {
+        return createExecutor("documentPreviewExecutor", "document-preview-",
+                previewPoolSize, previewQueueCapacity, meterRegistry);
+    }
+
+    @Bean(name = "documentMigrationExecutor")
+    public ThreadPoolTaskExecutor documentMigrationExecutor(MeterRegistry meterRegistry) {
+        return createExecutor("documentMigrationExecutor", "document-migration-",
+                migrationPoolSize, migrationBatchSize, meterRegistry);
+    }
+
+    @Bean(name = "documentCacheFillExecutor")
+    public ThreadPoolTaskExecutor documentCacheFillExecutor(MeterRegistry meterRegistry) {
+        return createExecutor("documentCacheFillExecutor", "document-cache-fill-",
+                cacheFillPoolSize, cacheFillQueueCapacity, meterRegistry);
+    }
+
+    // BCrypt is pure CPU work, so more threads than cores would only slow every other request down
+    @Bean(name = "passwordHashingExecutor")
+    public ThreadPoolTaskExecutor passwordHashingExecutor(MeterRegistry meterRegistry) {
+        return createExecutor("passwordHashingExecutor", "password-hashing-",
+                Math.min(passwordPoolSize, Runtime.getRuntime().availableProcessors()), passwordQueueCapacity,
+                meterRegistry);
+    }
+
+    private ThreadPoolTaskExecutor createExecutor(String name, String threadNamePrefix, int poolSize,
+                                                  int queueCapacity, MeterRegistry meterRegistry) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+
+        Gauge.builder("executor.queued", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("executor.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("executor.pool.size", executor, ThreadPoolTaskExecutor::getPoolSize)
+                .tag("name", name)
+                .register(meterRegistry);
+        return executor;
+    }
+}
@@ -0,0 +1,46 @@
+package com.web.config;
+
+import com.web.filter.NonBlockingUploadFilter;
+import com.web.filter.UploadBudgetFilter;
+import com.web.service.UploadBudgetService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import javax.servlet.DispatcherType;
+
+@Configuration
+public class FilterConfig {
+
+    // Runs after Spring Security so that only authenticated uploads take a share of the budget, and before the
+    // DispatcherServlet so that the multipart body is not buffered until the upload is admitted
+    @Bean
+    public FilterRegistrationBean<UploadBudgetFilter> uploadBudgetFilter(
+            UploadBudgetService uploadBudgetService,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver) {
+        FilterRegistrationBean<UploadBudgetFilter> registration = new FilterRegistrationBean<>(
+                new UploadBudgetFilter(uploadBudgetService, handlerExceptionResolver));
+        registration.addUrlPatterns("/api/documents", "/api/documents/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+
+    // Runs after the upload budget was reserved, and again on the async dispatch that hands the spooled body to the
+    // DispatcherServlet
+    @Bean
+    @ConditionalOnProperty(name = "config.document.api.non-blocking", havingValue = "true")
+    public FilterRegistrationBean<NonBlockingUploadFilter> nonBlockingUploadFilter(
+            DocumentConfig documentConfig,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver) {
+        FilterRegistrationBean<NonBlockingUploadFilter> registration = new FilterRegistrationBean<>(
+                new NonBlockingUploadFilter(documentConfig, handlerExceptionResolver));
+        registration.addUrlPatterns("/api/documents", "/api/documents/*");
+        registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 2);
+        return registration;
+    }
+}
@@ -0,0 +1,68 @@
+package com.web.config;
+
+import com.web.model.RateLimit;
+import com.web.model.enumeration.RateLimitedRoute;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+public class SecurityConfig {
+
+    @Value("${config.security.token-cache.max-size}")
+    private long tokenCacheMaxSize;
+
+    @Value("${config.security.password.target-hash-ms}")
+    private long passwordTargetHashMs;
+
+    @Value("${config.security.password.min-cost}")
+    private int passwordMinCost;
+
+    @Value("${config.security.password.max-cost}")
+    private int passwordMaxCost;
+
+    @Value("${config.security.password.wait-timeout-ms}")
+    private long passwordWaitTimeoutMs;
+
+    @Value("${config.security.password.retry-after-seconds}")
+    private long passwordRetryAfterSeconds;
+
+    @Value("${config.security.rate-limit.enabled}")
+    private boolean rateLimitEnabled;
+
+    @Value("${config.security.rate-limit.login.ip.capacity}")
+    private long loginIpCapacity;
+
+    @Value("${config.security.rate-limit.login.ip.period-seconds}")
+    private long loginIpPeriodSeconds;
+
+    @Value("${config.security.rate-limit.upload.ip.capacity}")
+    private long uploadIpCapacity;
+
+    @Value("${config.security.rate-limit.upload.ip.period-seconds}")
+    private long uploadIpPeriodSeconds;
+
+    @Value("${config.security.rate-limit.upload.user.capacity}")
+    private long uploadUserCapacity;
+
+    @Value("${config.security.rate-limit.upload.user.period-seconds}")
+    private long uploadUserPeriodSeconds;
+
+    public RateLimit getIpRateLimit(RateLimitedRoute route) {
+        return switch (route) {
+            case LOGIN -> new RateLimit(loginIpCapacity, Duration.ofSeconds(loginIpPeriodSeconds));
+            case DOCUMENT_UPLOAD -> new RateLimit(uploadIpCapacity, Duration.ofSeconds(uploadIpPeriodSeconds));
+        };
+    }
+
+    // A login carries no token yet, so it can only be limited per address
+    public RateLimit getUserRateLimit(RateLimitedRoute route) {
+        return switch (route) {
+            case LOGIN -> new RateLimit(0, Duration.ZERO);
+            case DOCUMENT_UPLOAD -> new RateLimit(uploadUserCapacity, Duration.ofSeconds(uploadUserPeriodSeconds));
+        };
+    }
+}
@@ -3,9 +3,18 @@ package com.web.config;
 import com.web.repository.UserRepository;
 import com.web.filter.JwtAuthenticationFilter;
 import com.web.filter.JwtAuthorizationFilter;
+import com.web.filter.JwtTokenVerifier;
+import com.web.filter.RateLimitFilter;
+import com.web.filter.TokenBucketStore;
+import com.web.model.UserCredentials;
+import com.web.service.PasswordHashingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
@@ -13,7 +22,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -23,13 +32,22 @@ import static com.web.util.SecurityConstants.*;
 @Configuration
 @EnableWebSecurity
 @EnableGlobalMethodSecurity(jsr250Enabled=true)
+@Import(SecurityConfig.class)
 public class WebSecurity extends WebSecurityConfigurerAdapter {
 
     private final UserRepository userRepository;
+    private final SecurityConfig securityConfig;
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+    private final PasswordHashingService passwordHashingService;
 
     @Autowired
-    public WebSecurity(UserRepository userRepository) {
+    public WebSecurity(UserRepository userRepository, SecurityConfig securityConfig,
+                       ObjectProvider<MeterRegistry> meterRegistryProvider,
+                       PasswordHashingService passwordHashingService) {
         this.userRepository = userRepository;
+        this.securityConfig = securityConfig;
+        this.meterRegistryProvider = meterRegistryProvider;
+        this.passwordHashingService = passwordHashingService;
     }
 
     @Override
@@ -40,15 +58,22 @@ public class WebSecurity extends WebSecurityConfigurerAdapter {
                 .anyRequest().authenticated()
                 .and()
                 .addFilter(new JwtAuthenticationFilter(authenticationManager(), getApplicationContext()))
-                .addFilter(new JwtAuthorizationFilter(authenticationManager()))
+                .addFilter(new JwtAuthorizationFilter(authenticationManager(), jwtTokenVerifier()))
+                .addFilterBefore(new RateLimitFilter(securityConfig, tokenBucketStore(), jwtTokenVerifier(),
+                        getApplicationContext()), UsernamePasswordAuthenticationFilter.class)
                 .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS);
     }
 
     @Override
     public void configure(AuthenticationManagerBuilder auth) throws Exception {
         auth
-            .userDetailsService((email) -> userRepository.findByEmail(email).orElse(null))
-            .passwordEncoder(bCryptPasswordEncoder());
+            .userDetailsService((email) -> userRepository.findCredentialsByEmail(email).orElse(null))
+            .passwordEncoder(passwordHashingService)
+            .userDetailsPasswordManager((user, newPassword) -> {
+                UserCredentials credentials = (UserCredentials) user;
+                userRepository.updatePassword(credentials.id(), newPassword);
+                return credentials.withPasswordHash(newPassword);
+            });
     }
 
     @Bean
@@ -62,7 +87,13 @@ public class WebSecurity extends WebSecurityConfigurerAdapter {
     }
 
     @Bean
-    public BCryptPasswordEncoder bCryptPasswordEncoder() {
-        return new BCryptPasswordEncoder();
+    public JwtTokenVerifier jwtTokenVerifier() {
+        return new JwtTokenVerifier(securityConfig.getTokenCacheMaxSize(),
+                meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    @Bean
+    public TokenBucketStore tokenBucketStore() {
+        return new TokenBucketStore(4 * Runtime.getRuntime().availableProcessors());
     }
 }
@@ -6,9 +6,14 @@ import com.web.model.AdmissionFile;
 import com.web.model.enumeration.AdmissionFileStatus;
 import com.web.model.enumeration.UserRole;
 import com.web.service.AdmissionFileService;
+import com.web.service.DocumentExportService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.annotation.security.RolesAllowed;
 import java.net.URI;
@@ -21,11 +26,15 @@ public class AdmissionFileController {
 
     private final AdmissionFileService admissionFileService;
     private final AdmissionFileMapper admissionFileMapper;
+    private final DocumentExportService documentExportService;
 
     @Autowired
-    public AdmissionFileController(AdmissionFileService admissionFileService, AdmissionFileMapper admissionFileMapper) {
+    public AdmissionFileController(AdmissionFileService admissionFileService,
+                                   AdmissionFileMapper admissionFileMapper,
+                                   DocumentExportService documentExportService) {
         this.admissionFileService = admissionFileService;
         this.admissionFileMapper = admissionFileMapper;
+        this.documentExportService = documentExportService;
     }
 
     @PostMapping
@@ -58,6 +67,22 @@ public class AdmissionFileController {
         return ResponseEntity.ok(admissionFiles.stream().map(admissionFileMapper::mapToDto).toList());
     }
 
+    @GetMapping("/export")
+    @RolesAllowed(UserRole.Constants.ADMIN)
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(value = "status", defaultValue = "PENDING") AdmissionFileStatus status) {
+        return getZipResponse("admission-files-" + status.name().toLowerCase() + ".zip",
+                outputStream -> documentExportService.export(status, outputStream));
+    }
+
+    @GetMapping("/{id}/export")
+    @RolesAllowed(UserRole.Constants.ADMIN)
+    public ResponseEntity<StreamingResponseBody> exportById(@PathVariable("id") Long id) {
+        AdmissionFile admissionFile = documentExportService.getById(id);
+        return getZipResponse("admission-file-" + id + ".zip",
+                outputStream -> documentExportService.export(admissionFile, outputStream));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteById(@PathVariable("id") Long id) {
         admissionFileService.deleteById(id);
@@ -70,4 +95,11 @@ public class AdmissionFileController {
                                                      @RequestParam("status") AdmissionFileStatus status) {
         return ResponseEntity.ok(admissionFileMapper.mapToDto(admissionFileService.validate(id, status)));
     }
+
+    private ResponseEntity<StreamingResponseBody> getZipResponse(String fileName, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
 }
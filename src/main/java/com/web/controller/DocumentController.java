@@ -1,17 +1,35 @@
 package com.web.controller;
 
+import com.web.config.DocumentConfig;
 import com.web.dto.DocumentDto;
+import com.web.dto.DocumentPreviewDto;
+import com.web.dto.DocumentUploadUrlsDto;
+import com.web.dto.PresignedUrlDto;
 import com.web.mapper.DocumentMapper;
 import com.web.model.Document;
+import com.web.model.DocumentContent;
+import com.web.model.DocumentPreview;
+import com.web.model.PresignedUrl;
+import com.web.model.enumeration.DocumentPart;
+import com.web.model.enumeration.PreviewState;
 import com.web.model.enumeration.UserRole;
 import com.web.service.DocumentService;
-import org.springframework.http.ResponseEntity;
+import com.web.service.NonBlockingDocumentService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.annotation.security.RolesAllowed;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/documents")
@@ -19,10 +37,17 @@ public class DocumentController {
 
     private final DocumentService documentService;
     private final DocumentMapper documentMapper;
+    private final DocumentConfig documentConfig;
+    private final ObjectProvider<NonBlockingDocumentService> nonBlockingDocumentService;
 
-    public DocumentController(DocumentService documentService, DocumentMapper documentMapper) {
+    public DocumentController(DocumentService documentService,
+                              DocumentMapper documentMapper,
+                              DocumentConfig documentConfig,
+                              ObjectProvider<NonBlockingDocumentService> nonBlockingDocumentService) {
         this.documentService = documentService;
         this.documentMapper = documentMapper;
+        this.documentConfig = documentConfig;
+        this.nonBlockingDocumentService = nonBlockingDocumentService;
     }
 
     @RolesAllowed({UserRole.Constants.STUDENT})
@@ -46,11 +71,146 @@ public class DocumentController {
         return ResponseEntity.ok(documentMapper.mapToDto(document));
     }
 
+    @RolesAllowed({UserRole.Constants.STUDENT})
+    @PostMapping("/upload-urls")
+    public ResponseEntity<DocumentUploadUrlsDto> createUploadUrls() {
+        Map<DocumentPart, PresignedUrl> uploadUrls = documentService.createUploadUrls();
+        return ResponseEntity.ok(new DocumentUploadUrlsDto(
+                documentMapper.mapToDto(uploadUrls.get(DocumentPart.IDENTITY_CARD)),
+                documentMapper.mapToDto(uploadUrls.get(DocumentPart.MEDICAL_CERTIFICATE)),
+                documentMapper.mapToDto(uploadUrls.get(DocumentPart.DIPLOMA))));
+    }
+
+    @RolesAllowed({UserRole.Constants.STUDENT})
+    @PostMapping("/confirm")
+    public ResponseEntity<DocumentDto> confirmUpload() {
+        return ResponseEntity.ok(documentMapper.mapToDto(documentService.confirmUpload()));
+    }
+
+    @GetMapping("/{id}/{part}/url")
+    @RolesAllowed(UserRole.Constants.ADMIN)
+    public ResponseEntity<PresignedUrlDto> getDownloadUrl(@PathVariable("id") Long id,
+                                                          @PathVariable("part") DocumentPart part) {
+        return ResponseEntity.ok(documentMapper.mapToDto(documentService.getDownloadUrl(id, part)));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<DocumentDto> getById(@PathVariable("id") Long id) {
         return ResponseEntity.ok(documentMapper.mapToDto(documentService.getById(id)));
     }
 
+    @GetMapping("/{id}/{part}")
+    public ResponseEntity<StreamingResponseBody> download(@PathVariable("id") Long id,
+                                                          @PathVariable("part") DocumentPart part,
+                                                          @RequestHeader HttpHeaders headers,
+                                                          HttpServletRequest request,
+                                                          HttpServletResponse response) throws IOException {
+        DocumentContent content = documentService.getContent(id, part);
+        long contentLength = content.contentLength();
+
+        if (matchesETag(headers.getIfNoneMatch(), content.eTag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(content.eTag()).build();
+        }
+
+        long start = 0;
+        long end = contentLength - 1;
+        HttpStatus status = HttpStatus.OK;
+        HttpHeaders responseHeaders = new HttpHeaders();
+
+        try {
+            List<HttpRange> ranges = headers.getRange();
+            if (ranges.size() == 1) {
+                start = ranges.get(0).getRangeStart(contentLength);
+                end = ranges.get(0).getRangeEnd(contentLength);
+                if (start >= contentLength || start > end) {
+                    throw new IllegalArgumentException("Unsatisfiable range " + ranges.get(0));
+                }
+                status = HttpStatus.PARTIAL_CONTENT;
+                responseHeaders.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + contentLength);
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + contentLength)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(status)
+                .headers(responseHeaders)
+                .eTag(content.eTag())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(content.contentType() != null ?
+                        MediaType.parseMediaType(content.contentType()) : MediaType.APPLICATION_OCTET_STREAM)
+                .contentLength(end - start + 1);
+        if (end >= start && downloadNonBlocking(builder.build(), content, start, end, request, response)) {
+            return null;
+        }
+
+        long rangeStart = start;
+        long rangeEnd = end;
+        StreamingResponseBody body = outputStream -> {
+            if (rangeEnd < rangeStart) {
+                return;
+            }
+            try (InputStream inputStream = documentService.openContent(content, rangeStart, rangeEnd)) {
+                byte[] chunk = new byte[documentConfig.getDownloadChunkSize()];
+                int read;
+                while ((read = inputStream.read(chunk)) != -1) {
+                    outputStream.write(chunk, 0, read);
+                }
+            }
+        };
+
+        return builder.body(body);
+    }
+
+    @GetMapping("/{id}/{part}/preview")
+    public ResponseEntity<DocumentPreviewDto> getPreview(@PathVariable("id") Long id,
+                                                         @PathVariable("part") DocumentPart part) {
+        DocumentPreview preview = documentService.getPreview(id, part);
+        String url = preview.state() == PreviewState.READY ?
+                "/api/documents/" + id + "/" + part.getValue() + "/preview/" + preview.hash() : null;
+        return ResponseEntity.ok(new DocumentPreviewDto(preview.state(), preview.pageCount(), preview.width(),
+                preview.height(), url));
+    }
+
+    @GetMapping("/{id}/{part}/preview/{hash}")
+    public ResponseEntity<StreamingResponseBody> downloadPreview(@PathVariable("id") Long id,
+                                                                 @PathVariable("part") DocumentPart part,
+                                                                 @PathVariable("hash") String hash,
+                                                                 @RequestHeader HttpHeaders headers,
+                                                                 HttpServletRequest request,
+                                                                 HttpServletResponse response)
+            throws IOException {
+        DocumentContent content = documentService.getPreviewContent(id, part, hash);
+        // CacheControl has no immutable() before Spring 6, so the directive is appended by hand
+        String cacheControl = CacheControl.maxAge(documentConfig.getPreviewCacheMaxAgeDays(), TimeUnit.DAYS)
+                .cachePrivate()
+                .getHeaderValue() + ", immutable";
+
+        if (matchesETag(headers.getIfNoneMatch(), content.eTag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(content.eTag())
+                    .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(content.eTag())
+                .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                .contentType(MediaType.IMAGE_JPEG)
+                .contentLength(content.contentLength());
+        if (downloadNonBlocking(builder.build(), content, 0, content.contentLength() - 1, request, response)) {
+            return null;
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            try (InputStream inputStream = documentService.openContent(content, 0, content.contentLength() - 1)) {
+                inputStream.transferTo(outputStream);
+            }
+        };
+        return builder.body(body);
+    }
+
     @GetMapping
     @RolesAllowed(UserRole.Constants.ADMIN)
     public ResponseEntity<List<DocumentDto>> getAll() {
@@ -62,4 +222,24 @@ public class DocumentController {
         documentService.deleteById(id);
         return ResponseEntity.noContent().build();
     }
+
+    // Streams the body from S3 without holding a servlet thread, the status and headers stay those of the blocking path
+    private boolean downloadNonBlocking(ResponseEntity<?> head, DocumentContent content, long start, long end,
+                                        HttpServletRequest request, HttpServletResponse response) throws IOException {
+        NonBlockingDocumentService service = nonBlockingDocumentService.getIfAvailable();
+        if (service == null || !service.supports(content)) {
+            return false;
+        }
+
+        response.setStatus(head.getStatusCodeValue());
+        head.getHeaders().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        service.download(content, start, end, request);
+        return true;
+    }
+
+    private boolean matchesETag(List<String> ifNoneMatch, String eTag) {
+        return eTag != null && ifNoneMatch.stream()
+                .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                .anyMatch(tag -> tag.equals("*") || tag.equals("\"" + eTag + "\"") || tag.equals(eTag));
+    }
 }
@@ -0,0 +1,74 @@
+package com.web.controller;
+
+import com.web.dto.DocumentDto;
+import com.web.dto.UploadSessionDto;
+import com.web.mapper.DocumentMapper;
+import com.web.mapper.UploadSessionMapper;
+import com.web.model.UploadSession;
+import com.web.model.enumeration.DocumentPart;
+import com.web.model.enumeration.UserRole;
+import com.web.service.UploadSessionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import javax.annotation.security.RolesAllowed;
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.UUID;
+
+@Validated
+@RestController
+@RequestMapping("/api/documents/upload-sessions")
+public class UploadSessionController {
+
+    private final UploadSessionService uploadSessionService;
+    private final UploadSessionMapper uploadSessionMapper;
+    private final DocumentMapper documentMapper;
+
+    @Autowired
+    public UploadSessionController(UploadSessionService uploadSessionService,
+                                   UploadSessionMapper uploadSessionMapper,
+                                   DocumentMapper documentMapper) {
+        this.uploadSessionService = uploadSessionService;
+        this.uploadSessionMapper = uploadSessionMapper;
+        this.documentMapper = documentMapper;
+    }
+
+    @PostMapping
+    @RolesAllowed(UserRole.Constants.STUDENT)
+    public ResponseEntity<UploadSessionDto> create(@Valid @RequestBody UploadSessionDto uploadSessionDto) {
+        UploadSession uploadSession = uploadSessionService.create(uploadSessionDto.identityCardSize(),
+                uploadSessionDto.medicalCertificateSize(), uploadSessionDto.diplomaSize());
+        return ResponseEntity
+                .created(URI.create("/api/documents/upload-sessions/" + uploadSession.getId()))
+                .body(uploadSessionMapper.mapToDto(uploadSession));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<UploadSessionDto> getById(@PathVariable("id") UUID id) {
+        return ResponseEntity.ok(uploadSessionMapper.mapToDto(uploadSessionService.getById(id)));
+    }
+
+    @RolesAllowed(UserRole.Constants.STUDENT)
+    @PutMapping(value = "/{id}/{part}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<UploadSessionDto> appendChunk(@PathVariable("id") UUID id,
+                                                        @PathVariable("part") DocumentPart part,
+                                                        @RequestParam("offset") @Min(0) long offset,
+                                                        @RequestHeader(HttpHeaders.CONTENT_LENGTH) long contentLength,
+                                                        InputStream body) {
+        UploadSession uploadSession = uploadSessionService.appendChunk(id, part, offset, contentLength, body);
+        return ResponseEntity.ok(uploadSessionMapper.mapToDto(uploadSession));
+    }
+
+    @RolesAllowed(UserRole.Constants.STUDENT)
+    @PostMapping("/{id}/complete")
+    public ResponseEntity<DocumentDto> complete(@PathVariable("id") UUID id) {
+        return ResponseEntity.ok(documentMapper.mapToDto(uploadSessionService.complete(id)));
+    }
+}
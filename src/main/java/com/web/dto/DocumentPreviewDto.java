@@ -0,0 +1,6 @@
+package com.web.dto;
+
+import com.web.model.enumeration.PreviewState;
+
+public record DocumentPreviewDto(PreviewState state, Integer pageCount, Integer width, Integer height, String url) {
+}
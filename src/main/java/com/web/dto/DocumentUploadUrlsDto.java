@@ -0,0 +1,8 @@
+package com.web.dto;
+
+public record DocumentUploadUrlsDto(
+        PresignedUrlDto identityCard,
+        PresignedUrlDto medicalCertificate,
+        PresignedUrlDto diploma
+        ) {
+}
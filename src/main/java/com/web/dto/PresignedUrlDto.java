@@ -0,0 +1,6 @@
+package com.web.dto;
+
+import java.time.Instant;
+
+public record PresignedUrlDto(String url, Instant expiresAt) {
+}
@@ -0,0 +1,4 @@
+package com.web.dto;
+
+public record UploadPartDto(long size, long offset) {
+}
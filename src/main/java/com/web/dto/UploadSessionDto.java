@@ -0,0 +1,37 @@
+package com.web.dto;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Null;
+import javax.validation.constraints.Positive;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record UploadSessionDto(
+        @Null
+        UUID id,
+
+        @NotNull
+        @Positive
+        Long identityCardSize,
+
+        @NotNull
+        @Positive
+        Long medicalCertificateSize,
+
+        @NotNull
+        @Positive
+        Long diplomaSize,
+
+        @Null
+        UploadPartDto identityCard,
+
+        @Null
+        UploadPartDto medicalCertificate,
+
+        @Null
+        UploadPartDto diploma,
+
+        @Null
+        LocalDateTime expiresAt
+        ) {
+}
@@ -11,7 +11,17 @@ public enum ErrorMessage {
     NOT_FOUND(3, "The {0} with id={1} was not found!"),
     FORBIDDEN(5, "Forbidden action. {0}!"),
     INVALID_CONTENT_TYPE(6, "Invalid content type for {0}, expected one of {1}!"),
-    ADMISSION_FILE_ALREADY_SUBMITTED(7, "The admission file is already submitted!");
+    ADMISSION_FILE_ALREADY_SUBMITTED(7, "The admission file is already submitted!"),
+    SERVICE_UNAVAILABLE(8, "The {0} cannot be handled right now, please try again later!"),
+    FILE_TOO_LARGE(9, "The {0} exceeds the maximum size of {1} bytes!"),
+    UNSUPPORTED_OPERATION(10, "The {0} is not supported by the configured document storage!"),
+    DOCUMENT_NOT_STORED(11, "The {0} is not stored yet (state: {1})!"),
+    UPLOAD_OFFSET_MISMATCH(12, "The {0} upload continues at offset {1}, but the chunk starts at offset {2}!"),
+    INVALID_CHUNK(13, "Invalid chunk for {0}. {1}!"),
+    UPLOAD_INCOMPLETE(14, "The {0} upload is incomplete ({1} of {2} bytes received)!"),
+    TOO_MANY_REQUESTS(15, "Too many {0} requests, please try again in {1} seconds!"),
+    UPLOAD_IN_PROGRESS(16, "The {0} upload is already receiving a chunk, please try again once it is done!"),
+    DOCUMENT_NOT_MIGRATED(17, "The documents are being moved to the new storage, please try again later!");
 
     private final int errorCode;
     private final String errorMessage;
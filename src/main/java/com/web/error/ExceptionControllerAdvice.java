@@ -2,6 +2,9 @@ package com.web.error;
 
 import com.fasterxml.jackson.databind.exc.InvalidFormatException;
 import com.web.error.exception.AbstractApiException;
+import com.web.error.exception.ServiceUnavailableException;
+import com.web.error.exception.TooManyRequestsException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -30,6 +33,23 @@ public class ExceptionControllerAdvice {
                 .body(getSingleErrorResponse(exception.getErrorCode(), exception.getMessage()));
     }
 
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> handleServiceUnavailable(ServiceUnavailableException exception) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(exception.getHttpStatus());
+        if (exception.getRetryAfterSeconds() != null) {
+            response.header(HttpHeaders.RETRY_AFTER, exception.getRetryAfterSeconds().toString());
+        }
+        return response.body(getSingleErrorResponse(exception.getErrorCode(), exception.getMessage()));
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> handleTooManyRequests(TooManyRequestsException exception) {
+        return ResponseEntity
+                .status(exception.getHttpStatus())
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(exception.getRetryAfterSeconds()))
+                .body(getSingleErrorResponse(exception.getErrorCode(), exception.getMessage()));
+    }
+
     @ExceptionHandler
     public ResponseEntity<ErrorResponse> handleNotAllowed(HttpClientErrorException.MethodNotAllowed exception) {
         return ResponseEntity
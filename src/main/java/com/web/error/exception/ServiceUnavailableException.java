@@ -0,0 +1,19 @@
+package com.web.error.exception;
+
+import com.web.error.ErrorMessage;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class ServiceUnavailableException extends AbstractApiException {
+    private final Long retryAfterSeconds;
+
+    public ServiceUnavailableException(ErrorMessage errorMessage, Object... params) {
+        this(null, errorMessage, params);
+    }
+
+    public ServiceUnavailableException(Long retryAfterSeconds, ErrorMessage errorMessage, Object... params) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, errorMessage, params);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
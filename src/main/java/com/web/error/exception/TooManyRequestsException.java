@@ -0,0 +1,15 @@
+package com.web.error.exception;
+
+import com.web.error.ErrorMessage;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class TooManyRequestsException extends AbstractApiException {
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(long retryAfterSeconds, ErrorMessage errorMessage, Object... params) {
+        super(HttpStatus.TOO_MANY_REQUESTS, errorMessage, params);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
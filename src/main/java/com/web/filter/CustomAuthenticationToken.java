@@ -1,22 +1,18 @@
 package com.web.filter;
 
-import com.sun.istack.Nullable;
+import com.web.model.AuthenticatedUser;
 import lombok.Getter;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
 
-import java.util.HashMap;
-import java.util.Map;
-
 @Getter
 public class CustomAuthenticationToken extends UsernamePasswordAuthenticationToken {
 
-    private final Map<String, String> claims = new HashMap<>();
+    private final AuthenticatedUser user;
 
-    public CustomAuthenticationToken(Object principal, Map<String, String> claims,
-                                     @Nullable java.util.Collection<? extends GrantedAuthority> authorities) {
-        super(principal, null, authorities);
+    public CustomAuthenticationToken(AuthenticatedUser user) {
+        super(user, null, user.roles().stream().map(role -> (GrantedAuthority) role::name).toList());
 
-        this.claims.putAll(claims);
+        this.user = user;
     }
 }
@@ -1,15 +1,17 @@
 package com.web.filter;
 
 import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.web.error.exception.ServiceUnavailableException;
 import com.web.model.User;
-import com.web.service.UserService;
+import com.web.model.UserCredentials;
 import org.springframework.context.ApplicationContext;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
 
 import javax.servlet.FilterChain;
 import javax.servlet.http.HttpServletRequest;
@@ -22,6 +24,8 @@ import static com.web.util.SecurityConstants.*;
 
 public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilter {
 
+    private static final ObjectReader CREDENTIALS_READER = new ObjectMapper().readerFor(User.class);
+
     private final AuthenticationManager authenticationManager;
     private final ApplicationContext context;
 
@@ -35,7 +39,7 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
     @Override
     public Authentication attemptAuthentication(HttpServletRequest req, HttpServletResponse res) {
         try {
-            User credentials = new ObjectMapper().readValue(req.getInputStream(), User.class);
+            User credentials = CREDENTIALS_READER.readValue(req.getInputStream());
 
             return authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
@@ -43,6 +47,11 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
                             credentials.getPassword()
                     )
             );
+        } catch (ServiceUnavailableException e) {
+            // A saturated hashing executor is answered with a 503 and Retry-After instead of escaping the filter chain
+            context.getBean("handlerExceptionResolver", HandlerExceptionResolver.class)
+                    .resolveException(req, res, null, e);
+            return null;
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -51,15 +60,15 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
     @Override
     protected void successfulAuthentication(HttpServletRequest req, HttpServletResponse res, FilterChain chain,
                                             Authentication auth) throws IOException {
-        UserService userService = context.getBean(UserService.class);
-        User user = userService.getByEmail(((User) auth.getPrincipal()).getEmail());
+        // The principal is the projection the password was checked against, so the user is not read again
+        UserCredentials user = (UserCredentials) auth.getPrincipal();
 
         String token = JWT.create()
-                .withSubject(user.getEmail())
-                .withClaim(USER_ID, user.getId().toString())
-                .withClaim(AUTHORITIES, List.of(user.getRole().name()))
+                .withSubject(user.email())
+                .withClaim(USER_ID, user.id().toString())
+                .withClaim(AUTHORITIES, List.of(user.role().name()))
                 .withExpiresAt(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .sign(Algorithm.HMAC512(SECRET.getBytes()));
+                .sign(ALGORITHM);
 
         res.setHeader("Authorization", token);
         res.getWriter().flush();
@@ -1,11 +1,7 @@
 package com.web.filter;
 
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
-import com.auth0.jwt.interfaces.DecodedJWT;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
@@ -14,16 +10,22 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 import static com.web.util.SecurityConstants.*;
 
 public class JwtAuthorizationFilter extends BasicAuthenticationFilter {
 
-    public JwtAuthorizationFilter(AuthenticationManager authManager) {
+    private final JwtTokenVerifier jwtTokenVerifier;
+
+    public JwtAuthorizationFilter(AuthenticationManager authManager, JwtTokenVerifier jwtTokenVerifier) {
         super(authManager);
+        this.jwtTokenVerifier = jwtTokenVerifier;
+    }
+
+    // Spooled uploads reach the controller on an async dispatch, which must be authenticated as well
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
     }
 
     @Override
@@ -44,20 +46,7 @@ public class JwtAuthorizationFilter extends BasicAuthenticationFilter {
         String token = request.getHeader(HEADER_STRING);
 
         if (token != null) {
-            DecodedJWT decodedJWT = JWT.require(Algorithm.HMAC512(SECRET.getBytes()))
-                    .build()
-                    .verify(token.replace(TOKEN_PREFIX, ""));
-
-            if (decodedJWT.getSubject() != null) {
-                List<String> authorities = decodedJWT.getClaim(AUTHORITIES).asList(String.class);
-                Map<String, String> claims = new HashMap<>();
-                claims.put(USER_ID, decodedJWT.getClaim(USER_ID).as(String.class));
-
-                return new CustomAuthenticationToken(decodedJWT.getSubject(), claims,
-                        authorities.stream().map(authority -> (GrantedAuthority) () -> authority).toList());
-            }
-
-            return null;
+            return jwtTokenVerifier.verify(token.replace(TOKEN_PREFIX, ""));
         }
 
         return null;
@@ -0,0 +1,106 @@
+package com.web.filter;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import com.web.model.AuthenticatedUser;
+import com.web.model.enumeration.UserRole;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.web.util.SecurityConstants.*;
+
+/**
+ * Verifies bearer tokens with a single shared verifier and remembers the authentication built for each verified
+ * token until the token expires, so a client repeating the same token skips the signature check.
+ */
+public class JwtTokenVerifier {
+
+    private final JWTVerifier verifier = JWT.require(ALGORITHM).build();
+    private final Cache<String, VerifiedToken> verifiedTokens;
+    private final Counter hits;
+    private final Counter misses;
+
+    public JwtTokenVerifier(long cacheMaxSize, MeterRegistry meterRegistry) {
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new UntilTokenExpires())
+                .build();
+
+        this.hits = meterRegistry.counter("security.token.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("security.token.cache.requests", "result", "miss");
+        Gauge.builder("security.token.cache.size", verifiedTokens, Cache::estimatedSize)
+                .register(meterRegistry);
+    }
+
+    public CustomAuthenticationToken verify(String token) {
+        // Keyed by digest, so the cache never holds a usable bearer token
+        String key = digest(token);
+        VerifiedToken verifiedToken = verifiedTokens.getIfPresent(key);
+        if (verifiedToken != null) {
+            hits.increment();
+            return verifiedToken.authentication();
+        }
+        misses.increment();
+
+        DecodedJWT decodedJWT = verifier.verify(token);
+        if (decodedJWT.getSubject() == null) {
+            return null;
+        }
+
+        List<UserRole> roles = decodedJWT.getClaim(AUTHORITIES).asList(String.class).stream()
+                .map(UserRole::valueOf)
+                .toList();
+        AuthenticatedUser user = new AuthenticatedUser(UUID.fromString(decodedJWT.getClaim(USER_ID).asString()),
+                decodedJWT.getSubject(), Set.copyOf(roles));
+        CustomAuthenticationToken authentication = new CustomAuthenticationToken(user);
+
+        if (decodedJWT.getExpiresAt() != null) {
+            verifiedTokens.put(key, new VerifiedToken(authentication, decodedJWT.getExpiresAt().getTime()));
+        }
+        return authentication;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record VerifiedToken(CustomAuthenticationToken authentication, long expiresAtMillis) {
+    }
+
+    private static class UntilTokenExpires implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.expiresAtMillis() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
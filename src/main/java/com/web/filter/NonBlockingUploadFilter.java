@@ -0,0 +1,82 @@
+package com.web.filter;
+
+import com.web.config.DocumentConfig;
+import com.web.error.ErrorMessage;
+import com.web.error.exception.BadRequestException;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class NonBlockingUploadFilter extends OncePerRequestFilter {
+
+    private static final String SPOOLED_BODY_ATTRIBUTE = NonBlockingUploadFilter.class.getName() + ".SPOOLED_BODY";
+
+    private final DocumentConfig documentConfig;
+    private final HandlerExceptionResolver handlerExceptionResolver;
+
+    public NonBlockingUploadFilter(DocumentConfig documentConfig, HandlerExceptionResolver handlerExceptionResolver) {
+        this.documentConfig = documentConfig;
+        this.handlerExceptionResolver = handlerExceptionResolver;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest req) {
+        boolean upload = HttpMethod.POST.matches(req.getMethod()) || HttpMethod.PUT.matches(req.getMethod());
+        String contentType = req.getContentType() == null ? "" : req.getContentType().toLowerCase();
+        return !upload || !(contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE) ||
+                contentType.startsWith(MediaType.APPLICATION_OCTET_STREAM_VALUE));
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws ServletException, IOException {
+        Path body = (Path) req.getAttribute(SPOOLED_BODY_ATTRIBUTE);
+        if (req.getDispatcherType() == DispatcherType.ASYNC) {
+            if (body == null) {
+                chain.doFilter(req, res);
+                return;
+            }
+            try {
+                chain.doFilter(new SpooledBodyRequest(req, body), res);
+            } finally {
+                Files.deleteIfExists(body);
+            }
+            return;
+        }
+
+        long maxRequestSize = documentConfig.getMaxRequestSize().toBytes();
+        if (req.getContentLengthLong() > maxRequestSize) {
+            handlerExceptionResolver.resolveException(req, res, null,
+                    new BadRequestException(ErrorMessage.FILE_TOO_LARGE, "request", maxRequestSize));
+            return;
+        }
+
+        // The controller only runs once the whole body is on local disk, on a dispatch that goes through the security
+        // filters again, so it parses the multipart body without waiting on the client
+        Path directory = Path.of(documentConfig.getStagingDirectory());
+        Files.createDirectories(directory);
+        body = Files.createTempFile(directory, "request-", ".body");
+        req.setAttribute(SPOOLED_BODY_ATTRIBUTE, body);
+
+        AsyncContext asyncContext = req.startAsync();
+        asyncContext.setTimeout(documentConfig.getTransferTimeoutMs());
+        req.getInputStream().setReadListener(new RequestBodySpooler(asyncContext, body, maxRequestSize,
+                handlerExceptionResolver));
+    }
+}
@@ -0,0 +1,123 @@
+package com.web.filter;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.web.config.SecurityConfig;
+import com.web.error.ErrorMessage;
+import com.web.error.exception.TooManyRequestsException;
+import com.web.model.RateLimit;
+import com.web.model.enumeration.RateLimitedRoute;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.web.util.SecurityConstants.*;
+
+/**
+ * Limits logins and document uploads per client address and, for uploads, per user, before any password is hashed
+ * or any upload body is read.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String LOGIN_URL = "/api/users/login";
+    private static final String DOCUMENTS_URL = "/api/documents";
+    private static final String UPLOAD_SESSIONS_URL = DOCUMENTS_URL + "/upload-sessions";
+
+    private final TokenBucketStore tokenBucketStore;
+    private final JwtTokenVerifier jwtTokenVerifier;
+    private final ApplicationContext context;
+    private final boolean enabled;
+    private final Map<RateLimitedRoute, RateLimit> ipRateLimits = new EnumMap<>(RateLimitedRoute.class);
+    private final Map<RateLimitedRoute, RateLimit> userRateLimits = new EnumMap<>(RateLimitedRoute.class);
+
+    public RateLimitFilter(SecurityConfig securityConfig, TokenBucketStore tokenBucketStore,
+                           JwtTokenVerifier jwtTokenVerifier, ApplicationContext context) {
+        this.tokenBucketStore = tokenBucketStore;
+        this.jwtTokenVerifier = jwtTokenVerifier;
+        this.context = context;
+        this.enabled = securityConfig.isRateLimitEnabled();
+        for (RateLimitedRoute route : RateLimitedRoute.values()) {
+            ipRateLimits.put(route, securityConfig.getIpRateLimit(route));
+            userRateLimits.put(route, securityConfig.getUserRateLimit(route));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest req) {
+        return !enabled || getRoute(req) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws ServletException, IOException {
+        RateLimitedRoute route = getRoute(req);
+
+        long waitNanos = acquire(route.name() + ":ip:" + req.getRemoteAddr(), ipRateLimits.get(route));
+        if (waitNanos == 0 && userRateLimits.get(route).isEnabled()) {
+            String userId = getUserId(req);
+            if (userId != null) {
+                waitNanos = acquire(route.name() + ":user:" + userId, userRateLimits.get(route));
+            }
+        }
+
+        if (waitNanos > 0) {
+            long retryAfterSeconds = TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999);
+            context.getBean("handlerExceptionResolver", HandlerExceptionResolver.class).resolveException(req, res,
+                    null, new TooManyRequestsException(retryAfterSeconds, ErrorMessage.TOO_MANY_REQUESTS,
+                            route.getDescription(), retryAfterSeconds));
+            return;
+        }
+        chain.doFilter(req, res);
+    }
+
+    private long acquire(String key, RateLimit rateLimit) {
+        return rateLimit.isEnabled() ? tokenBucketStore.tryAcquire(key, rateLimit) : 0;
+    }
+
+    // Only a verified token names a user, otherwise anyone could drain someone else's bucket. A rejected token is
+    // left to the authorization filter and the request is only limited by its address.
+    private String getUserId(HttpServletRequest req) {
+        String header = req.getHeader(HEADER_STRING);
+        if (header == null || !header.startsWith(TOKEN_PREFIX)) {
+            return null;
+        }
+        try {
+            CustomAuthenticationToken authentication = jwtTokenVerifier.verify(header.replace(TOKEN_PREFIX, ""));
+            return authentication == null ? null : authentication.getUser().id().toString();
+        } catch (JWTVerificationException e) {
+            return null;
+        }
+    }
+
+    private static RateLimitedRoute getRoute(HttpServletRequest req) {
+        String path = req.getServletPath();
+        if (HttpMethod.POST.matches(req.getMethod()) && LOGIN_URL.equals(path)) {
+            return RateLimitedRoute.LOGIN;
+        }
+
+        // A resumable upload counts once, when its session is created, and not for every chunk or retried chunk
+        if (path.equals(UPLOAD_SESSIONS_URL) || path.startsWith(UPLOAD_SESSIONS_URL + "/")) {
+            return HttpMethod.POST.matches(req.getMethod()) && path.equals(UPLOAD_SESSIONS_URL)
+                    ? RateLimitedRoute.DOCUMENT_UPLOAD : null;
+        }
+
+        boolean upload = HttpMethod.POST.matches(req.getMethod()) || HttpMethod.PUT.matches(req.getMethod());
+        String contentType = req.getContentType() == null ? "" : req.getContentType().toLowerCase();
+        if (upload && (path.equals(DOCUMENTS_URL) || path.startsWith(DOCUMENTS_URL + "/")) &&
+                (contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE) ||
+                        contentType.startsWith(MediaType.APPLICATION_OCTET_STREAM_VALUE))) {
+            return RateLimitedRoute.DOCUMENT_UPLOAD;
+        }
+        return null;
+    }
+}
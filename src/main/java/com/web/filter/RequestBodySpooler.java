@@ -0,0 +1,127 @@
+package com.web.filter;
+
+import com.web.error.ErrorMessage;
+import com.web.error.exception.BadRequestException;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Copies the request body to a local file as the container reports it readable, then dispatches the request again.
+ * A slow client therefore holds a file handle instead of a servlet thread.
+ */
+class RequestBodySpooler implements ReadListener, AsyncListener {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final AsyncContext asyncContext;
+    private final ServletInputStream inputStream;
+    private final Path file;
+    private final FileChannel channel;
+    private final long maxBytes;
+    private final HandlerExceptionResolver handlerExceptionResolver;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final AtomicBoolean done = new AtomicBoolean();
+    private long receivedBytes;
+
+    RequestBodySpooler(AsyncContext asyncContext, Path file, long maxBytes,
+                       HandlerExceptionResolver handlerExceptionResolver) throws IOException {
+        this.asyncContext = asyncContext;
+        this.inputStream = asyncContext.getRequest().getInputStream();
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.maxBytes = maxBytes;
+        this.handlerExceptionResolver = handlerExceptionResolver;
+        asyncContext.addListener(this);
+    }
+
+    @Override
+    public void onDataAvailable() throws IOException {
+        while (!done.get() && inputStream.isReady()) {
+            int read = inputStream.read(buffer);
+            if (read < 0) {
+                return;
+            }
+            receivedBytes += read;
+            if (receivedBytes > maxBytes) {
+                reject(new BadRequestException(ErrorMessage.FILE_TOO_LARGE, "request", maxBytes));
+                return;
+            }
+            ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+            while (chunk.hasRemaining()) {
+                channel.write(chunk);
+            }
+        }
+    }
+
+    @Override
+    public void onAllDataRead() throws IOException {
+        if (done.compareAndSet(false, true)) {
+            channel.close();
+            asyncContext.dispatch();
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        abort();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        if (!done.get()) {
+            ((HttpServletResponse) event.getSuppliedResponse()).setStatus(HttpServletResponse.SC_REQUEST_TIMEOUT);
+        }
+        abort();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+        abort();
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+        abort();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+    }
+
+    private void reject(Exception exception) {
+        handlerExceptionResolver.resolveException((HttpServletRequest) asyncContext.getRequest(),
+                (HttpServletResponse) asyncContext.getResponse(), null, exception);
+        abort();
+    }
+
+    // Only cleans up when the body never made it to the dispatched request, which deletes the file itself
+    private void abort() {
+        if (done.compareAndSet(false, true)) {
+            try {
+                channel.close();
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            try {
+                asyncContext.complete();
+            } catch (IllegalStateException e) {
+                // Already completed by the container
+            }
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.web.filter;
+
+import com.web.storage.ByteBufferInputStream;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.Part;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Serves a request whose body was spooled to a local file, including the multipart parts that the servlet container
+ * would otherwise parse from the network.
+ */
+class SpooledBodyRequest extends HttpServletRequestWrapper {
+
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] HEADERS_END = {'\r', '\n', '\r', '\n'};
+
+    private final Path body;
+    private ByteBuffer content;
+    private List<Part> parts;
+
+    SpooledBodyRequest(HttpServletRequest request, Path body) {
+        super(request);
+        this.body = body;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        ByteBufferInputStream inputStream = new ByteBufferInputStream(getContent().duplicate());
+        return new ServletInputStream() {
+            @Override
+            public int read() throws IOException {
+                return inputStream.read();
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException {
+                return inputStream.read(bytes, offset, length);
+            }
+
+            @Override
+            public int available() throws IOException {
+                return inputStream.available();
+            }
+
+            @Override
+            public boolean isFinished() {
+                return inputStream.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                throw new IllegalStateException("The spooled body is read synchronously");
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        String encoding = getCharacterEncoding();
+        Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.ISO_8859_1;
+        return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+    }
+
+    @Override
+    public int getContentLength() {
+        return (int) getContentLengthLong();
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        try {
+            return Files.size(body);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public Collection<Part> getParts() throws IOException, ServletException {
+        if (parts == null) {
+            parts = parseParts();
+        }
+        return parts;
+    }
+
+    @Override
+    public Part getPart(String name) throws IOException, ServletException {
+        return getParts().stream()
+                .filter(part -> part.getName().equals(name))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private ByteBuffer getContent() throws IOException {
+        if (content == null) {
+            try (FileChannel channel = FileChannel.open(body, StandardOpenOption.READ)) {
+                content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+        return content;
+    }
+
+    private List<Part> parseParts() throws IOException, ServletException {
+        String boundary = getContentType() == null ? null :
+                MediaType.parseMediaType(getContentType()).getParameter("boundary");
+        if (boundary == null) {
+            throw new ServletException("The request is not a multipart request");
+        }
+        boundary = boundary.startsWith("\"") ? boundary.substring(1, boundary.length() - 1) : boundary;
+        byte[] dashBoundary = ("--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        byte[] delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+
+        ByteBuffer buffer = getContent();
+        List<Part> result = new ArrayList<>();
+        int position = indexOf(buffer, dashBoundary, 0);
+        if (position < 0) {
+            throw new ServletException("The multipart body does not contain its boundary");
+        }
+        position += dashBoundary.length;
+
+        while (position + 2 <= buffer.limit() && !(buffer.get(position) == '-' && buffer.get(position + 1) == '-')) {
+            int headersStart = position + CRLF.length;
+            int headersEnd = indexOf(buffer, HEADERS_END, headersStart);
+            if (headersEnd < 0) {
+                throw new ServletException("The multipart body ends inside the headers of a part");
+            }
+            int bodyStart = headersEnd + HEADERS_END.length;
+            int bodyEnd = indexOf(buffer, delimiter, bodyStart);
+            if (bodyEnd < 0) {
+                throw new ServletException("The multipart body ends inside a part");
+            }
+
+            HttpHeaders headers = parseHeaders(buffer.slice(headersStart, headersEnd - headersStart));
+            result.add(new SpooledPart(headers, buffer.slice(bodyStart, bodyEnd - bodyStart)));
+            position = bodyEnd + delimiter.length;
+        }
+        return result;
+    }
+
+    private HttpHeaders parseHeaders(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        HttpHeaders headers = new HttpHeaders();
+        for (String line : new String(bytes, StandardCharsets.UTF_8).split("\r\n")) {
+            int separator = line.indexOf(':');
+            if (separator > 0) {
+                headers.add(line.substring(0, separator).trim(), line.substring(separator + 1).trim());
+            }
+        }
+        return headers;
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte[] pattern, int from) {
+        int last = buffer.limit() - pattern.length;
+        for (int i = from; i <= last; i++) {
+            if (buffer.get(i) != pattern[0]) {
+                continue;
+            }
+            int matched = 1;
+            while (matched < pattern.length && buffer.get(i + matched) == pattern[matched]) {
+                matched++;
+            }
+            if (matched == pattern.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private record SpooledPart(HttpHeaders headers, ByteBuffer content) implements Part {
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteBufferInputStream(content.duplicate());
+        }
+
+        @Override
+        public String getContentType() {
+            return headers.getFirst(HttpHeaders.CONTENT_TYPE);
+        }
+
+        @Override
+        public String getName() {
+            return getContentDisposition().getName();
+        }
+
+        @Override
+        public String getSubmittedFileName() {
+            return getContentDisposition().getFilename();
+        }
+
+        @Override
+        public long getSize() {
+            return content.remaining();
+        }
+
+        @Override
+        public void write(String fileName) throws IOException {
+            try (InputStream inputStream = getInputStream()) {
+                Files.copy(inputStream, Path.of(fileName), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        @Override
+        public void delete() {
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return headers.getFirst(name);
+        }
+
+        @Override
+        public Collection<String> getHeaders(String name) {
+            return headers.getOrEmpty(name);
+        }
+
+        @Override
+        public Collection<String> getHeaderNames() {
+            return headers.keySet();
+        }
+
+        private ContentDisposition getContentDisposition() {
+            String contentDisposition = headers.getFirst(HttpHeaders.CONTENT_DISPOSITION);
+            return contentDisposition != null ? ContentDisposition.parse(contentDisposition) :
+                    ContentDisposition.empty();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.web.filter;
+
+import com.web.model.RateLimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets kept as a single timestamp each: the time at which the bucket would be full again. Taking a token is
+ * one compare-and-set, and a bucket whose timestamp has passed is full, so dropping it loses nothing. Keys are spread
+ * over stripes that each sweep out their full buckets now and then, on whichever request finds the sweep due.
+ */
+public class TokenBucketStore {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final Stripe[] stripes;
+    private final LongSupplier nanoClock;
+
+    public TokenBucketStore(int stripeCount) {
+        this(stripeCount, System::nanoTime);
+    }
+
+    TokenBucketStore(int stripeCount, LongSupplier nanoClock) {
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new Stripe[size];
+        this.nanoClock = nanoClock;
+        long now = nanoClock.getAsLong();
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(now + SWEEP_INTERVAL_NANOS);
+        }
+    }
+
+    /**
+     * Takes a token from the bucket of the given key, returning 0 when one was available and otherwise the
+     * nanoseconds until the next one is.
+     */
+    public long tryAcquire(String key, RateLimit rateLimit) {
+        long now = nanoClock.getAsLong();
+        Stripe stripe = stripes[spread(key.hashCode()) & (stripes.length - 1)];
+        stripe.sweepIfDue(now);
+
+        AtomicLong fullAt = stripe.buckets.get(key);
+        if (fullAt == null) {
+            AtomicLong created = new AtomicLong(now);
+            fullAt = stripe.buckets.putIfAbsent(key, created);
+            fullAt = fullAt == null ? created : fullAt;
+        }
+
+        long refillInterval = rateLimit.getRefillIntervalNanos();
+        long burst = refillInterval * rateLimit.capacity();
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + refillInterval;
+            long wait = next - now - burst;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.buckets.size();
+        }
+        return size;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static class Stripe {
+
+        private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicLong nextSweep;
+
+        private Stripe(long nextSweep) {
+            this.nextSweep = new AtomicLong(nextSweep);
+        }
+
+        private void sweepIfDue(long now) {
+            long due = nextSweep.get();
+            if (now - due >= 0 && nextSweep.compareAndSet(due, now + SWEEP_INTERVAL_NANOS)) {
+                // A request racing with the sweep may take its token from a dropped bucket, which at worst lets one
+                // extra request through
+                buckets.values().removeIf(fullAt -> fullAt.get() - now <= 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.web.filter;
+
+import com.web.error.exception.ServiceUnavailableException;
+import com.web.service.UploadBudgetService;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class UploadBudgetFilter extends OncePerRequestFilter {
+
+    private final UploadBudgetService uploadBudgetService;
+    private final HandlerExceptionResolver handlerExceptionResolver;
+
+    public UploadBudgetFilter(UploadBudgetService uploadBudgetService,
+                              HandlerExceptionResolver handlerExceptionResolver) {
+        this.uploadBudgetService = uploadBudgetService;
+        this.handlerExceptionResolver = handlerExceptionResolver;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest req) {
+        boolean upload = HttpMethod.POST.matches(req.getMethod()) || HttpMethod.PUT.matches(req.getMethod());
+        String contentType = req.getContentType() == null ? "" : req.getContentType().toLowerCase();
+        return !upload || !(contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE) ||
+                contentType.startsWith(MediaType.APPLICATION_OCTET_STREAM_VALUE));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws ServletException, IOException {
+        long reservedBytes;
+        try {
+            reservedBytes = uploadBudgetService.acquire(req.getContentLengthLong());
+        } catch (ServiceUnavailableException e) {
+            handlerExceptionResolver.resolveException(req, res, null, e);
+            return;
+        }
+
+        try {
+            chain.doFilter(req, res);
+        } finally {
+            if (req.isAsyncStarted()) {
+                // The body is still being received, so the reservation lasts until the async request completes
+                req.getAsyncContext().addListener(new ReleasingListener(reservedBytes));
+            } else {
+                uploadBudgetService.release(reservedBytes);
+            }
+        }
+    }
+
+    private class ReleasingListener implements AsyncListener {
+
+        private final long reservedBytes;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ReleasingListener(long reservedBytes) {
+            this.reservedBytes = reservedBytes;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                uploadBudgetService.release(reservedBytes);
+            }
+        }
+    }
+}
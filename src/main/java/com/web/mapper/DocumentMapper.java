@@ -1,7 +1,9 @@
 package com.web.mapper;
 
 import com.web.dto.DocumentDto;
+import com.web.dto.PresignedUrlDto;
 import com.web.model.Document;
+import com.web.model.PresignedUrl;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -13,4 +15,6 @@ public interface DocumentMapper {
 
     @Mapping(target = "user.id", source = "userId")
     Document mapToEntity(DocumentDto documentDto);
+
+    PresignedUrlDto mapToDto(PresignedUrl presignedUrl);
 }
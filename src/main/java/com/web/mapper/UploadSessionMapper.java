@@ -0,0 +1,19 @@
+package com.web.mapper;
+
+import com.web.dto.UploadPartDto;
+import com.web.dto.UploadSessionDto;
+import com.web.model.UploadSession;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring", imports = UploadPartDto.class)
+public interface UploadSessionMapper {
+
+    @Mapping(target = "identityCard", expression =
+            "java(new UploadPartDto(uploadSession.getIdentityCardSize(), uploadSession.getIdentityCardOffset()))")
+    @Mapping(target = "medicalCertificate", expression =
+            "java(new UploadPartDto(uploadSession.getMedicalCertificateSize(), uploadSession.getMedicalCertificateOffset()))")
+    @Mapping(target = "diploma", expression =
+            "java(new UploadPartDto(uploadSession.getDiplomaSize(), uploadSession.getDiplomaOffset()))")
+    UploadSessionDto mapToDto(UploadSession uploadSession);
+}
@@ -0,0 +1,29 @@
+package com.web.model;
+
+import com.web.model.enumeration.UserRole;
+
+import java.security.Principal;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The caller of a request, parsed once from its token so that ownership and role checks compare values instead of
+ * strings.
+ */
+public record AuthenticatedUser(UUID id, String email, Set<UserRole> roles) implements Principal {
+
+    public AuthenticatedUser {
+        roles = roles.isEmpty() ? Set.of() : Collections.unmodifiableSet(EnumSet.copyOf(roles));
+    }
+
+    public boolean hasRole(UserRole role) {
+        return roles.contains(role);
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
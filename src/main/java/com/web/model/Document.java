@@ -1,5 +1,8 @@
 package com.web.model;
 
+import com.web.model.enumeration.DocumentPart;
+import com.web.model.enumeration.StorageLayout;
+import com.web.model.enumeration.StorageState;
 import lombok.Data;
 
 import javax.persistence.*;
@@ -22,6 +25,79 @@ public class Document {
     @Column(name = "diploma")
     private String diploma;
 
+    @Column(name = "identity_card_hash")
+    private String identityCardHash;
+
+    @Column(name = "medical_certificate_hash")
+    private String medicalCertificateHash;
+
+    @Column(name = "diploma_hash")
+    private String diplomaHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "identity_card_state")
+    private StorageState identityCardState;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "medical_certificate_state")
+    private StorageState medicalCertificateState;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "diploma_state")
+    private StorageState diplomaState;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "storage_layout")
+    private StorageLayout storageLayout = StorageLayout.SHARED_BUCKET;
+
     @OneToOne(mappedBy = "document")
     private User user;
+
+    public String getUrl(DocumentPart part) {
+        return switch (part) {
+            case IDENTITY_CARD -> identityCard;
+            case MEDICAL_CERTIFICATE -> medicalCertificate;
+            case DIPLOMA -> diploma;
+        };
+    }
+
+    public void setUrl(DocumentPart part, String url) {
+        switch (part) {
+            case IDENTITY_CARD -> identityCard = url;
+            case MEDICAL_CERTIFICATE -> medicalCertificate = url;
+            case DIPLOMA -> diploma = url;
+        }
+    }
+
+    public String getHash(DocumentPart part) {
+        return switch (part) {
+            case IDENTITY_CARD -> identityCardHash;
+            case MEDICAL_CERTIFICATE -> medicalCertificateHash;
+            case DIPLOMA -> diplomaHash;
+        };
+    }
+
+    public void setHash(DocumentPart part, String hash) {
+        switch (part) {
+            case IDENTITY_CARD -> identityCardHash = hash;
+            case MEDICAL_CERTIFICATE -> medicalCertificateHash = hash;
+            case DIPLOMA -> diplomaHash = hash;
+        }
+    }
+
+    public StorageState getState(DocumentPart part) {
+        return switch (part) {
+            case IDENTITY_CARD -> identityCardState;
+            case MEDICAL_CERTIFICATE -> medicalCertificateState;
+            case DIPLOMA -> diplomaState;
+        };
+    }
+
+    public void setState(DocumentPart part, StorageState state) {
+        switch (part) {
+            case IDENTITY_CARD -> identityCardState = state;
+            case MEDICAL_CERTIFICATE -> medicalCertificateState = state;
+            case DIPLOMA -> diplomaState = state;
+        }
+    }
 }
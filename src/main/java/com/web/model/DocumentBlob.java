@@ -0,0 +1,60 @@
+package com.web.model;
+
+import com.web.model.enumeration.PreviewState;
+import com.web.model.enumeration.StorageState;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "document_blobs")
+public class DocumentBlob {
+
+    @Id
+    @Column(name = "hash")
+    private String hash;
+
+    @Column(name = "size")
+    private Long size;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "content_md5")
+    private String contentMd5;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "state")
+    private StorageState state;
+
+    @Column(name = "ref_count")
+    private Integer refCount;
+
+    // The node whose staging directory holds the copy to ship, only it may give the blob up as failed
+    @Column(name = "staging_node")
+    private String stagingNode;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "preview_state")
+    private PreviewState previewState;
+
+    @Column(name = "page_count")
+    private Integer pageCount;
+
+    @Column(name = "width")
+    private Integer width;
+
+    @Column(name = "height")
+    private Integer height;
+}
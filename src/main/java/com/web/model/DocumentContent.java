@@ -0,0 +1,9 @@
+package com.web.model;
+
+public record DocumentContent(String bucketName, String key, long contentLength, String contentType, String eTag,
+                              boolean encrypted) {
+
+    public DocumentContent(String bucketName, String key, long contentLength, String contentType, String eTag) {
+        this(bucketName, key, contentLength, contentType, eTag, false);
+    }
+}
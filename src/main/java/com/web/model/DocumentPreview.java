@@ -0,0 +1,6 @@
+package com.web.model;
+
+import com.web.model.enumeration.PreviewState;
+
+public record DocumentPreview(String hash, PreviewState state, Integer pageCount, Integer width, Integer height) {
+}
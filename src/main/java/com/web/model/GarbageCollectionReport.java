@@ -0,0 +1,4 @@
+package com.web.model;
+
+public record GarbageCollectionReport(int scanned, int orphaned, int deleted, long reclaimedBytes, int failed) {
+}
@@ -0,0 +1,4 @@
+package com.web.model;
+
+public record MigrationReport(int migrated, int skipped, int failed) {
+}
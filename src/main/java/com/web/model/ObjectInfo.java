@@ -0,0 +1,8 @@
+package com.web.model;
+
+public record ObjectInfo(long contentLength, String contentType, String eTag, boolean encrypted) {
+
+    public ObjectInfo(long contentLength, String contentType, String eTag) {
+        this(contentLength, contentType, eTag, false);
+    }
+}
@@ -0,0 +1,4 @@
+package com.web.model;
+
+public record ObjectLocation(String bucketName, String key) {
+}
@@ -0,0 +1,6 @@
+package com.web.model;
+
+import java.time.Instant;
+
+public record PresignedUrl(String url, Instant expiresAt) {
+}
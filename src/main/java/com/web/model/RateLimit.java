@@ -0,0 +1,18 @@
+package com.web.model;
+
+import java.time.Duration;
+
+/**
+ * A token bucket holding up to {@code capacity} tokens and refilling all of them over {@code period}. A capacity of
+ * zero turns the limit off.
+ */
+public record RateLimit(long capacity, Duration period) {
+
+    public boolean isEnabled() {
+        return capacity > 0;
+    }
+
+    public long getRefillIntervalNanos() {
+        return period.toNanos() / capacity;
+    }
+}
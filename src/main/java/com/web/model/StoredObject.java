@@ -0,0 +1,6 @@
+package com.web.model;
+
+import java.time.Instant;
+
+public record StoredObject(String key, long size, Instant lastModified) {
+}
@@ -0,0 +1,77 @@
+package com.web.model;
+
+import com.web.model.enumeration.DocumentPart;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Type;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "upload_sessions")
+public class UploadSession {
+
+    @Id
+    @Type(type = "uuid-char")
+    private UUID id;
+
+    @Type(type = "uuid-char")
+    @Column(name = "fk_user")
+    private UUID userId;
+
+    @Column(name = "identity_card_size")
+    private long identityCardSize;
+
+    @Column(name = "identity_card_offset")
+    private long identityCardOffset;
+
+    @Column(name = "medical_certificate_size")
+    private long medicalCertificateSize;
+
+    @Column(name = "medical_certificate_offset")
+    private long medicalCertificateOffset;
+
+    @Column(name = "diploma_size")
+    private long diplomaSize;
+
+    @Column(name = "diploma_offset")
+    private long diplomaOffset;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    public long getSize(DocumentPart part) {
+        return switch (part) {
+            case IDENTITY_CARD -> identityCardSize;
+            case MEDICAL_CERTIFICATE -> medicalCertificateSize;
+            case DIPLOMA -> diplomaSize;
+        };
+    }
+
+    public long getOffset(DocumentPart part) {
+        return switch (part) {
+            case IDENTITY_CARD -> identityCardOffset;
+            case MEDICAL_CERTIFICATE -> medicalCertificateOffset;
+            case DIPLOMA -> diplomaOffset;
+        };
+    }
+
+    public void setOffset(DocumentPart part, long offset) {
+        switch (part) {
+            case IDENTITY_CARD -> identityCardOffset = offset;
+            case MEDICAL_CERTIFICATE -> medicalCertificateOffset = offset;
+            case DIPLOMA -> diplomaOffset = offset;
+        }
+    }
+}
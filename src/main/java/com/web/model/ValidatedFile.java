@@ -0,0 +1,4 @@
+package com.web.model;
+
+public record ValidatedFile(String hash, String contentMd5, long size, String contentType) {
+}
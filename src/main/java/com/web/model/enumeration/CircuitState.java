@@ -0,0 +1,7 @@
+package com.web.model.enumeration;
+
+public enum CircuitState {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+}
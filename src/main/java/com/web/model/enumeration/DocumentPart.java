@@ -0,0 +1,24 @@
+package com.web.model.enumeration;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum DocumentPart {
+    IDENTITY_CARD("identity-card", "identityCard"),
+    MEDICAL_CERTIFICATE("medical-certificate", "medicalCertificate"),
+    DIPLOMA("diploma", "diploma");
+
+    private final String value;
+    private final String objectName;
+
+    public static DocumentPart fromValue(String value) {
+        for (DocumentPart part : values()) {
+            if (part.value.equals(value)) {
+                return part;
+            }
+        }
+        throw new IllegalArgumentException("Unknown document part: " + value);
+    }
+}
@@ -0,0 +1,41 @@
+package com.web.model.enumeration;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+@Getter
+public enum DocumentType {
+    PDF("application/pdf", "pdf", new byte[]{'%', 'P', 'D', 'F', '-'}),
+    JPEG("image/jpeg", "jpg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}),
+    PNG("image/png", "png", new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+
+    public static final int HEADER_LENGTH = 8;
+    public static final List<String> CONTENT_TYPES = Arrays.stream(values()).map(DocumentType::getContentType).toList();
+
+    private final String contentType;
+    private final String extension;
+    private final byte[] signature;
+
+    DocumentType(String contentType, String extension, byte[] signature) {
+        this.contentType = contentType;
+        this.extension = extension;
+        this.signature = signature;
+    }
+
+    public static Optional<DocumentType> fromContentType(String contentType) {
+        return Arrays.stream(values()).filter(type -> type.contentType.equals(contentType)).findFirst();
+    }
+
+    public static Optional<DocumentType> detect(byte[] header, int length) {
+        for (DocumentType type : values()) {
+            if (length >= type.signature.length
+                    && Arrays.equals(header, 0, type.signature.length, type.signature, 0, type.signature.length)) {
+                return Optional.of(type);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,7 @@
+package com.web.model.enumeration;
+
+public enum PreviewState {
+    READY,
+    UNSUPPORTED,
+    FAILED
+}
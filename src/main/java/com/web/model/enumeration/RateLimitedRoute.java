@@ -0,0 +1,13 @@
+package com.web.model.enumeration;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum RateLimitedRoute {
+    LOGIN("login"),
+    DOCUMENT_UPLOAD("document upload");
+
+    private final String description;
+}
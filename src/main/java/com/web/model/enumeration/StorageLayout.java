@@ -0,0 +1,6 @@
+package com.web.model.enumeration;
+
+public enum StorageLayout {
+    USER_BUCKET,
+    SHARED_BUCKET
+}
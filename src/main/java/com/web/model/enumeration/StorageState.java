@@ -0,0 +1,8 @@
+package com.web.model.enumeration;
+
+public enum StorageState {
+    STAGED,
+    STORED,
+    FAILED,
+    DELETING
+}
@@ -3,12 +3,14 @@ package com.web.repository;
 import com.web.model.AdmissionFile;
 import com.web.model.User;
 import com.web.model.enumeration.AdmissionFileStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -17,4 +19,12 @@ public interface AdmissionFileRepository extends JpaRepository<AdmissionFile, Lo
     @Query("SELECT af FROM AdmissionFile af WHERE (:userId IS NULL OR af.user.id = :userId) " +
             "AND (:status IS NULL OR af.status = :status)")
     List<AdmissionFile> findAllByUserIdAndStatus(@Param("userId") UUID userId, @Param("status") AdmissionFileStatus status);
+
+    @Query("SELECT af FROM AdmissionFile af JOIN FETCH af.user u JOIN FETCH u.document " +
+            "WHERE af.status = :status AND af.id > :id ORDER BY af.id")
+    List<AdmissionFile> findWithDocumentByStatusAndIdGreaterThan(@Param("status") AdmissionFileStatus status,
+                                                                 @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT af FROM AdmissionFile af JOIN FETCH af.user u JOIN FETCH u.document WHERE af.id = :id")
+    Optional<AdmissionFile> findWithDocumentById(@Param("id") Long id);
 }
@@ -0,0 +1,88 @@
+package com.web.repository;
+
+import com.web.model.DocumentBlob;
+import com.web.model.enumeration.PreviewState;
+import com.web.model.enumeration.StorageState;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface DocumentBlobRepository extends JpaRepository<DocumentBlob, String> {
+
+    // Blobs staged before nodes were recorded have no node, whichever node still holds the copy ships them
+    @Query("SELECT b FROM DocumentBlob b WHERE b.state = com.web.model.enumeration.StorageState.STAGED " +
+            "AND (b.stagingNode = :stagingNode OR b.stagingNode IS NULL) ORDER BY b.createdAt")
+    List<DocumentBlob> findStaged(@Param("stagingNode") String stagingNode, Pageable pageable);
+
+    List<DocumentBlob> findTop100ByStateAndPreviewStateIsNullOrderByCreatedAtAsc(StorageState state);
+
+    // A blob being deleted keeps its tombstone, so the staged content waits until the collector is done. Unless the
+    // blob is stored, the copy just staged here is the one to ship, and the node is set before the state changes
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO document_blobs " +
+            "(hash, size, content_type, content_md5, state, staging_node, ref_count, created_at) " +
+            "VALUES (:hash, :size, :contentType, :contentMd5, :state, :stagingNode, 1, NOW()) " +
+            "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1, " +
+            "staging_node = IF(state = 'STORED', staging_node, VALUES(staging_node)), " +
+            "state = IF(state = 'FAILED', VALUES(state), state)", nativeQuery = true)
+    void acquire(@Param("hash") String hash, @Param("size") long size, @Param("contentType") String contentType,
+                 @Param("contentMd5") String contentMd5, @Param("state") String state,
+                 @Param("stagingNode") String stagingNode);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE DocumentBlob b SET b.refCount = b.refCount + 1 WHERE b.hash = :hash AND b.state = :state")
+    int acquireExisting(@Param("hash") String hash, @Param("state") StorageState state);
+
+    @Modifying
+    @Query("UPDATE DocumentBlob b SET b.refCount = b.refCount - 1 WHERE b.hash = :hash AND b.refCount > 0")
+    void release(@Param("hash") String hash);
+
+    // Staged blobs are still being shipped, so only settled ones are handed to the collector
+    @Transactional
+    @Modifying
+    @Query("UPDATE DocumentBlob b SET b.state = com.web.model.enumeration.StorageState.DELETING " +
+            "WHERE b.hash = :hash AND b.refCount = 0 AND b.state <> com.web.model.enumeration.StorageState.STAGED")
+    int markDeleting(@Param("hash") String hash);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM DocumentBlob b WHERE b.hash = :hash AND b.refCount = 0 " +
+            "AND b.state = com.web.model.enumeration.StorageState.DELETING")
+    int deleteUnreferenced(@Param("hash") String hash);
+
+    // A blob acquired while it was being deleted is shipped again from the staging file of that upload
+    @Transactional
+    @Modifying
+    @Query("UPDATE DocumentBlob b SET b.state = CASE WHEN b.refCount > 0 " +
+            "THEN com.web.model.enumeration.StorageState.STAGED ELSE :state END " +
+            "WHERE b.hash = :hash AND b.state = com.web.model.enumeration.StorageState.DELETING")
+    int cancelDeleting(@Param("hash") String hash, @Param("state") StorageState state);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE DocumentBlob b SET b.state = :state WHERE b.hash = :hash")
+    void updateState(@Param("hash") String hash, @Param("state") StorageState state);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE DocumentBlob b SET b.state = :state WHERE b.hash = :hash AND b.state = :expectedState")
+    int updateState(@Param("hash") String hash, @Param("expectedState") StorageState expectedState,
+                    @Param("state") StorageState state);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE DocumentBlob b SET b.previewState = :previewState, b.pageCount = :pageCount, " +
+            "b.width = :width, b.height = :height WHERE b.hash = :hash")
+    void updatePreview(@Param("hash") String hash, @Param("previewState") PreviewState previewState,
+                       @Param("pageCount") Integer pageCount, @Param("width") Integer width,
+                       @Param("height") Integer height);
+}
@@ -1,9 +1,66 @@
 package com.web.repository;
 
 import com.web.model.Document;
+import com.web.model.enumeration.StorageLayout;
+import com.web.model.enumeration.StorageState;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
 
 @Repository
 public interface DocumentRepository extends JpaRepository<Document, Long> {
+
+    List<Document> findByStorageLayoutAndIdGreaterThanOrderByIdAsc(StorageLayout storageLayout, Long id,
+                                                                   Pageable pageable);
+
+    @Query("SELECT d FROM Document d JOIN FETCH d.user u " +
+            "WHERE d.storageLayout = :storageLayout AND u.id > :userId ORDER BY u.id")
+    List<Document> findWithUserByStorageLayoutAndUserIdGreaterThan(@Param("storageLayout") StorageLayout storageLayout,
+                                                                   @Param("userId") UUID userId, Pageable pageable);
+
+    @Query(value = "SELECT h.hash FROM (" +
+            "SELECT identity_card_hash AS hash FROM documents " +
+            "UNION SELECT medical_certificate_hash FROM documents " +
+            "UNION SELECT diploma_hash FROM documents) h " +
+            "WHERE h.hash > :hash ORDER BY h.hash LIMIT :limit", nativeQuery = true)
+    List<String> findReferencedHashesGreaterThan(@Param("hash") String hash, @Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Document d SET d.storageLayout = com.web.model.enumeration.StorageLayout.SHARED_BUCKET, " +
+            "d.identityCard = CASE WHEN d.identityCardHash IS NULL THEN :identityCard ELSE d.identityCard END, " +
+            "d.medicalCertificate = CASE WHEN d.medicalCertificateHash IS NULL " +
+            "THEN :medicalCertificate ELSE d.medicalCertificate END, " +
+            "d.diploma = CASE WHEN d.diplomaHash IS NULL THEN :diploma ELSE d.diploma END " +
+            "WHERE d.id = :id AND d.storageLayout = com.web.model.enumeration.StorageLayout.USER_BUCKET")
+    int markMigrated(@Param("id") Long id, @Param("identityCard") String identityCard,
+                     @Param("medicalCertificate") String medicalCertificate, @Param("diploma") String diploma);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Document d SET d.identityCardState = :state " +
+            "WHERE d.identityCardHash = :hash AND d.identityCardState = :currentState")
+    int updateIdentityCardState(@Param("hash") String hash, @Param("currentState") StorageState currentState,
+                                @Param("state") StorageState state);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Document d SET d.medicalCertificateState = :state " +
+            "WHERE d.medicalCertificateHash = :hash AND d.medicalCertificateState = :currentState")
+    int updateMedicalCertificateState(@Param("hash") String hash, @Param("currentState") StorageState currentState,
+                                      @Param("state") StorageState state);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Document d SET d.diplomaState = :state " +
+            "WHERE d.diplomaHash = :hash AND d.diplomaState = :currentState")
+    int updateDiplomaState(@Param("hash") String hash, @Param("currentState") StorageState currentState,
+                           @Param("state") StorageState state);
 }
@@ -0,0 +1,52 @@
+package com.web.repository;
+
+import com.web.model.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, UUID> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UploadSession s WHERE s.id = :id")
+    Optional<UploadSession> findForUpdateById(@Param("id") UUID id);
+
+    List<UploadSession> findTop100ByExpiresAtBeforeOrderByExpiresAtAsc(LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.identityCardOffset = :offset, s.expiresAt = :expiresAt " +
+            "WHERE s.id = :id AND s.identityCardOffset = :expectedOffset")
+    int updateIdentityCardOffset(@Param("id") UUID id, @Param("expectedOffset") long expectedOffset,
+                                 @Param("offset") long offset, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.medicalCertificateOffset = :offset, s.expiresAt = :expiresAt " +
+            "WHERE s.id = :id AND s.medicalCertificateOffset = :expectedOffset")
+    int updateMedicalCertificateOffset(@Param("id") UUID id, @Param("expectedOffset") long expectedOffset,
+                                       @Param("offset") long offset, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.diplomaOffset = :offset, s.expiresAt = :expiresAt " +
+            "WHERE s.id = :id AND s.diplomaOffset = :expectedOffset")
+    int updateDiplomaOffset(@Param("id") UUID id, @Param("expectedOffset") long expectedOffset,
+                            @Param("offset") long offset, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM UploadSession s WHERE s.id = :id AND s.expiresAt < :now")
+    int deleteExpired(@Param("id") UUID id, @Param("now") LocalDateTime now);
+}
@@ -1,10 +1,13 @@
 package com.web.repository;
 
 import com.web.model.User;
+import com.web.model.UserCredentials;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -16,9 +19,18 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     Optional<User> findByEmail(String email);
 
+    @Query("SELECT new com.web.model.UserCredentials(u.id, u.email, u.password, u.role) FROM User u " +
+            "WHERE u.email = :email")
+    Optional<UserCredentials> findCredentialsByEmail(@Param("email") String email);
+
     @Query("SELECT u FROM User u " +
             "LEFT JOIN UserInfo ui ON u.userInfo.id = ui.id " +
             "WHERE (:email IS NULL OR u.email = :email) " +
             "AND (:nationality IS NULL OR ui.nationality = :nationality)")
     List<User> findAllByEmailAndNationality(@Param("email") String email, @Param("nationality") String nationality);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    void updatePassword(@Param("id") UUID id, @Param("password") String password);
 }
@@ -5,8 +5,11 @@ import com.web.error.exception.ConflictException;
 import com.web.error.exception.ForbiddenException;
 import com.web.error.exception.NotFoundException;
 import com.web.model.AdmissionFile;
+import com.web.model.Document;
 import com.web.model.User;
 import com.web.model.enumeration.AdmissionFileStatus;
+import com.web.model.enumeration.DocumentPart;
+import com.web.model.enumeration.StorageState;
 import com.web.repository.AdmissionFileRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -97,5 +100,12 @@ public class AdmissionFileService {
             throw new ForbiddenException(ErrorMessage.FORBIDDEN, "You need to upload the personal info/documents" +
                     " and apply to at least one program of study before submitting the admission file");
         }
+
+        Document document = user.getDocument();
+        for (DocumentPart part : DocumentPart.values()) {
+            if (document.getState(part) != StorageState.STORED) {
+                throw new ConflictException(ErrorMessage.DOCUMENT_NOT_STORED, part.getObjectName(), document.getState(part));
+            }
+        }
     }
 }
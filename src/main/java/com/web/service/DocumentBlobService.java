@@ -0,0 +1,121 @@
+package com.web.service;
+
+import com.web.model.DocumentBlob;
+import com.web.model.ObjectLocation;
+import com.web.model.ValidatedFile;
+import com.web.model.enumeration.DocumentPart;
+import com.web.model.enumeration.StorageState;
+import com.web.repository.DocumentBlobRepository;
+import com.web.storage.DocumentStorage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.transaction.Transactional;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+
+@Service
+public class DocumentBlobService {
+
+    private final DocumentBlobRepository documentBlobRepository;
+    private final DocumentStorage documentStorage;
+    private final DocumentLocationService documentLocationService;
+    private final DocumentStagingService documentStagingService;
+    private final DocumentValidationService documentValidationService;
+    private final Counter storedUploads;
+    private final Counter deduplicatedUploads;
+    private final Counter savedBytes;
+
+    @Autowired
+    public DocumentBlobService(DocumentBlobRepository documentBlobRepository,
+                               DocumentStorage documentStorage,
+                               DocumentLocationService documentLocationService,
+                               DocumentStagingService documentStagingService,
+                               DocumentValidationService documentValidationService,
+                               MeterRegistry meterRegistry) {
+        this.documentBlobRepository = documentBlobRepository;
+        this.documentStorage = documentStorage;
+        this.documentLocationService = documentLocationService;
+        this.documentStagingService = documentStagingService;
+        this.documentValidationService = documentValidationService;
+        this.storedUploads = meterRegistry.counter("document.blob.uploads", "result", "stored");
+        this.deduplicatedUploads = meterRegistry.counter("document.blob.uploads", "result", "deduplicated");
+        this.savedBytes = Counter.builder("document.blob.saved")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("document.blob.dedupe.ratio", this, DocumentBlobService::getDedupeRatio)
+                .register(meterRegistry);
+    }
+
+    public DocumentBlob store(MultipartFile file, DocumentPart part) throws IOException {
+        // The upload is copied next to the staged blobs while it is validated, and only kept when it is new content
+        Path copy = documentStagingService.createTemporaryFile();
+        try {
+            ValidatedFile validatedFile;
+            try (OutputStream outputStream = Files.newOutputStream(copy)) {
+                validatedFile = documentValidationService.validate(file, part, outputStream);
+            }
+            return store(validatedFile, copy);
+        } finally {
+            Files.deleteIfExists(copy);
+        }
+    }
+
+    private DocumentBlob store(ValidatedFile validatedFile, Path copy) throws IOException {
+        DocumentBlob blob = DocumentBlob.builder()
+                .hash(validatedFile.hash())
+                .size(validatedFile.size())
+                .contentType(validatedFile.contentType())
+                .contentMd5(validatedFile.contentMd5())
+                .state(StorageState.STORED)
+                .build();
+
+        // The reference is taken together with the dedupe decision, so the collector can no longer delete the blob
+        if (documentBlobRepository.acquireExisting(blob.getHash(), StorageState.STORED) > 0) {
+            deduplicatedUploads.increment();
+            savedBytes.increment(blob.getSize());
+            return blob;
+        }
+
+        documentStagingService.stage(blob, copy);
+
+        blob.setState(StorageState.STAGED);
+        documentBlobRepository.acquire(blob.getHash(), blob.getSize(), blob.getContentType(), blob.getContentMd5(),
+                blob.getState().name(), blob.getStagingNode());
+        storedUploads.increment();
+        return blob;
+    }
+
+    @Transactional
+    public void release(String hash) {
+        if (hash != null) {
+            documentBlobRepository.release(hash);
+        }
+    }
+
+    // Runs on its own, as it gives back the references of a document whose transaction is being rolled back
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public void releaseAll(Collection<String> hashes) {
+        hashes.forEach(documentBlobRepository::release);
+    }
+
+    public ObjectLocation getLocation(String hash) {
+        return documentLocationService.getBlobLocation(hash);
+    }
+
+    public String getUrl(String hash) {
+        return documentStorage.getUrl(getLocation(hash));
+    }
+
+    private double getDedupeRatio() {
+        double total = storedUploads.count() + deduplicatedUploads.count();
+        return total == 0 ? 0 : deduplicatedUploads.count() / total;
+    }
+}
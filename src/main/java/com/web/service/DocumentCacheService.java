@@ -0,0 +1,373 @@
+package com.web.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.web.config.DocumentConfig;
+import com.web.model.DocumentContent;
+import com.web.model.ObjectLocation;
+import com.web.storage.ByteBufferInputStream;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+
+@Service
+public class DocumentCacheService {
+
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final DocumentLocationService documentLocationService;
+    private final DocumentConfig documentConfig;
+    private final Executor documentCacheFillExecutor;
+    private final Path directory;
+    private final Cache<String, MemoryEntry> memoryTier;
+    // Access ordered, so iteration starts at the least recently used file
+    private final LinkedHashMap<String, DiskEntry> diskTier = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentMap<String, CompletableFuture<Entry>> loading = new ConcurrentHashMap<>();
+    private long diskBytes;
+    private final Counter memoryHits;
+    private final Counter diskHits;
+    private final Counter misses;
+    private final Counter memoryBytesServed;
+    private final Counter diskBytesServed;
+    private final Counter storageBytesServed;
+
+    @Autowired
+    public DocumentCacheService(DocumentLocationService documentLocationService,
+                                DocumentConfig documentConfig,
+                                @Qualifier("documentCacheFillExecutor") Executor documentCacheFillExecutor,
+                                MeterRegistry meterRegistry) {
+        this.documentLocationService = documentLocationService;
+        this.documentConfig = documentConfig;
+        this.documentCacheFillExecutor = documentCacheFillExecutor;
+        this.directory = Path.of(documentConfig.getCacheDirectory());
+        this.memoryTier = Caffeine.newBuilder()
+                .maximumWeight(documentConfig.getCacheMemoryMaxBytes())
+                .weigher((String key, MemoryEntry entry) -> entry.buffer().capacity())
+                .build();
+        if (documentConfig.isCacheEnabled()) {
+            clearDirectory();
+        }
+
+        this.memoryHits = meterRegistry.counter("document.cache.requests", "tier", "memory", "result", "hit");
+        this.diskHits = meterRegistry.counter("document.cache.requests", "tier", "disk", "result", "hit");
+        this.misses = meterRegistry.counter("document.cache.requests", "tier", "none", "result", "miss");
+        this.memoryBytesServed = getBytesServedCounter(meterRegistry, "memory");
+        this.diskBytesServed = getBytesServedCounter(meterRegistry, "disk");
+        this.storageBytesServed = getBytesServedCounter(meterRegistry, "storage");
+        Gauge.builder("document.cache.hit.ratio", this, DocumentCacheService::getHitRatio)
+                .register(meterRegistry);
+        Gauge.builder("document.cache.size", memoryTier, cache -> cache.policy().eviction()
+                        .map(eviction -> eviction.weightedSize().orElse(0))
+                        .orElse(0L))
+                .tag("tier", "memory")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("document.cache.size", this, DocumentCacheService::getDiskBytes)
+                .tag("tier", "disk")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @FunctionalInterface
+    public interface ContentLoader {
+        InputStream open(long start, long end) throws IOException;
+    }
+
+    public InputStream open(DocumentContent content, long start, long end, ContentLoader loader) throws IOException {
+        if (!isCacheable(content)) {
+            storageBytesServed.increment(end - start + 1);
+            return loader.open(start, end);
+        }
+
+        String key = getKey(content.bucketName(), content.key());
+        Entry entry = lookup(key, content.eTag());
+        InputStream inputStream = entry != null ? tryOpen(key, entry, start, end) : null;
+        if (inputStream != null) {
+            if (entry instanceof MemoryEntry) {
+                memoryHits.increment();
+                memoryBytesServed.increment(end - start + 1);
+            } else {
+                diskHits.increment();
+                diskBytesServed.increment(end - start + 1);
+            }
+            return inputStream;
+        }
+
+        misses.increment();
+        storageBytesServed.increment(end - start + 1);
+        if (content.contentLength() > documentConfig.getCacheMemoryMaxObjectBytes()) {
+            // A ranged read of a large document must not wait for the whole object, so it is copied in the background
+            inputStream = loader.open(start, end);
+            fillLater(key, content, loader);
+            return inputStream;
+        }
+        entry = fill(key, content, loader);
+        inputStream = entry != null ? tryOpen(key, entry, start, end) : null;
+        return inputStream != null ? inputStream : loader.open(start, end);
+    }
+
+    public void evict(String bucketName, String key) {
+        String cacheKey = getKey(bucketName, key);
+        memoryTier.invalidate(cacheKey);
+        DiskEntry entry;
+        synchronized (diskTier) {
+            entry = diskTier.remove(cacheKey);
+            if (entry != null) {
+                diskBytes -= entry.size();
+            }
+        }
+        if (entry != null) {
+            deleteFile(entry);
+        }
+    }
+
+    public void evictBlob(String hash) {
+        if (hash == null) {
+            return;
+        }
+        ObjectLocation location = documentLocationService.getBlobLocation(hash);
+        evict(location.bucketName(), location.key());
+    }
+
+    private boolean isCacheable(DocumentContent content) {
+        if (!documentConfig.isCacheEnabled() || content.contentLength() <= 0) {
+            return false;
+        }
+        // Decrypted documents never touch the disk, otherwise the cache would undo encryption at rest
+        return content.contentLength() <= documentConfig.getCacheMemoryMaxObjectBytes()
+                || (!content.encrypted() && content.contentLength() <= documentConfig.getCacheDiskMaxObjectBytes());
+    }
+
+    private Entry lookup(String key, String eTag) {
+        MemoryEntry memoryEntry = memoryTier.getIfPresent(key);
+        if (memoryEntry != null) {
+            if (Objects.equals(memoryEntry.eTag(), eTag)) {
+                return memoryEntry;
+            }
+            memoryTier.invalidate(key);
+        }
+
+        DiskEntry diskEntry;
+        synchronized (diskTier) {
+            diskEntry = diskTier.get(key);
+            if (diskEntry == null || Objects.equals(diskEntry.eTag(), eTag)) {
+                return diskEntry;
+            }
+            diskTier.remove(key);
+            diskBytes -= diskEntry.size();
+        }
+        deleteFile(diskEntry);
+        return null;
+    }
+
+    private InputStream tryOpen(String key, Entry entry, long start, long end) {
+        try {
+            return entry.open(start, end);
+        } catch (IOException e) {
+            // The file was evicted between the lookup and the read
+            synchronized (diskTier) {
+                if (diskTier.remove(key, entry)) {
+                    diskBytes -= ((DiskEntry) entry).size();
+                }
+            }
+            return null;
+        }
+    }
+
+    private Entry fill(String key, DocumentContent content, ContentLoader loader) {
+        CompletableFuture<Entry> load = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = loading.putIfAbsent(key, load);
+        if (existing != null) {
+            try {
+                return existing.get();
+            } catch (ExecutionException e) {
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+
+        try {
+            Entry entry = content.contentLength() <= documentConfig.getCacheMemoryMaxObjectBytes() ?
+                    fillMemory(key, content, loader) : fillDisk(key, content, loader);
+            load.complete(entry);
+            return entry;
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            load.complete(null);
+            return null;
+        } finally {
+            loading.remove(key, load);
+        }
+    }
+
+    private void fillLater(String key, DocumentContent content, ContentLoader loader) {
+        if (loading.containsKey(key)) {
+            return;
+        }
+        try {
+            documentCacheFillExecutor.execute(() -> {
+                // Misses queued behind the first one find the entry it filled
+                if (lookup(key, content.eTag()) == null) {
+                    fill(key, content, loader);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The next miss tries again
+        }
+    }
+
+    private MemoryEntry fillMemory(String key, DocumentContent content, ContentLoader loader) throws IOException {
+        // Direct buffers keep small documents off the heap, so the tier does not add to garbage collection pauses
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) content.contentLength());
+        try (ReadableByteChannel channel = Channels.newChannel(loader.open(0, content.contentLength() - 1))) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+            }
+        }
+        if (buffer.hasRemaining()) {
+            throw new IOException("Expected " + content.contentLength() + " bytes for " + content.key()
+                    + " but received " + buffer.position());
+        }
+
+        MemoryEntry entry = new MemoryEntry(content.eTag(), buffer.flip().asReadOnlyBuffer());
+        memoryTier.put(key, entry);
+        return entry;
+    }
+
+    private DiskEntry fillDisk(String key, DocumentContent content, ContentLoader loader) throws IOException {
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "entry-", TEMPORARY_SUFFIX);
+        try {
+            try (InputStream inputStream = loader.open(0, content.contentLength() - 1)) {
+                Files.copy(inputStream, temporary, StandardCopyOption.REPLACE_EXISTING);
+            }
+            long size = Files.size(temporary);
+            if (size != content.contentLength()) {
+                throw new IOException("Expected " + content.contentLength() + " bytes for " + content.key()
+                        + " but received " + size);
+            }
+
+            Path path = directory.resolve(UUID.randomUUID().toString());
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+            DiskEntry entry = new DiskEntry(content.eTag(), path, size);
+            putDisk(key, entry);
+            return entry;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private void putDisk(String key, DiskEntry entry) {
+        List<DiskEntry> evicted = new ArrayList<>();
+        synchronized (diskTier) {
+            DiskEntry previous = diskTier.put(key, entry);
+            if (previous != null) {
+                diskBytes -= previous.size();
+                evicted.add(previous);
+            }
+            diskBytes += entry.size();
+
+            Iterator<DiskEntry> iterator = diskTier.values().iterator();
+            while (diskBytes > documentConfig.getCacheDiskMaxBytes() && iterator.hasNext()) {
+                DiskEntry eldest = iterator.next();
+                iterator.remove();
+                diskBytes -= eldest.size();
+                evicted.add(eldest);
+            }
+        }
+        evicted.forEach(this::deleteFile);
+    }
+
+    private void deleteFile(DiskEntry entry) {
+        // Streams that already mapped the file keep reading it after it is unlinked
+        try {
+            Files.deleteIfExists(entry.path());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void clearDirectory() {
+        // The index lives in memory, so files left by a previous run can never be hit again
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> paths = Files.list(directory)) {
+                for (Path path : paths.toList()) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private double getHitRatio() {
+        double hits = memoryHits.count() + diskHits.count();
+        double total = hits + misses.count();
+        return total == 0 ? 0 : hits / total;
+    }
+
+    private long getDiskBytes() {
+        synchronized (diskTier) {
+            return diskBytes;
+        }
+    }
+
+    private Counter getBytesServedCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("document.cache.served")
+                .tag("source", source)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    private String getKey(String bucketName, String key) {
+        return bucketName + "/" + key;
+    }
+
+    private sealed interface Entry permits MemoryEntry, DiskEntry {
+
+        InputStream open(long start, long end) throws IOException;
+    }
+
+    private record MemoryEntry(String eTag, ByteBuffer buffer) implements Entry {
+
+        @Override
+        public InputStream open(long start, long end) {
+            return new ByteBufferInputStream(buffer.slice((int) start, (int) (end - start + 1)));
+        }
+    }
+
+    private record DiskEntry(String eTag, Path path, long size) implements Entry {
+
+        @Override
+        public InputStream open(long start, long end) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                return new ByteBufferInputStream(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start + 1));
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.web.service;
+
+import com.web.config.DocumentConfig;
+import com.web.model.ObjectInfo;
+import com.web.model.ObjectLocation;
+import com.web.model.enumeration.DocumentType;
+import com.web.storage.DecryptingInputStream;
+import com.web.storage.DocumentStorage;
+import com.web.storage.EncryptingInputStream;
+import com.web.storage.EncryptionHeader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@Service
+public class DocumentEncryptionService {
+
+    private static final String KEY_ALGORITHM = "AES";
+    private static final String CIPHER_ALGORITHM = "AES/GCM/NoPadding";
+    private static final int KEY_LENGTH = 32;
+
+    private final DocumentStorage documentStorage;
+    private final DocumentConfig documentConfig;
+    private final Map<Integer, SecretKey> masterKeys = new HashMap<>();
+    private final SecureRandom secureRandom = new SecureRandom();
+    private int activeKeyId = -1;
+
+    @Autowired
+    public DocumentEncryptionService(DocumentStorage documentStorage, DocumentConfig documentConfig) {
+        this.documentStorage = documentStorage;
+        this.documentConfig = documentConfig;
+
+        // Entries are "id:base64-key", the first one wraps new data keys and the others remain readable
+        for (String entry : documentConfig.getEncryptionMasterKeys()) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":", 2);
+            int keyId = Integer.parseInt(parts[0]);
+            byte[] key = Base64.getDecoder().decode(parts[1]);
+            if (keyId < 0 || keyId > 255 || key.length != KEY_LENGTH) {
+                throw new IllegalStateException("Master key " + parts[0] + " must have an id between 0 and 255 "
+                        + "and " + KEY_LENGTH + " bytes");
+            }
+            masterKeys.put(keyId, new SecretKeySpec(key, KEY_ALGORITHM));
+            if (activeKeyId < 0) {
+                activeKeyId = keyId;
+            }
+        }
+
+        if (documentConfig.isEncryptionEnabled() && masterKeys.isEmpty()) {
+            throw new IllegalStateException("Document encryption is enabled but no master key is configured");
+        }
+    }
+
+    public boolean isEnabled() {
+        return documentConfig.isEncryptionEnabled();
+    }
+
+    public long getEncryptedLength(long plaintextLength) {
+        return EncryptionHeader.getEncryptedLength(plaintextLength, documentConfig.getEncryptionChunkSize());
+    }
+
+    public InputStream encrypt(InputStream inputStream, long plaintextLength) {
+        int chunkSize = documentConfig.getEncryptionChunkSize();
+        byte[] noncePrefix = getRandomBytes(EncryptionHeader.NONCE_PREFIX_LENGTH);
+        byte[] keyNonce = getRandomBytes(EncryptionHeader.KEY_NONCE_LENGTH);
+        SecretKey dataKey = new SecretKeySpec(getRandomBytes(KEY_LENGTH), KEY_ALGORITHM);
+
+        byte[] wrappedKey;
+        try {
+            Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM);
+            cipher.init(Cipher.ENCRYPT_MODE, masterKeys.get(activeKeyId), getKeyParameters(keyNonce));
+            cipher.updateAAD(EncryptionHeader.getAssociatedData(activeKeyId, chunkSize, noncePrefix));
+            wrappedKey = cipher.doFinal(dataKey.getEncoded());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+
+        EncryptionHeader header = new EncryptionHeader(activeKeyId, chunkSize, noncePrefix, keyNonce, wrappedKey);
+        return new EncryptingInputStream(inputStream, plaintextLength, header, dataKey);
+    }
+
+    public ObjectInfo describe(ObjectLocation location, ObjectInfo info) {
+        if (!location.key().startsWith(DocumentLocationService.BLOB_PREFIX)
+                || info.contentLength() < EncryptionHeader.LENGTH) {
+            return info;
+        }
+
+        try {
+            Optional<EncryptionHeader> header = readHeader(location);
+            if (header.isEmpty()) {
+                return info;
+            }
+
+            long plaintextLength = header.get().getPlaintextLength(info.contentLength());
+            String contentType = info.contentType();
+            if (DocumentType.fromContentType(contentType).isEmpty() && plaintextLength > 0) {
+                contentType = detectContentType(location, header.get(), plaintextLength).orElse(contentType);
+            }
+            return new ObjectInfo(plaintextLength, contentType, info.eTag(), true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public InputStream open(ObjectLocation location, long plaintextLength, long start, long end) throws IOException {
+        // A read from the start fetches the header and the chunks in one request when the chunk size is unchanged
+        if (start == 0) {
+            int chunkSize = documentConfig.getEncryptionChunkSize();
+            long encryptedEnd = getEncryptedEnd(plaintextLength, end, chunkSize);
+            InputStream ciphertext = documentStorage.get(location, 0, encryptedEnd);
+            try {
+                EncryptionHeader header = EncryptionHeader.read(ciphertext.readNBytes(EncryptionHeader.LENGTH));
+                if (header.chunkSize() == chunkSize) {
+                    return new DecryptingInputStream(ciphertext, header, unwrap(header), plaintextLength, start, end);
+                }
+            } catch (IOException | RuntimeException e) {
+                ciphertext.close();
+                throw e;
+            }
+            ciphertext.close();
+        }
+
+        EncryptionHeader header = readHeader(location).orElseThrow(() ->
+                new IOException("The object " + location.key() + " is not an encrypted document"));
+        SecretKey dataKey = unwrap(header);
+        long index = start / header.chunkSize();
+        InputStream ciphertext = documentStorage.get(location, header.getChunkOffset(index),
+                getEncryptedEnd(plaintextLength, end, header.chunkSize()));
+        return new DecryptingInputStream(ciphertext, header, dataKey, plaintextLength, start, end);
+    }
+
+    private Optional<EncryptionHeader> readHeader(ObjectLocation location) throws IOException {
+        try (InputStream inputStream = documentStorage.get(location, 0, EncryptionHeader.LENGTH - 1)) {
+            byte[] bytes = inputStream.readNBytes(EncryptionHeader.LENGTH);
+            if (!EncryptionHeader.matches(bytes, bytes.length)) {
+                return Optional.empty();
+            }
+            return Optional.of(EncryptionHeader.read(bytes));
+        }
+    }
+
+    private Optional<String> detectContentType(ObjectLocation location, EncryptionHeader header, long plaintextLength)
+            throws IOException {
+        long end = Math.min(plaintextLength, DocumentType.HEADER_LENGTH) - 1;
+        try (InputStream inputStream = open(location, plaintextLength, 0, end)) {
+            byte[] bytes = inputStream.readNBytes(DocumentType.HEADER_LENGTH);
+            return DocumentType.detect(bytes, bytes.length).map(DocumentType::getContentType);
+        }
+    }
+
+    private SecretKey unwrap(EncryptionHeader header) throws IOException {
+        SecretKey masterKey = masterKeys.get(header.keyId());
+        if (masterKey == null) {
+            throw new IOException("Unknown master key " + header.keyId());
+        }
+
+        try {
+            Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM);
+            cipher.init(Cipher.DECRYPT_MODE, masterKey, getKeyParameters(header.keyNonce()));
+            cipher.updateAAD(header.getAssociatedData());
+            return new SecretKeySpec(cipher.doFinal(header.wrappedKey()), KEY_ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("The data key of the encrypted document cannot be unwrapped", e);
+        }
+    }
+
+    private long getEncryptedEnd(long plaintextLength, long end, int chunkSize) {
+        long lastChunk = EncryptionHeader.getChunkCount(end + 1, chunkSize);
+        return Math.min(EncryptionHeader.LENGTH + lastChunk * (chunkSize + EncryptionHeader.TAG_LENGTH),
+                EncryptionHeader.getEncryptedLength(plaintextLength, chunkSize)) - 1;
+    }
+
+    private GCMParameterSpec getKeyParameters(byte[] nonce) {
+        return new GCMParameterSpec(EncryptionHeader.TAG_LENGTH * Byte.SIZE, nonce);
+    }
+
+    private byte[] getRandomBytes(int length) {
+        byte[] bytes = new byte[length];
+        secureRandom.nextBytes(bytes);
+        return bytes;
+    }
+}
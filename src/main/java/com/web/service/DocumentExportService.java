@@ -0,0 +1,238 @@
+package com.web.service;
+
+import com.web.config.DocumentConfig;
+import com.web.error.ErrorMessage;
+import com.web.error.exception.AbstractApiException;
+import com.web.error.exception.NotFoundException;
+import com.web.model.AdmissionFile;
+import com.web.model.Document;
+import com.web.model.DocumentContent;
+import com.web.model.enumeration.AdmissionFileStatus;
+import com.web.model.enumeration.DocumentPart;
+import com.web.model.enumeration.DocumentType;
+import com.web.repository.AdmissionFileRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+@Service
+public class DocumentExportService {
+
+    private static final String MISSING_SUFFIX = ".missing.txt";
+
+    private final AdmissionFileRepository admissionFileRepository;
+    private final DocumentService documentService;
+    private final DocumentConfig documentConfig;
+    private final EntityManager entityManager;
+    private final Executor documentExportExecutor;
+    private final Counter exportedEntries;
+    private final Counter skippedEntries;
+
+    @Autowired
+    public DocumentExportService(AdmissionFileRepository admissionFileRepository,
+                                 DocumentService documentService,
+                                 DocumentConfig documentConfig,
+                                 EntityManager entityManager,
+                                 @Qualifier("documentExportExecutor") Executor documentExportExecutor,
+                                 MeterRegistry meterRegistry) {
+        this.admissionFileRepository = admissionFileRepository;
+        this.documentService = documentService;
+        this.documentConfig = documentConfig;
+        this.entityManager = entityManager;
+        this.documentExportExecutor = documentExportExecutor;
+        this.exportedEntries = meterRegistry.counter("document.export.entries", "result", "exported");
+        this.skippedEntries = meterRegistry.counter("document.export.entries", "result", "skipped");
+    }
+
+    public AdmissionFile getById(Long id) {
+        return admissionFileRepository.findWithDocumentById(id).orElseThrow(() ->
+                new NotFoundException(ErrorMessage.NOT_FOUND, "admission file", id));
+    }
+
+    public void export(AdmissionFile admissionFile, OutputStream outputStream) throws IOException {
+        export(List.of(admissionFile).iterator(), outputStream);
+    }
+
+    public void export(AdmissionFileStatus status, OutputStream outputStream) throws IOException {
+        export(getAdmissionFiles(status), outputStream);
+    }
+
+    private void export(Iterator<AdmissionFile> admissionFiles, OutputStream outputStream) throws IOException {
+        Iterator<PendingEntry> entries = getEntries(admissionFiles);
+        Deque<Future<OpenedEntry>> readAhead = new ArrayDeque<>();
+        Set<InputStream> openStreams = ConcurrentHashMap.newKeySet();
+        AtomicBoolean cancelled = new AtomicBoolean();
+
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+            zipOutputStream.setLevel(Deflater.BEST_SPEED);
+            fillReadAhead(entries, readAhead, openStreams, cancelled);
+
+            while (!readAhead.isEmpty()) {
+                OpenedEntry entry = await(readAhead.poll());
+                fillReadAhead(entries, readAhead, openStreams, cancelled);
+
+                try (InputStream inputStream = entry.inputStream()) {
+                    zipOutputStream.putNextEntry(new ZipEntry(entry.name()));
+                    zipOutputStream.write(entry.prefetched());
+                    inputStream.transferTo(zipOutputStream);
+                    zipOutputStream.closeEntry();
+                } finally {
+                    openStreams.remove(entry.inputStream());
+                }
+                (entry.missing() ? skippedEntries : exportedEntries).increment();
+            }
+        } finally {
+            // Runs when the client goes away mid-download as well, so that no further reads are issued
+            cancelled.set(true);
+            readAhead.forEach(future -> future.cancel(true));
+            openStreams.forEach(this::closeQuietly);
+        }
+    }
+
+    private void fillReadAhead(Iterator<PendingEntry> entries, Deque<Future<OpenedEntry>> readAhead,
+                               Set<InputStream> openStreams, AtomicBoolean cancelled) {
+        while (readAhead.size() < documentConfig.getExportReadAhead() && entries.hasNext()) {
+            PendingEntry entry = entries.next();
+            FutureTask<OpenedEntry> task = new FutureTask<>(() -> open(entry, openStreams, cancelled));
+            try {
+                documentExportExecutor.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.run();
+            }
+            readAhead.add(task);
+        }
+    }
+
+    private OpenedEntry open(PendingEntry entry, Set<InputStream> openStreams, AtomicBoolean cancelled)
+            throws IOException {
+        DocumentContent content;
+        try {
+            content = documentService.getContent(entry.document(), entry.part());
+        } catch (AbstractApiException e) {
+            // A part that can't be exported leaves a note in its place, so an incomplete export never looks complete
+            e.printStackTrace();
+            byte[] note = ("Not exported: " + e.getMessage() + "\n").getBytes(StandardCharsets.UTF_8);
+            return new OpenedEntry(entry.directory() + "/" + entry.part().getValue() + MISSING_SUFFIX, note,
+                    InputStream.nullInputStream(), true);
+        }
+
+        String name = entry.directory() + "/" + entry.part().getValue() + DocumentType.fromContentType(content.contentType())
+                .map(type -> "." + type.getExtension())
+                .orElse("");
+        if (content.contentLength() == 0) {
+            return new OpenedEntry(name, new byte[0], InputStream.nullInputStream(), false);
+        }
+
+        InputStream inputStream = documentService.openContent(content, 0, content.contentLength() - 1);
+        openStreams.add(inputStream);
+        if (cancelled.get()) {
+            closeQuietly(inputStream);
+            throw new InterruptedIOException("The export was cancelled");
+        }
+        return new OpenedEntry(name, inputStream.readNBytes(documentConfig.getExportPrefetchSize()), inputStream,
+                false);
+    }
+
+    private OpenedEntry await(Future<OpenedEntry> future) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("The export was interrupted");
+        }
+    }
+
+    private Iterator<PendingEntry> getEntries(Iterator<AdmissionFile> admissionFiles) {
+        return new Iterator<>() {
+            private final Deque<PendingEntry> current = new ArrayDeque<>();
+
+            @Override
+            public boolean hasNext() {
+                while (current.isEmpty() && admissionFiles.hasNext()) {
+                    AdmissionFile admissionFile = admissionFiles.next();
+                    String directory = "admission-file-" + admissionFile.getId();
+                    for (DocumentPart part : DocumentPart.values()) {
+                        current.add(new PendingEntry(directory, admissionFile.getUser().getDocument(), part));
+                    }
+                }
+                return !current.isEmpty();
+            }
+
+            @Override
+            public PendingEntry next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.poll();
+            }
+        };
+    }
+
+    private Iterator<AdmissionFile> getAdmissionFiles(AdmissionFileStatus status) {
+        return new Iterator<>() {
+            private Iterator<AdmissionFile> page = Collections.emptyIterator();
+            private Long lastId = 0L;
+            private boolean lastPage;
+
+            @Override
+            public boolean hasNext() {
+                while (!page.hasNext() && !lastPage) {
+                    List<AdmissionFile> admissionFiles = admissionFileRepository.findWithDocumentByStatusAndIdGreaterThan(
+                            status, lastId, PageRequest.of(0, documentConfig.getExportPageSize()));
+                    // The streaming thread may share one persistence context for the whole export
+                    entityManager.clear();
+
+                    lastPage = admissionFiles.size() < documentConfig.getExportPageSize();
+                    if (!admissionFiles.isEmpty()) {
+                        lastId = admissionFiles.get(admissionFiles.size() - 1).getId();
+                    }
+                    page = admissionFiles.iterator();
+                }
+                return page.hasNext();
+            }
+
+            @Override
+            public AdmissionFile next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.next();
+            }
+        };
+    }
+
+    private void closeQuietly(InputStream inputStream) {
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private record PendingEntry(String directory, Document document, DocumentPart part) {
+    }
+
+    private record OpenedEntry(String name, byte[] prefetched, InputStream inputStream, boolean missing) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.web.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "config.document.gc.enabled", havingValue = "true")
+public class DocumentGarbageCollectionJob {
+
+    private final DocumentGarbageCollectionService documentGarbageCollectionService;
+
+    @Autowired
+    public DocumentGarbageCollectionJob(DocumentGarbageCollectionService documentGarbageCollectionService) {
+        this.documentGarbageCollectionService = documentGarbageCollectionService;
+    }
+
+    @Scheduled(cron = "${config.document.gc.cron}")
+    public void run() {
+        documentGarbageCollectionService.collect();
+    }
+}
@@ -0,0 +1,282 @@
+package com.web.service;
+
+import com.web.config.AwsS3Config;
+import com.web.config.DocumentConfig;
+import com.web.model.Document;
+import com.web.model.GarbageCollectionReport;
+import com.web.model.StoredObject;
+import com.web.model.enumeration.DocumentPart;
+import com.web.model.enumeration.StorageLayout;
+import com.web.model.enumeration.StorageState;
+import com.web.repository.DocumentBlobRepository;
+import com.web.repository.DocumentRepository;
+import com.web.storage.DocumentStorage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+@Service
+public class DocumentGarbageCollectionService {
+
+    private static final Pattern DOCUMENT_KEY = Pattern.compile(
+            "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}/[^/]+");
+
+    private final DocumentStorage documentStorage;
+    private final DocumentRepository documentRepository;
+    private final DocumentBlobRepository documentBlobRepository;
+    private final DocumentLocationService documentLocationService;
+    private final ObjectMetadataService objectMetadataService;
+    private final PresignedUrlService presignedUrlService;
+    private final DocumentConfig documentConfig;
+    private final AwsS3Config awsS3Config;
+    private final Counter deletedObjects;
+    private final Counter failedObjects;
+    private final Counter reclaimedBytes;
+
+    @Autowired
+    public DocumentGarbageCollectionService(DocumentStorage documentStorage,
+                                            DocumentRepository documentRepository,
+                                            DocumentBlobRepository documentBlobRepository,
+                                            DocumentLocationService documentLocationService,
+                                            ObjectMetadataService objectMetadataService,
+                                            PresignedUrlService presignedUrlService,
+                                            DocumentConfig documentConfig,
+                                            AwsS3Config awsS3Config,
+                                            MeterRegistry meterRegistry) {
+        this.documentStorage = documentStorage;
+        this.documentRepository = documentRepository;
+        this.documentBlobRepository = documentBlobRepository;
+        this.documentLocationService = documentLocationService;
+        this.objectMetadataService = objectMetadataService;
+        this.presignedUrlService = presignedUrlService;
+        this.documentConfig = documentConfig;
+        this.awsS3Config = awsS3Config;
+        this.deletedObjects = meterRegistry.counter("document.gc.objects", "result", "deleted");
+        this.failedObjects = meterRegistry.counter("document.gc.objects", "result", "failed");
+        this.reclaimedBytes = Counter.builder("document.gc.reclaimed")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public GarbageCollectionReport collect() {
+        Sweep sweep = new Sweep(awsS3Config.getBucketName(),
+                Instant.now().minus(Duration.ofHours(documentConfig.getGcGracePeriodHours())));
+        int pageSize = documentConfig.getGcPageSize();
+        String startAfter = null;
+        List<StoredObject> page;
+        do {
+            page = documentStorage.list(sweep.bucketName, startAfter, pageSize);
+            for (StoredObject object : page) {
+                sweep.visit(object);
+            }
+            if (!page.isEmpty()) {
+                startAfter = page.get(page.size() - 1).key();
+            }
+        } while (page.size() == pageSize && !Thread.currentThread().isInterrupted());
+        sweep.flush();
+
+        return new GarbageCollectionReport(sweep.scanned, sweep.orphaned, sweep.deleted, sweep.reclaimed,
+                sweep.failed);
+    }
+
+    private Supplier<List<String>> getReferencedBlobKeys() {
+        AtomicReference<String> lastHash = new AtomicReference<>("");
+        return () -> {
+            List<String> hashes = documentRepository.findReferencedHashesGreaterThan(lastHash.get(),
+                    documentConfig.getGcPageSize());
+            if (!hashes.isEmpty()) {
+                lastHash.set(hashes.get(hashes.size() - 1));
+            }
+            return hashes.stream()
+                    .map(hash -> documentLocationService.getBlobLocation(hash).key())
+                    .toList();
+        };
+    }
+
+    private Supplier<List<String>> getReferencedDocumentKeys() {
+        AtomicReference<UUID> lastUserId = new AtomicReference<>(new UUID(0, 0));
+        return () -> {
+            List<String> keys = new ArrayList<>();
+            List<Document> documents;
+            do {
+                documents = documentRepository.findWithUserByStorageLayoutAndUserIdGreaterThan(
+                        StorageLayout.SHARED_BUCKET, lastUserId.get(), PageRequest.of(0, documentConfig.getGcPageSize()));
+                for (Document document : documents) {
+                    UUID userId = document.getUser().getId();
+                    Arrays.stream(DocumentPart.values())
+                            .filter(part -> document.getHash(part) == null)
+                            .map(part -> documentLocationService.getLocation(userId, StorageLayout.SHARED_BUCKET, part).key())
+                            .sorted()
+                            .forEach(keys::add);
+                    lastUserId.set(userId);
+                }
+            } while (keys.isEmpty() && !documents.isEmpty());
+            return keys;
+        };
+    }
+
+    private final class Sweep {
+
+        private final String bucketName;
+        private final Instant cutoff;
+        private final SortedKeys blobKeys = new SortedKeys(getReferencedBlobKeys());
+        private final SortedKeys documentKeys = new SortedKeys(getReferencedDocumentKeys());
+        private final Map<String, Long> pending = new LinkedHashMap<>();
+        private long nextBatchAt = System.nanoTime();
+        private int scanned;
+        private int orphaned;
+        private int deleted;
+        private long reclaimed;
+        private int failed;
+
+        private Sweep(String bucketName, Instant cutoff) {
+            this.bucketName = bucketName;
+            this.cutoff = cutoff;
+        }
+
+        private void visit(StoredObject object) {
+            scanned++;
+            if (!isOrphan(object)) {
+                return;
+            }
+
+            orphaned++;
+            if (object.key().startsWith(DocumentLocationService.BLOB_PREFIX)) {
+                deleteBlobObject(object);
+                return;
+            }
+
+            pending.put(object.key(), object.size());
+            if (pending.size() >= documentConfig.getGcDeleteBatchSize()) {
+                flush();
+            }
+        }
+
+        private boolean isOrphan(StoredObject object) {
+            // Presigned uploads land before they are confirmed, so recent objects are never collected
+            if (object.lastModified().isAfter(cutoff)) {
+                return false;
+            }
+
+            String key = object.key();
+            if (key.startsWith(DocumentLocationService.BLOB_PREFIX)) {
+                int separator = key.indexOf('.', DocumentLocationService.BLOB_PREFIX.length());
+                if (separator >= 0) {
+                    // Derived objects such as previews sit next to their blob and go once the blob row is gone
+                    String ownerKey = key.substring(0, separator);
+                    return !blobKeys.contains(ownerKey) && !documentBlobRepository.existsById(
+                            ownerKey.substring(DocumentLocationService.BLOB_PREFIX.length()));
+                }
+                if (blobKeys.contains(key)) {
+                    return false;
+                }
+                // A concurrent upload deduplicating onto this blob holds a reference, so the tombstone matches nothing
+                String hash = key.substring(DocumentLocationService.BLOB_PREFIX.length());
+                return !documentBlobRepository.existsById(hash) || documentBlobRepository.markDeleting(hash) > 0;
+            }
+            return DOCUMENT_KEY.matcher(key).matches() && !documentKeys.contains(key);
+        }
+
+        // Blob keys can be written again by an upload of the same content, so they are not left waiting in a batch
+        private void deleteBlobObject(StoredObject object) {
+            pace(1);
+            boolean deleted = !delete(Map.of(object.key(), object.size())).isEmpty();
+
+            String hash = object.key().substring(DocumentLocationService.BLOB_PREFIX.length());
+            if (hash.indexOf('.') >= 0) {
+                return;
+            }
+            // Uploads that found the tombstone staged their content, which is shipped once the blob is handed back
+            if (!deleted || documentBlobRepository.deleteUnreferenced(hash) == 0) {
+                documentBlobRepository.cancelDeleting(hash, deleted ? StorageState.FAILED : StorageState.STORED);
+            }
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            pace(pending.size());
+            delete(pending);
+            pending.clear();
+        }
+
+        private List<String> delete(Map<String, Long> objects) {
+            List<String> keys = new ArrayList<>(objects.keySet());
+            List<String> deletedKeys;
+            try {
+                deletedKeys = documentStorage.delete(bucketName, keys);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                deletedKeys = List.of();
+            }
+
+            for (String key : deletedKeys) {
+                long size = objects.getOrDefault(key, 0L);
+                reclaimed += size;
+                reclaimedBytes.increment(size);
+                objectMetadataService.evict(bucketName, key);
+                presignedUrlService.evictDownloadUrl(bucketName, key);
+            }
+            deleted += deletedKeys.size();
+            deletedObjects.increment(deletedKeys.size());
+            failed += keys.size() - deletedKeys.size();
+            failedObjects.increment(keys.size() - deletedKeys.size());
+            return deletedKeys;
+        }
+
+        private void pace(int count) {
+            long delay = nextBatchAt - System.nanoTime();
+            if (delay > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            nextBatchAt = Math.max(nextBatchAt, System.nanoTime())
+                    + TimeUnit.SECONDS.toNanos(count) / documentConfig.getGcMaxDeletesPerSecond();
+        }
+    }
+
+    private static final class SortedKeys {
+
+        private final Supplier<List<String>> nextPage;
+        private final Deque<String> page = new ArrayDeque<>();
+        private boolean exhausted;
+
+        private SortedKeys(Supplier<List<String>> nextPage) {
+            this.nextPage = nextPage;
+        }
+
+        private boolean contains(String key) {
+            while (true) {
+                if (page.isEmpty()) {
+                    if (exhausted) {
+                        return false;
+                    }
+                    page.addAll(nextPage.get());
+                    exhausted = page.isEmpty();
+                    continue;
+                }
+
+                int comparison = page.peek().compareTo(key);
+                if (comparison >= 0) {
+                    return comparison == 0;
+                }
+                page.poll();
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.web.service;
+
+import com.web.config.AwsS3Config;
+import com.web.model.ObjectLocation;
+import com.web.model.enumeration.DocumentPart;
+import com.web.model.enumeration.StorageLayout;
+import com.web.storage.DocumentStorage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+@Service
+public class DocumentLocationService {
+
+    public static final String BLOB_PREFIX = "blobs/";
+    private static final String PREVIEW_SUFFIX = ".preview.jpg";
+
+    private final DocumentStorage documentStorage;
+    private final AwsS3Config awsS3Config;
+    private volatile boolean bucketReady;
+
+    @Autowired
+    public DocumentLocationService(DocumentStorage documentStorage, AwsS3Config awsS3Config) {
+        this.documentStorage = documentStorage;
+        this.awsS3Config = awsS3Config;
+    }
+
+    public ObjectLocation getLocation(UUID userId, StorageLayout layout, DocumentPart part) {
+        return switch (layout) {
+            case USER_BUCKET -> new ObjectLocation(userId.toString(), part.getObjectName());
+            case SHARED_BUCKET -> new ObjectLocation(awsS3Config.getBucketName(), userId + "/" + part.getObjectName());
+        };
+    }
+
+    public ObjectLocation getBlobLocation(String hash) {
+        return new ObjectLocation(awsS3Config.getBucketName(), BLOB_PREFIX + hash);
+    }
+
+    public ObjectLocation getPreviewLocation(String hash) {
+        return new ObjectLocation(awsS3Config.getBucketName(), BLOB_PREFIX + hash + PREVIEW_SUFFIX);
+    }
+
+    public void ensureBucket() {
+        if (bucketReady) {
+            return;
+        }
+        synchronized (this) {
+            if (!bucketReady) {
+                documentStorage.createBucket(awsS3Config.getBucketName());
+            }
+            bucketReady = true;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.web.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "config.document.migration.enabled", havingValue = "true")
+public class DocumentMigrationRunner implements ApplicationRunner {
+
+    private final DocumentMigrationService documentMigrationService;
+
+    @Autowired
+    public DocumentMigrationRunner(DocumentMigrationService documentMigrationService) {
+        this.documentMigrationService = documentMigrationService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        documentMigrationService.migrate();
+    }
+}
@@ -0,0 +1,137 @@
+package com.web.service;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.web.config.DocumentConfig;
+import com.web.model.Document;
+import com.web.model.MigrationReport;
+import com.web.model.ObjectLocation;
+import com.web.model.enumeration.DocumentPart;
+import com.web.model.enumeration.StorageLayout;
+import com.web.repository.DocumentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+@Service
+public class DocumentMigrationService {
+
+    private enum Result { MIGRATED, SKIPPED, FAILED }
+
+    private final DocumentRepository documentRepository;
+    private final AmazonS3 s3Client;
+    private final DocumentLocationService documentLocationService;
+    private final ObjectMetadataService objectMetadataService;
+    private final PresignedUrlService presignedUrlService;
+    private final DocumentConfig documentConfig;
+    private final Executor documentMigrationExecutor;
+    private final Map<Result, Counter> counters = new EnumMap<>(Result.class);
+
+    @Autowired
+    public DocumentMigrationService(DocumentRepository documentRepository,
+                                    AmazonS3 s3Client,
+                                    DocumentLocationService documentLocationService,
+                                    ObjectMetadataService objectMetadataService,
+                                    PresignedUrlService presignedUrlService,
+                                    DocumentConfig documentConfig,
+                                    @Qualifier("documentMigrationExecutor") Executor documentMigrationExecutor,
+                                    MeterRegistry meterRegistry) {
+        this.documentRepository = documentRepository;
+        this.s3Client = s3Client;
+        this.documentLocationService = documentLocationService;
+        this.objectMetadataService = objectMetadataService;
+        this.presignedUrlService = presignedUrlService;
+        this.documentConfig = documentConfig;
+        this.documentMigrationExecutor = documentMigrationExecutor;
+        for (Result result : Result.values()) {
+            counters.put(result, meterRegistry.counter("document.migration", "result", result.name().toLowerCase()));
+        }
+    }
+
+    public MigrationReport migrate() {
+        documentLocationService.ensureBucket();
+
+        Map<Result, Integer> results = new EnumMap<>(Result.class);
+        int batchSize = documentConfig.getMigrationBatchSize();
+        long lastId = 0;
+        List<Document> batch;
+        do {
+            batch = documentRepository.findByStorageLayoutAndIdGreaterThanOrderByIdAsc(StorageLayout.USER_BUCKET,
+                    lastId, PageRequest.of(0, batchSize));
+
+            List<CompletableFuture<Result>> migrations = batch.stream()
+                    .map(document -> CompletableFuture
+                            .supplyAsync(() -> migrate(document), documentMigrationExecutor)
+                            .exceptionally(e -> Result.FAILED))
+                    .toList();
+            for (CompletableFuture<Result> migration : migrations) {
+                Result result = migration.join();
+                results.merge(result, 1, Integer::sum);
+                counters.get(result).increment();
+            }
+
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == batchSize);
+
+        return new MigrationReport(results.getOrDefault(Result.MIGRATED, 0),
+                results.getOrDefault(Result.SKIPPED, 0), results.getOrDefault(Result.FAILED, 0));
+    }
+
+    private Result migrate(Document document) {
+        UUID userId = document.getUser().getId();
+        Map<DocumentPart, String> urls = new EnumMap<>(DocumentPart.class);
+
+        for (DocumentPart part : DocumentPart.values()) {
+            if (document.getHash(part) != null) {
+                urls.put(part, document.getUrl(part));
+                continue;
+            }
+
+            ObjectLocation source = documentLocationService.getLocation(userId, StorageLayout.USER_BUCKET, part);
+            ObjectLocation target = documentLocationService.getLocation(userId, StorageLayout.SHARED_BUCKET, part);
+            // Direct uploads are refused until the document is migrated, so nothing else writes the target meanwhile
+            if (!s3Client.doesObjectExist(target.bucketName(), target.key())) {
+                s3Client.copyObject(source.bucketName(), source.key(), target.bucketName(), target.key());
+            }
+            urls.put(part, s3Client.getUrl(target.bucketName(), target.key()).toString());
+        }
+
+        int updated = documentRepository.markMigrated(document.getId(), urls.get(DocumentPart.IDENTITY_CARD),
+                urls.get(DocumentPart.MEDICAL_CERTIFICATE), urls.get(DocumentPart.DIPLOMA));
+        if (updated == 0) {
+            return Result.SKIPPED;
+        }
+
+        deleteUserBucket(userId);
+        return Result.MIGRATED;
+    }
+
+    private void deleteUserBucket(UUID userId) {
+        String bucketName = userId.toString();
+        if (!s3Client.doesBucketExistV2(bucketName)) {
+            return;
+        }
+
+        for (DocumentPart part : DocumentPart.values()) {
+            ObjectLocation source = documentLocationService.getLocation(userId, StorageLayout.USER_BUCKET, part);
+            s3Client.deleteObject(source.bucketName(), source.key());
+            objectMetadataService.evict(source.bucketName(), source.key());
+            presignedUrlService.evictDownloadUrl(source.bucketName(), source.key());
+        }
+
+        if (s3Client.listObjectsV2(bucketName).getKeyCount() == 0) {
+            s3Client.deleteBucket(bucketName);
+        }
+    }
+}
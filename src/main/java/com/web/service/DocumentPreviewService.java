@@ -0,0 +1,248 @@
+package com.web.service;
+
+import com.web.config.DocumentConfig;
+import com.web.error.ErrorMessage;
+import com.web.error.exception.NotFoundException;
+import com.web.model.DocumentBlob;
+import com.web.model.DocumentContent;
+import com.web.model.DocumentPreview;
+import com.web.model.ObjectInfo;
+import com.web.model.ObjectLocation;
+import com.web.model.enumeration.DocumentType;
+import com.web.model.enumeration.PreviewState;
+import com.web.model.enumeration.StorageState;
+import com.web.repository.DocumentBlobRepository;
+import com.web.storage.DocumentStorage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class DocumentPreviewService {
+
+    private static final String PREVIEW_CONTENT_TYPE = "image/jpeg";
+    private static final String PREVIEW_FORMAT = "jpg";
+    private static final float POINTS_PER_INCH = 72;
+
+    private final DocumentBlobRepository documentBlobRepository;
+    private final DocumentStorage documentStorage;
+    private final DocumentLocationService documentLocationService;
+    private final ObjectMetadataService objectMetadataService;
+    private final DocumentEncryptionService documentEncryptionService;
+    private final DocumentConfig documentConfig;
+    private final Executor documentPreviewExecutor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final Counter readyPreviews;
+    private final Counter unsupportedPreviews;
+    private final Counter failedPreviews;
+    private final Timer renderTimer;
+
+    @Autowired
+    public DocumentPreviewService(DocumentBlobRepository documentBlobRepository,
+                                  DocumentStorage documentStorage,
+                                  DocumentLocationService documentLocationService,
+                                  ObjectMetadataService objectMetadataService,
+                                  DocumentEncryptionService documentEncryptionService,
+                                  DocumentConfig documentConfig,
+                                  @Qualifier("documentPreviewExecutor") Executor documentPreviewExecutor,
+                                  MeterRegistry meterRegistry) {
+        this.documentBlobRepository = documentBlobRepository;
+        this.documentStorage = documentStorage;
+        this.documentLocationService = documentLocationService;
+        this.objectMetadataService = objectMetadataService;
+        this.documentEncryptionService = documentEncryptionService;
+        this.documentConfig = documentConfig;
+        this.documentPreviewExecutor = documentPreviewExecutor;
+        this.readyPreviews = meterRegistry.counter("document.preview", "result", "ready");
+        this.unsupportedPreviews = meterRegistry.counter("document.preview", "result", "unsupported");
+        this.failedPreviews = meterRegistry.counter("document.preview", "result", "failed");
+        this.renderTimer = meterRegistry.timer("document.preview.render");
+    }
+
+    public void enqueue(String hash) {
+        if (!inFlight.add(hash)) {
+            return;
+        }
+
+        try {
+            documentPreviewExecutor.execute(() -> {
+                try {
+                    render(hash);
+                } finally {
+                    inFlight.remove(hash);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The recovery job picks the blob up again once the queue drains
+            inFlight.remove(hash);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${config.document.preview.recovery-interval-ms}")
+    public void recover() {
+        documentBlobRepository.findTop100ByStateAndPreviewStateIsNullOrderByCreatedAtAsc(StorageState.STORED)
+                .forEach(blob -> enqueue(blob.getHash()));
+    }
+
+    public DocumentPreview getPreview(String hash) {
+        DocumentBlob blob = documentBlobRepository.findById(hash).orElseThrow(() ->
+                new NotFoundException(ErrorMessage.NOT_FOUND, "preview", hash));
+        return new DocumentPreview(hash, blob.getPreviewState(), blob.getPageCount(), blob.getWidth(),
+                blob.getHeight());
+    }
+
+    public DocumentContent getContent(String hash) {
+        ObjectLocation location = documentLocationService.getPreviewLocation(hash);
+        ObjectInfo info = objectMetadataService.getMetadata(location.bucketName(), location.key());
+        return new DocumentContent(location.bucketName(), location.key(), info.contentLength(),
+                PREVIEW_CONTENT_TYPE, hash, info.encrypted());
+    }
+
+    void render(String hash) {
+        DocumentBlob blob = documentBlobRepository.findById(hash).orElse(null);
+        if (blob == null || blob.getState() != StorageState.STORED || blob.getPreviewState() != null) {
+            return;
+        }
+
+        Optional<DocumentType> type = DocumentType.fromContentType(blob.getContentType());
+        if (type.isEmpty()) {
+            documentBlobRepository.updatePreview(hash, PreviewState.UNSUPPORTED, null, null, null);
+            unsupportedPreviews.increment();
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        try {
+            Rendering rendering;
+            try (InputStream inputStream = open(hash)) {
+                rendering = type.get() == DocumentType.PDF ? renderPdf(inputStream) : renderImage(inputStream);
+            }
+            store(hash, rendering.image());
+
+            documentBlobRepository.updatePreview(hash, PreviewState.READY, rendering.pageCount(), rendering.width(),
+                    rendering.height());
+            readyPreviews.increment();
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            documentBlobRepository.updatePreview(hash, PreviewState.FAILED, null, null, null);
+            failedPreviews.increment();
+        } finally {
+            renderTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private InputStream open(String hash) throws IOException {
+        ObjectLocation location = documentLocationService.getBlobLocation(hash);
+        ObjectInfo info = objectMetadataService.getMetadata(location.bucketName(), location.key());
+        if (info.encrypted()) {
+            return documentEncryptionService.open(location, info.contentLength(), 0, info.contentLength() - 1);
+        }
+        return documentStorage.get(location, 0, info.contentLength() - 1);
+    }
+
+    private Rendering renderPdf(InputStream inputStream) throws IOException {
+        // Large scans are buffered in a temporary file instead of the heap while the first page is rendered
+        try (PDDocument document = PDDocument.load(inputStream, MemoryUsageSetting.setupTempFileOnly())) {
+            PDRectangle mediaBox = document.getPage(0).getMediaBox();
+            float scale = documentConfig.getPreviewMaxSize() / Math.max(mediaBox.getWidth(), mediaBox.getHeight());
+            BufferedImage image = new PDFRenderer(document).renderImageWithDPI(0,
+                    Math.min(scale, 1) * POINTS_PER_INCH, ImageType.RGB);
+            return new Rendering(image, document.getNumberOfPages(), Math.round(mediaBox.getWidth()),
+                    Math.round(mediaBox.getHeight()));
+        }
+    }
+
+    private Rendering renderImage(InputStream inputStream) throws IOException {
+        try (ImageInputStream imageInputStream = ImageIO.createImageInputStream(inputStream)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInputStream);
+            if (!readers.hasNext()) {
+                throw new IOException("No image reader for the document");
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInputStream, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+
+                // Subsampling while decoding keeps a large photo from being decoded at full resolution
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.max(width, height) / documentConfig.getPreviewMaxSize());
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return new Rendering(scale(reader.read(0, param)), 1, width, height);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage scale(BufferedImage source) {
+        int maxSize = documentConfig.getPreviewMaxSize();
+        double scale = Math.min(1, (double) maxSize / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        // JPEG has no alpha channel, so transparent pixels are flattened onto white
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+
+    private void store(String hash, BufferedImage image) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        if (!ImageIO.write(image, PREVIEW_FORMAT, outputStream)) {
+            throw new IOException("No image writer for " + PREVIEW_FORMAT);
+        }
+        byte[] bytes = outputStream.toByteArray();
+
+        ObjectLocation location = documentLocationService.getPreviewLocation(hash);
+        if (!documentEncryptionService.isEnabled()) {
+            documentStorage.put(location, new ByteArrayInputStream(bytes), bytes.length, PREVIEW_CONTENT_TYPE, null);
+        } else {
+            try (InputStream inputStream = documentEncryptionService.encrypt(new ByteArrayInputStream(bytes),
+                    bytes.length)) {
+                documentStorage.put(location, inputStream, documentEncryptionService.getEncryptedLength(bytes.length),
+                        PREVIEW_CONTENT_TYPE, null);
+            }
+        }
+        objectMetadataService.evict(location.bucketName(), location.key());
+    }
+
+    private record Rendering(BufferedImage image, int pageCount, int width, int height) {
+    }
+}
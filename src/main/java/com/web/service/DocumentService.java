@@ -1,43 +1,87 @@
 package com.web.service;
 
-import com.amazonaws.services.s3.AmazonS3;
-import com.amazonaws.services.s3.model.PutObjectResult;
 import com.web.error.ErrorMessage;
+import com.web.error.exception.AbstractApiException;
 import com.web.error.exception.BadRequestException;
 import com.web.error.exception.ConflictException;
 import com.web.error.exception.InternalServerErrorException;
 import com.web.error.exception.NotFoundException;
+import com.web.error.exception.ServiceUnavailableException;
 import com.web.model.Document;
+import com.web.model.DocumentBlob;
+import com.web.model.DocumentContent;
+import com.web.model.DocumentPreview;
+import com.web.model.ObjectInfo;
+import com.web.model.ObjectLocation;
+import com.web.model.PresignedUrl;
 import com.web.model.User;
+import com.web.model.enumeration.DocumentPart;
+import com.web.model.enumeration.DocumentType;
+import com.web.model.enumeration.PreviewState;
+import com.web.model.enumeration.StorageLayout;
+import com.web.model.enumeration.StorageState;
 import com.web.repository.DocumentRepository;
+import com.web.storage.DocumentStorage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.transaction.Transactional;
-import java.io.File;
 import java.io.IOException;
-import java.util.List;
-import java.util.Objects;
-import java.util.UUID;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.*;
 
 @Service
 public class DocumentService {
 
     private final DocumentRepository documentRepository;
-    private final AmazonS3 s3Client;
+    private final DocumentStorage documentStorage;
     private final UserService userService;
     private final SecurityService securityService;
+    private final DocumentBlobService documentBlobService;
+    private final DocumentLocationService documentLocationService;
+    private final DocumentStagingService documentStagingService;
+    private final DocumentEncryptionService documentEncryptionService;
+    private final DocumentPreviewService documentPreviewService;
+    private final DocumentCacheService documentCacheService;
+    private final ObjectMetadataService objectMetadataService;
+    private final PresignedUrlService presignedUrlService;
+    private final DocumentValidationService documentValidationService;
+    private final Executor documentUploadExecutor;
 
     @Autowired
     public DocumentService(DocumentRepository documentRepository,
-                           AmazonS3 s3Client,
+                           DocumentStorage documentStorage,
                            UserService userService,
-                           SecurityService securityService) {
+                           SecurityService securityService,
+                           DocumentBlobService documentBlobService,
+                           DocumentLocationService documentLocationService,
+                           DocumentStagingService documentStagingService,
+                           DocumentEncryptionService documentEncryptionService,
+                           DocumentPreviewService documentPreviewService,
+                           DocumentCacheService documentCacheService,
+                           ObjectMetadataService objectMetadataService,
+                           PresignedUrlService presignedUrlService,
+                           DocumentValidationService documentValidationService,
+                           @Qualifier("documentUploadExecutor") Executor documentUploadExecutor) {
         this.documentRepository = documentRepository;
-        this.s3Client = s3Client;
+        this.documentStorage = documentStorage;
         this.userService = userService;
         this.securityService = securityService;
+        this.documentBlobService = documentBlobService;
+        this.documentLocationService = documentLocationService;
+        this.documentStagingService = documentStagingService;
+        this.documentEncryptionService = documentEncryptionService;
+        this.documentPreviewService = documentPreviewService;
+        this.documentCacheService = documentCacheService;
+        this.objectMetadataService = objectMetadataService;
+        this.presignedUrlService = presignedUrlService;
+        this.documentValidationService = documentValidationService;
+        this.documentUploadExecutor = documentUploadExecutor;
     }
 
     @Transactional
@@ -52,21 +96,7 @@ public class DocumentService {
         user.setDocument(document);
         document.setUser(user);
 
-        checkContentType(identityCard, "identityCard");
-        checkContentType(medicalCertificate, "medicalCertificate");
-        checkContentType(diploma, "diploma");
-
-        s3Client.createBucket(userId.toString());
-
-        try {
-            document.setIdentityCard(uploadFile(userId.toString(), identityCard, "identityCard"));
-            document.setMedicalCertificate(uploadFile(userId.toString(), medicalCertificate, "medicalCertificate"));
-            document.setDiploma(uploadFile(userId.toString(), diploma, "diploma"));
-        } catch (IOException e) {
-            e.printStackTrace();
-            s3Client.deleteBucket(userId.toString());
-            throw new InternalServerErrorException(ErrorMessage.INTERNAL_SERVER_ERROR);
-        }
+        storeFiles(document, identityCard, medicalCertificate, diploma);
 
         return documentRepository.save(document);
     }
@@ -74,25 +104,85 @@ public class DocumentService {
     @Transactional
     public Document update(Long id, MultipartFile identityCard, MultipartFile medicalCertificate, MultipartFile diploma) {
         Document document = getById(id);
-        UUID userId = document.getUser().getId();
 
         checkNotSubmitted(document);
-        checkContentType(identityCard, "identityCard");
-        checkContentType(medicalCertificate, "medicalCertificate");
-        checkContentType(diploma, "diploma");
 
-        try {
-            document.setIdentityCard(uploadFile(userId.toString(), identityCard, "identityCard"));
-            document.setMedicalCertificate(uploadFile(userId.toString(), medicalCertificate, "medicalCertificate"));
-            document.setDiploma(uploadFile(userId.toString(), diploma, "diploma"));
-        } catch (IOException e) {
-            e.printStackTrace();
-            throw new InternalServerErrorException(ErrorMessage.INTERNAL_SERVER_ERROR);
+        storeFiles(document, identityCard, medicalCertificate, diploma);
+        evictObjects(document);
+
+        return documentRepository.save(document);
+    }
+
+    @Transactional
+    public Document save(MultipartFile identityCard, MultipartFile medicalCertificate, MultipartFile diploma) {
+        User user = userService.getById(securityService.getUserId());
+        if (user.getDocument() == null) {
+            return create(identityCard, medicalCertificate, diploma);
+        }
+        return update(user.getDocument().getId(), identityCard, medicalCertificate, diploma);
+    }
+
+    public Map<DocumentPart, PresignedUrl> createUploadUrls() {
+        UUID userId = securityService.getUserId();
+        User user = userService.getById(userId);
+        checkNotSubmitted(user);
+        checkMigrated(user);
+        checkPresignedUrlsSupported();
+
+        documentLocationService.ensureBucket();
+
+        Map<DocumentPart, PresignedUrl> uploadUrls = new EnumMap<>(DocumentPart.class);
+        for (DocumentPart part : DocumentPart.values()) {
+            ObjectLocation location = documentLocationService.getLocation(userId, StorageLayout.SHARED_BUCKET, part);
+            uploadUrls.put(part, presignedUrlService.getUploadUrl(location.bucketName(), location.key()));
+        }
+        return uploadUrls;
+    }
+
+    @Transactional
+    public Document confirmUpload() {
+        UUID userId = securityService.getUserId();
+        User user = userService.getById(userId);
+        checkNotSubmitted(user);
+        checkMigrated(user);
+
+        Document document = user.getDocument();
+        if (document == null) {
+            document = new Document();
+            user.setDocument(document);
+            document.setUser(user);
+        }
+
+        evictObjects(userId, StorageLayout.SHARED_BUCKET);
+        for (DocumentPart part : DocumentPart.values()) {
+            ObjectLocation location = documentLocationService.getLocation(userId, StorageLayout.SHARED_BUCKET, part);
+            ObjectInfo info = objectMetadataService.getMetadata(location.bucketName(), location.key());
+            documentValidationService.checkSize(info.contentLength(), part);
+            checkType(location, part);
         }
 
+        for (DocumentPart part : DocumentPart.values()) {
+            ObjectLocation location = documentLocationService.getLocation(userId, StorageLayout.SHARED_BUCKET, part);
+            documentBlobService.release(document.getHash(part));
+            documentCacheService.evictBlob(document.getHash(part));
+            document.setHash(part, null);
+            document.setState(part, StorageState.STORED);
+            document.setUrl(part, documentStorage.getUrl(location));
+        }
+        document.setStorageLayout(StorageLayout.SHARED_BUCKET);
+
         return documentRepository.save(document);
     }
 
+    public PresignedUrl getDownloadUrl(Long id, DocumentPart part) {
+        checkPresignedUrlsSupported();
+        ObjectLocation location = getLocation(getById(id), part);
+        if (objectMetadataService.getMetadata(location.bucketName(), location.key()).encrypted()) {
+            throw new BadRequestException(ErrorMessage.UNSUPPORTED_OPERATION, "presigned url of an encrypted document");
+        }
+        return presignedUrlService.getDownloadUrl(location.bucketName(), location.key());
+    }
+
     public Document getById(Long id) {
         Document document = documentRepository.findById(id).orElseThrow(() ->
                 new NotFoundException(ErrorMessage.NOT_FOUND, "document", id));
@@ -101,6 +191,47 @@ public class DocumentService {
         return document;
     }
 
+    public DocumentContent getContent(Long id, DocumentPart part) {
+        return getContent(getById(id), part);
+    }
+
+    public DocumentContent getContent(Document document, DocumentPart part) {
+        ObjectLocation location = getLocation(document, part);
+        ObjectInfo info = objectMetadataService.getMetadata(location.bucketName(), location.key());
+
+        return new DocumentContent(location.bucketName(), location.key(), info.contentLength(),
+                info.contentType(), info.eTag(), info.encrypted());
+    }
+
+    public InputStream openContent(DocumentContent content, long start, long end) throws IOException {
+        ObjectLocation location = new ObjectLocation(content.bucketName(), content.key());
+        return documentCacheService.open(content, start, end, (from, to) -> {
+            if (content.encrypted()) {
+                return documentEncryptionService.open(location, content.contentLength(), from, to);
+            }
+            return documentStorage.get(location, from, to);
+        });
+    }
+
+    public DocumentPreview getPreview(Long id, DocumentPart part) {
+        Document document = getById(id);
+        String hash = document.getHash(part);
+        if (hash == null) {
+            throw new NotFoundException(ErrorMessage.NOT_FOUND, "preview", id);
+        }
+        return documentPreviewService.getPreview(hash);
+    }
+
+    public DocumentContent getPreviewContent(Long id, DocumentPart part, String hash) {
+        // Only the preview of the current revision is served, so the hash in the url can be cached forever
+        Document document = getById(id);
+        if (!hash.equals(document.getHash(part))
+                || documentPreviewService.getPreview(hash).state() != PreviewState.READY) {
+            throw new NotFoundException(ErrorMessage.NOT_FOUND, "preview", hash);
+        }
+        return documentPreviewService.getContent(hash);
+    }
+
     public List<Document> getAll() {
         return documentRepository.findAll();
     }
@@ -110,32 +241,166 @@ public class DocumentService {
         Document document = getById(id);
         checkNotSubmitted(document);
 
+        for (DocumentPart part : DocumentPart.values()) {
+            documentBlobService.release(document.getHash(part));
+            documentCacheService.evictBlob(document.getHash(part));
+        }
+
         document.getUser().setDocument(null);
         documentRepository.delete(document);
+        evictObjects(document);
+    }
+
+    private ObjectLocation getLocation(Document document, DocumentPart part) {
+        StorageState state = document.getState(part);
+        if (state == StorageState.STAGED || state == StorageState.FAILED) {
+            throw new ConflictException(ErrorMessage.DOCUMENT_NOT_STORED, part.getObjectName(), state);
+        }
+
+        String hash = document.getHash(part);
+        if (hash != null) {
+            return documentBlobService.getLocation(hash);
+        }
+        return documentLocationService.getLocation(document.getUser().getId(), document.getStorageLayout(), part);
+    }
+
+    private void checkType(ObjectLocation location, DocumentPart part) {
+        try (InputStream inputStream = documentStorage.get(location, 0, DocumentType.HEADER_LENGTH - 1)) {
+            documentValidationService.detect(inputStream, part);
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new InternalServerErrorException(ErrorMessage.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private void storeFiles(Document document, MultipartFile identityCard,
+                            MultipartFile medicalCertificate, MultipartFile diploma) {
+        Map<DocumentPart, MultipartFile> files = new EnumMap<>(DocumentPart.class);
+        files.put(DocumentPart.IDENTITY_CARD, identityCard);
+        files.put(DocumentPart.MEDICAL_CERTIFICATE, medicalCertificate);
+        files.put(DocumentPart.DIPLOMA, diploma);
+
+        Map<DocumentPart, DocumentBlob> blobs = uploadFiles(files);
+        releaseOnRollback(blobs.values());
+        Set<String> stagedHashes = new HashSet<>();
+        blobs.forEach((part, blob) -> {
+            documentBlobService.release(document.getHash(part));
+            documentCacheService.evictBlob(document.getHash(part));
+            document.setHash(part, blob.getHash());
+            document.setState(part, blob.getState());
+            document.setUrl(part, documentBlobService.getUrl(blob.getHash()));
+            if (blob.getState() == StorageState.STAGED) {
+                stagedHashes.add(blob.getHash());
+            }
+        });
+        documentStagingService.enqueueAfterCommit(stagedHashes);
+    }
+
+    private Map<DocumentPart, DocumentBlob> uploadFiles(Map<DocumentPart, MultipartFile> files) {
+        CompletionService<Map.Entry<DocumentPart, DocumentBlob>> completionService =
+                new ExecutorCompletionService<>(documentUploadExecutor);
+        List<Future<Map.Entry<DocumentPart, DocumentBlob>>> uploads = new ArrayList<>();
+        Map<DocumentPart, DocumentBlob> blobs = new EnumMap<>(DocumentPart.class);
+        AcquiredBlobs acquiredBlobs = new AcquiredBlobs();
+
+        try {
+            files.forEach((part, file) -> uploads.add(completionService.submit(() ->
+                    Map.entry(part, acquiredBlobs.add(documentBlobService.store(file, part))))));
+
+            while (blobs.size() < uploads.size()) {
+                Map.Entry<DocumentPart, DocumentBlob> upload = completionService.take().get();
+                blobs.put(upload.getKey(), upload.getValue());
+            }
+            return blobs;
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException(ErrorMessage.SERVICE_UNAVAILABLE, "document upload");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof AbstractApiException apiException) {
+                throw apiException;
+            }
+            e.getCause().printStackTrace();
+            throw new InternalServerErrorException(ErrorMessage.INTERNAL_SERVER_ERROR);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InternalServerErrorException(ErrorMessage.INTERNAL_SERVER_ERROR);
+        } finally {
+            if (blobs.size() < uploads.size()) {
+                uploads.forEach(upload -> upload.cancel(true));
+                acquiredBlobs.abandon();
+            }
+        }
+    }
+
+    private void releaseOnRollback(Collection<DocumentBlob> blobs) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        List<String> hashes = blobs.stream().map(DocumentBlob::getHash).toList();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    documentBlobService.releaseAll(hashes);
+                }
+            }
+        });
     }
 
-    private void checkContentType(MultipartFile file, String name) {
-        List<String> allowedContentTypes = List.of("application/pdf", "image/.*");
+    private void evictObjects(Document document) {
+        evictObjects(document.getUser().getId(), document.getStorageLayout());
+    }
 
-        if (allowedContentTypes.stream().noneMatch((type) -> Objects.requireNonNull(file.getContentType()).matches(type))) {
-            throw new BadRequestException(ErrorMessage.INVALID_CONTENT_TYPE, name, allowedContentTypes);
+    private void evictObjects(UUID userId, StorageLayout layout) {
+        for (DocumentPart part : DocumentPart.values()) {
+            ObjectLocation location = documentLocationService.getLocation(userId, layout, part);
+            objectMetadataService.evict(location.bucketName(), location.key());
+            presignedUrlService.evictDownloadUrl(location.bucketName(), location.key());
+            documentCacheService.evict(location.bucketName(), location.key());
         }
     }
 
-    private String uploadFile(String bucketName, MultipartFile multipartFile, String objectName) throws IOException {
-        File file = File.createTempFile("temp", "." + getFileExtension(multipartFile.getContentType()));
-        multipartFile.transferTo(file);
-        PutObjectResult result = s3Client.putObject(bucketName, objectName, file);
-        return result.getMetadata().getRawMetadata().get("Location") + objectName;
+    private void checkPresignedUrlsSupported() {
+        if (!documentStorage.supportsPresignedUrls()) {
+            throw new BadRequestException(ErrorMessage.UNSUPPORTED_OPERATION, "presigned url");
+        }
     }
 
-    private String getFileExtension(String contentType) {
-        return contentType != null ? contentType.split("/")[1] : null;
+    // The migration copies legacy objects onto the shared bucket keys, which would overwrite a newer direct upload
+    private void checkMigrated(User user) {
+        if (user.getDocument() != null && user.getDocument().getStorageLayout() == StorageLayout.USER_BUCKET) {
+            throw new ConflictException(ErrorMessage.DOCUMENT_NOT_MIGRATED);
+        }
     }
 
     private void checkNotSubmitted(Document document) {
-        if (document.getUser().getAdmissionFile() != null) {
+        checkNotSubmitted(document.getUser());
+    }
+
+    private void checkNotSubmitted(User user) {
+        if (user.getAdmissionFile() != null) {
             throw new ConflictException(ErrorMessage.ADMISSION_FILE_ALREADY_SUBMITTED);
         }
     }
+
+    // Each stored blob holds a reference, which is given back when the other uploads of the request fail
+    private final class AcquiredBlobs {
+
+        private final List<String> hashes = new ArrayList<>();
+        private boolean abandoned;
+
+        private synchronized DocumentBlob add(DocumentBlob blob) {
+            if (abandoned) {
+                documentBlobService.releaseAll(List.of(blob.getHash()));
+            } else {
+                hashes.add(blob.getHash());
+            }
+            return blob;
+        }
+
+        private synchronized void abandon() {
+            abandoned = true;
+            documentBlobService.releaseAll(hashes);
+        }
+    }
 }
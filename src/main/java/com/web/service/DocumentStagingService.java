@@ -0,0 +1,301 @@
+package com.web.service;
+
+import com.web.config.DocumentConfig;
+import com.web.model.DocumentBlob;
+import com.web.model.ObjectLocation;
+import com.web.model.enumeration.StorageState;
+import com.web.repository.DocumentBlobRepository;
+import com.web.repository.DocumentRepository;
+import com.web.storage.DocumentStorage;
+import com.web.storage.LocalDocumentStorage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+@Service
+public class DocumentStagingService {
+
+    private static final String STAGING_BUCKET = "blobs";
+    private static final String TEMPORARY_PREFIX = ".upload-";
+    private static final int RECOVERY_BATCH_SIZE = 100;
+
+    private final DocumentBlobRepository documentBlobRepository;
+    private final DocumentRepository documentRepository;
+    private final DocumentStorage documentStorage;
+    private final DocumentLocationService documentLocationService;
+    private final DocumentEncryptionService documentEncryptionService;
+    private final DocumentPreviewService documentPreviewService;
+    private final DocumentConfig documentConfig;
+    private final Executor documentStagingExecutor;
+    private final DocumentStorage stagingStorage;
+    private final Path stagingBucket;
+    // Maps a hash being shipped to whether it was enqueued again meanwhile and needs another pass
+    private final ConcurrentMap<String, Boolean> inFlight = new ConcurrentHashMap<>();
+    // Blobs whose last pass ran out of attempts, left staged and only recovered again once their backoff expires
+    private final ConcurrentMap<String, Deferral> deferred = new ConcurrentHashMap<>();
+    private final Counter storedBlobs;
+    private final Counter failedBlobs;
+    private final Counter deferredBlobs;
+    private final Counter retriedUploads;
+
+    @Autowired
+    public DocumentStagingService(DocumentBlobRepository documentBlobRepository,
+                                  DocumentRepository documentRepository,
+                                  DocumentStorage documentStorage,
+                                  DocumentLocationService documentLocationService,
+                                  DocumentEncryptionService documentEncryptionService,
+                                  DocumentPreviewService documentPreviewService,
+                                  DocumentConfig documentConfig,
+                                  @Qualifier("documentStagingExecutor") Executor documentStagingExecutor,
+                                  MeterRegistry meterRegistry) {
+        this.documentBlobRepository = documentBlobRepository;
+        this.documentRepository = documentRepository;
+        this.documentStorage = documentStorage;
+        this.documentLocationService = documentLocationService;
+        this.documentEncryptionService = documentEncryptionService;
+        this.documentPreviewService = documentPreviewService;
+        this.documentConfig = documentConfig;
+        this.documentStagingExecutor = documentStagingExecutor;
+        this.stagingStorage = new LocalDocumentStorage(Path.of(documentConfig.getStagingDirectory()));
+        this.stagingBucket = Path.of(documentConfig.getStagingDirectory(), STAGING_BUCKET);
+        this.storedBlobs = meterRegistry.counter("document.staging.blobs", "result", "stored");
+        this.failedBlobs = meterRegistry.counter("document.staging.blobs", "result", "failed");
+        this.deferredBlobs = meterRegistry.counter("document.staging.blobs", "result", "deferred");
+        this.retriedUploads = meterRegistry.counter("document.staging.retries");
+    }
+
+    public Path createTemporaryFile() throws IOException {
+        Files.createDirectories(stagingBucket);
+        return Files.createTempFile(stagingBucket, TEMPORARY_PREFIX, ".tmp");
+    }
+
+    // Moves a copy written next to the staged blobs into place, so new content is never read again to stage it
+    public void stage(DocumentBlob blob, Path temporaryFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporaryFile, stagingBucket.resolve(blob.getHash()), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        blob.setStagingNode(documentConfig.getStagingNodeId());
+    }
+
+    public void enqueueAfterCommit(Collection<String> hashes) {
+        if (hashes.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            hashes.forEach(this::enqueue);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                hashes.forEach(DocumentStagingService.this::enqueue);
+            }
+        });
+    }
+
+    public void enqueue(String hash) {
+        while (true) {
+            Boolean rerun = inFlight.putIfAbsent(hash, false);
+            if (rerun == null) {
+                break;
+            }
+            if (rerun || inFlight.replace(hash, false, true)) {
+                return;
+            }
+        }
+
+        try {
+            documentStagingExecutor.execute(() -> {
+                do {
+                    ship(hash);
+                } while (!inFlight.remove(hash, false) && inFlight.replace(hash, true, false));
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(hash);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${config.document.staging.recovery-interval-ms}")
+    public void recover() {
+        long now = System.currentTimeMillis();
+        documentBlobRepository.findStaged(documentConfig.getStagingNodeId(), PageRequest.of(0, RECOVERY_BATCH_SIZE))
+                .stream()
+                .map(DocumentBlob::getHash)
+                .filter(hash -> isDue(deferred.get(hash), now))
+                .forEach(this::enqueue);
+    }
+
+    private static boolean isDue(Deferral deferral, long now) {
+        return deferral == null || deferral.retryAt() <= now;
+    }
+
+    void ship(String hash) {
+        DocumentBlob blob = documentBlobRepository.findById(hash).orElse(null);
+        // A blob being collected is handed back as staged once its object is gone, and shipped then
+        if (blob == null || blob.getState() == StorageState.DELETING) {
+            return;
+        }
+        if (blob.getState() != StorageState.STAGED) {
+            deferred.remove(hash);
+            updateDocuments(hash, blob.getState());
+            return;
+        }
+
+        ObjectLocation stagingLocation = getStagingLocation(hash);
+        Path stagingFile = stagingBucket.resolve(hash);
+        if (getSize(stagingFile) != blob.getSize()) {
+            giveUp(blob, stagingLocation);
+            return;
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                documentLocationService.ensureBucket();
+                try (InputStream inputStream = stagingStorage.get(stagingLocation, 0, blob.getSize() - 1)) {
+                    put(documentLocationService.getBlobLocation(hash), inputStream, blob);
+                }
+
+                updateDocuments(hash, StorageState.STORED);
+                documentBlobRepository.updateState(hash, StorageState.STORED);
+                stagingStorage.delete(stagingLocation);
+                deferred.remove(hash);
+                storedBlobs.increment();
+                documentPreviewService.enqueue(hash);
+                return;
+            } catch (IOException | RuntimeException e) {
+                if (attempt >= documentConfig.getStagingMaxAttempts()) {
+                    e.printStackTrace();
+                    // An outage is waited out, only a copy that no longer matches its checksum is given up on
+                    if (matchesChecksum(stagingFile, blob)) {
+                        defer(hash);
+                    } else {
+                        giveUp(blob, stagingLocation);
+                    }
+                    return;
+                }
+            }
+
+            retriedUploads.increment();
+            try {
+                Thread.sleep(documentConfig.getStagingRetryBackoffMs() << (attempt - 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Without an intact copy here the blob can still be shipped by the node that staged it, unless that is this one
+    private void giveUp(DocumentBlob blob, ObjectLocation stagingLocation) {
+        if (documentConfig.getStagingNodeId().equals(blob.getStagingNode())) {
+            fail(blob.getHash(), stagingLocation);
+        }
+    }
+
+    // Waits twice as long after every pass that runs out of attempts, starting at one recovery interval
+    private void defer(String hash) {
+        deferredBlobs.increment();
+        deferred.compute(hash, (key, deferral) -> {
+            int passes = deferral == null ? 1 : deferral.passes() + 1;
+            long backoffMs = Math.min(documentConfig.getStagingRecoveryIntervalMs() << Math.min(passes - 1, 30),
+                    documentConfig.getStagingMaxRecoveryBackoffMs());
+            return new Deferral(passes, System.currentTimeMillis() + backoffMs);
+        });
+    }
+
+    // Another node or an earlier pass may have stored the blob meanwhile, which a late failure must not undo
+    private void fail(String hash, ObjectLocation stagingLocation) {
+        deferred.remove(hash);
+        if (documentBlobRepository.updateState(hash, StorageState.STAGED, StorageState.FAILED) == 0) {
+            documentBlobRepository.findById(hash)
+                    .filter(blob -> blob.getState() == StorageState.STORED)
+                    .ifPresent(blob -> updateDocuments(hash, StorageState.STORED));
+            return;
+        }
+
+        updateDocuments(hash, StorageState.FAILED);
+        failedBlobs.increment();
+        // A failed blob is never shipped again, uploading the same content stages a fresh copy
+        try {
+            stagingStorage.delete(stagingLocation);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private long getSize(Path stagingFile) {
+        try {
+            return Files.size(stagingFile);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    // A copy that cannot be read right now is given the benefit of the doubt, the next pass checks it again
+    private boolean matchesChecksum(Path stagingFile, DocumentBlob blob) {
+        if (blob.getContentMd5() == null) {
+            return true;
+        }
+        try (InputStream inputStream = Files.newInputStream(stagingFile)) {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            inputStream.transferTo(new DigestOutputStream(OutputStream.nullOutputStream(), digest));
+            return blob.getContentMd5().equals(Base64.getEncoder().encodeToString(digest.digest()));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return true;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void put(ObjectLocation location, InputStream inputStream, DocumentBlob blob) throws IOException {
+        if (!documentEncryptionService.isEnabled()) {
+            documentStorage.put(location, inputStream, blob.getSize(), blob.getContentType(), blob.getContentMd5());
+            return;
+        }
+
+        // The checksum covers the plaintext, the GCM tags protect the encrypted chunks instead
+        documentStorage.put(location, documentEncryptionService.encrypt(inputStream, blob.getSize()),
+                documentEncryptionService.getEncryptedLength(blob.getSize()), blob.getContentType(), null);
+    }
+
+    private void updateDocuments(String hash, StorageState state) {
+        documentRepository.updateIdentityCardState(hash, StorageState.STAGED, state);
+        documentRepository.updateMedicalCertificateState(hash, StorageState.STAGED, state);
+        documentRepository.updateDiplomaState(hash, StorageState.STAGED, state);
+    }
+
+    private ObjectLocation getStagingLocation(String hash) {
+        return new ObjectLocation(STAGING_BUCKET, hash);
+    }
+
+    private record Deferral(int passes, long retryAt) {
+    }
+}
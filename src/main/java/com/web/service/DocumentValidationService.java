@@ -0,0 +1,89 @@
+package com.web.service;
+
+import com.web.config.DocumentConfig;
+import com.web.error.ErrorMessage;
+import com.web.error.exception.BadRequestException;
+import com.web.model.ValidatedFile;
+import com.web.model.enumeration.DocumentPart;
+import com.web.model.enumeration.DocumentType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+
+@Service
+public class DocumentValidationService {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final DocumentConfig documentConfig;
+
+    @Autowired
+    public DocumentValidationService(DocumentConfig documentConfig) {
+        this.documentConfig = documentConfig;
+    }
+
+    public ValidatedFile validate(MultipartFile file, DocumentPart part) throws IOException {
+        return validate(file, part, OutputStream.nullOutputStream());
+    }
+
+    // The content is copied as it is hashed, so storing it does not need another pass over the upload
+    public ValidatedFile validate(MultipartFile file, DocumentPart part, OutputStream copy) throws IOException {
+        checkSize(file.getSize(), part);
+
+        MessageDigest sha256 = newDigest("SHA-256");
+        MessageDigest md5 = newDigest("MD5");
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long size = 0;
+        DocumentType type;
+
+        try (InputStream inputStream = file.getInputStream()) {
+            int read = inputStream.readNBytes(buffer, 0, DocumentType.HEADER_LENGTH);
+            type = getType(buffer, read, part);
+
+            while (read != -1) {
+                sha256.update(buffer, 0, read);
+                md5.update(buffer, 0, read);
+                size += read;
+                checkSize(size, part);
+                copy.write(buffer, 0, read);
+                read = inputStream.read(buffer);
+            }
+        }
+
+        return new ValidatedFile(HexFormat.of().formatHex(sha256.digest()),
+                Base64.getEncoder().encodeToString(md5.digest()), size, type.getContentType());
+    }
+
+    public DocumentType detect(InputStream inputStream, DocumentPart part) throws IOException {
+        byte[] header = new byte[DocumentType.HEADER_LENGTH];
+        return getType(header, inputStream.readNBytes(header, 0, header.length), part);
+    }
+
+    public void checkSize(long size, DocumentPart part) {
+        long maxSize = documentConfig.getMaxSize(part);
+        if (size > maxSize) {
+            throw new BadRequestException(ErrorMessage.FILE_TOO_LARGE, part.getObjectName(), maxSize);
+        }
+    }
+
+    private DocumentType getType(byte[] header, int length, DocumentPart part) {
+        return DocumentType.detect(header, length).orElseThrow(() ->
+                new BadRequestException(ErrorMessage.INVALID_CONTENT_TYPE, part.getObjectName(), DocumentType.CONTENT_TYPES));
+    }
+
+    private MessageDigest newDigest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.web.service;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.*;
+import com.web.config.AwsS3Config;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.*;
+
+@Service
+public class MultipartUploadService {
+
+    private final AmazonS3 s3Client;
+    private final AwsS3Config awsS3Config;
+    private final Executor documentPartUploadExecutor;
+
+    @Autowired
+    public MultipartUploadService(AmazonS3 s3Client,
+                                  AwsS3Config awsS3Config,
+                                  @Qualifier("documentPartUploadExecutor") Executor documentPartUploadExecutor) {
+        this.s3Client = s3Client;
+        this.awsS3Config = awsS3Config;
+        this.documentPartUploadExecutor = documentPartUploadExecutor;
+    }
+
+    public boolean isMultipart(long contentLength) {
+        return contentLength >= awsS3Config.getMultipartThreshold();
+    }
+
+    public CompleteMultipartUploadResult upload(String bucketName, String key, InputStream inputStream,
+                                                long contentLength, String contentType) throws IOException {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentType(contentType);
+        String uploadId = s3Client.initiateMultipartUpload(
+                new InitiateMultipartUploadRequest(bucketName, key, metadata)).getUploadId();
+
+        try {
+            List<PartETag> partETags = uploadParts(bucketName, key, uploadId, inputStream, contentLength);
+            return s3Client.completeMultipartUpload(
+                    new CompleteMultipartUploadRequest(bucketName, key, uploadId, partETags));
+        } catch (IOException | RuntimeException e) {
+            s3Client.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, key, uploadId));
+            throw e;
+        }
+    }
+
+    private List<PartETag> uploadParts(String bucketName, String key, String uploadId, InputStream inputStream,
+                                       long contentLength) throws IOException {
+        int partSize = awsS3Config.getMultipartPartSize();
+        int partCount = (int) Math.max(1, (contentLength + partSize - 1) / partSize);
+        int bufferCount = Math.min(awsS3Config.getMultipartConcurrency(), partCount);
+        BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(bufferCount);
+        for (int i = 0; i < bufferCount; i++) {
+            buffers.add(new byte[partSize]);
+        }
+
+        List<CompletableFuture<PartETag>> parts = new ArrayList<>(partCount);
+        try {
+            long remaining = contentLength;
+            for (int partNumber = 1; partNumber <= partCount; partNumber++) {
+                byte[] buffer = buffers.take();
+                int length = (int) Math.min(partSize, remaining);
+                if (inputStream.readNBytes(buffer, 0, length) != length) {
+                    throw new IOException("Unexpected end of stream for part " + partNumber + " of " + key);
+                }
+                remaining -= length;
+
+                UploadPartRequest request = new UploadPartRequest()
+                        .withBucketName(bucketName)
+                        .withKey(key)
+                        .withUploadId(uploadId)
+                        .withPartNumber(partNumber)
+                        .withPartSize(length)
+                        .withLastPart(partNumber == partCount);
+                parts.add(CompletableFuture
+                        .supplyAsync(() -> uploadPart(request, buffer, length), documentPartUploadExecutor)
+                        .whenComplete((partETag, e) -> buffers.add(buffer)));
+
+                if (parts.stream().anyMatch(CompletableFuture::isCompletedExceptionally)) {
+                    break;
+                }
+            }
+
+            CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new)).get();
+            return parts.stream()
+                    .map(CompletableFuture::join)
+                    .sorted(Comparator.comparingInt(PartETag::getPartNumber))
+                    .toList();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            parts.forEach(part -> part.cancel(true));
+            throw new IOException("Interrupted while uploading " + key, e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to upload a part of " + key, e.getCause());
+        }
+    }
+
+    private PartETag uploadPart(UploadPartRequest request, byte[] buffer, int length) {
+        AmazonClientException lastException = null;
+        request.setMd5Digest(md5(buffer, length));
+
+        for (int attempt = 0; attempt <= awsS3Config.getMultipartPartRetries(); attempt++) {
+            try {
+                request.setInputStream(new ByteArrayInputStream(buffer, 0, length));
+                return s3Client.uploadPart(request).getPartETag();
+            } catch (AmazonServiceException e) {
+                if (e.getErrorType() == AmazonServiceException.ErrorType.Client) {
+                    throw e;
+                }
+                lastException = e;
+            } catch (AmazonClientException e) {
+                lastException = e;
+            }
+        }
+
+        throw lastException;
+    }
+
+    private String md5(byte[] buffer, int length) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            digest.update(buffer, 0, length);
+            return Base64.getEncoder().encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
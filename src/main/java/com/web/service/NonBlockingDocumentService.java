@@ -0,0 +1,52 @@
+package com.web.service;
+
+import com.web.config.DocumentConfig;
+import com.web.model.DocumentContent;
+import com.web.model.ObjectLocation;
+import com.web.storage.AsyncS3ObjectReader;
+import com.web.util.ServletOutputSubscriber;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Service;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+@ConditionalOnExpression("${config.document.api.non-blocking:false} and '${config.document.storage.type:s3}' == 's3'")
+public class NonBlockingDocumentService {
+
+    private final AsyncS3ObjectReader asyncS3ObjectReader;
+    private final DocumentConfig documentConfig;
+    private final AtomicInteger activeDownloads = new AtomicInteger();
+
+    @Autowired
+    public NonBlockingDocumentService(AsyncS3ObjectReader asyncS3ObjectReader,
+                                      DocumentConfig documentConfig,
+                                      MeterRegistry meterRegistry) {
+        this.asyncS3ObjectReader = asyncS3ObjectReader;
+        this.documentConfig = documentConfig;
+        Gauge.builder("document.download.active", activeDownloads, AtomicInteger::get)
+                .tag("mode", "non_blocking")
+                .register(meterRegistry);
+    }
+
+    public boolean supports(DocumentContent content) {
+        // Encrypted documents are decrypted by a blocking stream, so they keep the blocking path
+        return !content.encrypted();
+    }
+
+    public void download(DocumentContent content, long start, long end, HttpServletRequest request)
+            throws IOException {
+        AsyncContext asyncContext = request.startAsync();
+        asyncContext.setTimeout(documentConfig.getTransferTimeoutMs());
+        activeDownloads.incrementAndGet();
+
+        ServletOutputSubscriber subscriber = new ServletOutputSubscriber(asyncContext, activeDownloads::decrementAndGet);
+        asyncS3ObjectReader.read(new ObjectLocation(content.bucketName(), content.key()), start, end, subscriber);
+    }
+}
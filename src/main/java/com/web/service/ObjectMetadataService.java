@@ -0,0 +1,47 @@
+package com.web.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.web.config.AwsS3Config;
+import com.web.model.ObjectInfo;
+import com.web.model.ObjectLocation;
+import com.web.storage.DocumentStorage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+@Service
+public class ObjectMetadataService {
+
+    private final DocumentStorage documentStorage;
+    private final DocumentEncryptionService documentEncryptionService;
+    private final Cache<String, ObjectInfo> cache;
+
+    @Autowired
+    public ObjectMetadataService(DocumentStorage documentStorage,
+                                 DocumentEncryptionService documentEncryptionService,
+                                 AwsS3Config awsS3Config) {
+        this.documentStorage = documentStorage;
+        this.documentEncryptionService = documentEncryptionService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(awsS3Config.getMetadataCacheMaxSize())
+                .expireAfterWrite(Duration.ofSeconds(awsS3Config.getMetadataCacheTtlSeconds()))
+                .build();
+    }
+
+    public ObjectInfo getMetadata(String bucketName, String key) {
+        return cache.get(getCacheKey(bucketName, key), cacheKey -> {
+            ObjectLocation location = new ObjectLocation(bucketName, key);
+            return documentEncryptionService.describe(location, documentStorage.getInfo(location));
+        });
+    }
+
+    public void evict(String bucketName, String key) {
+        cache.invalidate(getCacheKey(bucketName, key));
+    }
+
+    private String getCacheKey(String bucketName, String key) {
+        return bucketName + "/" + key;
+    }
+}
@@ -0,0 +1,113 @@
+package com.web.service;
+
+import com.web.config.SecurityConfig;
+import com.web.error.ErrorMessage;
+import com.web.error.exception.InternalServerErrorException;
+import com.web.error.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.*;
+
+/**
+ * Runs BCrypt on a core-bounded executor, so a burst of registrations or logins queues up there instead of taking
+ * the CPU from every other request. The work factor is the highest one that hashes within the target latency here.
+ */
+@Service
+public class PasswordHashingService implements PasswordEncoder {
+
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+    private final SecurityConfig securityConfig;
+    private final AsyncTaskExecutor passwordHashingExecutor;
+    private final BCryptPasswordEncoder bCryptPasswordEncoder;
+    private final int cost;
+
+    @Autowired
+    public PasswordHashingService(SecurityConfig securityConfig,
+                                  @Qualifier("passwordHashingExecutor") AsyncTaskExecutor passwordHashingExecutor,
+                                  MeterRegistry meterRegistry) {
+        this.securityConfig = securityConfig;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.cost = calibrate(securityConfig.getPasswordTargetHashMs(), securityConfig.getPasswordMinCost(),
+                securityConfig.getPasswordMaxCost());
+        this.bCryptPasswordEncoder = new BCryptPasswordEncoder(cost);
+
+        Gauge.builder("security.password.cost", this, PasswordHashingService::getCost)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> bCryptPasswordEncoder.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> bCryptPasswordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    // Hashes made with a lower work factor are re-encoded with the current one after the next successful login
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return bCryptPasswordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = passwordHashingExecutor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw unavailable();
+        }
+
+        try {
+            return future.get(securityConfig.getPasswordWaitTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw unavailable();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            e.getCause().printStackTrace();
+            throw new InternalServerErrorException(ErrorMessage.INTERNAL_SERVER_ERROR);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InternalServerErrorException(ErrorMessage.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private ServiceUnavailableException unavailable() {
+        return new ServiceUnavailableException(securityConfig.getPasswordRetryAfterSeconds(),
+                ErrorMessage.SERVICE_UNAVAILABLE, "password check");
+    }
+
+    // Every extra cost step doubles the hashing time, so one measurement at the minimum is enough to extrapolate
+    private static int calibrate(long targetMs, int minCost, int maxCost) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minCost);
+        probe.encode(CALIBRATION_PASSWORD);
+        long started = System.nanoTime();
+        probe.encode(CALIBRATION_PASSWORD);
+        long elapsedNanos = Math.max(1, System.nanoTime() - started);
+
+        long targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMs);
+        int cost = minCost;
+        while (cost < maxCost && elapsedNanos * 2 <= targetNanos) {
+            cost++;
+            elapsedNanos *= 2;
+        }
+        return cost;
+    }
+}
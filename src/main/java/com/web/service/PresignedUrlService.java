@@ -0,0 +1,55 @@
+package com.web.service;
+
+import com.amazonaws.HttpMethod;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.web.config.AwsS3Config;
+import com.web.model.PresignedUrl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+@Service
+public class PresignedUrlService {
+
+    private final AmazonS3 s3Client;
+    private final AwsS3Config awsS3Config;
+    private final Cache<String, PresignedUrl> downloadUrls;
+
+    @Autowired
+    public PresignedUrlService(AmazonS3 s3Client, AwsS3Config awsS3Config) {
+        this.s3Client = s3Client;
+        this.awsS3Config = awsS3Config;
+        // A cached signature is only handed out while it still has download-ttl minus cache-ttl left to live
+        this.downloadUrls = Caffeine.newBuilder()
+                .maximumSize(awsS3Config.getMetadataCacheMaxSize())
+                .expireAfterWrite(Duration.ofSeconds(awsS3Config.getPresignedDownloadCacheTtlSeconds()))
+                .build();
+    }
+
+    public PresignedUrl getUploadUrl(String bucketName, String key) {
+        return generate(bucketName, key, HttpMethod.PUT, awsS3Config.getPresignedUploadTtlSeconds());
+    }
+
+    public PresignedUrl getDownloadUrl(String bucketName, String key) {
+        return downloadUrls.get(bucketName + "/" + key, cacheKey ->
+                generate(bucketName, key, HttpMethod.GET, awsS3Config.getPresignedDownloadTtlSeconds()));
+    }
+
+    public void evictDownloadUrl(String bucketName, String key) {
+        downloadUrls.invalidate(bucketName + "/" + key);
+    }
+
+    private PresignedUrl generate(String bucketName, String key, HttpMethod method, long ttlSeconds) {
+        Instant expiresAt = Instant.now().plusSeconds(ttlSeconds);
+        GeneratePresignedUrlRequest request = new GeneratePresignedUrlRequest(bucketName, key, method)
+                .withExpiration(Date.from(expiresAt));
+
+        return new PresignedUrl(s3Client.generatePresignedUrl(request).toString(), expiresAt);
+    }
+}
@@ -4,6 +4,7 @@ import com.web.error.ErrorMessage;
 import com.web.error.exception.InternalServerErrorException;
 import com.web.error.exception.NotFoundException;
 import com.web.filter.CustomAuthenticationToken;
+import com.web.model.AuthenticatedUser;
 import com.web.model.enumeration.UserRole;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -11,8 +12,6 @@ import org.springframework.stereotype.Service;
 
 import java.util.UUID;
 
-import static com.web.util.SecurityConstants.USER_ID;
-
 @Service
 public class SecurityService {
 
@@ -29,23 +28,22 @@ public class SecurityService {
     }
 
     public UUID getUserId() {
-        return UUID.fromString(getCustomAuthentication().getClaims().get(USER_ID));
+        return getAuthenticatedUser().id();
     }
 
     private boolean hasRequiredId(UUID userId) {
-        return userId.toString().equals(getCustomAuthentication().getClaims().get(USER_ID));
+        return userId.equals(getAuthenticatedUser().id());
     }
 
     public boolean hasCustomRole(UserRole userRole) {
-        return getCustomAuthentication().getAuthorities().stream()
-                .anyMatch(authority -> authority.getAuthority().equals(userRole.name()));
+        return getAuthenticatedUser().hasRole(userRole);
     }
 
-    private CustomAuthenticationToken getCustomAuthentication() {
+    private AuthenticatedUser getAuthenticatedUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (!(authentication instanceof CustomAuthenticationToken)) {
+        if (!(authentication instanceof CustomAuthenticationToken customAuthentication)) {
             throw new InternalServerErrorException(ErrorMessage.INTERNAL_SERVER_ERROR);
         }
-        return (CustomAuthenticationToken) authentication;
+        return customAuthentication.getUser();
     }
 }
@@ -0,0 +1,90 @@
+package com.web.service;
+
+import com.web.config.DocumentConfig;
+import com.web.error.ErrorMessage;
+import com.web.error.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class UploadBudgetService {
+
+    // The budget is tracked in KiB so that it fits the int permits of a semaphore
+    private static final int PERMIT_SIZE = 1024;
+
+    private final DocumentConfig documentConfig;
+    private final int totalPermits;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Counter rejectedUploads;
+
+    @Autowired
+    public UploadBudgetService(DocumentConfig documentConfig, MeterRegistry meterRegistry) {
+        this.documentConfig = documentConfig;
+        this.totalPermits = Math.toIntExact(Math.max(1, documentConfig.getUploadBudgetMaxBytes() / PERMIT_SIZE));
+        this.permits = new Semaphore(totalPermits, true);
+        this.rejectedUploads = meterRegistry.counter("document.upload.budget.rejected");
+
+        Gauge.builder("document.upload.budget.used", this, UploadBudgetService::getUsedBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("document.upload.budget.max", this, service -> (double) service.totalPermits * PERMIT_SIZE)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("document.upload.budget.waiting", waiting, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    public long acquire(long contentLength) {
+        long maxRequestSize = documentConfig.getMaxRequestSize().toBytes();
+        long requestedBytes = contentLength < 0 ? maxRequestSize : Math.min(contentLength, maxRequestSize);
+        int requestedPermits = toPermits(requestedBytes);
+
+        try {
+            if (permits.tryAcquire(requestedPermits, 0, TimeUnit.MILLISECONDS)) {
+                return requestedBytes;
+            }
+            if (waiting.incrementAndGet() > documentConfig.getUploadBudgetMaxWaiting()) {
+                waiting.decrementAndGet();
+                throw reject();
+            }
+            try {
+                if (!permits.tryAcquire(requestedPermits, documentConfig.getUploadBudgetWaitTimeoutMs(),
+                        TimeUnit.MILLISECONDS)) {
+                    throw reject();
+                }
+                return requestedBytes;
+            } finally {
+                waiting.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject();
+        }
+    }
+
+    public void release(long reservedBytes) {
+        permits.release(toPermits(reservedBytes));
+    }
+
+    public long getUsedBytes() {
+        return (long) (totalPermits - permits.availablePermits()) * PERMIT_SIZE;
+    }
+
+    private int toPermits(long bytes) {
+        return (int) Math.min(totalPermits, Math.max(1, (bytes + PERMIT_SIZE - 1) / PERMIT_SIZE));
+    }
+
+    private ServiceUnavailableException reject() {
+        rejectedUploads.increment();
+        return new ServiceUnavailableException(documentConfig.getUploadBudgetRetryAfterSeconds(),
+                ErrorMessage.SERVICE_UNAVAILABLE, "document upload");
+    }
+}
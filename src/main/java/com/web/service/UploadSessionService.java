@@ -0,0 +1,292 @@
+package com.web.service;
+
+import com.web.config.DocumentConfig;
+import com.web.error.ErrorMessage;
+import com.web.error.exception.BadRequestException;
+import com.web.error.exception.ConflictException;
+import com.web.error.exception.InternalServerErrorException;
+import com.web.error.exception.NotFoundException;
+import com.web.model.Document;
+import com.web.model.UploadSession;
+import com.web.model.enumeration.DocumentPart;
+import com.web.repository.UploadSessionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.transaction.Transactional;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class UploadSessionService {
+
+    private static final String SESSIONS_DIRECTORY = "sessions";
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final DocumentService documentService;
+    private final DocumentValidationService documentValidationService;
+    private final SecurityService securityService;
+    private final DocumentConfig documentConfig;
+    // Files receiving a chunk on this node, so a retried chunk does not interleave with the request it replaces
+    private final Set<Path> writers = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public UploadSessionService(UploadSessionRepository uploadSessionRepository,
+                                DocumentService documentService,
+                                DocumentValidationService documentValidationService,
+                                SecurityService securityService,
+                                DocumentConfig documentConfig) {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.documentService = documentService;
+        this.documentValidationService = documentValidationService;
+        this.securityService = securityService;
+        this.documentConfig = documentConfig;
+    }
+
+    public UploadSession create(long identityCardSize, long medicalCertificateSize, long diplomaSize) {
+        documentValidationService.checkSize(identityCardSize, DocumentPart.IDENTITY_CARD);
+        documentValidationService.checkSize(medicalCertificateSize, DocumentPart.MEDICAL_CERTIFICATE);
+        documentValidationService.checkSize(diplomaSize, DocumentPart.DIPLOMA);
+
+        LocalDateTime now = LocalDateTime.now();
+        UploadSession uploadSession = UploadSession.builder()
+                .id(UUID.randomUUID())
+                .userId(securityService.getUserId())
+                .identityCardSize(identityCardSize)
+                .medicalCertificateSize(medicalCertificateSize)
+                .diplomaSize(diplomaSize)
+                .createdAt(now)
+                .expiresAt(now.plusMinutes(documentConfig.getUploadSessionTtlMinutes()))
+                .build();
+
+        return uploadSessionRepository.save(uploadSession);
+    }
+
+    public UploadSession getById(UUID id) {
+        UploadSession uploadSession = uploadSessionRepository.findById(id).orElseThrow(() ->
+                new NotFoundException(ErrorMessage.NOT_FOUND, "upload session", id));
+
+        authorize(uploadSession);
+        return uploadSession;
+    }
+
+    // The chunk is streamed without a transaction or row lock, as slow clients would otherwise hold both for minutes
+    public UploadSession appendChunk(UUID id, DocumentPart part, long offset, long contentLength,
+                                     InputStream inputStream) {
+        UploadSession uploadSession = getActive(id);
+
+        long committedOffset = uploadSession.getOffset(part);
+        if (offset != committedOffset) {
+            throw new ConflictException(ErrorMessage.UPLOAD_OFFSET_MISMATCH, part.getObjectName(), committedOffset, offset);
+        }
+        if (contentLength <= 0 || contentLength > documentConfig.getUploadSessionMaxChunkSize()) {
+            throw new BadRequestException(ErrorMessage.INVALID_CHUNK, part.getObjectName(),
+                    "The chunk size must be between 1 and " + documentConfig.getUploadSessionMaxChunkSize() + " bytes");
+        }
+        if (offset + contentLength > uploadSession.getSize(part)) {
+            throw new BadRequestException(ErrorMessage.INVALID_CHUNK, part.getObjectName(),
+                    "The chunk ends past the declared size of " + uploadSession.getSize(part) + " bytes");
+        }
+
+        Path path = getPath(id, part);
+        if (!writers.add(path)) {
+            throw new ConflictException(ErrorMessage.UPLOAD_IN_PROGRESS, part.getObjectName());
+        }
+        try {
+            write(path, offset, contentLength, inputStream, part);
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new InternalServerErrorException(ErrorMessage.INTERNAL_SERVER_ERROR);
+        } finally {
+            writers.remove(path);
+        }
+
+        // Only the request that still sees the offset it validated may move it, a stale one gets the current offset
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(documentConfig.getUploadSessionTtlMinutes());
+        if (updateOffset(id, part, offset, offset + contentLength, expiresAt) == 0) {
+            committedOffset = getActive(id).getOffset(part);
+            throw new ConflictException(ErrorMessage.UPLOAD_OFFSET_MISMATCH, part.getObjectName(), committedOffset, offset);
+        }
+
+        uploadSession.setOffset(part, offset + contentLength);
+        uploadSession.setExpiresAt(expiresAt);
+        return uploadSession;
+    }
+
+    @Transactional
+    public Document complete(UUID id) {
+        UploadSession uploadSession = getForUpdate(id);
+
+        for (DocumentPart part : DocumentPart.values()) {
+            if (uploadSession.getOffset(part) != uploadSession.getSize(part)) {
+                throw new ConflictException(ErrorMessage.UPLOAD_INCOMPLETE, part.getObjectName(),
+                        uploadSession.getOffset(part), uploadSession.getSize(part));
+            }
+        }
+
+        Document document = documentService.save(getFile(uploadSession, DocumentPart.IDENTITY_CARD),
+                getFile(uploadSession, DocumentPart.MEDICAL_CERTIFICATE), getFile(uploadSession, DocumentPart.DIPLOMA));
+        uploadSessionRepository.delete(uploadSession);
+        deleteFilesAfterCommit(id);
+
+        return document;
+    }
+
+    @Scheduled(fixedDelayString = "${config.document.upload-session.cleanup-interval-ms}")
+    public void deleteExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        for (UploadSession uploadSession : uploadSessionRepository.findTop100ByExpiresAtBeforeOrderByExpiresAtAsc(now)) {
+            // A chunk appended since the lookup extends the session, in which case the delete matches nothing
+            if (uploadSessionRepository.deleteExpired(uploadSession.getId(), now) > 0) {
+                deleteFiles(uploadSession.getId());
+            }
+        }
+    }
+
+    private UploadSession getActive(UUID id) {
+        return checkActive(id, uploadSessionRepository.findById(id));
+    }
+
+    private UploadSession getForUpdate(UUID id) {
+        return checkActive(id, uploadSessionRepository.findForUpdateById(id));
+    }
+
+    private UploadSession checkActive(UUID id, Optional<UploadSession> uploadSession) {
+        UploadSession activeSession = uploadSession
+                .filter(session -> session.getExpiresAt().isAfter(LocalDateTime.now()))
+                .orElseThrow(() -> new NotFoundException(ErrorMessage.NOT_FOUND, "upload session", id));
+
+        authorize(activeSession);
+        return activeSession;
+    }
+
+    private int updateOffset(UUID id, DocumentPart part, long expectedOffset, long offset, LocalDateTime expiresAt) {
+        return switch (part) {
+            case IDENTITY_CARD -> uploadSessionRepository.updateIdentityCardOffset(id, expectedOffset, offset, expiresAt);
+            case MEDICAL_CERTIFICATE ->
+                    uploadSessionRepository.updateMedicalCertificateOffset(id, expectedOffset, offset, expiresAt);
+            case DIPLOMA -> uploadSessionRepository.updateDiplomaOffset(id, expectedOffset, offset, expiresAt);
+        };
+    }
+
+    private void authorize(UploadSession uploadSession) {
+        securityService.authorize(uploadSession.getUserId(), "upload session", uploadSession.getId());
+    }
+
+    private void write(Path path, long offset, long contentLength, InputStream inputStream, DocumentPart part)
+            throws IOException {
+        Files.createDirectories(path.getParent());
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            ReadableByteChannel source = Channels.newChannel(inputStream);
+            long written = 0;
+            while (written < contentLength) {
+                long transferred = channel.transferFrom(source, offset + written, contentLength - written);
+                if (transferred <= 0) {
+                    break;
+                }
+                written += transferred;
+            }
+            if (written != contentLength) {
+                throw new BadRequestException(ErrorMessage.INVALID_CHUNK, part.getObjectName(),
+                        "Expected " + contentLength + " bytes but received " + written);
+            }
+            // The offset is only committed once the chunk is on disk, so a crash never skips bytes
+            channel.force(false);
+        }
+    }
+
+    private void deleteFilesAfterCommit(UUID id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deleteFiles(id);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deleteFiles(id);
+            }
+        });
+    }
+
+    private void deleteFiles(UUID id) {
+        try {
+            FileSystemUtils.deleteRecursively(getDirectory(id));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private MultipartFile getFile(UploadSession uploadSession, DocumentPart part) {
+        return new SessionFile(part, getPath(uploadSession.getId(), part), uploadSession.getSize(part));
+    }
+
+    private Path getDirectory(UUID id) {
+        return Path.of(documentConfig.getStagingDirectory(), SESSIONS_DIRECTORY, id.toString());
+    }
+
+    private Path getPath(UUID id, DocumentPart part) {
+        return getDirectory(id).resolve(part.getValue());
+    }
+
+    private record SessionFile(DocumentPart part, Path path, long size) implements MultipartFile {
+
+        @Override
+        public String getName() {
+            return part.getValue();
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return part.getValue();
+        }
+
+        @Override
+        public String getContentType() {
+            return null;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return size;
+        }
+
+        @Override
+        public byte[] getBytes() throws IOException {
+            return Files.readAllBytes(path);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(path);
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            Files.copy(path, dest.toPath());
+        }
+    }
+}
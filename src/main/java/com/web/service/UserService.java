@@ -3,12 +3,13 @@ package com.web.service;
 import com.web.error.ErrorMessage;
 import com.web.error.exception.ConflictException;
 import com.web.error.exception.NotFoundException;
+import com.web.model.Document;
 import com.web.model.User;
 import com.web.model.UserInfo;
+import com.web.model.enumeration.DocumentPart;
 import com.web.model.enumeration.UserRole;
 import com.web.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import javax.transaction.Transactional;
@@ -20,22 +21,25 @@ import java.util.UUID;
 public class UserService {
 
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder bCryptPasswordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final SecurityService securityService;
+    private final DocumentBlobService documentBlobService;
 
     @Autowired
     public UserService(UserRepository userRepository,
-                       BCryptPasswordEncoder bCryptPasswordEncoder,
-                       SecurityService securityService) {
+                       PasswordHashingService passwordHashingService,
+                       SecurityService securityService,
+                       DocumentBlobService documentBlobService) {
         this.userRepository = userRepository;
-        this.bCryptPasswordEncoder = bCryptPasswordEncoder;
+        this.passwordHashingService = passwordHashingService;
         this.securityService = securityService;
+        this.documentBlobService = documentBlobService;
     }
 
     @Transactional
     public User create(User user) {
         checkEmailNotUsed(user.getEmail());
-        user.setPassword(bCryptPasswordEncoder.encode(user.getPassword()));
+        user.setPassword(passwordHashingService.encode(user.getPassword()));
         user.setCreatedAt(LocalDateTime.now());
         user.setRole(UserRole.ROLE_STUDENT);
         user.setDocument(null);
@@ -54,7 +58,11 @@ public class UserService {
         }
 
         existingUser.setEmail(user.getEmail());
-        existingUser.setPassword(bCryptPasswordEncoder.encode(user.getPassword()));
+        // Clients send the current password back with every update, so only a changed or outdated hash is replaced
+        if (!passwordHashingService.matches(user.getPassword(), existingUser.getPassword()) ||
+                passwordHashingService.upgradeEncoding(existingUser.getPassword())) {
+            existingUser.setPassword(passwordHashingService.encode(user.getPassword()));
+        }
 
         return userRepository.save(existingUser);
     }
@@ -74,6 +82,12 @@ public class UserService {
         User user = getById(id);
         checkNotSubmitted(user);
 
+        Document document = user.getDocument();
+        if (document != null) {
+            for (DocumentPart part : DocumentPart.values()) {
+                documentBlobService.release(document.getHash(part));
+            }
+        }
         userRepository.delete(user);
     }
 
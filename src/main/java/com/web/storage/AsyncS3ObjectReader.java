@@ -0,0 +1,102 @@
+package com.web.storage;
+
+import com.web.model.ObjectLocation;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+@ConditionalOnExpression("${config.document.api.non-blocking:false} and '${config.document.storage.type:s3}' == 's3'")
+public class AsyncS3ObjectReader {
+
+    private final S3AsyncClient s3AsyncClient;
+
+    @Autowired
+    public AsyncS3ObjectReader(S3AsyncClient s3AsyncClient) {
+        this.s3AsyncClient = s3AsyncClient;
+    }
+
+    public CompletableFuture<Void> read(ObjectLocation location, long start, long end,
+                                       Subscriber<ByteBuffer> subscriber) {
+        GetObjectRequest request = GetObjectRequest.builder()
+                .bucket(location.bucketName())
+                .key(location.key())
+                .range("bytes=" + start + "-" + end)
+                .build();
+        SubscribingTransformer transformer = new SubscribingTransformer(subscriber);
+        return s3AsyncClient.getObject(request, transformer).whenComplete((ignored, error) -> {
+            // Failures before the body started, such as a missing object or an exhausted connection pool, never reached
+            // the subscriber
+            if (error != null && !transformer.subscribed.get()) {
+                subscriber.onError(error);
+            }
+        });
+    }
+
+    // Hands the response body straight to the subscriber, so no bytes are buffered beyond what it requested
+    private static class SubscribingTransformer implements AsyncResponseTransformer<GetObjectResponse, Void> {
+
+        private final Subscriber<ByteBuffer> subscriber;
+        private final AtomicBoolean subscribed = new AtomicBoolean();
+        private volatile CompletableFuture<Void> future;
+
+        private SubscribingTransformer(Subscriber<ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public CompletableFuture<Void> prepare() {
+            future = new CompletableFuture<>();
+            return future;
+        }
+
+        @Override
+        public void onResponse(GetObjectResponse response) {
+        }
+
+        @Override
+        public void onStream(SdkPublisher<ByteBuffer> publisher) {
+            subscribed.set(true);
+            CompletableFuture<Void> attempt = future;
+            publisher.subscribe(new Subscriber<ByteBuffer>() {
+                @Override
+                public void onSubscribe(Subscription subscription) {
+                    subscriber.onSubscribe(subscription);
+                }
+
+                @Override
+                public void onNext(ByteBuffer buffer) {
+                    subscriber.onNext(buffer);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    subscriber.onError(throwable);
+                    attempt.completeExceptionally(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    subscriber.onComplete();
+                    attempt.complete(null);
+                }
+            });
+        }
+
+        @Override
+        public void exceptionOccurred(Throwable error) {
+            future.completeExceptionally(error);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.web.storage;
+
+import com.web.model.enumeration.CircuitState;
+
+import java.util.concurrent.TimeUnit;
+
+public class CircuitBreaker {
+
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+    // Ring buffer over the outcomes of the last calls, true marks a failure
+    private final boolean[] outcomes;
+    private int recorded;
+    private int next;
+    private int failures;
+    private CircuitState state = CircuitState.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, int failureRateThreshold, long openDurationMs,
+                          int halfOpenCalls) {
+        this.outcomes = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (state == CircuitState.CLOSED) {
+            return true;
+        }
+        if (state == CircuitState.OPEN) {
+            if (System.nanoTime() - openedAt < openDurationNanos) {
+                return false;
+            }
+            state = CircuitState.HALF_OPEN;
+            halfOpenPermits = halfOpenCalls;
+            halfOpenSuccesses = 0;
+        }
+        if (halfOpenPermits == 0) {
+            return false;
+        }
+        halfOpenPermits--;
+        return true;
+    }
+
+    public synchronized void release() {
+        if (state == CircuitState.HALF_OPEN) {
+            halfOpenPermits++;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == CircuitState.HALF_OPEN) {
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                state = CircuitState.CLOSED;
+                reset();
+            }
+        } else if (state == CircuitState.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == CircuitState.HALF_OPEN) {
+            open();
+        } else if (state == CircuitState.CLOSED) {
+            record(true);
+            if (recorded >= minimumCalls && failures * 100L >= (long) failureRateThreshold * recorded) {
+                open();
+            }
+        }
+    }
+
+    public synchronized CircuitState getState() {
+        return state;
+    }
+
+    public synchronized long getRemainingOpenMillis() {
+        if (state != CircuitState.OPEN) {
+            return 0;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(openDurationNanos - (System.nanoTime() - openedAt)));
+    }
+
+    private void record(boolean failure) {
+        if (recorded == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void open() {
+        state = CircuitState.OPEN;
+        openedAt = System.nanoTime();
+        reset();
+    }
+
+    private void reset() {
+        recorded = 0;
+        next = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,111 @@
+package com.web.storage;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.util.Objects;
+
+public class DecryptingInputStream extends InputStream {
+
+    private final InputStream ciphertext;
+    private final EncryptionHeader header;
+    private final SecretKey dataKey;
+    private final Cipher cipher;
+    private final byte[] encrypted;
+    private final byte[] buffer;
+    private final long plaintextLength;
+    private final long lastIndex;
+    private long index;
+    private int skip;
+    private long remaining;
+    private int position;
+    private int limit;
+
+    /**
+     * Decrypts the plaintext range [start, end] from a ciphertext stream positioned at the chunk holding start.
+     */
+    public DecryptingInputStream(InputStream ciphertext, EncryptionHeader header, SecretKey dataKey,
+                                 long plaintextLength, long start, long end) {
+        this.ciphertext = ciphertext;
+        this.header = header;
+        this.dataKey = dataKey;
+        this.cipher = newCipher();
+        this.encrypted = new byte[header.chunkSize() + EncryptionHeader.TAG_LENGTH];
+        this.buffer = new byte[header.chunkSize()];
+        this.plaintextLength = plaintextLength;
+        this.lastIndex = header.getChunkCount(plaintextLength) - 1;
+        this.index = start / header.chunkSize();
+        this.skip = (int) (start - index * header.chunkSize());
+        this.remaining = Math.max(0, end - start + 1);
+    }
+
+    static Cipher newCipher() {
+        try {
+            return Cipher.getInstance("AES/GCM/NoPadding");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (position == limit && !nextChunk()) {
+            return -1;
+        }
+        remaining--;
+        return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        if (length == 0) {
+            return 0;
+        }
+        if (position == limit && !nextChunk()) {
+            return -1;
+        }
+
+        int count = Math.min(length, limit - position);
+        System.arraycopy(buffer, position, bytes, offset, count);
+        position += count;
+        remaining -= count;
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        ciphertext.close();
+    }
+
+    private boolean nextChunk() throws IOException {
+        if (remaining == 0) {
+            return false;
+        }
+
+        int length = (int) Math.min(header.chunkSize(), plaintextLength - index * header.chunkSize())
+                + EncryptionHeader.TAG_LENGTH;
+        if (ciphertext.readNBytes(encrypted, 0, length) != length) {
+            throw new IOException("The encrypted document is truncated at chunk " + index);
+        }
+
+        int decrypted;
+        try {
+            cipher.init(Cipher.DECRYPT_MODE, dataKey, header.getChunkParameters(index, index == lastIndex));
+            decrypted = cipher.doFinal(encrypted, 0, length, buffer, 0);
+        } catch (AEADBadTagException e) {
+            throw new IOException("Chunk " + index + " of the encrypted document failed authentication", e);
+        } catch (GeneralSecurityException e) {
+            throw new IOException(e);
+        }
+
+        position = skip;
+        limit = (int) Math.min(decrypted, skip + remaining);
+        skip = 0;
+        index++;
+        return true;
+    }
+}
@@ -0,0 +1,31 @@
+package com.web.storage;
+
+import com.web.model.ObjectInfo;
+import com.web.model.ObjectLocation;
+import com.web.model.StoredObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+public interface DocumentStorage {
+
+    void createBucket(String bucketName);
+
+    void put(ObjectLocation location, InputStream inputStream, long contentLength, String contentType,
+             String contentMd5) throws IOException;
+
+    InputStream get(ObjectLocation location, long start, long end) throws IOException;
+
+    ObjectInfo getInfo(ObjectLocation location);
+
+    void delete(ObjectLocation location);
+
+    List<StoredObject> list(String bucketName, String startAfter, int maxKeys);
+
+    List<String> delete(String bucketName, List<String> keys);
+
+    String getUrl(ObjectLocation location);
+
+    boolean supportsPresignedUrls();
+}
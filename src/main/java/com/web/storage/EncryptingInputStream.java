@@ -0,0 +1,91 @@
+package com.web.storage;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.util.Objects;
+
+public class EncryptingInputStream extends InputStream {
+
+    private final InputStream plaintext;
+    private final EncryptionHeader header;
+    private final SecretKey dataKey;
+    private final Cipher cipher;
+    private final byte[] chunk;
+    private final byte[] encrypted;
+    private final long chunkCount;
+    private byte[] buffer;
+    private int position;
+    private int limit;
+    private long remaining;
+    private long index;
+
+    public EncryptingInputStream(InputStream plaintext, long plaintextLength, EncryptionHeader header,
+                                 SecretKey dataKey) {
+        this.plaintext = plaintext;
+        this.header = header;
+        this.dataKey = dataKey;
+        this.cipher = DecryptingInputStream.newCipher();
+        this.chunk = new byte[header.chunkSize()];
+        this.encrypted = new byte[header.chunkSize() + EncryptionHeader.TAG_LENGTH];
+        this.chunkCount = header.getChunkCount(plaintextLength);
+        this.buffer = header.toBytes();
+        this.limit = buffer.length;
+        this.remaining = plaintextLength;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (position == limit && !nextChunk()) {
+            return -1;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        if (length == 0) {
+            return 0;
+        }
+        if (position == limit && !nextChunk()) {
+            return -1;
+        }
+
+        int count = Math.min(length, limit - position);
+        System.arraycopy(buffer, position, bytes, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        plaintext.close();
+    }
+
+    private boolean nextChunk() throws IOException {
+        if (index == chunkCount) {
+            return false;
+        }
+
+        int length = (int) Math.min(chunk.length, remaining);
+        if (plaintext.readNBytes(chunk, 0, length) != length) {
+            throw new IOException("Expected " + remaining + " more bytes of the document to encrypt");
+        }
+        remaining -= length;
+
+        try {
+            cipher.init(Cipher.ENCRYPT_MODE, dataKey, header.getChunkParameters(index, index == chunkCount - 1));
+            limit = cipher.doFinal(chunk, 0, length, encrypted, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IOException(e);
+        }
+
+        buffer = encrypted;
+        position = 0;
+        index++;
+        return true;
+    }
+}
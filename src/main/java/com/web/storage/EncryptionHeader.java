@@ -0,0 +1,102 @@
+package com.web.storage;
+
+import javax.crypto.spec.GCMParameterSpec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public record EncryptionHeader(int keyId, int chunkSize, byte[] noncePrefix, byte[] keyNonce, byte[] wrappedKey) {
+
+    public static final int NONCE_PREFIX_LENGTH = 7;
+    public static final int KEY_NONCE_LENGTH = 12;
+    public static final int TAG_LENGTH = 16;
+    public static final int WRAPPED_KEY_LENGTH = 32 + TAG_LENGTH;
+
+    private static final byte[] MAGIC = {'D', 'E', 'N', 'C'};
+    private static final byte VERSION = 1;
+    private static final int ASSOCIATED_DATA_LENGTH = MAGIC.length + 2 + Integer.BYTES + NONCE_PREFIX_LENGTH;
+
+    public static final int LENGTH = ASSOCIATED_DATA_LENGTH + KEY_NONCE_LENGTH + WRAPPED_KEY_LENGTH;
+
+    public static boolean matches(byte[] bytes, int length) {
+        return length >= LENGTH
+                && Arrays.equals(bytes, 0, MAGIC.length, MAGIC, 0, MAGIC.length)
+                && bytes[MAGIC.length] == VERSION;
+    }
+
+    public static EncryptionHeader read(byte[] bytes) throws IOException {
+        if (!matches(bytes, bytes.length)) {
+            throw new IOException("The object is not an encrypted document");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, MAGIC.length + 1, LENGTH - MAGIC.length - 1);
+        int keyId = Byte.toUnsignedInt(buffer.get());
+        int chunkSize = buffer.getInt();
+        byte[] noncePrefix = new byte[NONCE_PREFIX_LENGTH];
+        byte[] keyNonce = new byte[KEY_NONCE_LENGTH];
+        byte[] wrappedKey = new byte[WRAPPED_KEY_LENGTH];
+        buffer.get(noncePrefix).get(keyNonce).get(wrappedKey);
+
+        if (chunkSize <= 0) {
+            throw new IOException("Invalid chunk size " + chunkSize + " in the encryption header");
+        }
+        return new EncryptionHeader(keyId, chunkSize, noncePrefix, keyNonce, wrappedKey);
+    }
+
+    public static byte[] getAssociatedData(int keyId, int chunkSize, byte[] noncePrefix) {
+        return ByteBuffer.allocate(ASSOCIATED_DATA_LENGTH)
+                .put(MAGIC)
+                .put(VERSION)
+                .put((byte) keyId)
+                .putInt(chunkSize)
+                .put(noncePrefix)
+                .array();
+    }
+
+    public static long getChunkCount(long plaintextLength, int chunkSize) {
+        return Math.max(1, (plaintextLength + chunkSize - 1) / chunkSize);
+    }
+
+    public static long getEncryptedLength(long plaintextLength, int chunkSize) {
+        return LENGTH + plaintextLength + getChunkCount(plaintextLength, chunkSize) * TAG_LENGTH;
+    }
+
+    public byte[] getAssociatedData() {
+        return getAssociatedData(keyId, chunkSize, noncePrefix);
+    }
+
+    public byte[] toBytes() {
+        return ByteBuffer.allocate(LENGTH)
+                .put(getAssociatedData())
+                .put(keyNonce)
+                .put(wrappedKey)
+                .array();
+    }
+
+    public long getChunkCount(long plaintextLength) {
+        return getChunkCount(plaintextLength, chunkSize);
+    }
+
+    public long getEncryptedLength(long plaintextLength) {
+        return getEncryptedLength(plaintextLength, chunkSize);
+    }
+
+    public long getPlaintextLength(long encryptedLength) {
+        long chunks = (encryptedLength - LENGTH + chunkSize + TAG_LENGTH - 1) / (chunkSize + TAG_LENGTH);
+        return encryptedLength - LENGTH - chunks * TAG_LENGTH;
+    }
+
+    public long getChunkOffset(long index) {
+        return LENGTH + index * (chunkSize + TAG_LENGTH);
+    }
+
+    // The chunk index and the final-chunk flag are part of the nonce, so chunks cannot be reordered or truncated
+    public GCMParameterSpec getChunkParameters(long index, boolean last) {
+        byte[] nonce = ByteBuffer.allocate(KEY_NONCE_LENGTH)
+                .put(noncePrefix)
+                .putInt((int) index)
+                .put((byte) (last ? 1 : 0))
+                .array();
+        return new GCMParameterSpec(TAG_LENGTH * Byte.SIZE, nonce);
+    }
+}
@@ -0,0 +1,198 @@
+package com.web.storage;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import com.web.config.AwsS3Config;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.PushbackInputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+@ConditionalOnProperty(name = "config.document.storage.type", havingValue = "s3", matchIfMissing = true)
+public class HedgedObjectReader {
+
+    private static final int MIN_SAMPLES = 20;
+    private static final double MAX_HEDGE_BUDGET = 10;
+
+    private final AmazonS3 s3Client;
+    private final AwsS3Config awsS3Config;
+    private final AsyncTaskExecutor documentReadExecutor;
+    private final Timer firstByteTimer;
+    private final Counter reads;
+    private final Counter hedges;
+    private final Counter hedgesWon;
+    // Every read earns a fraction of a hedge, which caps hedges to that share of the traffic
+    private double hedgeBudget;
+
+    @Autowired
+    public HedgedObjectReader(AmazonS3 s3Client,
+                              AwsS3Config awsS3Config,
+                              @Qualifier("documentReadExecutor") AsyncTaskExecutor documentReadExecutor,
+                              MeterRegistry meterRegistry) {
+        this.s3Client = s3Client;
+        this.awsS3Config = awsS3Config;
+        this.documentReadExecutor = documentReadExecutor;
+        this.firstByteTimer = Timer.builder("s3.read.first.byte")
+                .publishPercentiles(awsS3Config.getHedgingPercentile())
+                .register(meterRegistry);
+        this.reads = meterRegistry.counter("s3.read.requests");
+        this.hedges = meterRegistry.counter("s3.read.hedged");
+        this.hedgesWon = meterRegistry.counter("s3.read.hedge.won");
+        Gauge.builder("s3.read.hedge.rate", this, reader -> getRatio(reader.hedges, reader.reads))
+                .register(meterRegistry);
+        Gauge.builder("s3.read.hedge.win.ratio", this, reader -> getRatio(reader.hedgesWon, reader.hedges))
+                .register(meterRegistry);
+    }
+
+    public InputStream read(String bucketName, String key, long start, long end) throws IOException {
+        reads.increment();
+        GetObjectRequest request = new GetObjectRequest(bucketName, key).withRange(start, end);
+        if (!awsS3Config.isHedgingEnabled()) {
+            return open(request, false).inputStream();
+        }
+        earnHedgeBudget();
+
+        CompletableFuture<Attempt> winner = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        Future<?> primary;
+        try {
+            primary = documentReadExecutor.submit(() -> attempt(request, false, winner, pending));
+        } catch (TaskRejectedException e) {
+            return open(request, false).inputStream();
+        }
+
+        Future<?> hedge = null;
+        try {
+            Attempt attempt;
+            try {
+                attempt = winner.get(getHedgeDelayMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                hedge = tryHedge(request, winner, pending);
+                attempt = winner.get();
+            }
+
+            Future<?> loser = attempt.hedged() ? primary : hedge;
+            if (loser != null) {
+                loser.cancel(true);
+            }
+            if (attempt.hedged()) {
+                hedgesWon.increment();
+            }
+            return attempt.inputStream();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            primary.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+            winner.thenAccept(attempt -> attempt.objectContent().abort());
+            throw new InterruptedIOException("Interrupted while reading " + key);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    private Future<?> tryHedge(GetObjectRequest request, CompletableFuture<Attempt> winner, AtomicInteger pending) {
+        if (winner.isDone() || !trySpendHedgeBudget()) {
+            return null;
+        }
+        pending.incrementAndGet();
+        try {
+            GetObjectRequest hedgeRequest = new GetObjectRequest(request.getBucketName(), request.getKey())
+                    .withRange(request.getRange()[0], request.getRange()[1]);
+            Future<?> hedge = documentReadExecutor.submit(() -> attempt(hedgeRequest, true, winner, pending));
+            hedges.increment();
+            return hedge;
+        } catch (TaskRejectedException e) {
+            fail(winner, pending, e);
+            return null;
+        }
+    }
+
+    private void attempt(GetObjectRequest request, boolean hedged, CompletableFuture<Attempt> winner,
+                         AtomicInteger pending) {
+        try {
+            Attempt attempt = open(request, hedged);
+            if (!winner.complete(attempt)) {
+                attempt.objectContent().abort();
+            }
+        } catch (IOException | RuntimeException e) {
+            fail(winner, pending, e);
+        }
+    }
+
+    private void fail(CompletableFuture<Attempt> winner, AtomicInteger pending, Exception e) {
+        // The read only fails once neither the primary nor the hedge can answer anymore
+        if (pending.decrementAndGet() == 0) {
+            winner.completeExceptionally(e);
+        }
+    }
+
+    private Attempt open(GetObjectRequest request, boolean hedged) throws IOException {
+        long started = System.nanoTime();
+        S3ObjectInputStream objectContent = s3Client.getObject(request).getObjectContent();
+        // The response headers arrive before the body, so the race is decided on the first byte
+        PushbackInputStream inputStream = new PushbackInputStream(objectContent, 1);
+        try {
+            int first = inputStream.read();
+            if (first >= 0) {
+                inputStream.unread(first);
+            }
+        } catch (IOException | RuntimeException e) {
+            objectContent.abort();
+            throw e;
+        }
+        firstByteTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return new Attempt(objectContent, inputStream, hedged);
+    }
+
+    private long getHedgeDelayMillis() {
+        if (firstByteTimer.count() < MIN_SAMPLES) {
+            return awsS3Config.getHedgingMaxDelayMs();
+        }
+        double percentile = firstByteTimer.takeSnapshot().percentileValues()[0].value(TimeUnit.MILLISECONDS);
+        return Math.max(awsS3Config.getHedgingMinDelayMs(),
+                Math.min(awsS3Config.getHedgingMaxDelayMs(), (long) percentile));
+    }
+
+    private synchronized void earnHedgeBudget() {
+        hedgeBudget = Math.min(MAX_HEDGE_BUDGET, hedgeBudget + awsS3Config.getHedgingMaxPercent() / 100.0);
+    }
+
+    private synchronized boolean trySpendHedgeBudget() {
+        if (hedgeBudget < 1) {
+            return false;
+        }
+        hedgeBudget--;
+        return true;
+    }
+
+    private static double getRatio(Counter part, Counter total) {
+        return total.count() == 0 ? 0 : part.count() / total.count();
+    }
+
+    private record Attempt(S3ObjectInputStream objectContent, InputStream inputStream, boolean hedged) {
+    }
+}
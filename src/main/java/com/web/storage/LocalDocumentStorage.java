@@ -0,0 +1,255 @@
+package com.web.storage;
+
+import com.web.config.DocumentConfig;
+import com.web.error.ErrorMessage;
+import com.web.error.exception.NotFoundException;
+import com.web.model.ObjectInfo;
+import com.web.model.ObjectLocation;
+import com.web.model.StoredObject;
+import com.web.model.enumeration.DocumentType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+@Component
+@ConditionalOnProperty(name = "config.document.storage.type", havingValue = "local")
+public class LocalDocumentStorage implements DocumentStorage {
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+    private static final String TEMPORARY_PREFIX = ".upload-";
+
+    private final Path rootDirectory;
+
+    @Autowired
+    public LocalDocumentStorage(DocumentConfig documentConfig) {
+        this(Path.of(documentConfig.getLocalStorageRoot()));
+    }
+
+    public LocalDocumentStorage(Path rootDirectory) {
+        this.rootDirectory = rootDirectory.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void createBucket(String bucketName) {
+        try {
+            Files.createDirectories(resolve(new ObjectLocation(bucketName, "")));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void put(ObjectLocation location, InputStream inputStream, long contentLength, String contentType,
+                    String contentMd5) throws IOException {
+        Path target = resolve(location);
+        Files.createDirectories(target.getParent());
+        Path temporary = Files.createTempFile(target.getParent(), TEMPORARY_PREFIX, ".tmp");
+
+        try {
+            MessageDigest digest = newMd5Digest();
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE);
+                 ReadableByteChannel source = Channels.newChannel(new DigestInputStream(inputStream, digest))) {
+                long written = 0;
+                long transferred;
+                while (written < contentLength
+                        && (transferred = channel.transferFrom(source, written, contentLength - written)) > 0) {
+                    written += transferred;
+                }
+                if (written != contentLength) {
+                    throw new IOException("Expected " + contentLength + " bytes for " + location.key()
+                            + " but received " + written);
+                }
+                channel.force(true);
+            }
+
+            if (contentMd5 != null && !contentMd5.equals(Base64.getEncoder().encodeToString(digest.digest()))) {
+                throw new IOException("Content-MD5 mismatch for " + location.key());
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    @Override
+    public InputStream get(ObjectLocation location, long start, long end) throws IOException {
+        try (FileChannel channel = FileChannel.open(resolve(location), StandardOpenOption.READ)) {
+            long length = Math.min(end, channel.size() - 1) - start + 1;
+            if (length <= 0) {
+                return InputStream.nullInputStream();
+            }
+            return new ByteBufferInputStream(channel.map(FileChannel.MapMode.READ_ONLY, start, length));
+        } catch (NoSuchFileException e) {
+            throw new NotFoundException(ErrorMessage.NOT_FOUND, "object", location.key());
+        }
+    }
+
+    @Override
+    public ObjectInfo getInfo(ObjectLocation location) {
+        Path path = resolve(location);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            byte[] header = new byte[DocumentType.HEADER_LENGTH];
+            int read;
+            try (InputStream inputStream = Files.newInputStream(path)) {
+                read = inputStream.readNBytes(header, 0, header.length);
+            }
+
+            String contentType = DocumentType.detect(header, read)
+                    .map(DocumentType::getContentType)
+                    .orElse(DEFAULT_CONTENT_TYPE);
+            String eTag = Long.toHexString(attributes.size()) + "-"
+                    + Long.toHexString(attributes.lastModifiedTime().toMillis());
+            return new ObjectInfo(attributes.size(), contentType, eTag);
+        } catch (NoSuchFileException e) {
+            throw new NotFoundException(ErrorMessage.NOT_FOUND, "object", location.key());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void delete(ObjectLocation location) {
+        try {
+            Files.deleteIfExists(resolve(location));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public List<StoredObject> list(String bucketName, String startAfter, int maxKeys) {
+        Path bucket = resolve(new ObjectLocation(bucketName, ""));
+        if (!Files.isDirectory(bucket)) {
+            return List.of();
+        }
+
+        List<StoredObject> objects = new ArrayList<>();
+        try {
+            list(bucket, "", startAfter, maxKeys, objects);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return objects;
+    }
+
+    // Visits one directory at a time in key order, so a page only reads the directories leading to its keys
+    private void list(Path directory, String prefix, String startAfter, int maxKeys, List<StoredObject> objects)
+            throws IOException {
+        List<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            entries.forEach(entry -> names.add(entry.getFileName().toString()));
+        }
+
+        Map<String, Boolean> directories = new HashMap<>();
+        Predicate<String> isDirectory = name -> directories.computeIfAbsent(name,
+                ignored -> Files.isDirectory(directory.resolve(name), LinkOption.NOFOLLOW_LINKS));
+        names.sort((first, second) -> compareNames(first, second, isDirectory));
+
+        for (String name : names) {
+            if (objects.size() >= maxKeys) {
+                return;
+            }
+
+            // Everything under key + "/" sorts before startAfter, whether the entry is a file or a directory
+            String key = prefix + name;
+            String childPrefix = key + "/";
+            if (startAfter != null && !startAfter.startsWith(childPrefix) && childPrefix.compareTo(startAfter) < 0) {
+                continue;
+            }
+
+            Path path = directory.resolve(name);
+            if (isDirectory.test(name)) {
+                list(path, childPrefix, startAfter, maxKeys, objects);
+            } else if (!name.startsWith(TEMPORARY_PREFIX) && (startAfter == null || key.compareTo(startAfter) > 0)) {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    // Deleted since the directory was read
+                    continue;
+                }
+                if (attributes.isRegularFile()) {
+                    objects.add(new StoredObject(key, attributes.size(), attributes.lastModifiedTime().toInstant()));
+                }
+            }
+        }
+    }
+
+    // Orders names as their keys sort: a directory name is followed by "/", which only matters when another
+    // name extends it with a character below "/" (e.g. "a-1" sorts before "a/x" but after the file "a")
+    private static int compareNames(String first, String second, Predicate<String> isDirectory) {
+        if (second.length() > first.length() && second.startsWith(first) && second.charAt(first.length()) < '/') {
+            return isDirectory.test(first) ? 1 : -1;
+        }
+        if (first.length() > second.length() && first.startsWith(second) && first.charAt(second.length()) < '/') {
+            return isDirectory.test(second) ? -1 : 1;
+        }
+        return first.compareTo(second);
+    }
+
+    @Override
+    public List<String> delete(String bucketName, List<String> keys) {
+        List<String> deleted = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            try {
+                Files.deleteIfExists(resolve(new ObjectLocation(bucketName, key)));
+                deleted.add(key);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public String getUrl(ObjectLocation location) {
+        return resolve(location).toUri().toString();
+    }
+
+    @Override
+    public boolean supportsPresignedUrls() {
+        return false;
+    }
+
+    private Path resolve(ObjectLocation location) {
+        Path bucket = rootDirectory.resolve(location.bucketName()).normalize();
+        Path path = bucket.resolve(location.key()).normalize();
+        if (!bucket.getParent().equals(rootDirectory) || !path.startsWith(bucket)) {
+            throw new IllegalArgumentException("Invalid object location " + location);
+        }
+        return path;
+    }
+
+    private MessageDigest newMd5Digest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.web.storage;
+
+import com.amazonaws.AbortedException;
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.services.s3.AmazonS3;
+import com.web.config.AwsS3Config;
+import com.web.error.ErrorMessage;
+import com.web.error.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+public class ResilientS3Client implements InvocationHandler {
+
+    // Operations that only build urls or change client settings never reach S3
+    private static final Set<String> LOCAL_OPERATIONS = Set.of("generatePresignedUrl", "getUrl", "getRegion",
+            "getRegionName", "getCachedResponseMetadata", "setEndpoint", "setRegion", "setS3ClientOptions",
+            "waiters", "shutdown");
+    private static final Set<String> WRITE_OPERATIONS = Set.of("putObject", "uploadPart", "completeMultipartUpload",
+            "copyObject", "copyPart");
+
+    private final AmazonS3 delegate;
+    private final AwsS3Config awsS3Config;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final Counter succeededCalls;
+    private final Counter failedCalls;
+    private final Counter rejectedCalls;
+    private final Counter shortCircuitedCalls;
+
+    private ResilientS3Client(AmazonS3 delegate, AwsS3Config awsS3Config, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.awsS3Config = awsS3Config;
+        this.bulkhead = new Semaphore(awsS3Config.getMaxConcurrentCalls(), true);
+        this.circuitBreaker = new CircuitBreaker(awsS3Config.getCircuitBreakerWindowSize(),
+                awsS3Config.getCircuitBreakerMinimumCalls(), awsS3Config.getCircuitBreakerFailureRateThreshold(),
+                awsS3Config.getCircuitBreakerOpenDurationMs(), awsS3Config.getCircuitBreakerHalfOpenCalls());
+        this.succeededCalls = meterRegistry.counter("s3.client.calls", "result", "success");
+        this.failedCalls = meterRegistry.counter("s3.client.calls", "result", "failure");
+        this.rejectedCalls = meterRegistry.counter("s3.client.calls", "result", "rejected");
+        this.shortCircuitedCalls = meterRegistry.counter("s3.client.calls", "result", "short_circuited");
+
+        Gauge.builder("s3.client.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("0 closed, 1 open, 2 half open")
+                .register(meterRegistry);
+        Gauge.builder("s3.client.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .register(meterRegistry);
+    }
+
+    public static AmazonS3 wrap(AmazonS3 delegate, AwsS3Config awsS3Config, MeterRegistry meterRegistry) {
+        return (AmazonS3) Proxy.newProxyInstance(AmazonS3.class.getClassLoader(), new Class<?>[]{AmazonS3.class},
+                new ResilientS3Client(delegate, awsS3Config, meterRegistry));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> "ResilientS3Client(" + delegate + ")";
+            };
+        }
+        if (LOCAL_OPERATIONS.contains(method.getName())) {
+            return invokeDelegate(method, args);
+        }
+
+        if (!circuitBreaker.tryAcquire()) {
+            shortCircuitedCalls.increment();
+            throw new ServiceUnavailableException(Math.max(1, TimeUnit.MILLISECONDS.toSeconds(
+                    circuitBreaker.getRemainingOpenMillis() + 999)), ErrorMessage.SERVICE_UNAVAILABLE,
+                    "document storage request");
+        }
+        if (!tryEnterBulkhead()) {
+            circuitBreaker.release();
+            rejectedCalls.increment();
+            throw new ServiceUnavailableException(1L, ErrorMessage.SERVICE_UNAVAILABLE, "document storage request");
+        }
+
+        try {
+            applyTimeout(method, args);
+            Object result = invokeDelegate(method, args);
+            circuitBreaker.onSuccess();
+            succeededCalls.increment();
+            return result;
+        } catch (Throwable e) {
+            if (isFailure(e)) {
+                circuitBreaker.onFailure();
+                failedCalls.increment();
+            } else {
+                circuitBreaker.onSuccess();
+                succeededCalls.increment();
+            }
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private boolean tryEnterBulkhead() {
+        try {
+            return bulkhead.tryAcquire(awsS3Config.getBulkheadMaxWaitMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void applyTimeout(Method method, Object[] args) {
+        if (args == null) {
+            return;
+        }
+        // Calls without a request object fall back to the client execution timeout of the client configuration
+        int timeout = WRITE_OPERATIONS.contains(method.getName()) ?
+                awsS3Config.getWriteTimeoutMs() : awsS3Config.getReadTimeoutMs();
+        for (Object arg : args) {
+            if (arg instanceof AmazonWebServiceRequest request && request.getSdkClientExecutionTimeout() == null) {
+                request.setSdkClientExecutionTimeout(timeout);
+            }
+        }
+    }
+
+    private Object invokeDelegate(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private boolean isFailure(Throwable e) {
+        // Losing hedged reads are aborted on purpose
+        if (e instanceof AbortedException) {
+            return false;
+        }
+        // A missing object or a rejected request says nothing about the health of S3
+        if (e instanceof AmazonServiceException serviceException) {
+            return serviceException.getStatusCode() >= HttpStatus.INTERNAL_SERVER_ERROR.value()
+                    || serviceException.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS.value();
+        }
+        return e instanceof AmazonClientException;
+    }
+}
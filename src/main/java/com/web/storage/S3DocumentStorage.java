@@ -0,0 +1,139 @@
+package com.web.storage;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsResult;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.web.config.AwsS3Config;
+import com.web.error.ErrorMessage;
+import com.web.error.exception.NotFoundException;
+import com.web.model.ObjectInfo;
+import com.web.model.ObjectLocation;
+import com.web.model.StoredObject;
+import com.web.service.MultipartUploadService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "config.document.storage.type", havingValue = "s3", matchIfMissing = true)
+public class S3DocumentStorage implements DocumentStorage {
+
+    private static final int MAX_DELETE_KEYS = 1000;
+
+    private final AmazonS3 s3Client;
+    private final HedgedObjectReader hedgedObjectReader;
+    private final MultipartUploadService multipartUploadService;
+    private final AwsS3Config awsS3Config;
+
+    @Autowired
+    public S3DocumentStorage(AmazonS3 s3Client, HedgedObjectReader hedgedObjectReader,
+                             MultipartUploadService multipartUploadService, AwsS3Config awsS3Config) {
+        this.s3Client = s3Client;
+        this.hedgedObjectReader = hedgedObjectReader;
+        this.multipartUploadService = multipartUploadService;
+        this.awsS3Config = awsS3Config;
+    }
+
+    @Override
+    public void createBucket(String bucketName) {
+        if (!s3Client.doesBucketExistV2(bucketName)) {
+            s3Client.createBucket(bucketName);
+        }
+    }
+
+    @Override
+    public void put(ObjectLocation location, InputStream inputStream, long contentLength, String contentType,
+                    String contentMd5) throws IOException {
+        if (multipartUploadService.isMultipart(contentLength)) {
+            multipartUploadService.upload(location.bucketName(), location.key(), inputStream, contentLength, contentType);
+            return;
+        }
+
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(contentLength);
+        metadata.setContentType(contentType);
+        metadata.setContentMD5(contentMd5);
+
+        PutObjectRequest request = new PutObjectRequest(location.bucketName(), location.key(), inputStream, metadata);
+        request.getRequestClientOptions().setReadLimit(awsS3Config.getUploadReadLimit());
+        s3Client.putObject(request);
+    }
+
+    @Override
+    public InputStream get(ObjectLocation location, long start, long end) throws IOException {
+        return hedgedObjectReader.read(location.bucketName(), location.key(), start, end);
+    }
+
+    @Override
+    public ObjectInfo getInfo(ObjectLocation location) {
+        try {
+            ObjectMetadata metadata = s3Client.getObjectMetadata(location.bucketName(), location.key());
+            return new ObjectInfo(metadata.getContentLength(), metadata.getContentType(), metadata.getETag());
+        } catch (AmazonS3Exception e) {
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND.value()) {
+                throw new NotFoundException(ErrorMessage.NOT_FOUND, "object", location.key());
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void delete(ObjectLocation location) {
+        s3Client.deleteObject(location.bucketName(), location.key());
+    }
+
+    @Override
+    public List<StoredObject> list(String bucketName, String startAfter, int maxKeys) {
+        ListObjectsV2Request request = new ListObjectsV2Request()
+                .withBucketName(bucketName)
+                .withStartAfter(startAfter)
+                .withMaxKeys(maxKeys);
+
+        return s3Client.listObjectsV2(request).getObjectSummaries().stream()
+                .map(summary -> new StoredObject(summary.getKey(), summary.getSize(),
+                        summary.getLastModified().toInstant()))
+                .toList();
+    }
+
+    @Override
+    public List<String> delete(String bucketName, List<String> keys) {
+        List<String> deleted = new ArrayList<>(keys.size());
+        for (int from = 0; from < keys.size(); from += MAX_DELETE_KEYS) {
+            List<String> batch = keys.subList(from, Math.min(from + MAX_DELETE_KEYS, keys.size()));
+            DeleteObjectsRequest request = new DeleteObjectsRequest(bucketName)
+                    .withKeys(batch.toArray(String[]::new));
+            try {
+                s3Client.deleteObjects(request).getDeletedObjects().stream()
+                        .map(DeleteObjectsResult.DeletedObject::getKey)
+                        .forEach(deleted::add);
+            } catch (MultiObjectDeleteException e) {
+                e.printStackTrace();
+                e.getDeletedObjects().stream()
+                        .map(DeleteObjectsResult.DeletedObject::getKey)
+                        .forEach(deleted::add);
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public String getUrl(ObjectLocation location) {
+        return s3Client.getUrl(location.bucketName(), location.key()).toString();
+    }
+
+    @Override
+    public boolean supportsPresignedUrls() {
+        return true;
+    }
+}
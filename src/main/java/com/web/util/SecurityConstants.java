@@ -1,7 +1,10 @@
 package com.web.util;
 
+import com.auth0.jwt.algorithms.Algorithm;
+
 public final class SecurityConstants {
     public static final String SECRET = "my_super_secret_key";
+    public static final Algorithm ALGORITHM = Algorithm.HMAC512(SECRET.getBytes());
     public static final long EXPIRATION_TIME = 900_000;
     public static final String TOKEN_PREFIX = "Bearer ";
     public static final String HEADER_STRING = "Authorization";
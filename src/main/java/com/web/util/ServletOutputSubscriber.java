@@ -0,0 +1,155 @@
+package com.web.util;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes a stream of buffers to an async servlet response without blocking. A buffer is only requested from upstream
+ * once the previous one was handed to the container, so a slow client holds back the storage download instead of
+ * piling it up in memory, and neither side keeps a thread waiting.
+ */
+public class ServletOutputSubscriber implements Subscriber<ByteBuffer>, WriteListener, AsyncListener {
+
+    private final AsyncContext asyncContext;
+    private final HttpServletResponse response;
+    private final ServletOutputStream outputStream;
+    private final Runnable onFinished;
+    private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+    // Serializes drain() between the container callbacks and the upstream threads
+    private final AtomicInteger pendingDrains = new AtomicInteger();
+    private final AtomicBoolean requested = new AtomicBoolean();
+    private final AtomicBoolean finished = new AtomicBoolean();
+    private volatile Subscription subscription;
+    private volatile boolean upstreamCompleted;
+    private volatile boolean writable;
+
+    public ServletOutputSubscriber(AsyncContext asyncContext, Runnable onFinished) throws IOException {
+        this.asyncContext = asyncContext;
+        this.response = (HttpServletResponse) asyncContext.getResponse();
+        this.outputStream = response.getOutputStream();
+        this.onFinished = onFinished;
+        asyncContext.addListener(this);
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+        this.subscription = subscription;
+        outputStream.setWriteListener(this);
+    }
+
+    @Override
+    public void onNext(ByteBuffer buffer) {
+        buffers.add(buffer);
+        requested.set(false);
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        throwable.printStackTrace();
+        if (!response.isCommitted()) {
+            response.reset();
+            response.setStatus(HttpServletResponse.SC_BAD_GATEWAY);
+        }
+        finish();
+    }
+
+    @Override
+    public void onComplete() {
+        upstreamCompleted = true;
+        drain();
+    }
+
+    @Override
+    public void onWritePossible() {
+        writable = true;
+        drain();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+        cancel();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        cancel();
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+        cancel();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+    }
+
+    private void drain() {
+        if (pendingDrains.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            try {
+                // The container only calls onWritePossible after isReady() returned false, so it must be asked first
+                while (writable && !finished.get() && outputStream.isReady()) {
+                    ByteBuffer buffer = buffers.poll();
+                    if (buffer != null) {
+                        write(buffer);
+                    } else if (upstreamCompleted) {
+                        finish();
+                    } else {
+                        if (subscription != null && requested.compareAndSet(false, true)) {
+                            subscription.request(1);
+                        }
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                cancel();
+            }
+        } while (pendingDrains.decrementAndGet() != 0);
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        if (buffer.hasArray()) {
+            outputStream.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        } else {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            outputStream.write(bytes);
+        }
+    }
+
+    private void cancel() {
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        finish();
+    }
+
+    private void finish() {
+        if (finished.compareAndSet(false, true)) {
+            buffers.clear();
+            try {
+                asyncContext.complete();
+            } catch (IllegalStateException e) {
+                // Already completed by the container after a timeout or a client abort
+            }
+            onFinished.run();
+        }
+    }
+}
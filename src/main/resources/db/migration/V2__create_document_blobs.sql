@@ -0,0 +1,14 @@
+CREATE TABLE IF NOT EXISTS `document_blobs` (
+    `hash` CHAR(64) NOT NULL,
+    `size` BIGINT NOT NULL,
+    `content_type` VARCHAR(255),
+    `ref_count` INT NOT NULL,
+    `created_at` DATETIME NOT NULL,
+
+    PRIMARY KEY (`hash`)
+);
+
+ALTER TABLE `documents`
+    ADD COLUMN `identity_card_hash` CHAR(64),
+    ADD COLUMN `medical_certificate_hash` CHAR(64),
+    ADD COLUMN `diploma_hash` CHAR(64);
@@ -0,0 +1,4 @@
+ALTER TABLE `documents`
+    ADD COLUMN `storage_layout` VARCHAR(32) NOT NULL DEFAULT 'USER_BUCKET';
+
+CREATE INDEX `idx_documents_storage_layout` ON `documents` (`storage_layout`, `id`);
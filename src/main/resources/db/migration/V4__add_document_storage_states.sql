@@ -0,0 +1,10 @@
+ALTER TABLE `documents`
+    ADD COLUMN `identity_card_state` VARCHAR(16) NOT NULL DEFAULT 'STORED',
+    ADD COLUMN `medical_certificate_state` VARCHAR(16) NOT NULL DEFAULT 'STORED',
+    ADD COLUMN `diploma_state` VARCHAR(16) NOT NULL DEFAULT 'STORED';
+
+ALTER TABLE `document_blobs`
+    ADD COLUMN `content_md5` VARCHAR(32),
+    ADD COLUMN `state` VARCHAR(16) NOT NULL DEFAULT 'STORED';
+
+CREATE INDEX `idx_document_blobs_state` ON `document_blobs` (`state`);
@@ -0,0 +1,17 @@
+CREATE TABLE IF NOT EXISTS `upload_sessions` (
+    `id` VARCHAR(36) NOT NULL,
+    `fk_user` VARCHAR(36) NOT NULL,
+    `identity_card_size` BIGINT NOT NULL,
+    `identity_card_offset` BIGINT NOT NULL DEFAULT 0,
+    `medical_certificate_size` BIGINT NOT NULL,
+    `medical_certificate_offset` BIGINT NOT NULL DEFAULT 0,
+    `diploma_size` BIGINT NOT NULL,
+    `diploma_offset` BIGINT NOT NULL DEFAULT 0,
+    `created_at` DATETIME NOT NULL,
+    `expires_at` DATETIME NOT NULL,
+
+    PRIMARY KEY (`id`),
+    FOREIGN KEY (`fk_user`) REFERENCES `users`(`id`)
+);
+
+CREATE INDEX `idx_upload_sessions_expires_at` ON `upload_sessions` (`expires_at`);
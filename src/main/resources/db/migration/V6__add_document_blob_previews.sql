@@ -0,0 +1,7 @@
+ALTER TABLE `document_blobs`
+    ADD COLUMN `preview_state` VARCHAR(16),
+    ADD COLUMN `page_count` INT,
+    ADD COLUMN `width` INT,
+    ADD COLUMN `height` INT;
+
+CREATE INDEX `idx_document_blobs_preview_state` ON `document_blobs` (`state`, `preview_state`);
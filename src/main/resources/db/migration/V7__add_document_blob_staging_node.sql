@@ -0,0 +1,4 @@
+ALTER TABLE `document_blobs`
+    ADD COLUMN `staging_node` VARCHAR(255);
+
+CREATE INDEX `idx_document_blobs_staging_node` ON `document_blobs` (`state`, `staging_node`);
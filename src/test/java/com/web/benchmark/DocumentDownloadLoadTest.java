@@ -0,0 +1,233 @@
+package com.web.benchmark;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.web.config.AwsS3Config;
+import com.web.model.ObjectLocation;
+import com.web.storage.AsyncS3ObjectReader;
+import com.web.storage.FaultInjectingS3Server;
+import com.web.util.ServletOutputSubscriber;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.Wrapper;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Downloads the same object concurrently through the blocking and the non-blocking path, with the fault injecting S3
+ * stand-in delaying every response, and reports how many server threads and how much heap each path needed.
+ * Run with {@code java -cp target/test-classes:target/classes:<test classpath> com.web.benchmark.DocumentDownloadLoadTest
+ * [concurrency] [latency ms] [object size]}.
+ */
+public class DocumentDownloadLoadTest {
+
+    private static final String BUCKET = "default";
+    private static final String KEY = "blobs/load-test";
+    private static final String CLIENT_THREAD_NAME_PREFIX = "load-client-";
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        long latencyMs = args.length > 1 ? Long.parseLong(args[1]) : 500;
+        int objectSize = args.length > 2 ? Integer.parseInt(args[2]) : 256 * 1024;
+
+        byte[] content = new byte[objectSize];
+        new Random(42).nextBytes(content);
+
+        try (FaultInjectingS3Server s3Server = new FaultInjectingS3Server(0)) {
+            s3Server.putObject(BUCKET, KEY, content);
+            s3Server.setLatencyMs(latencyMs);
+            AwsS3Config awsS3Config = getAwsS3Config(s3Server.getUrl(), concurrency);
+
+            AmazonS3 amazonS3 = awsS3Config.amazonS3(new SimpleMeterRegistry());
+            Result blocking = run("blocking", new BlockingServlet(amazonS3), concurrency, objectSize);
+            amazonS3.shutdown();
+
+            try (S3AsyncClient s3AsyncClient = awsS3Config.s3AsyncClient()) {
+                HttpServlet servlet = new NonBlockingServlet(new AsyncS3ObjectReader(s3AsyncClient), objectSize);
+                Result nonBlocking = run("non-blocking", servlet, concurrency, objectSize);
+
+                System.out.printf("%n%d concurrent downloads of %d bytes, %d ms storage latency%n",
+                        concurrency, objectSize, latencyMs);
+                System.out.printf("%-14s %10s %14s %16s %10s%n", "path", "completed", "peak threads",
+                        "peak heap (MB)", "time (ms)");
+                blocking.print();
+                nonBlocking.print();
+            }
+        }
+    }
+
+    private static Result run(String name, HttpServlet servlet, int concurrency, int objectSize) throws Exception {
+        System.gc();
+        Tomcat tomcat = startTomcat(servlet, concurrency);
+        int port = tomcat.getConnector().getLocalPort();
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(8, runnable ->
+                new Thread(runnable, CLIENT_THREAD_NAME_PREFIX + runnable.hashCode()));
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .build();
+
+        AtomicBoolean sampling = new AtomicBoolean(true);
+        AtomicInteger peakThreads = new AtomicInteger();
+        AtomicLong peakHeap = new AtomicLong();
+        Thread sampler = new Thread(() -> {
+            while (sampling.get()) {
+                peakThreads.accumulateAndGet(countServerThreads(), Math::max);
+                peakHeap.accumulateAndGet(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(),
+                        Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, CLIENT_THREAD_NAME_PREFIX + "sampler");
+        sampler.start();
+
+        long started = System.nanoTime();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/download")).build();
+        CompletableFuture<?>[] downloads = new CompletableFuture<?>[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            downloads[i] = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        }
+        int completed = 0;
+        for (CompletableFuture<?> download : downloads) {
+            try {
+                HttpResponse<?> response = (HttpResponse<?>) download.get(5, TimeUnit.MINUTES);
+                if (response.statusCode() == 200 && ((byte[]) response.body()).length == objectSize) {
+                    completed++;
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        sampling.set(false);
+        sampler.join();
+        clientExecutor.shutdownNow();
+        tomcat.stop();
+        tomcat.destroy();
+        return new Result(name, completed, peakThreads.get(), peakHeap.get() / (1024 * 1024), elapsedMs);
+    }
+
+    private static int countServerThreads() {
+        return (int) Thread.getAllStackTraces().keySet().stream()
+                .map(Thread::getName)
+                .filter(name -> !name.startsWith(FaultInjectingS3Server.THREAD_NAME_PREFIX)
+                        && !name.startsWith(CLIENT_THREAD_NAME_PREFIX)
+                        && !name.startsWith("HttpClient"))
+                .count();
+    }
+
+    private static Tomcat startTomcat(HttpServlet servlet, int concurrency) throws LifecycleException, IOException {
+        Tomcat tomcat = new Tomcat();
+        tomcat.setBaseDir(Files.createTempDirectory("load-test-tomcat").toString());
+        Connector connector = new Connector();
+        connector.setPort(0);
+        // The blocking path gets a thread for every download, so its thread count is not capped by the pool
+        connector.setProperty("maxThreads", Integer.toString(concurrency + 10));
+        connector.setProperty("maxConnections", Integer.toString(concurrency * 2));
+        connector.setProperty("acceptCount", Integer.toString(concurrency));
+        tomcat.setConnector(connector);
+
+        Context context = tomcat.addContext("", null);
+        Wrapper wrapper = Tomcat.addServlet(context, "download", servlet);
+        wrapper.setAsyncSupported(true);
+        context.addServletMappingDecoded("/download", "download");
+        tomcat.start();
+        return tomcat;
+    }
+
+    private static AwsS3Config getAwsS3Config(String url, int concurrency) {
+        AwsS3Config awsS3Config = new AwsS3Config();
+        awsS3Config.setRegion("eu-west-1");
+        awsS3Config.setS3EndpointUrl(url);
+        awsS3Config.setBucketName(BUCKET);
+        awsS3Config.setAccessKey("random-key");
+        awsS3Config.setSecretKey("random-key");
+        awsS3Config.setConnectTimeoutMs(10000);
+        awsS3Config.setSocketTimeoutMs(60000);
+        awsS3Config.setReadTimeoutMs(300000);
+        awsS3Config.setWriteTimeoutMs(300000);
+        awsS3Config.setMaxErrorRetry(0);
+        awsS3Config.setMaxConcurrentCalls(concurrency);
+        awsS3Config.setBulkheadMaxWaitMs(300000);
+        awsS3Config.setCircuitBreakerWindowSize(100);
+        awsS3Config.setCircuitBreakerMinimumCalls(100);
+        awsS3Config.setCircuitBreakerFailureRateThreshold(100);
+        awsS3Config.setCircuitBreakerOpenDurationMs(1000);
+        awsS3Config.setCircuitBreakerHalfOpenCalls(1);
+        awsS3Config.setAsyncMaxConcurrency(concurrency);
+        return awsS3Config;
+    }
+
+    private record Result(String name, int completed, int peakThreads, long peakHeapMb, long elapsedMs) {
+
+        void print() {
+            System.out.printf("%-14s %10d %14d %16d %10d%n", name, completed, peakThreads, peakHeapMb, elapsedMs);
+        }
+    }
+
+    // Mirrors the StreamingResponseBody download, which holds a thread for the whole transfer
+    private static class BlockingServlet extends HttpServlet {
+
+        private final AmazonS3 amazonS3;
+
+        private BlockingServlet(AmazonS3 amazonS3) {
+            this.amazonS3 = amazonS3;
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+            try (InputStream inputStream = amazonS3.getObject(new GetObjectRequest(BUCKET, KEY)).getObjectContent();
+                 OutputStream outputStream = resp.getOutputStream()) {
+                inputStream.transferTo(outputStream);
+            }
+        }
+    }
+
+    private static class NonBlockingServlet extends HttpServlet {
+
+        private final AsyncS3ObjectReader asyncS3ObjectReader;
+        private final int objectSize;
+
+        private NonBlockingServlet(AsyncS3ObjectReader asyncS3ObjectReader, int objectSize) {
+            this.asyncS3ObjectReader = asyncS3ObjectReader;
+            this.objectSize = objectSize;
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+            AsyncContext asyncContext = req.startAsync();
+            asyncContext.setTimeout(TimeUnit.MINUTES.toMillis(5));
+            ServletOutputSubscriber subscriber = new ServletOutputSubscriber(asyncContext, () -> {
+            });
+            asyncS3ObjectReader.read(new ObjectLocation(BUCKET, KEY), 0, objectSize - 1, subscriber);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.web.benchmark;
+
+import com.web.storage.DecryptingInputStream;
+import com.web.storage.EncryptingInputStream;
+import com.web.storage.EncryptionHeader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures single-threaded streaming encryption and decryption of a 16 MB document, so the bytes/s
+ * counters read as throughput per core. The copy benchmark is the plaintext baseline.
+ * Run with {@code java -cp target/test-classes:<test classpath> com.web.benchmark.DocumentEncryptionBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Threads(1)
+@Fork(1)
+public class DocumentEncryptionBenchmark {
+
+    private static final int DOCUMENT_SIZE = 16 * 1024 * 1024;
+
+    @Param({"16384", "65536", "262144"})
+    private int chunkSize;
+
+    private final byte[] buffer = new byte[64 * 1024];
+    private byte[] content;
+    private byte[] encrypted;
+    private EncryptionHeader header;
+    private SecretKey dataKey;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class ProcessedBytes {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        content = new byte[DOCUMENT_SIZE];
+        random.nextBytes(content);
+
+        byte[] key = new byte[32];
+        random.nextBytes(key);
+        dataKey = new SecretKeySpec(key, "AES");
+        // The wrapped key is never unwrapped here, only the chunk cipher is measured
+        header = new EncryptionHeader(1, chunkSize, new byte[EncryptionHeader.NONCE_PREFIX_LENGTH],
+                new byte[EncryptionHeader.KEY_NONCE_LENGTH], new byte[EncryptionHeader.WRAPPED_KEY_LENGTH]);
+
+        try (InputStream inputStream = new EncryptingInputStream(new ByteArrayInputStream(content), DOCUMENT_SIZE,
+                header, dataKey)) {
+            encrypted = inputStream.readAllBytes();
+        }
+    }
+
+    @Benchmark
+    public long copy(ProcessedBytes processedBytes) throws IOException {
+        return drain(new ByteArrayInputStream(content), processedBytes);
+    }
+
+    @Benchmark
+    public long encrypt(ProcessedBytes processedBytes) throws IOException {
+        return drain(new EncryptingInputStream(new ByteArrayInputStream(content), DOCUMENT_SIZE, header, dataKey),
+                processedBytes);
+    }
+
+    @Benchmark
+    public long decrypt(ProcessedBytes processedBytes) throws IOException {
+        InputStream ciphertext = new ByteArrayInputStream(encrypted, EncryptionHeader.LENGTH,
+                encrypted.length - EncryptionHeader.LENGTH);
+        return drain(new DecryptingInputStream(ciphertext, header, dataKey, DOCUMENT_SIZE, 0, DOCUMENT_SIZE - 1),
+                processedBytes);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DocumentEncryptionBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private long drain(InputStream inputStream, ProcessedBytes processedBytes) throws IOException {
+        try (inputStream) {
+            long total = 0;
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                total += read;
+            }
+            processedBytes.bytes += DOCUMENT_SIZE;
+            return total;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.web.benchmark;
+
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the former temp-file upload path with the streaming one for a 50 MB document.
+ * Run with {@code java -cp target/test-classes:<test classpath> com.web.benchmark.DocumentUploadBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DocumentUploadBenchmark {
+
+    private static final int DOCUMENT_SIZE = 50 * 1024 * 1024;
+    private static final int READ_LIMIT = 128 * 1024;
+
+    private MultipartFile multipartFile;
+    private CountingS3Client s3Client;
+    private Path tempDirectory;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class CopiedBytes {
+        public long diskBytes;
+        public long networkBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            diskBytes = 0;
+            networkBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        byte[] content = new byte[DOCUMENT_SIZE];
+        new Random(42).nextBytes(content);
+
+        multipartFile = new MockMultipartFile("diploma", "diploma.pdf", "application/pdf", content);
+        s3Client = new CountingS3Client();
+        tempDirectory = Files.createTempDirectory("upload-benchmark");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (var files = Files.list(tempDirectory)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(tempDirectory);
+    }
+
+    @Benchmark
+    public PutObjectResult tempFileUpload(CopiedBytes copiedBytes) throws IOException {
+        File file = File.createTempFile("temp", ".pdf", tempDirectory.toFile());
+        try {
+            multipartFile.transferTo(file);
+            copiedBytes.diskBytes += file.length();
+
+            PutObjectResult result = s3Client.putObject("bucket", "diploma", file);
+            copiedBytes.networkBytes += s3Client.lastReadBytes;
+            return result;
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    @Benchmark
+    public PutObjectResult streamingUpload(CopiedBytes copiedBytes) throws IOException {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(multipartFile.getSize());
+        metadata.setContentType(multipartFile.getContentType());
+
+        try (InputStream inputStream = multipartFile.getInputStream()) {
+            PutObjectRequest request = new PutObjectRequest("bucket", "diploma", inputStream, metadata);
+            request.getRequestClientOptions().setReadLimit(READ_LIMIT);
+
+            PutObjectResult result = s3Client.putObject(request);
+            copiedBytes.networkBytes += s3Client.lastReadBytes;
+            return result;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DocumentUploadBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static class CountingS3Client extends AbstractAmazonS3 {
+
+        private final byte[] buffer = new byte[64 * 1024];
+        private long lastReadBytes;
+
+        @Override
+        public PutObjectResult putObject(String bucketName, String key, File file) {
+            return putObject(new PutObjectRequest(bucketName, key, file));
+        }
+
+        @Override
+        public PutObjectResult putObject(PutObjectRequest request) {
+            try (InputStream inputStream = request.getFile() != null ?
+                    new FileInputStream(request.getFile()) : request.getInputStream()) {
+                long total = 0;
+                int read;
+                while ((read = inputStream.read(buffer)) != -1) {
+                    total += read;
+                }
+                lastReadBytes = total;
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+
+            PutObjectResult result = new PutObjectResult();
+            result.setMetadata(new ObjectMetadata());
+            return result;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.web.benchmark;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.web.filter.JwtAuthorizationFilter;
+import com.web.filter.JwtTokenVerifier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.web.util.SecurityConstants.*;
+
+/**
+ * Measures the per-request cost of authorizing a bearer token. The rebuild benchmark is the previous filter body,
+ * which built a new algorithm and verifier and fully verified the token on every request.
+ * Run with {@code java -cp target/test-classes:<test classpath> com.web.benchmark.JwtAuthorizationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(4)
+@Fork(1)
+public class JwtAuthorizationBenchmark {
+
+    private String token;
+    private String header;
+    private JwtAuthorizationFilter uncachedFilter;
+    private JwtAuthorizationFilter cachedFilter;
+
+    @Setup
+    public void setup() {
+        token = JWT.create()
+                .withSubject("student@mail.com")
+                .withClaim(USER_ID, UUID.randomUUID().toString())
+                .withClaim(AUTHORITIES, List.of("ROLE_STUDENT"))
+                .withExpiresAt(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
+                .sign(ALGORITHM);
+        header = TOKEN_PREFIX + token;
+        uncachedFilter = new JwtAuthorizationFilter(authentication -> authentication,
+                new JwtTokenVerifier(0, new SimpleMeterRegistry()));
+        cachedFilter = new JwtAuthorizationFilter(authentication -> authentication,
+                new JwtTokenVerifier(10_000, new SimpleMeterRegistry()));
+    }
+
+    @Benchmark
+    public DecodedJWT rebuildVerifier() {
+        return JWT.require(Algorithm.HMAC512(SECRET.getBytes()))
+                .build()
+                .verify(token);
+    }
+
+    @Benchmark
+    public void sharedVerifier(Blackhole blackhole) throws ServletException, IOException {
+        blackhole.consume(authorize(uncachedFilter));
+    }
+
+    @Benchmark
+    public void cachedVerifier(Blackhole blackhole) throws ServletException, IOException {
+        blackhole.consume(authorize(cachedFilter));
+    }
+
+    private Object authorize(JwtAuthorizationFilter filter) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/documents");
+        request.addHeader(HEADER_STRING, header);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtAuthorizationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
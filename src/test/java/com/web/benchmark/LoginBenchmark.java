@@ -0,0 +1,103 @@
+package com.web.benchmark;
+
+import com.web.config.SecurityConfig;
+import com.web.filter.JwtAuthenticationFilter;
+import com.web.model.UserCredentials;
+import com.web.model.enumeration.UserRole;
+import com.web.service.PasswordHashingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.web.util.SecurityConstants.HEADER_STRING;
+
+/**
+ * Measures login throughput through the real authentication filter, provider and hashing executor, with the
+ * credential lookup answered from memory. At the lowest BCrypt cost the numbers show the overhead around the hash.
+ * Run with {@code java -cp target/test-classes:<test classpath> com.web.benchmark.LoginBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(16)
+@Fork(1)
+public class LoginBenchmark {
+
+    private static final String EMAIL = "student@mail.com";
+    private static final String PASSWORD = "dummy_password1";
+
+    @Param({"4", "10"})
+    private int cost;
+
+    private byte[] body;
+    private ThreadPoolTaskExecutor executor;
+    private JwtAuthenticationFilter filter;
+
+    @Setup
+    public void setup() {
+        SecurityConfig securityConfig = new SecurityConfig();
+        securityConfig.setPasswordMinCost(cost);
+        securityConfig.setPasswordMaxCost(cost);
+        securityConfig.setPasswordWaitTimeoutMs(60_000);
+        securityConfig.setPasswordRetryAfterSeconds(1);
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Runtime.getRuntime().availableProcessors());
+        executor.setMaxPoolSize(Runtime.getRuntime().availableProcessors());
+        executor.setQueueCapacity(64);
+        executor.initialize();
+        PasswordHashingService passwordHashingService = new PasswordHashingService(securityConfig, executor,
+                new SimpleMeterRegistry());
+
+        UserCredentials credentials = new UserCredentials(UUID.randomUUID(), EMAIL,
+                passwordHashingService.encode(PASSWORD), UserRole.ROLE_STUDENT);
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setPasswordEncoder(passwordHashingService);
+        provider.setUserDetailsService(email -> {
+            if (!email.equals(EMAIL)) {
+                throw new UsernameNotFoundException(email);
+            }
+            return credentials;
+        });
+
+        filter = new JwtAuthenticationFilter(new ProviderManager(provider), new StaticApplicationContext());
+        body = ("{\"email\":\"" + EMAIL + "\",\"password\":\"" + PASSWORD + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public String login() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/users/login");
+        request.setServletPath("/api/users/login");
+        request.setContent(body);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getHeader(HEADER_STRING);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LoginBenchmark.class.getSimpleName()).build()).run();
+    }
+}
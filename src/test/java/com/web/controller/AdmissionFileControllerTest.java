@@ -2,28 +2,36 @@ package com.web.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.web.dto.AdmissionFileDto;
+import com.web.error.ErrorMessage;
+import com.web.error.exception.NotFoundException;
 import com.web.mapper.AdmissionFileMapper;
 import com.web.model.AdmissionFile;
 import com.web.model.User;
 import com.web.model.enumeration.AdmissionFileStatus;
 import com.web.repository.UserRepository;
 import com.web.service.AdmissionFileService;
+import com.web.service.DocumentExportService;
+import com.web.service.PasswordHashingService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = AdmissionFileController.class)
 class AdmissionFileControllerTest {
@@ -37,6 +45,9 @@ class AdmissionFileControllerTest {
     @MockBean
     private UserRepository userRepository;
 
+    @MockBean
+    private PasswordHashingService passwordHashingService;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -46,6 +57,9 @@ class AdmissionFileControllerTest {
     @MockBean
     private AdmissionFileMapper admissionFileMapper;
 
+    @MockBean
+    private DocumentExportService documentExportService;
+
     @Test
     @DisplayName("Submit admission file - success")
     @WithMockUser(roles = {"STUDENT"})
@@ -106,6 +120,47 @@ class AdmissionFileControllerTest {
                 .andExpect(jsonPath("$[0].id").value(admissionFileDto.id()));
     }
 
+    @Test
+    @DisplayName("Export admission files - success")
+    @WithMockUser(roles = {"ADMIN"})
+    void exportAdmissionFiles_success() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write("zip".getBytes());
+            return null;
+        }).when(documentExportService).export(eq(AdmissionFileStatus.PENDING), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/admission-files/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"admission-files-pending.zip\""))
+                .andExpect(content().bytes("zip".getBytes()));
+    }
+
+    @Test
+    @DisplayName("Export admission file - not found - failure")
+    @WithMockUser(roles = {"ADMIN"})
+    void exportAdmissionFile_notFound_failure() throws Exception {
+        when(documentExportService.getById(ID)).thenThrow(
+                new NotFoundException(ErrorMessage.NOT_FOUND, "admission file", ID));
+
+        mockMvc.perform(get("/api/admission-files/" + ID + "/export"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Export admission files - not admin - failure")
+    @WithMockUser(roles = {"STUDENT"})
+    void exportAdmissionFiles_notAdmin_failure() throws Exception {
+        mockMvc.perform(get("/api/admission-files/export"))
+                .andExpect(status().isForbidden());
+
+        verify(documentExportService, never()).export(any(AdmissionFileStatus.class), any());
+    }
+
     @Test
     @DisplayName("Delete admission file - success")
     @WithMockUser(roles = {"STUDENT"})
@@ -1,33 +1,48 @@
 package com.web.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.web.config.DocumentConfig;
 import com.web.dto.DocumentDto;
+import com.web.dto.PresignedUrlDto;
 import com.web.mapper.DocumentMapper;
 import com.web.model.Document;
+import com.web.model.DocumentContent;
+import com.web.model.DocumentPreview;
+import com.web.model.PresignedUrl;
+import com.web.model.enumeration.DocumentPart;
+import com.web.model.enumeration.PreviewState;
 import com.web.repository.UserRepository;
 import com.web.service.DocumentService;
+import com.web.service.PasswordHashingService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMultipartHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = DocumentController.class)
+@Import(DocumentConfig.class)
 class DocumentControllerTest {
 
     private static final Long ID = 1L;
@@ -39,6 +54,9 @@ class DocumentControllerTest {
     @MockBean
     private UserRepository userRepository;
 
+    @MockBean
+    private PasswordHashingService passwordHashingService;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -112,6 +130,116 @@ class DocumentControllerTest {
                 .andExpect(jsonPath("$.id").value(documentDto.id()));
     }
 
+    @Test
+    @DisplayName("Download document part - range - success")
+    @WithMockUser(roles = {"STUDENT"})
+    void downloadDocument_range_success() throws Exception {
+        DocumentContent content = getDocumentContent();
+
+        when(documentService.getContent(ID, DocumentPart.DIPLOMA)).thenReturn(content);
+        when(documentService.openContent(content, 2, 5)).thenReturn(new ByteArrayInputStream("mmy ".getBytes()));
+
+        MvcResult result = mockMvc.perform(get("/api/documents/" + ID + "/diploma")
+                        .header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/13"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"etag\""))
+                .andExpect(content().bytes("mmy ".getBytes()));
+    }
+
+    @Test
+    @DisplayName("Download document part - matching ETag - not modified")
+    @WithMockUser(roles = {"STUDENT"})
+    void downloadDocument_matchingETag_notModified() throws Exception {
+        when(documentService.getContent(ID, DocumentPart.DIPLOMA)).thenReturn(getDocumentContent());
+
+        mockMvc.perform(get("/api/documents/" + ID + "/diploma")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"etag\""))
+                .andExpect(status().isNotModified());
+
+        verify(documentService, never()).openContent(any(), anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Download document part - unsatisfiable range - failure")
+    @WithMockUser(roles = {"STUDENT"})
+    void downloadDocument_unsatisfiableRange_failure() throws Exception {
+        when(documentService.getContent(ID, DocumentPart.DIPLOMA)).thenReturn(getDocumentContent());
+
+        mockMvc.perform(get("/api/documents/" + ID + "/diploma")
+                        .header(HttpHeaders.RANGE, "bytes=100-200"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */13"));
+    }
+
+    @Test
+    @DisplayName("Get document part preview - success")
+    @WithMockUser(roles = {"STUDENT"})
+    void getPreview_success() throws Exception {
+        when(documentService.getPreview(ID, DocumentPart.DIPLOMA))
+                .thenReturn(new DocumentPreview("hash", PreviewState.READY, 2, 595, 842));
+
+        mockMvc.perform(get("/api/documents/" + ID + "/diploma/preview"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("READY"))
+                .andExpect(jsonPath("$.pageCount").value(2))
+                .andExpect(jsonPath("$.url").value("/api/documents/" + ID + "/diploma/preview/hash"));
+    }
+
+    @Test
+    @DisplayName("Download document part preview - success")
+    @WithMockUser(roles = {"STUDENT"})
+    void downloadPreview_success() throws Exception {
+        DocumentContent content = new DocumentContent("bucket", "blobs/hash.preview.jpg", 4, "image/jpeg", "hash");
+
+        when(documentService.getPreviewContent(ID, DocumentPart.DIPLOMA, "hash")).thenReturn(content);
+        when(documentService.openContent(content, 0, 3)).thenReturn(new ByteArrayInputStream("jpeg".getBytes()));
+
+        MvcResult result = mockMvc.perform(get("/api/documents/" + ID + "/diploma/preview/hash"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"hash\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, private, immutable"))
+                .andExpect(content().bytes("jpeg".getBytes()));
+    }
+
+    @Test
+    @DisplayName("Confirm direct upload - success")
+    @WithMockUser(roles = {"STUDENT"})
+    void confirmUpload_success() throws Exception {
+        Document document = getDocument();
+        DocumentDto documentDto = getDocumentDto();
+
+        when(documentService.confirmUpload()).thenReturn(document);
+        when(documentMapper.mapToDto(document)).thenReturn(documentDto);
+
+        mockMvc.perform(post("/api/documents/confirm"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(documentDto.id()));
+    }
+
+    @Test
+    @DisplayName("Get presigned download url - success")
+    @WithMockUser(roles = {"ADMIN"})
+    void getDownloadUrl_success() throws Exception {
+        PresignedUrl presignedUrl = new PresignedUrl("http://localhost:4566/signed", Instant.now());
+
+        when(documentService.getDownloadUrl(ID, DocumentPart.DIPLOMA)).thenReturn(presignedUrl);
+        when(documentMapper.mapToDto(presignedUrl))
+                .thenReturn(new PresignedUrlDto(presignedUrl.url(), presignedUrl.expiresAt()));
+
+        mockMvc.perform(get("/api/documents/" + ID + "/diploma/url"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.url").value(presignedUrl.url()));
+    }
+
     @Test
     @DisplayName("Get all documents - success")
     @WithMockUser(roles = {"ADMIN"})
@@ -146,6 +274,10 @@ class DocumentControllerTest {
         );
     }
 
+    private DocumentContent getDocumentContent() {
+        return new DocumentContent(USER_ID.toString(), "diploma", 13, MediaType.APPLICATION_PDF_VALUE, "etag");
+    }
+
     private DocumentDto getDocumentDto() {
         return new DocumentDto(ID, "dummy id", "dummy mc", "dummy diploma", USER_ID);
     }
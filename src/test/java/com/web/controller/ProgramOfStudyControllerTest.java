@@ -7,6 +7,7 @@ import com.web.model.ProgramOfStudy;
 import com.web.model.enumeration.FinancingType;
 import com.web.model.enumeration.ProgramType;
 import com.web.repository.UserRepository;
+import com.web.service.PasswordHashingService;
 import com.web.service.ProgramOfStudyService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -37,6 +38,9 @@ class ProgramOfStudyControllerTest {
     @MockBean
     private UserRepository userRepository;
 
+    @MockBean
+    private PasswordHashingService passwordHashingService;
+
     @Autowired
     private MockMvc mockMvc;
 
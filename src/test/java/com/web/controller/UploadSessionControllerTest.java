@@ -0,0 +1,165 @@
+package com.web.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.web.dto.DocumentDto;
+import com.web.dto.UploadPartDto;
+import com.web.dto.UploadSessionDto;
+import com.web.error.ErrorMessage;
+import com.web.error.exception.ConflictException;
+import com.web.mapper.DocumentMapper;
+import com.web.mapper.UploadSessionMapper;
+import com.web.model.Document;
+import com.web.model.UploadSession;
+import com.web.model.enumeration.DocumentPart;
+import com.web.repository.UserRepository;
+import com.web.service.PasswordHashingService;
+import com.web.service.UploadSessionService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = UploadSessionController.class)
+class UploadSessionControllerTest {
+
+    private static final UUID ID = UUID.randomUUID();
+    private static final byte[] CHUNK = "%PDF-dummy".getBytes();
+
+    @MockBean
+    private UploadSessionService uploadSessionService;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private UploadSessionMapper uploadSessionMapper;
+
+    @MockBean
+    private DocumentMapper documentMapper;
+
+    @Test
+    @DisplayName("Create upload session - success")
+    @WithMockUser(roles = {"STUDENT"})
+    void createUploadSession_success() throws Exception {
+        UploadSession uploadSession = getUploadSession();
+
+        when(uploadSessionService.create(10, 20, 30)).thenReturn(uploadSession);
+        when(uploadSessionMapper.mapToDto(uploadSession)).thenReturn(getUploadSessionDto(0));
+
+        mockMvc.perform(post("/api/documents/upload-sessions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new UploadSessionDto(null, 10L, 20L, 30L, null, null, null, null))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(ID.toString()));
+    }
+
+    @Test
+    @DisplayName("Create upload session - missing size - failure")
+    @WithMockUser(roles = {"STUDENT"})
+    void createUploadSession_missingSize_failure() throws Exception {
+        mockMvc.perform(post("/api/documents/upload-sessions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new UploadSessionDto(null, 10L, null, 30L, null, null, null, null))))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(uploadSessionService, never()).create(anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Append chunk - success")
+    @WithMockUser(roles = {"STUDENT"})
+    void appendChunk_success() throws Exception {
+        UploadSession uploadSession = getUploadSession();
+
+        when(uploadSessionService.appendChunk(eq(ID), eq(DocumentPart.DIPLOMA), eq(0L), eq((long) CHUNK.length), any()))
+                .thenReturn(uploadSession);
+        when(uploadSessionMapper.mapToDto(uploadSession)).thenReturn(getUploadSessionDto(CHUNK.length));
+
+        mockMvc.perform(put("/api/documents/upload-sessions/" + ID + "/diploma?offset=0")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(CHUNK))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.diploma.offset").value(CHUNK.length));
+    }
+
+    @Test
+    @DisplayName("Append chunk - offset mismatch - failure")
+    @WithMockUser(roles = {"STUDENT"})
+    void appendChunk_offsetMismatch_failure() throws Exception {
+        when(uploadSessionService.appendChunk(eq(ID), eq(DocumentPart.DIPLOMA), eq(5L), eq((long) CHUNK.length), any()))
+                .thenThrow(new ConflictException(ErrorMessage.UPLOAD_OFFSET_MISMATCH, "diploma", 0, 5));
+
+        mockMvc.perform(put("/api/documents/upload-sessions/" + ID + "/diploma?offset=5")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(CHUNK))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("Get upload session - success")
+    @WithMockUser(roles = {"STUDENT"})
+    void getUploadSession_success() throws Exception {
+        UploadSession uploadSession = getUploadSession();
+
+        when(uploadSessionService.getById(ID)).thenReturn(uploadSession);
+        when(uploadSessionMapper.mapToDto(uploadSession)).thenReturn(getUploadSessionDto(4));
+
+        mockMvc.perform(get("/api/documents/upload-sessions/" + ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.diploma.offset").value(4));
+    }
+
+    @Test
+    @DisplayName("Complete upload session - success")
+    @WithMockUser(roles = {"STUDENT"})
+    void completeUploadSession_success() throws Exception {
+        Document document = new Document();
+        DocumentDto documentDto = new DocumentDto(1L, "identity card", "medical certificate", "diploma", UUID.randomUUID());
+
+        when(uploadSessionService.complete(ID)).thenReturn(document);
+        when(documentMapper.mapToDto(document)).thenReturn(documentDto);
+
+        mockMvc.perform(post("/api/documents/upload-sessions/" + ID + "/complete"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1));
+    }
+
+    private UploadSession getUploadSession() {
+        return UploadSession.builder()
+                .id(ID)
+                .identityCardSize(10)
+                .medicalCertificateSize(20)
+                .diplomaSize(30)
+                .build();
+    }
+
+    private UploadSessionDto getUploadSessionDto(long diplomaOffset) {
+        return new UploadSessionDto(ID, 10L, 20L, 30L, new UploadPartDto(10, 0), new UploadPartDto(20, 0),
+                new UploadPartDto(30, diplomaOffset), LocalDateTime.now());
+    }
+}
@@ -11,6 +11,7 @@ import com.web.model.UserInfo;
 import com.web.model.enumeration.CivilStatus;
 import com.web.model.enumeration.SexType;
 import com.web.repository.UserRepository;
+import com.web.service.PasswordHashingService;
 import com.web.service.UserService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -48,6 +49,9 @@ class UserControllerTest {
     @MockBean
     private UserRepository userRepository;
 
+    @MockBean
+    private PasswordHashingService passwordHashingService;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -7,6 +7,7 @@ import com.web.model.ProgramOfStudy;
 import com.web.model.User;
 import com.web.model.UserProgram;
 import com.web.repository.UserRepository;
+import com.web.service.PasswordHashingService;
 import com.web.service.UserProgramService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -38,6 +39,9 @@ class UserProgramControllerTest {
     @MockBean
     private UserRepository userRepository;
 
+    @MockBean
+    private PasswordHashingService passwordHashingService;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -0,0 +1,88 @@
+package com.web.filter;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import com.web.model.enumeration.UserRole;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static com.web.util.SecurityConstants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenVerifierTest {
+
+    private static final UUID ID = UUID.randomUUID();
+    private static final String EMAIL = "student@mail.com";
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwtTokenVerifier jwtTokenVerifier;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        jwtTokenVerifier = new JwtTokenVerifier(100, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Verify - success")
+    void verify_success() {
+        CustomAuthenticationToken authentication = jwtTokenVerifier.verify(createToken(ALGORITHM, EXPIRATION_TIME));
+
+        assertEquals(EMAIL, authentication.getName());
+        assertEquals(ID, authentication.getUser().id());
+        assertTrue(authentication.getUser().hasRole(UserRole.ROLE_STUDENT));
+        assertFalse(authentication.getUser().hasRole(UserRole.ROLE_ADMIN));
+        assertEquals(List.of(UserRole.ROLE_STUDENT.name()), authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
+    }
+
+    @Test
+    @DisplayName("Verify - repeated token - cached - success")
+    void verify_repeatedToken_cached_success() {
+        String token = createToken(ALGORITHM, EXPIRATION_TIME);
+
+        CustomAuthenticationToken first = jwtTokenVerifier.verify(token);
+        CustomAuthenticationToken second = jwtTokenVerifier.verify(token);
+
+        assertSame(first, second);
+        assertEquals(1, meterRegistry.counter("security.token.cache.requests", "result", "hit").count());
+        assertEquals(1, meterRegistry.counter("security.token.cache.requests", "result", "miss").count());
+    }
+
+    @Test
+    @DisplayName("Verify - expired token - failure")
+    void verify_expiredToken_failure() {
+        String token = createToken(ALGORITHM, -1000);
+
+        assertThrows(TokenExpiredException.class, () -> jwtTokenVerifier.verify(token));
+        assertThrows(TokenExpiredException.class, () -> jwtTokenVerifier.verify(token));
+    }
+
+    @Test
+    @DisplayName("Verify - invalid signature - failure")
+    void verify_invalidSignature_failure() {
+        String token = createToken(Algorithm.HMAC512("another_secret".getBytes()), EXPIRATION_TIME);
+
+        assertThrows(SignatureVerificationException.class, () -> jwtTokenVerifier.verify(token));
+        assertThrows(SignatureVerificationException.class, () -> jwtTokenVerifier.verify(token));
+    }
+
+    private static String createToken(Algorithm algorithm, long expiresInMs) {
+        return JWT.create()
+                .withSubject(EMAIL)
+                .withClaim(USER_ID, ID.toString())
+                .withClaim(AUTHORITIES, List.of(UserRole.ROLE_STUDENT.name()))
+                .withExpiresAt(new Date(System.currentTimeMillis() + expiresInMs))
+                .sign(algorithm);
+    }
+}
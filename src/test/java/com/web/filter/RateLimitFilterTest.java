@@ -0,0 +1,198 @@
+package com.web.filter;
+
+import com.auth0.jwt.JWT;
+import com.web.config.SecurityConfig;
+import com.web.error.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static com.web.util.SecurityConstants.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RateLimitFilterTest {
+
+    @Mock
+    private ApplicationContext context;
+
+    @Mock
+    private HandlerExceptionResolver handlerExceptionResolver;
+
+    private RateLimitFilter rateLimitFilter;
+
+    @BeforeEach
+    void setup() {
+        SecurityConfig securityConfig = new SecurityConfig();
+        securityConfig.setRateLimitEnabled(true);
+        securityConfig.setLoginIpCapacity(2);
+        securityConfig.setLoginIpPeriodSeconds(60);
+        securityConfig.setUploadIpCapacity(10);
+        securityConfig.setUploadIpPeriodSeconds(60);
+        securityConfig.setUploadUserCapacity(1);
+        securityConfig.setUploadUserPeriodSeconds(60);
+        rateLimitFilter = new RateLimitFilter(securityConfig, new TokenBucketStore(4),
+                new JwtTokenVerifier(100, new SimpleMeterRegistry()), context);
+    }
+
+    @Test
+    @DisplayName("Login - within limit - success")
+    void login_withinLimit_success() throws ServletException, IOException {
+        for (int i = 0; i < 2; i++) {
+            MockFilterChain chain = new MockFilterChain();
+            rateLimitFilter.doFilter(getLoginRequest("10.0.0.1"), new MockHttpServletResponse(), chain);
+            assertNotNull(chain.getRequest());
+        }
+        verifyNoInteractions(handlerExceptionResolver);
+    }
+
+    @Test
+    @DisplayName("Login - limit exceeded - failure")
+    void login_limitExceeded_failure() throws ServletException, IOException {
+        when(context.getBean("handlerExceptionResolver", HandlerExceptionResolver.class))
+                .thenReturn(handlerExceptionResolver);
+        for (int i = 0; i < 2; i++) {
+            rateLimitFilter.doFilter(getLoginRequest("10.0.0.1"), new MockHttpServletResponse(), new MockFilterChain());
+        }
+
+        MockFilterChain chain = new MockFilterChain();
+        rateLimitFilter.doFilter(getLoginRequest("10.0.0.1"), new MockHttpServletResponse(), chain);
+
+        assertNull(chain.getRequest());
+        ArgumentCaptor<Exception> exception = ArgumentCaptor.forClass(Exception.class);
+        verify(handlerExceptionResolver).resolveException(any(), any(), isNull(), exception.capture());
+        assertEquals(30, ((TooManyRequestsException) exception.getValue()).getRetryAfterSeconds());
+
+        MockFilterChain otherClientChain = new MockFilterChain();
+        rateLimitFilter.doFilter(getLoginRequest("10.0.0.2"), new MockHttpServletResponse(), otherClientChain);
+        assertNotNull(otherClientChain.getRequest());
+    }
+
+    @Test
+    @DisplayName("Upload - user limit exceeded - failure")
+    void upload_userLimitExceeded_failure() throws ServletException, IOException {
+        when(context.getBean("handlerExceptionResolver", HandlerExceptionResolver.class))
+                .thenReturn(handlerExceptionResolver);
+        String token = createToken();
+
+        MockFilterChain chain = new MockFilterChain();
+        rateLimitFilter.doFilter(getUploadRequest("10.0.0.1", token), new MockHttpServletResponse(), chain);
+        assertNotNull(chain.getRequest());
+
+        MockFilterChain otherAddressChain = new MockFilterChain();
+        rateLimitFilter.doFilter(getUploadRequest("10.0.0.2", token), new MockHttpServletResponse(),
+                otherAddressChain);
+        assertNull(otherAddressChain.getRequest());
+        verify(handlerExceptionResolver).resolveException(any(), any(), isNull(), any(TooManyRequestsException.class));
+    }
+
+    @Test
+    @DisplayName("Upload session - charged once for all of its chunks - success")
+    void uploadSession_chunksNotLimited_success() throws ServletException, IOException {
+        when(context.getBean("handlerExceptionResolver", HandlerExceptionResolver.class))
+                .thenReturn(handlerExceptionResolver);
+        String token = createToken();
+        String sessionUrl = "/api/documents/upload-sessions/" + UUID.randomUUID();
+
+        MockFilterChain createChain = new MockFilterChain();
+        rateLimitFilter.doFilter(getUploadSessionRequest("POST", "/api/documents/upload-sessions",
+                MediaType.APPLICATION_JSON_VALUE, token), new MockHttpServletResponse(), createChain);
+        assertNotNull(createChain.getRequest());
+
+        // More chunks and retries than either bucket holds
+        for (int i = 0; i < 15; i++) {
+            MockFilterChain chain = new MockFilterChain();
+            rateLimitFilter.doFilter(getUploadSessionRequest("PUT", sessionUrl + "/diploma",
+                    MediaType.APPLICATION_OCTET_STREAM_VALUE, token), new MockHttpServletResponse(), chain);
+            assertNotNull(chain.getRequest());
+        }
+        MockFilterChain completeChain = new MockFilterChain();
+        rateLimitFilter.doFilter(getUploadSessionRequest("POST", sessionUrl + "/complete", null, token),
+                new MockHttpServletResponse(), completeChain);
+        assertNotNull(completeChain.getRequest());
+        verifyNoInteractions(handlerExceptionResolver);
+
+        MockFilterChain secondSessionChain = new MockFilterChain();
+        rateLimitFilter.doFilter(getUploadSessionRequest("POST", "/api/documents/upload-sessions",
+                MediaType.APPLICATION_JSON_VALUE, token), new MockHttpServletResponse(), secondSessionChain);
+        assertNull(secondSessionChain.getRequest());
+        verify(handlerExceptionResolver).resolveException(any(), any(), isNull(), any(TooManyRequestsException.class));
+    }
+
+    @Test
+    @DisplayName("Upload - invalid token - limited by address only - success")
+    void upload_invalidToken_success() throws ServletException, IOException {
+        for (int i = 0; i < 3; i++) {
+            MockFilterChain chain = new MockFilterChain();
+            rateLimitFilter.doFilter(getUploadRequest("10.0.0.1", "invalid"), new MockHttpServletResponse(), chain);
+            assertNotNull(chain.getRequest());
+        }
+    }
+
+    @Test
+    @DisplayName("Other route - not limited - success")
+    void otherRoute_notLimited_success() throws ServletException, IOException {
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/documents/1");
+            request.setServletPath("/api/documents/1");
+            MockFilterChain chain = new MockFilterChain();
+            rateLimitFilter.doFilter(request, new MockHttpServletResponse(), chain);
+            assertNotNull(chain.getRequest());
+        }
+    }
+
+    private static MockHttpServletRequest getLoginRequest(String remoteAddress) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/users/login");
+        request.setServletPath("/api/users/login");
+        request.setRemoteAddr(remoteAddress);
+        return request;
+    }
+
+    private static MockHttpServletRequest getUploadRequest(String remoteAddress, String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/documents");
+        request.setServletPath("/api/documents");
+        request.setRemoteAddr(remoteAddress);
+        request.setContentType(MediaType.MULTIPART_FORM_DATA_VALUE + "; boundary=boundary");
+        request.addHeader(HEADER_STRING, TOKEN_PREFIX + token);
+        return request;
+    }
+
+    private static MockHttpServletRequest getUploadSessionRequest(String method, String path, String contentType,
+                                                                  String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        request.setRemoteAddr("10.0.0.1");
+        request.setContentType(contentType);
+        request.addHeader(HEADER_STRING, TOKEN_PREFIX + token);
+        return request;
+    }
+
+    private static String createToken() {
+        return JWT.create()
+                .withSubject("student@mail.com")
+                .withClaim(USER_ID, UUID.randomUUID().toString())
+                .withClaim(AUTHORITIES, List.of("ROLE_STUDENT"))
+                .withExpiresAt(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
+                .sign(ALGORITHM);
+    }
+}
@@ -0,0 +1,103 @@
+package com.web.filter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.Part;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpooledBodyRequestTest {
+
+    private static final String BOUNDARY = "----boundary";
+    private static final String BODY = """
+            --%1$s\r
+            Content-Disposition: form-data; name="type"\r
+            \r
+            DIPLOMA\r
+            --%1$s\r
+            Content-Disposition: form-data; name="file"; filename="diploma.pdf"\r
+            Content-Type: application/pdf\r
+            \r
+            %%PDF-dummy\r
+            content\r
+            --%1$s--\r
+            """.formatted(BOUNDARY);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Get parts - success")
+    void getParts_success() throws IOException, ServletException {
+        SpooledBodyRequest request = spool("multipart/form-data; boundary=" + BOUNDARY, BODY);
+
+        List<Part> parts = List.copyOf(request.getParts());
+
+        assertEquals(2, parts.size());
+        assertEquals("type", parts.get(0).getName());
+        assertNull(parts.get(0).getSubmittedFileName());
+        assertEquals("DIPLOMA", read(parts.get(0)));
+        assertEquals("file", parts.get(1).getName());
+        assertEquals("diploma.pdf", parts.get(1).getSubmittedFileName());
+        assertEquals("application/pdf", parts.get(1).getContentType());
+        assertEquals("%PDF-dummy\r\ncontent", read(request.getPart("file")));
+    }
+
+    @Test
+    @DisplayName("Get parts - quoted boundary - success")
+    void getParts_quotedBoundary_success() throws IOException, ServletException {
+        SpooledBodyRequest request = spool("multipart/form-data; boundary=\"" + BOUNDARY + "\"", BODY);
+
+        assertEquals(2, request.getParts().size());
+    }
+
+    @Test
+    @DisplayName("Get parts - truncated body - failure")
+    void getParts_truncatedBody_failure() throws IOException {
+        SpooledBodyRequest request = spool("multipart/form-data; boundary=" + BOUNDARY,
+                BODY.substring(0, BODY.indexOf("content")));
+
+        assertThrows(ServletException.class, request::getParts);
+    }
+
+    @Test
+    @DisplayName("Get parts - not multipart - failure")
+    void getParts_notMultipart_failure() throws IOException {
+        SpooledBodyRequest request = spool("application/octet-stream", "content");
+
+        assertThrows(ServletException.class, request::getParts);
+    }
+
+    @Test
+    @DisplayName("Get input stream - success")
+    void getInputStream_success() throws IOException {
+        SpooledBodyRequest request = spool("application/octet-stream", "content");
+
+        assertEquals(7, request.getContentLengthLong());
+        assertEquals("content", new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+        assertEquals("content", new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    private SpooledBodyRequest spool(String contentType, String body) throws IOException {
+        Path file = Files.writeString(directory.resolve("request.body"), body, StandardCharsets.ISO_8859_1);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/documents");
+        request.setContentType(contentType);
+        return new SpooledBodyRequest(request, file);
+    }
+
+    private static String read(Part part) throws IOException {
+        try (InputStream inputStream = part.getInputStream()) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.web.filter;
+
+import com.web.model.RateLimit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketStoreTest {
+
+    private static final RateLimit RATE_LIMIT = new RateLimit(3, Duration.ofSeconds(3));
+
+    private final AtomicLong clock = new AtomicLong();
+    private final TokenBucketStore tokenBucketStore = new TokenBucketStore(4, clock::get);
+
+    @Test
+    @DisplayName("Try acquire - within capacity - success")
+    void tryAcquire_withinCapacity_success() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, tokenBucketStore.tryAcquire("key", RATE_LIMIT));
+        }
+        assertEquals(0, tokenBucketStore.tryAcquire("another-key", RATE_LIMIT));
+    }
+
+    @Test
+    @DisplayName("Try acquire - empty bucket - failure")
+    void tryAcquire_emptyBucket_failure() {
+        for (int i = 0; i < 3; i++) {
+            tokenBucketStore.tryAcquire("key", RATE_LIMIT);
+        }
+
+        assertEquals(TimeUnit.SECONDS.toNanos(1), tokenBucketStore.tryAcquire("key", RATE_LIMIT));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(400));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(600), tokenBucketStore.tryAcquire("key", RATE_LIMIT));
+    }
+
+    @Test
+    @DisplayName("Try acquire - refilled bucket - success")
+    void tryAcquire_refilled_success() {
+        for (int i = 0; i < 3; i++) {
+            tokenBucketStore.tryAcquire("key", RATE_LIMIT);
+        }
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        assertEquals(0, tokenBucketStore.tryAcquire("key", RATE_LIMIT));
+        assertTrue(tokenBucketStore.tryAcquire("key", RATE_LIMIT) > 0);
+    }
+
+    @Test
+    @DisplayName("Try acquire - idle buckets are evicted - success")
+    void tryAcquire_idleEvicted_success() {
+        for (int i = 0; i < 100; i++) {
+            tokenBucketStore.tryAcquire("key-" + i, RATE_LIMIT);
+        }
+        assertEquals(100, tokenBucketStore.size());
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        for (int i = 0; i < 100; i++) {
+            tokenBucketStore.tryAcquire("other-key-" + i, RATE_LIMIT);
+        }
+
+        assertEquals(100, tokenBucketStore.size());
+    }
+}
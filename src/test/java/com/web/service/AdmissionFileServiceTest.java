@@ -5,6 +5,8 @@ import com.web.error.exception.ForbiddenException;
 import com.web.error.exception.NotFoundException;
 import com.web.model.*;
 import com.web.model.enumeration.AdmissionFileStatus;
+import com.web.model.enumeration.DocumentPart;
+import com.web.model.enumeration.StorageState;
 import com.web.model.enumeration.UserRole;
 import com.web.repository.AdmissionFileRepository;
 import org.junit.jupiter.api.DisplayName;
@@ -85,6 +87,19 @@ class AdmissionFileServiceTest {
         assertThrows(ForbiddenException.class, () -> admissionFileService.submit());
     }
 
+    @Test
+    @DisplayName("Submit admission file - documents not stored - failure")
+    void submit_documentsNotStored_failure() {
+        User user = getUser();
+        user.getDocument().setState(DocumentPart.DIPLOMA, StorageState.STAGED);
+
+        when(securityService.getUserId()).thenReturn(USER_ID);
+        when(userService.getById(USER_ID)).thenReturn(user);
+
+        assertThrows(ConflictException.class, () -> admissionFileService.submit());
+        verify(admissionFileRepository, never()).save(any());
+    }
+
     @Test
     @DisplayName("Resubmit admission file - success")
     void resubmit_success() {
@@ -195,7 +210,11 @@ class AdmissionFileServiceTest {
         user.setRole(UserRole.ROLE_STUDENT);
         user.setId(USER_ID);
 
-        user.setDocument(new Document());
+        Document document = new Document();
+        for (DocumentPart part : DocumentPart.values()) {
+            document.setState(part, StorageState.STORED);
+        }
+        user.setDocument(document);
         user.setUserInfo(new UserInfo());
         user.setUserPrograms(List.of(new UserProgram()));
 
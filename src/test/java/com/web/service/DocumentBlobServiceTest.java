@@ -0,0 +1,176 @@
+package com.web.service;
+
+import com.web.error.ErrorMessage;
+import com.web.error.exception.BadRequestException;
+import com.web.model.DocumentBlob;
+import com.web.model.ObjectLocation;
+import com.web.model.ValidatedFile;
+import com.web.model.enumeration.DocumentPart;
+import com.web.model.enumeration.StorageState;
+import com.web.repository.DocumentBlobRepository;
+import com.web.storage.DocumentStorage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentBlobServiceTest {
+
+    private static final byte[] CONTENT = "%PDF-dummy content".getBytes();
+    private static final String HASH = "a".repeat(64);
+    private static final String CONTENT_MD5 = "md5";
+
+    @Mock
+    private DocumentBlobRepository documentBlobRepository;
+
+    @Mock
+    private DocumentStorage documentStorage;
+
+    @Mock
+    private DocumentLocationService documentLocationService;
+
+    @Mock
+    private DocumentStagingService documentStagingService;
+
+    @Mock
+    private DocumentValidationService documentValidationService;
+
+    @TempDir
+    Path stagingDirectory;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private DocumentBlobService documentBlobService;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        documentBlobService = new DocumentBlobService(documentBlobRepository, documentStorage,
+                documentLocationService, documentStagingService, documentValidationService, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Store blob - new content is staged - success")
+    void store_newContent_success() throws IOException {
+        Path copy = stubValidation();
+        when(documentBlobRepository.acquireExisting(HASH, StorageState.STORED)).thenReturn(0);
+        doAnswer(invocation -> {
+            assertArrayEquals(CONTENT, Files.readAllBytes(invocation.getArgument(1)));
+            return null;
+        }).when(documentStagingService).stage(any(), eq(copy));
+
+        DocumentBlob blob = documentBlobService.store(getFile(), DocumentPart.DIPLOMA);
+
+        verify(documentStagingService).stage(blob, copy);
+        verify(documentValidationService).validate(any(), eq(DocumentPart.DIPLOMA), any());
+        verify(documentBlobRepository).acquire(HASH, CONTENT.length, "application/pdf", CONTENT_MD5, "STAGED", null);
+        verify(documentStorage, never()).put(any(), any(), anyLong(), any(), any());
+        assertEquals(HASH, blob.getHash());
+        assertEquals(StorageState.STAGED, blob.getState());
+        assertEquals("application/pdf", blob.getContentType());
+        assertEquals(CONTENT_MD5, blob.getContentMd5());
+    }
+
+    @Test
+    @DisplayName("Store blob - stored content is referenced instead of uploaded again - success")
+    void store_existingContent_success() throws IOException {
+        Path copy = stubValidation();
+        when(documentBlobRepository.acquireExisting(HASH, StorageState.STORED)).thenReturn(1);
+
+        documentBlobService.store(getFile(), DocumentPart.DIPLOMA);
+        DocumentBlob blob = documentBlobService.store(getFile(), DocumentPart.DIPLOMA);
+
+        assertEquals(StorageState.STORED, blob.getState());
+        assertFalse(Files.exists(copy));
+        verify(documentStagingService, never()).stage(any(), any());
+        verify(documentBlobRepository, never()).acquire(any(), anyLong(), any(), any(), any(), any());
+        assertEquals(2 * CONTENT.length, meterRegistry.get("document.blob.saved").counter().count());
+        assertEquals(1.0, meterRegistry.get("document.blob.dedupe.ratio").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Store blob - content that is not stored is staged again - success")
+    void store_notStoredContent_success() throws IOException {
+        stubValidation();
+        when(documentBlobRepository.acquireExisting(HASH, StorageState.STORED)).thenReturn(0);
+
+        DocumentBlob blob = documentBlobService.store(getFile(), DocumentPart.DIPLOMA);
+
+        assertEquals(StorageState.STAGED, blob.getState());
+        verify(documentStagingService).stage(eq(blob), any());
+    }
+
+    @Test
+    @DisplayName("Store blob - invalid content is not kept - failure")
+    void store_invalidContent_failure() throws IOException {
+        Path copy = Files.createFile(stagingDirectory.resolve("copy"));
+        when(documentStagingService.createTemporaryFile()).thenReturn(copy);
+        when(documentValidationService.validate(any(), eq(DocumentPart.DIPLOMA), any())).thenThrow(
+                new BadRequestException(ErrorMessage.FILE_TOO_LARGE, "diploma", 1));
+
+        assertThrows(BadRequestException.class, () -> documentBlobService.store(getFile(), DocumentPart.DIPLOMA));
+        assertFalse(Files.exists(copy));
+        verify(documentBlobRepository, never()).acquireExisting(any(), any());
+    }
+
+    @Test
+    @DisplayName("Release blobs - success")
+    void releaseAll_success() {
+        documentBlobService.releaseAll(List.of(HASH, HASH));
+
+        verify(documentBlobRepository, times(2)).release(HASH);
+    }
+
+    @Test
+    @DisplayName("Get blob url - success")
+    void getUrl_success() {
+        ObjectLocation location = new ObjectLocation("default", "blobs/" + HASH);
+
+        when(documentLocationService.getBlobLocation(HASH)).thenReturn(location);
+        when(documentStorage.getUrl(location)).thenReturn("http://localhost:4566/default/blobs/" + HASH);
+
+        assertEquals("http://localhost:4566/default/blobs/" + HASH, documentBlobService.getUrl(HASH));
+    }
+
+    @Test
+    @DisplayName("Release blob - null hash - success")
+    void release_nullHash_success() {
+        documentBlobService.release(null);
+
+        verify(documentBlobRepository, never()).release(any());
+    }
+
+    private MockMultipartFile getFile() {
+        return new MockMultipartFile("diploma", "diploma.pdf", "text/plain", CONTENT);
+    }
+
+    private Path stubValidation() throws IOException {
+        Path copy = Files.createFile(stagingDirectory.resolve("copy"));
+        when(documentStagingService.createTemporaryFile()).thenReturn(copy);
+        when(documentValidationService.validate(any(), eq(DocumentPart.DIPLOMA), any())).thenAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(2).write(CONTENT);
+            return getValidatedFile();
+        });
+        return copy;
+    }
+
+    private ValidatedFile getValidatedFile() {
+        return new ValidatedFile(HASH, CONTENT_MD5, CONTENT.length, "application/pdf");
+    }
+}
@@ -0,0 +1,196 @@
+package com.web.service;
+
+import com.web.config.AwsS3Config;
+import com.web.config.DocumentConfig;
+import com.web.model.DocumentContent;
+import com.web.storage.DocumentStorage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentCacheServiceTest {
+
+    private static final String BUCKET = "default";
+    private static final byte[] SMALL = "%PDF-small document".getBytes();
+    private static final byte[] LARGE = new byte[1000];
+
+    @TempDir
+    Path cacheDirectory;
+
+    @Mock
+    private DocumentStorage documentStorage;
+
+    private DocumentConfig documentConfig;
+    private SimpleMeterRegistry meterRegistry;
+    private DocumentCacheService documentCacheService;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setup() {
+        AwsS3Config awsS3Config = new AwsS3Config();
+        awsS3Config.setBucketName(BUCKET);
+
+        documentConfig = new DocumentConfig();
+        documentConfig.setCacheEnabled(true);
+        documentConfig.setCacheDirectory(cacheDirectory.toString());
+        documentConfig.setCacheMemoryMaxBytes(1024);
+        documentConfig.setCacheMemoryMaxObjectBytes(100);
+        documentConfig.setCacheDiskMaxBytes(2500);
+        documentConfig.setCacheDiskMaxObjectBytes(2000);
+
+        meterRegistry = new SimpleMeterRegistry();
+        documentCacheService = new DocumentCacheService(new DocumentLocationService(documentStorage, awsS3Config),
+                documentConfig, Runnable::run, meterRegistry);
+        Arrays.fill(LARGE, (byte) 7);
+        LARGE[500] = 1;
+    }
+
+    @Test
+    @DisplayName("Read small document twice - served from memory - success")
+    void open_memoryHit_success() throws IOException {
+        DocumentContent content = getContent("user/diploma", SMALL, "etag", false);
+
+        assertArrayEquals(SMALL, read(content, SMALL, 0, SMALL.length - 1));
+        assertArrayEquals(Arrays.copyOfRange(SMALL, 1, 4), read(content, SMALL, 1, 3));
+
+        assertEquals(1, loads.get());
+        assertEquals(0.5, meterRegistry.get("document.cache.hit.ratio").gauge().value());
+        assertEquals(3, meterRegistry.get("document.cache.served").tag("source", "memory").counter().count());
+    }
+
+    @Test
+    @DisplayName("Read large document range twice - served from disk - success")
+    void open_diskHit_success() throws IOException {
+        DocumentContent content = getContent("blobs/hash", LARGE, "etag", false);
+
+        assertArrayEquals(Arrays.copyOfRange(LARGE, 490, 510), read(content, LARGE, 490, 509));
+        assertArrayEquals(Arrays.copyOfRange(LARGE, 500, 1000), read(content, LARGE, 500, 999));
+
+        assertEquals(2, loads.get());
+        assertEquals(1, meterRegistry.get("document.cache.requests").tag("tier", "disk").counter().count());
+        assertEquals(1000, meterRegistry.get("document.cache.size").tag("tier", "disk").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Read document after ETag changed - reloaded - success")
+    void open_eTagChanged_success() throws IOException {
+        read(getContent("user/diploma", SMALL, "old", false), SMALL, 0, SMALL.length - 1);
+        byte[] updated = "%PDF-updated".getBytes();
+
+        assertArrayEquals(updated, read(getContent("user/diploma", updated, "new", false), updated, 0,
+                updated.length - 1));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Evict document - next read reloads - success")
+    void evict_success() throws IOException {
+        DocumentContent content = getContent("user/diploma", LARGE, "etag", false);
+        read(content, LARGE, 0, 9);
+
+        documentCacheService.evict(BUCKET, "user/diploma");
+
+        assertEquals(0, meterRegistry.get("document.cache.size").tag("tier", "disk").gauge().value());
+        read(content, LARGE, 0, 9);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    @DisplayName("Read large document range on a miss - served before the cache is filled - success")
+    void open_diskMiss_success() throws IOException {
+        List<Runnable> fills = new ArrayList<>();
+        documentCacheService = new DocumentCacheService(new DocumentLocationService(documentStorage, new AwsS3Config()),
+                documentConfig, fills::add, meterRegistry);
+        DocumentContent content = getContent("blobs/hash", LARGE, "etag", false);
+
+        assertArrayEquals(Arrays.copyOfRange(LARGE, 500, 501), read(content, LARGE, 500, 500));
+        assertArrayEquals(Arrays.copyOfRange(LARGE, 500, 501), read(content, LARGE, 500, 500));
+        assertEquals(2, loads.get());
+        assertEquals(2, fills.size());
+
+        fills.forEach(Runnable::run);
+        assertEquals(3, loads.get());
+
+        assertArrayEquals(Arrays.copyOfRange(LARGE, 0, 10), read(content, LARGE, 0, 9));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    @DisplayName("Fill disk tier beyond its budget - least recently used evicted - success")
+    void open_diskEviction_success() throws IOException {
+        DocumentContent first = getContent("blobs/first", LARGE, "etag", false);
+        DocumentContent second = getContent("blobs/second", LARGE, "etag", false);
+        DocumentContent third = getContent("blobs/third", LARGE, "etag", false);
+
+        read(first, LARGE, 0, 9);
+        read(second, LARGE, 0, 9);
+        read(first, LARGE, 0, 9);
+        read(third, LARGE, 0, 9);
+        assertEquals(6, loads.get());
+
+        read(first, LARGE, 0, 9);
+        assertEquals(6, loads.get());
+        read(second, LARGE, 0, 9);
+        assertEquals(8, loads.get());
+        try (var files = Files.list(cacheDirectory)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Read large encrypted document - not written to disk - success")
+    void open_encryptedLarge_success() throws IOException {
+        DocumentContent content = getContent("blobs/hash", LARGE, "etag", true);
+
+        read(content, LARGE, 0, 9);
+        read(content, LARGE, 0, 9);
+
+        assertEquals(2, loads.get());
+        try (var files = Files.list(cacheDirectory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Read document - cache disabled - success")
+    void open_disabled_success() throws IOException {
+        documentConfig.setCacheEnabled(false);
+        DocumentContent content = getContent("user/diploma", SMALL, "etag", false);
+
+        read(content, SMALL, 0, 4);
+        read(content, SMALL, 0, 4);
+
+        assertEquals(2, loads.get());
+    }
+
+    private DocumentContent getContent(String key, byte[] bytes, String eTag, boolean encrypted) {
+        return new DocumentContent(BUCKET, key, bytes.length, "application/pdf", eTag, encrypted);
+    }
+
+    private byte[] read(DocumentContent content, byte[] bytes, long start, long end) throws IOException {
+        try (InputStream inputStream = documentCacheService.open(content, start, end, (from, to) -> {
+            loads.incrementAndGet();
+            return new ByteArrayInputStream(bytes, (int) from, (int) (to - from + 1));
+        })) {
+            return inputStream.readAllBytes();
+        }
+    }
+}
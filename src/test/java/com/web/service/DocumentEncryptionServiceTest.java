@@ -0,0 +1,180 @@
+package com.web.service;
+
+import com.web.config.DocumentConfig;
+import com.web.model.ObjectInfo;
+import com.web.model.ObjectLocation;
+import com.web.storage.LocalDocumentStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentEncryptionServiceTest {
+
+    private static final ObjectLocation LOCATION = new ObjectLocation("bucket", "blobs/hash");
+    private static final int CHUNK_SIZE = 1024;
+
+    @TempDir
+    Path rootDirectory;
+
+    private DocumentConfig documentConfig;
+    private LocalDocumentStorage localDocumentStorage;
+    private DocumentEncryptionService documentEncryptionService;
+    private byte[] content;
+
+    @BeforeEach
+    void setup() {
+        content = new byte[5 * CHUNK_SIZE + 100];
+        new Random(42).nextBytes(content);
+        System.arraycopy("%PDF-".getBytes(), 0, content, 0, 5);
+
+        documentConfig = new DocumentConfig();
+        documentConfig.setEncryptionEnabled(true);
+        documentConfig.setEncryptionChunkSize(CHUNK_SIZE);
+        documentConfig.setEncryptionMasterKeys(List.of("1:" + getKey(1), "0:" + getKey(0)));
+
+        localDocumentStorage = new LocalDocumentStorage(rootDirectory);
+        documentEncryptionService = new DocumentEncryptionService(localDocumentStorage, documentConfig);
+    }
+
+    @Test
+    @DisplayName("Encrypt and read back document - success")
+    void encrypt_success() throws IOException {
+        put(content);
+        ObjectInfo info = documentEncryptionService.describe(LOCATION, localDocumentStorage.getInfo(LOCATION));
+
+        assertTrue(info.encrypted());
+        assertEquals(content.length, info.contentLength());
+        assertEquals("application/pdf", info.contentType());
+        assertEquals(documentEncryptionService.getEncryptedLength(content.length),
+                Files.size(rootDirectory.resolve("bucket").resolve("blobs").resolve("hash")));
+        assertFalse(containsSlice(Files.readAllBytes(rootDirectory.resolve("bucket/blobs/hash")), content));
+        assertArrayEquals(content, read(0, content.length - 1));
+    }
+
+    @Test
+    @DisplayName("Read encrypted document range across chunks - success")
+    void open_range_success() throws IOException {
+        put(content);
+
+        assertArrayEquals(Arrays.copyOfRange(content, 1000, 3001), read(1000, 3000));
+        assertArrayEquals(Arrays.copyOfRange(content, 5 * CHUNK_SIZE, content.length),
+                read(5 * CHUNK_SIZE, content.length - 1));
+        assertArrayEquals(Arrays.copyOfRange(content, 0, 10), read(0, 9));
+    }
+
+    @Test
+    @DisplayName("Read encrypted document - chunk size changed since upload - success")
+    void open_chunkSizeChanged_success() throws IOException {
+        put(content);
+        documentConfig.setEncryptionChunkSize(4096);
+
+        assertArrayEquals(content, read(0, content.length - 1));
+    }
+
+    @Test
+    @DisplayName("Encrypt and read back empty document - success")
+    void encrypt_empty_success() throws IOException {
+        put(new byte[0]);
+
+        ObjectInfo info = documentEncryptionService.describe(LOCATION, localDocumentStorage.getInfo(LOCATION));
+
+        assertTrue(info.encrypted());
+        assertEquals(0, info.contentLength());
+    }
+
+    @Test
+    @DisplayName("Read encrypted document - tampered chunk - failure")
+    void open_tampered_failure() throws IOException {
+        put(content);
+        Path path = rootDirectory.resolve("bucket/blobs/hash");
+        byte[] encrypted = Files.readAllBytes(path);
+        encrypted[encrypted.length - 50] ^= 1;
+        Files.write(path, encrypted);
+
+        assertArrayEquals(Arrays.copyOfRange(content, 0, 10), read(0, 9));
+        assertThrows(IOException.class, () -> read(0, content.length - 1));
+    }
+
+    @Test
+    @DisplayName("Read encrypted document - truncated - failure")
+    void open_truncated_failure() throws IOException {
+        put(content);
+        Path path = rootDirectory.resolve("bucket/blobs/hash");
+        byte[] encrypted = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(encrypted, encrypted.length - CHUNK_SIZE));
+
+        assertThrows(IOException.class, () -> read(0, content.length - 1));
+    }
+
+    @Test
+    @DisplayName("Read encrypted document - rotated master key - success")
+    void open_rotatedKey_success() throws IOException {
+        put(content);
+        documentConfig.setEncryptionMasterKeys(List.of("2:" + getKey(2), "1:" + getKey(1)));
+        documentEncryptionService = new DocumentEncryptionService(localDocumentStorage, documentConfig);
+
+        assertArrayEquals(content, read(0, content.length - 1));
+    }
+
+    @Test
+    @DisplayName("Describe plaintext document - success")
+    void describe_plaintext_success() throws IOException {
+        localDocumentStorage.put(LOCATION, new ByteArrayInputStream(content), content.length, "application/pdf", null);
+
+        ObjectInfo info = documentEncryptionService.describe(LOCATION, localDocumentStorage.getInfo(LOCATION));
+
+        assertFalse(info.encrypted());
+        assertEquals(content.length, info.contentLength());
+    }
+
+    @Test
+    @DisplayName("Create encryption service - enabled without master key - failure")
+    void create_missingKey_failure() {
+        documentConfig.setEncryptionMasterKeys(List.of());
+
+        assertThrows(IllegalStateException.class, () ->
+                new DocumentEncryptionService(localDocumentStorage, documentConfig));
+    }
+
+    private void put(byte[] bytes) throws IOException {
+        try (InputStream inputStream = documentEncryptionService.encrypt(new ByteArrayInputStream(bytes), bytes.length)) {
+            localDocumentStorage.put(LOCATION, inputStream, documentEncryptionService.getEncryptedLength(bytes.length),
+                    "application/pdf", null);
+        }
+    }
+
+    private byte[] read(long start, long end) throws IOException {
+        try (InputStream inputStream = documentEncryptionService.open(LOCATION, content.length, start, end)) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    private boolean containsSlice(byte[] bytes, byte[] slice) {
+        byte[] needle = Arrays.copyOfRange(slice, 100, 132);
+        for (int i = 0; i + needle.length <= bytes.length; i++) {
+            if (Arrays.equals(bytes, i, i + needle.length, needle, 0, needle.length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String getKey(int seed) {
+        byte[] key = new byte[32];
+        new Random(seed).nextBytes(key);
+        return Base64.getEncoder().encodeToString(key);
+    }
+}
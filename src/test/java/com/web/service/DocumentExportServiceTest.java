@@ -0,0 +1,206 @@
+package com.web.service;
+
+import com.web.config.DocumentConfig;
+import com.web.error.ErrorMessage;
+import com.web.error.exception.ConflictException;
+import com.web.error.exception.NotFoundException;
+import com.web.model.AdmissionFile;
+import com.web.model.Document;
+import com.web.model.DocumentContent;
+import com.web.model.User;
+import com.web.model.enumeration.AdmissionFileStatus;
+import com.web.model.enumeration.DocumentPart;
+import com.web.repository.AdmissionFileRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.domain.PageRequest;
+
+import javax.persistence.EntityManager;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentExportServiceTest {
+
+    private static final byte[] CONTENT = "%PDF-dummy content".getBytes();
+
+    @Mock
+    private AdmissionFileRepository admissionFileRepository;
+
+    @Mock
+    private DocumentService documentService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private DocumentExportService documentExportService;
+
+    @BeforeEach
+    void setup() {
+        DocumentConfig documentConfig = new DocumentConfig();
+        documentConfig.setExportReadAhead(2);
+        documentConfig.setExportPrefetchSize(4);
+        documentConfig.setExportPageSize(2);
+
+        meterRegistry = new SimpleMeterRegistry();
+        documentExportService = new DocumentExportService(admissionFileRepository, documentService, documentConfig,
+                entityManager, new SyncTaskExecutor(), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Export admission files by status - success")
+    void exportByStatus_success() throws IOException {
+        when(admissionFileRepository.findWithDocumentByStatusAndIdGreaterThan(AdmissionFileStatus.PENDING, 0L,
+                PageRequest.of(0, 2))).thenReturn(List.of(getAdmissionFile(1L), getAdmissionFile(2L)));
+        when(admissionFileRepository.findWithDocumentByStatusAndIdGreaterThan(AdmissionFileStatus.PENDING, 2L,
+                PageRequest.of(0, 2))).thenReturn(List.of(getAdmissionFile(3L)));
+        when(documentService.getContent(any(Document.class), any())).thenReturn(getContent());
+        when(documentService.openContent(any(), eq(0L), eq((long) CONTENT.length - 1)))
+                .thenAnswer(invocation -> new ByteArrayInputStream(CONTENT));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        documentExportService.export(AdmissionFileStatus.PENDING, outputStream);
+
+        List<String> names = readEntries(outputStream.toByteArray());
+        assertEquals(9, names.size());
+        assertEquals("admission-file-1/identity-card.pdf", names.get(0));
+        assertEquals("admission-file-3/diploma.pdf", names.get(8));
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    @DisplayName("Export admission file - part not stored is replaced by a note - success")
+    void export_partNotStored_success() throws IOException {
+        AdmissionFile admissionFile = getAdmissionFile(1L);
+        Document document = admissionFile.getUser().getDocument();
+
+        when(documentService.getContent(document, DocumentPart.IDENTITY_CARD)).thenReturn(getContent());
+        when(documentService.getContent(document, DocumentPart.MEDICAL_CERTIFICATE)).thenReturn(getContent());
+        when(documentService.getContent(document, DocumentPart.DIPLOMA)).thenThrow(
+                new ConflictException(ErrorMessage.DOCUMENT_NOT_STORED, "diploma", "FAILED"));
+        when(documentService.openContent(any(), eq(0L), eq((long) CONTENT.length - 1)))
+                .thenAnswer(invocation -> new ByteArrayInputStream(CONTENT));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        documentExportService.export(admissionFile, outputStream);
+
+        Map<String, String> entries = readContents(outputStream.toByteArray());
+        assertEquals(List.of("admission-file-1/identity-card.pdf", "admission-file-1/medical-certificate.pdf",
+                "admission-file-1/diploma.missing.txt"), List.copyOf(entries.keySet()));
+        assertEquals("Not exported: The diploma is not stored yet (state: FAILED)!\n",
+                entries.get("admission-file-1/diploma.missing.txt"));
+        assertEquals(1.0, meterRegistry.get("document.export.entries").tag("result", "skipped").counter().count());
+    }
+
+    @Test
+    @DisplayName("Export admission file - client disconnects - failure")
+    void export_clientDisconnect_failure() throws IOException {
+        List<TrackedInputStream> openedStreams = new ArrayList<>();
+
+        when(documentService.getContent(any(Document.class), any())).thenReturn(getContent());
+        when(documentService.openContent(any(), eq(0L), eq((long) CONTENT.length - 1))).thenAnswer(invocation -> {
+            TrackedInputStream inputStream = new TrackedInputStream(CONTENT);
+            openedStreams.add(inputStream);
+            return inputStream;
+        });
+
+        OutputStream disconnected = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThrows(IOException.class, () -> documentExportService.export(getAdmissionFile(1L), disconnected));
+
+        assertEquals(3, openedStreams.size());
+        assertTrue(openedStreams.stream().allMatch(TrackedInputStream::isClosed));
+    }
+
+    @Test
+    @DisplayName("Get admission file for export - not found - failure")
+    void getById_notFound_failure() {
+        when(admissionFileRepository.findWithDocumentById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> documentExportService.getById(1L));
+    }
+
+    private List<String> readEntries(byte[] zip) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                assertArrayEquals(CONTENT, zipInputStream.readAllBytes());
+                names.add(entry.getName());
+            }
+        }
+        return names;
+    }
+
+    private Map<String, String> readContents(byte[] zip) throws IOException {
+        Map<String, String> contents = new LinkedHashMap<>();
+        try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                contents.put(entry.getName(), new String(zipInputStream.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return contents;
+    }
+
+    private DocumentContent getContent() {
+        return new DocumentContent("default", "key", CONTENT.length, "application/pdf", "etag");
+    }
+
+    private AdmissionFile getAdmissionFile(Long id) {
+        User user = new User();
+        Document document = new Document();
+        document.setUser(user);
+        user.setDocument(document);
+
+        AdmissionFile admissionFile = new AdmissionFile();
+        admissionFile.setId(id);
+        admissionFile.setStatus(AdmissionFileStatus.PENDING);
+        admissionFile.setUser(user);
+
+        return admissionFile;
+    }
+
+    private static class TrackedInputStream extends ByteArrayInputStream {
+
+        private boolean closed;
+
+        TrackedInputStream(byte[] content) {
+            super(content);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        boolean isClosed() {
+            return closed;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.web.service;
+
+import com.web.config.AwsS3Config;
+import com.web.config.DocumentConfig;
+import com.web.model.Document;
+import com.web.model.GarbageCollectionReport;
+import com.web.model.StoredObject;
+import com.web.model.User;
+import com.web.model.enumeration.StorageLayout;
+import com.web.model.enumeration.StorageState;
+import com.web.repository.DocumentBlobRepository;
+import com.web.repository.DocumentRepository;
+import com.web.storage.DocumentStorage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentGarbageCollectionServiceTest {
+
+    private static final String BUCKET = "default";
+    private static final UUID USER_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID DELETED_USER_ID = UUID.fromString("00000000-0000-0000-0000-000000000002");
+    private static final String LIVE_HASH = "a".repeat(64);
+    private static final String ORPHAN_HASH = "b".repeat(64);
+    private static final String HELD_HASH = "c".repeat(64);
+    private static final Instant OLD = Instant.now().minus(Duration.ofDays(7));
+
+    @Mock
+    private DocumentStorage documentStorage;
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private DocumentBlobRepository documentBlobRepository;
+
+    @Mock
+    private ObjectMetadataService objectMetadataService;
+
+    @Mock
+    private PresignedUrlService presignedUrlService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private DocumentGarbageCollectionService documentGarbageCollectionService;
+
+    @BeforeEach
+    void setup() {
+        AwsS3Config awsS3Config = new AwsS3Config();
+        awsS3Config.setBucketName(BUCKET);
+
+        DocumentConfig documentConfig = new DocumentConfig();
+        documentConfig.setGcPageSize(3);
+        documentConfig.setGcDeleteBatchSize(2);
+        documentConfig.setGcMaxDeletesPerSecond(1000);
+        documentConfig.setGcGracePeriodHours(24);
+
+        meterRegistry = new SimpleMeterRegistry();
+        documentGarbageCollectionService = new DocumentGarbageCollectionService(documentStorage, documentRepository,
+                documentBlobRepository, new DocumentLocationService(documentStorage, awsS3Config),
+                objectMetadataService, presignedUrlService, documentConfig, awsS3Config, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Collect orphaned objects - success")
+    void collect_success() {
+        List<StoredObject> firstPage = List.of(
+                getObject(USER_ID + "/diploma", OLD),
+                getObject(USER_ID + "/identity-card", OLD),
+                getObject(DELETED_USER_ID + "/diploma", OLD));
+        List<StoredObject> secondPage = List.of(
+                getObject(DELETED_USER_ID + "/medical-certificate", Instant.now()),
+                getObject("blobs/" + LIVE_HASH, OLD),
+                getObject("blobs/" + ORPHAN_HASH, OLD));
+        List<StoredObject> thirdPage = List.of(
+                getObject("blobs/" + ORPHAN_HASH + ".preview.jpg", OLD),
+                getObject("blobs/" + HELD_HASH, OLD),
+                getObject("unknown", OLD));
+
+        when(documentStorage.list(BUCKET, null, 3)).thenReturn(firstPage);
+        when(documentStorage.list(BUCKET, DELETED_USER_ID + "/diploma", 3)).thenReturn(secondPage);
+        when(documentStorage.list(BUCKET, "blobs/" + ORPHAN_HASH, 3)).thenReturn(thirdPage);
+        when(documentRepository.findWithUserByStorageLayoutAndUserIdGreaterThan(eq(StorageLayout.SHARED_BUCKET),
+                any(), any())).thenReturn(List.of(getDocument()), List.of());
+        when(documentRepository.findReferencedHashesGreaterThan("", 3)).thenReturn(List.of(LIVE_HASH));
+        when(documentRepository.findReferencedHashesGreaterThan(LIVE_HASH, 3)).thenReturn(List.of());
+        when(documentBlobRepository.existsById(anyString())).thenReturn(true);
+        when(documentBlobRepository.existsById(ORPHAN_HASH)).thenReturn(true, false);
+        when(documentBlobRepository.markDeleting(ORPHAN_HASH)).thenReturn(1);
+        when(documentBlobRepository.markDeleting(HELD_HASH)).thenReturn(0);
+        when(documentBlobRepository.deleteUnreferenced(ORPHAN_HASH)).thenReturn(1);
+        when(documentStorage.delete(eq(BUCKET), anyList())).thenAnswer(invocation -> invocation.getArgument(1));
+
+        GarbageCollectionReport report = documentGarbageCollectionService.collect();
+
+        InOrder inOrder = inOrder(documentBlobRepository, documentStorage);
+        inOrder.verify(documentBlobRepository).markDeleting(ORPHAN_HASH);
+        inOrder.verify(documentStorage).delete(BUCKET, List.of("blobs/" + ORPHAN_HASH));
+        inOrder.verify(documentBlobRepository).deleteUnreferenced(ORPHAN_HASH);
+        verify(documentStorage).delete(BUCKET, List.of(USER_ID + "/identity-card", DELETED_USER_ID + "/diploma"));
+        verify(documentStorage).delete(BUCKET, List.of("blobs/" + ORPHAN_HASH + ".preview.jpg"));
+        verify(documentBlobRepository, never()).cancelDeleting(any(), any());
+        verify(presignedUrlService).evictDownloadUrl(BUCKET, "blobs/" + ORPHAN_HASH);
+        assertEquals(new GarbageCollectionReport(9, 4, 4, 40, 0), report);
+        assertEquals(40, meterRegistry.get("document.gc.reclaimed").counter().count());
+    }
+
+    @Test
+    @DisplayName("Collect orphaned objects - blob acquired while deleting is handed back - success")
+    void collect_blobAcquiredWhileDeleting_success() {
+        when(documentStorage.list(BUCKET, null, 3)).thenReturn(List.of(getObject("blobs/" + ORPHAN_HASH, OLD)));
+        when(documentRepository.findReferencedHashesGreaterThan("", 3)).thenReturn(List.of());
+        when(documentBlobRepository.existsById(ORPHAN_HASH)).thenReturn(true);
+        when(documentBlobRepository.markDeleting(ORPHAN_HASH)).thenReturn(1);
+        when(documentBlobRepository.deleteUnreferenced(ORPHAN_HASH)).thenReturn(0);
+        when(documentStorage.delete(eq(BUCKET), anyList())).thenAnswer(invocation -> invocation.getArgument(1));
+
+        GarbageCollectionReport report = documentGarbageCollectionService.collect();
+
+        verify(documentBlobRepository).cancelDeleting(ORPHAN_HASH, StorageState.FAILED);
+        assertEquals(new GarbageCollectionReport(1, 1, 1, 10, 0), report);
+    }
+
+    @Test
+    @DisplayName("Collect orphaned objects - blob delete fails - failure")
+    void collect_blobDeleteFails_failure() {
+        when(documentStorage.list(BUCKET, null, 3)).thenReturn(List.of(getObject("blobs/" + ORPHAN_HASH, OLD)));
+        when(documentRepository.findReferencedHashesGreaterThan("", 3)).thenReturn(List.of());
+        when(documentBlobRepository.existsById(ORPHAN_HASH)).thenReturn(true);
+        when(documentBlobRepository.markDeleting(ORPHAN_HASH)).thenReturn(1);
+        when(documentStorage.delete(eq(BUCKET), anyList())).thenThrow(new IllegalStateException("Unavailable"));
+
+        GarbageCollectionReport report = documentGarbageCollectionService.collect();
+
+        verify(documentBlobRepository, never()).deleteUnreferenced(any());
+        verify(documentBlobRepository).cancelDeleting(ORPHAN_HASH, StorageState.STORED);
+        assertEquals(new GarbageCollectionReport(1, 1, 0, 0, 1), report);
+    }
+
+    @Test
+    @DisplayName("Collect orphaned objects - delete fails - failure")
+    void collect_deleteFails_failure() {
+        when(documentStorage.list(BUCKET, null, 3)).thenReturn(List.of(getObject(DELETED_USER_ID + "/diploma", OLD)));
+        when(documentRepository.findWithUserByStorageLayoutAndUserIdGreaterThan(any(), any(), any()))
+                .thenReturn(List.of());
+        when(documentStorage.delete(eq(BUCKET), anyList())).thenThrow(new IllegalStateException("Unavailable"));
+
+        GarbageCollectionReport report = documentGarbageCollectionService.collect();
+
+        assertEquals(new GarbageCollectionReport(1, 1, 0, 0, 1), report);
+        assertEquals(1, meterRegistry.get("document.gc.objects").tag("result", "failed").counter().count());
+        verify(objectMetadataService, never()).evict(any(), any());
+    }
+
+    private StoredObject getObject(String key, Instant lastModified) {
+        return new StoredObject(key, 10, lastModified);
+    }
+
+    private Document getDocument() {
+        User user = new User();
+        user.setId(USER_ID);
+
+        Document document = new Document();
+        document.setUser(user);
+        document.setIdentityCardHash(LIVE_HASH);
+        return document;
+    }
+}
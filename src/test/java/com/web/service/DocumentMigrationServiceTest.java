@@ -0,0 +1,135 @@
+package com.web.service;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.web.config.DocumentConfig;
+import com.web.model.Document;
+import com.web.model.MigrationReport;
+import com.web.model.ObjectLocation;
+import com.web.model.User;
+import com.web.model.enumeration.DocumentPart;
+import com.web.model.enumeration.StorageLayout;
+import com.web.repository.DocumentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentMigrationServiceTest {
+
+    private static final Long ID = 1L;
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final String BUCKET = "default";
+    private static final String OBJECT_URL = "http://localhost:4566/default/key";
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private AmazonS3 s3Client;
+
+    @Mock
+    private DocumentLocationService documentLocationService;
+
+    @Mock
+    private ObjectMetadataService objectMetadataService;
+
+    @Mock
+    private PresignedUrlService presignedUrlService;
+
+    @Mock
+    private DocumentConfig documentConfig;
+
+    private DocumentMigrationService documentMigrationService;
+
+    @BeforeEach
+    void setup() {
+        documentMigrationService = new DocumentMigrationService(documentRepository, s3Client, documentLocationService,
+                objectMetadataService, presignedUrlService, documentConfig, new SyncTaskExecutor(),
+                new SimpleMeterRegistry());
+
+        when(documentConfig.getMigrationBatchSize()).thenReturn(10);
+        when(documentLocationService.getLocation(eq(USER_ID), any(), any())).thenAnswer(invocation -> {
+            StorageLayout layout = invocation.getArgument(1);
+            DocumentPart part = invocation.getArgument(2);
+            return layout == StorageLayout.USER_BUCKET
+                    ? new ObjectLocation(USER_ID.toString(), part.getObjectName())
+                    : new ObjectLocation(BUCKET, USER_ID + "/" + part.getObjectName());
+        });
+        when(documentRepository.findByStorageLayoutAndIdGreaterThanOrderByIdAsc(eq(StorageLayout.USER_BUCKET),
+                eq(0L), any())).thenReturn(List.of(getDocument()));
+    }
+
+    @Test
+    @DisplayName("Migrate documents - copies objects and deletes user bucket - success")
+    void migrate_success() throws MalformedURLException {
+        ListObjectsV2Result listing = new ListObjectsV2Result();
+        listing.setKeyCount(0);
+
+        when(s3Client.getUrl(eq(BUCKET), any())).thenReturn(new URL(OBJECT_URL));
+        when(documentRepository.markMigrated(ID, OBJECT_URL, OBJECT_URL, OBJECT_URL)).thenReturn(1);
+        when(s3Client.doesBucketExistV2(USER_ID.toString())).thenReturn(true);
+        when(s3Client.listObjectsV2(USER_ID.toString())).thenReturn(listing);
+
+        MigrationReport report = documentMigrationService.migrate();
+
+        assertEquals(new MigrationReport(1, 0, 0), report);
+        verify(documentLocationService).ensureBucket();
+        verify(s3Client).copyObject(USER_ID.toString(), "diploma", BUCKET, USER_ID + "/diploma");
+        verify(s3Client, times(3)).deleteObject(eq(USER_ID.toString()), anyString());
+        verify(s3Client).deleteBucket(USER_ID.toString());
+    }
+
+    @Test
+    @DisplayName("Migrate documents - already copied objects are not copied again - success")
+    void migrate_alreadyCopied_success() throws MalformedURLException {
+        when(s3Client.doesObjectExist(eq(BUCKET), anyString())).thenReturn(true);
+        when(s3Client.getUrl(eq(BUCKET), any())).thenReturn(new URL(OBJECT_URL));
+        when(documentRepository.markMigrated(ID, OBJECT_URL, OBJECT_URL, OBJECT_URL)).thenReturn(0);
+
+        MigrationReport report = documentMigrationService.migrate();
+
+        assertEquals(new MigrationReport(0, 1, 0), report);
+        verify(s3Client, never()).copyObject(anyString(), anyString(), anyString(), anyString());
+        verify(s3Client, never()).deleteBucket(anyString());
+    }
+
+    @Test
+    @DisplayName("Migrate documents - copy fails - failure")
+    void migrate_copyFails_failure() {
+        when(s3Client.copyObject(anyString(), anyString(), anyString(), anyString()))
+                .thenThrow(new AmazonS3Exception("NoSuchKey"));
+
+        MigrationReport report = documentMigrationService.migrate();
+
+        assertEquals(new MigrationReport(0, 0, 1), report);
+        verify(documentRepository, never()).markMigrated(any(), any(), any(), any());
+    }
+
+    private Document getDocument() {
+        User user = new User();
+        user.setId(USER_ID);
+
+        Document document = new Document();
+        document.setId(ID);
+        document.setUser(user);
+        document.setStorageLayout(StorageLayout.USER_BUCKET);
+
+        return document;
+    }
+}
@@ -0,0 +1,162 @@
+package com.web.service;
+
+import com.web.config.AwsS3Config;
+import com.web.config.DocumentConfig;
+import com.web.model.DocumentBlob;
+import com.web.model.ObjectLocation;
+import com.web.model.enumeration.PreviewState;
+import com.web.model.enumeration.StorageState;
+import com.web.repository.DocumentBlobRepository;
+import com.web.storage.LocalDocumentStorage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentPreviewServiceTest {
+
+    private static final String BUCKET = "default";
+    private static final String HASH = "a".repeat(64);
+    private static final int MAX_SIZE = 256;
+
+    @TempDir
+    Path rootDirectory;
+
+    @Mock
+    private DocumentBlobRepository documentBlobRepository;
+
+    private LocalDocumentStorage localDocumentStorage;
+    private SimpleMeterRegistry meterRegistry;
+    private DocumentPreviewService documentPreviewService;
+
+    @BeforeEach
+    void setup() {
+        AwsS3Config awsS3Config = new AwsS3Config();
+        awsS3Config.setBucketName(BUCKET);
+        awsS3Config.setMetadataCacheMaxSize(100);
+        awsS3Config.setMetadataCacheTtlSeconds(60);
+
+        DocumentConfig documentConfig = new DocumentConfig();
+        documentConfig.setPreviewMaxSize(MAX_SIZE);
+
+        localDocumentStorage = new LocalDocumentStorage(rootDirectory);
+        DocumentEncryptionService documentEncryptionService =
+                new DocumentEncryptionService(localDocumentStorage, documentConfig);
+        meterRegistry = new SimpleMeterRegistry();
+        documentPreviewService = new DocumentPreviewService(documentBlobRepository, localDocumentStorage,
+                new DocumentLocationService(localDocumentStorage, awsS3Config),
+                new ObjectMetadataService(localDocumentStorage, documentEncryptionService, awsS3Config),
+                documentEncryptionService, documentConfig, new SyncTaskExecutor(), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Render image preview - success")
+    void enqueue_image_success() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(1000, 500, BufferedImage.TYPE_INT_ARGB), "png", outputStream);
+        putBlob(outputStream.toByteArray(), "image/png");
+
+        documentPreviewService.enqueue(HASH);
+
+        verify(documentBlobRepository).updatePreview(HASH, PreviewState.READY, 1, 1000, 500);
+        BufferedImage preview = readPreview();
+        assertEquals(MAX_SIZE, preview.getWidth());
+        assertEquals(MAX_SIZE / 2, preview.getHeight());
+        assertEquals(1.0, meterRegistry.get("document.preview").tag("result", "ready").counter().count());
+    }
+
+    @Test
+    @DisplayName("Render first pdf page preview - success")
+    void enqueue_pdf_success() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (PDDocument document = new PDDocument()) {
+            document.addPage(new PDPage(PDRectangle.A4));
+            document.addPage(new PDPage(PDRectangle.A4));
+            document.save(outputStream);
+        }
+        putBlob(outputStream.toByteArray(), "application/pdf");
+
+        documentPreviewService.enqueue(HASH);
+
+        verify(documentBlobRepository).updatePreview(HASH, PreviewState.READY, 2, 595, 842);
+        assertTrue(readPreview().getHeight() <= MAX_SIZE);
+    }
+
+    @Test
+    @DisplayName("Render preview - unknown content type - unsupported")
+    void enqueue_unsupported_success() throws IOException {
+        putBlob(new byte[10], "application/octet-stream");
+
+        documentPreviewService.enqueue(HASH);
+
+        verify(documentBlobRepository).updatePreview(HASH, PreviewState.UNSUPPORTED, null, null, null);
+    }
+
+    @Test
+    @DisplayName("Render preview - corrupt image - failure")
+    void enqueue_corrupt_failure() throws IOException {
+        putBlob("not an image".getBytes(), "image/png");
+
+        documentPreviewService.enqueue(HASH);
+
+        verify(documentBlobRepository).updatePreview(HASH, PreviewState.FAILED, null, null, null);
+        assertEquals(1.0, meterRegistry.get("document.preview").tag("result", "failed").counter().count());
+    }
+
+    @Test
+    @DisplayName("Render preview - already rendered - success")
+    void enqueue_alreadyRendered_success() {
+        DocumentBlob blob = getBlob("image/png");
+        blob.setPreviewState(PreviewState.READY);
+
+        when(documentBlobRepository.findById(HASH)).thenReturn(Optional.of(blob));
+
+        documentPreviewService.enqueue(HASH);
+
+        verify(documentBlobRepository, never()).updatePreview(any(), any(), any(), any(), any());
+    }
+
+    private void putBlob(byte[] content, String contentType) throws IOException {
+        localDocumentStorage.put(new ObjectLocation(BUCKET, "blobs/" + HASH), new ByteArrayInputStream(content),
+                content.length, contentType, null);
+        when(documentBlobRepository.findById(HASH)).thenReturn(Optional.of(getBlob(contentType)));
+    }
+
+    private BufferedImage readPreview() throws IOException {
+        ObjectLocation location = new ObjectLocation(BUCKET, "blobs/" + HASH + ".preview.jpg");
+        try (InputStream inputStream = localDocumentStorage.get(location, 0,
+                localDocumentStorage.getInfo(location).contentLength() - 1)) {
+            return ImageIO.read(inputStream);
+        }
+    }
+
+    private DocumentBlob getBlob(String contentType) {
+        DocumentBlob blob = new DocumentBlob();
+        blob.setHash(HASH);
+        blob.setContentType(contentType);
+        blob.setState(StorageState.STORED);
+        return blob;
+    }
+}
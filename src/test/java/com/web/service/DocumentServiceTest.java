@@ -1,32 +1,49 @@
 package com.web.service;
 
-import com.amazonaws.services.s3.AmazonS3;
-import com.amazonaws.services.s3.model.ObjectMetadata;
-import com.amazonaws.services.s3.model.PutObjectResult;
+import com.web.error.ErrorMessage;
 import com.web.error.exception.BadRequestException;
 import com.web.error.exception.ConflictException;
 import com.web.error.exception.InternalServerErrorException;
 import com.web.error.exception.NotFoundException;
+import com.web.error.exception.ServiceUnavailableException;
 import com.web.model.AdmissionFile;
 import com.web.model.Document;
+import com.web.model.DocumentBlob;
+import com.web.model.DocumentContent;
+import com.web.model.DocumentPreview;
+import com.web.model.ObjectInfo;
+import com.web.model.ObjectLocation;
+import com.web.model.PresignedUrl;
 import com.web.model.User;
+import com.web.model.enumeration.DocumentPart;
+import com.web.model.enumeration.PreviewState;
+import com.web.model.enumeration.StorageLayout;
+import com.web.model.enumeration.StorageState;
 import com.web.model.enumeration.UserRole;
 import com.web.repository.DocumentRepository;
+import com.web.storage.DocumentStorage;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,12 +51,15 @@ class DocumentServiceTest {
 
     private static final Long ID = 1L;
     private static final UUID USER_ID = UUID.randomUUID();
+    private static final String OBJECT_URL = "http://localhost:4566/bucket/key";
+    private static final String HASH = "a".repeat(64);
+    private static final String BUCKET = "default";
 
     @Mock
     private DocumentRepository documentRepository;
 
     @Mock
-    private AmazonS3 s3Client;
+    private DocumentStorage documentStorage;
 
     @Mock
     private UserService userService;
@@ -47,24 +67,54 @@ class DocumentServiceTest {
     @Mock
     private SecurityService securityService;
 
+    @Mock
+    private DocumentBlobService documentBlobService;
+
+    @Mock
+    private DocumentLocationService documentLocationService;
+
+    @Mock
+    private DocumentStagingService documentStagingService;
+
+    @Mock
+    private DocumentEncryptionService documentEncryptionService;
+
+    @Mock
+    private DocumentPreviewService documentPreviewService;
+
+    @Mock
+    private DocumentCacheService documentCacheService;
+
+    @Mock
+    private ObjectMetadataService objectMetadataService;
+
+    @Mock
+    private PresignedUrlService presignedUrlService;
+
+    @Mock
+    private DocumentValidationService documentValidationService;
+
+    @Spy
+    private Executor documentUploadExecutor = new SyncTaskExecutor();
+
     @InjectMocks
     private DocumentService documentService;
 
     @Test
     @DisplayName("Create document - success")
-    void create_success() {
+    void create_success() throws IOException {
         User user = getUser();
-        PutObjectResult result = getS3Result();
         Document document = getDocument();
 
         when(securityService.getUserId()).thenReturn(USER_ID);
         when(userService.getById(USER_ID)).thenReturn(user);
-        when(s3Client.putObject(any(), any(), any(File.class))).thenReturn(result);
+        when(documentBlobService.store(any(), any())).thenReturn(getBlob());
+        when(documentBlobService.getUrl(HASH)).thenReturn(OBJECT_URL);
         when(documentRepository.save(any())).thenReturn(document);
 
-        MultipartFile identityCard = getMultipartFile(true);
-        MultipartFile medicalCertificate = getMultipartFile(true);
-        MultipartFile diploma = getMultipartFile(true);
+        MultipartFile identityCard = getMultipartFile();
+        MultipartFile medicalCertificate = getMultipartFile();
+        MultipartFile diploma = getMultipartFile();
 
         Document resultedDocument = documentService.create(identityCard, medicalCertificate, diploma);
 
@@ -74,6 +124,32 @@ class DocumentServiceTest {
         assertEquals(document.getIdentityCard(), resultedDocument.getIdentityCard());
     }
 
+    @Test
+    @DisplayName("Create document - references staged blobs - success")
+    void create_referencesBlobs_success() throws IOException {
+        User user = getUser();
+        DocumentBlob blob = getBlob();
+        blob.setState(StorageState.STAGED);
+
+        when(securityService.getUserId()).thenReturn(USER_ID);
+        when(userService.getById(USER_ID)).thenReturn(user);
+        when(documentBlobService.store(any(), any())).thenReturn(blob);
+        when(documentBlobService.getUrl(HASH)).thenReturn(OBJECT_URL);
+        when(documentRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        MultipartFile identityCard = getMultipartFile();
+        MultipartFile medicalCertificate = getMultipartFile();
+        MultipartFile diploma = getMultipartFile();
+
+        Document document = documentService.create(identityCard, medicalCertificate, diploma);
+
+        verify(documentBlobService, never()).releaseAll(any());
+        verify(documentStagingService).enqueueAfterCommit(Set.of(HASH));
+        assertEquals(HASH, document.getDiplomaHash());
+        assertEquals(StorageState.STAGED, document.getState(DocumentPart.DIPLOMA));
+        assertEquals(OBJECT_URL, document.getDiploma());
+    }
+
     @Test
     @DisplayName("Create document - already exists - failure")
     void create_alreadyExists_failure() {
@@ -83,9 +159,9 @@ class DocumentServiceTest {
         when(securityService.getUserId()).thenReturn(USER_ID);
         when(userService.getById(USER_ID)).thenReturn(user);
 
-        MultipartFile identityCard = getMultipartFile(false);
-        MultipartFile medicalCertificate = getMultipartFile(false);
-        MultipartFile diploma = getMultipartFile(false);
+        MultipartFile identityCard = getMultipartFile();
+        MultipartFile medicalCertificate = getMultipartFile();
+        MultipartFile diploma = getMultipartFile();
 
         assertThrows(ConflictException.class, () -> documentService.create(identityCard, medicalCertificate, diploma));
     }
@@ -98,50 +174,97 @@ class DocumentServiceTest {
         when(securityService.getUserId()).thenReturn(USER_ID);
         when(userService.getById(USER_ID)).thenReturn(user);
 
-        MultipartFile identityCard = getMultipartFile(true);
-        MultipartFile medicalCertificate = getMultipartFile(true);
-        MultipartFile diploma = getMultipartFile(true);
+        MultipartFile identityCard = getMultipartFile();
+        MultipartFile medicalCertificate = getMultipartFile();
+        MultipartFile diploma = getMultipartFile();
+
+        when(documentBlobService.store(eq(identityCard), any())).thenThrow(new IOException());
+
+        assertThrows(InternalServerErrorException.class, () ->
+                documentService.create(identityCard, medicalCertificate, diploma));
+    }
+
+    @Test
+    @DisplayName("Create document - failed upload releases stored blobs - failure")
+    void create_failedUpload_failure() throws IOException {
+        User user = getUser();
+
+        when(securityService.getUserId()).thenReturn(USER_ID);
+        when(userService.getById(USER_ID)).thenReturn(user);
+
+        MultipartFile identityCard = getMultipartFile();
+        MultipartFile medicalCertificate = getMultipartFile();
+        MultipartFile diploma = getMultipartFile();
 
-        doThrow(new IOException()).when(identityCard).transferTo(any(File.class));
+        when(documentBlobService.store(eq(identityCard), any())).thenThrow(new IOException());
+        when(documentBlobService.store(eq(medicalCertificate), any())).thenReturn(getBlob());
+        when(documentBlobService.store(eq(diploma), any())).thenReturn(getBlob());
 
         assertThrows(InternalServerErrorException.class, () ->
                 documentService.create(identityCard, medicalCertificate, diploma));
+        verify(documentBlobService).releaseAll(List.of(HASH, HASH));
+        verify(documentRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Create document - rejected upload - failure")
+    void create_rejectedUpload_failure() {
+        User user = getUser();
+
+        when(securityService.getUserId()).thenReturn(USER_ID);
+        when(userService.getById(USER_ID)).thenReturn(user);
+        doThrow(new RejectedExecutionException()).when(documentUploadExecutor).execute(any());
+
+        MultipartFile identityCard = getMultipartFile();
+        MultipartFile medicalCertificate = getMultipartFile();
+        MultipartFile diploma = getMultipartFile();
+
+        assertThrows(ServiceUnavailableException.class, () ->
+                documentService.create(identityCard, medicalCertificate, diploma));
+        verify(documentRepository, never()).save(any());
     }
 
     @Test
     @DisplayName("Create document - invalid content type - failure")
-    void create_invalidContentType_failure() {
+    void create_invalidContentType_failure() throws IOException {
         User user = getUser();
 
         when(securityService.getUserId()).thenReturn(USER_ID);
         when(userService.getById(USER_ID)).thenReturn(user);
 
-        MultipartFile identityCard = getMultipartFile(true);
-        when(identityCard.getContentType()).thenReturn("dummy");
-        MultipartFile medicalCertificate = getMultipartFile(false);
-        MultipartFile diploma = getMultipartFile(false);
+        MultipartFile identityCard = getMultipartFile();
+        MultipartFile medicalCertificate = getMultipartFile();
+        MultipartFile diploma = getMultipartFile();
+
+        when(documentBlobService.store(identityCard, DocumentPart.IDENTITY_CARD)).thenThrow(
+                new BadRequestException(ErrorMessage.INVALID_CONTENT_TYPE, "identityCard", List.of()));
 
         assertThrows(BadRequestException.class, () -> documentService.create(identityCard, medicalCertificate, diploma));
+        verify(documentRepository, never()).save(any());
     }
 
     @Test
     @DisplayName("Update document - success")
-    void update_success() {
+    void update_success() throws IOException {
         User user = getUser();
-        PutObjectResult result = getS3Result();
         Document document = getDocument();
         document.setUser(user);
+        document.setDiplomaHash("old hash");
 
-        when(s3Client.putObject(any(), any(), any(File.class))).thenReturn(result);
+        stubLocations();
+        when(documentBlobService.store(any(), any())).thenReturn(getBlob());
+        when(documentBlobService.getUrl(HASH)).thenReturn(OBJECT_URL);
         when(documentRepository.findById(ID)).thenReturn(Optional.of(document));
         when(documentRepository.save(any())).thenReturn(document);
 
-        MultipartFile identityCard = getMultipartFile(true);
-        MultipartFile medicalCertificate = getMultipartFile(true);
-        MultipartFile diploma = getMultipartFile(true);
+        MultipartFile identityCard = getMultipartFile();
+        MultipartFile medicalCertificate = getMultipartFile();
+        MultipartFile diploma = getMultipartFile();
 
         Document resultedDocument = documentService.update(ID, identityCard, medicalCertificate, diploma);
 
+        verify(documentBlobService).release("old hash");
+
         assertNotNull(resultedDocument);
         assertEquals(document.getId(), resultedDocument.getId());
         assertEquals(document.getDiploma(), resultedDocument.getDiploma());
@@ -157,11 +280,11 @@ class DocumentServiceTest {
 
         when(documentRepository.findById(ID)).thenReturn(Optional.of(document));
 
-        MultipartFile identityCard = getMultipartFile(true);
-        MultipartFile medicalCertificate = getMultipartFile(true);
-        MultipartFile diploma = getMultipartFile(true);
+        MultipartFile identityCard = getMultipartFile();
+        MultipartFile medicalCertificate = getMultipartFile();
+        MultipartFile diploma = getMultipartFile();
 
-        doThrow(new IOException()).when(identityCard).transferTo(any(File.class));
+        when(documentBlobService.store(eq(identityCard), any())).thenThrow(new IOException());
 
         assertThrows(InternalServerErrorException.class, () ->
                 documentService.update(ID, identityCard, medicalCertificate, diploma));
@@ -177,13 +300,129 @@ class DocumentServiceTest {
 
         when(documentRepository.findById(ID)).thenReturn(Optional.of(document));
 
-        MultipartFile identityCard = getMultipartFile(false);
-        MultipartFile medicalCertificate = getMultipartFile(false);
-        MultipartFile diploma = getMultipartFile(false);
+        MultipartFile identityCard = getMultipartFile();
+        MultipartFile medicalCertificate = getMultipartFile();
+        MultipartFile diploma = getMultipartFile();
 
         assertThrows(ConflictException.class, () -> documentService.update(ID, identityCard, medicalCertificate, diploma));
     }
 
+    @Test
+    @DisplayName("Save document - existing document is updated - success")
+    void save_existingDocument_success() throws IOException {
+        User user = getUser();
+        Document document = getDocument();
+        document.setUser(user);
+        user.setDocument(document);
+
+        stubLocations();
+        when(securityService.getUserId()).thenReturn(USER_ID);
+        when(userService.getById(USER_ID)).thenReturn(user);
+        when(documentRepository.findById(ID)).thenReturn(Optional.of(document));
+        when(documentBlobService.store(any(), any())).thenReturn(getBlob());
+        when(documentBlobService.getUrl(HASH)).thenReturn(OBJECT_URL);
+        when(documentRepository.save(document)).thenReturn(document);
+
+        Document resultedDocument = documentService.save(getMultipartFile(), getMultipartFile(), getMultipartFile());
+
+        assertEquals(OBJECT_URL, resultedDocument.getDiploma());
+    }
+
+    @Test
+    @DisplayName("Create upload urls - success")
+    void createUploadUrls_success() {
+        PresignedUrl presignedUrl = new PresignedUrl(OBJECT_URL, Instant.now());
+
+        when(securityService.getUserId()).thenReturn(USER_ID);
+        when(userService.getById(USER_ID)).thenReturn(getUser());
+        when(documentStorage.supportsPresignedUrls()).thenReturn(true);
+        stubLocations();
+        when(presignedUrlService.getUploadUrl(eq(BUCKET), any())).thenReturn(presignedUrl);
+
+        Map<DocumentPart, PresignedUrl> uploadUrls = documentService.createUploadUrls();
+
+        assertEquals(3, uploadUrls.size());
+        verify(documentLocationService).ensureBucket();
+        verify(presignedUrlService).getUploadUrl(BUCKET, USER_ID + "/diploma");
+    }
+
+    @Test
+    @DisplayName("Create upload urls - storage without presigned urls - failure")
+    void createUploadUrls_unsupported_failure() {
+        when(securityService.getUserId()).thenReturn(USER_ID);
+        when(userService.getById(USER_ID)).thenReturn(getUser());
+        when(documentStorage.supportsPresignedUrls()).thenReturn(false);
+
+        assertThrows(BadRequestException.class, () -> documentService.createUploadUrls());
+        verify(presignedUrlService, never()).getUploadUrl(any(), any());
+    }
+
+    @Test
+    @DisplayName("Create upload urls - document not migrated yet - failure")
+    void createUploadUrls_notMigrated_failure() {
+        User user = getUser();
+        Document document = getDocument();
+        document.setStorageLayout(StorageLayout.USER_BUCKET);
+        user.setDocument(document);
+
+        when(securityService.getUserId()).thenReturn(USER_ID);
+        when(userService.getById(USER_ID)).thenReturn(user);
+
+        assertThrows(ConflictException.class, () -> documentService.createUploadUrls());
+        verify(presignedUrlService, never()).getUploadUrl(any(), any());
+    }
+
+    @Test
+    @DisplayName("Confirm upload - document not migrated yet - failure")
+    void confirmUpload_notMigrated_failure() {
+        User user = getUser();
+        Document document = getDocument();
+        document.setStorageLayout(StorageLayout.USER_BUCKET);
+        user.setDocument(document);
+
+        when(securityService.getUserId()).thenReturn(USER_ID);
+        when(userService.getById(USER_ID)).thenReturn(user);
+
+        assertThrows(ConflictException.class, () -> documentService.confirmUpload());
+        verify(documentRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Confirm upload - success")
+    void confirmUpload_success() throws IOException {
+        User user = getUser();
+
+        when(securityService.getUserId()).thenReturn(USER_ID);
+        when(userService.getById(USER_ID)).thenReturn(user);
+        stubLocations();
+        when(objectMetadataService.getMetadata(eq(BUCKET), any())).thenReturn(getObjectInfo());
+        when(documentStorage.get(any(), eq(0L), eq(7L))).thenAnswer(invocation -> getHeader());
+        when(documentStorage.getUrl(any())).thenReturn(OBJECT_URL);
+        when(documentRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Document document = documentService.confirmUpload();
+
+        assertEquals(OBJECT_URL, document.getDiploma());
+        assertEquals(StorageLayout.SHARED_BUCKET, document.getStorageLayout());
+        assertEquals(user, document.getUser());
+        verify(objectMetadataService, times(3)).evict(eq(BUCKET), any());
+    }
+
+    @Test
+    @DisplayName("Confirm upload - invalid content type - failure")
+    void confirmUpload_invalidContentType_failure() throws IOException {
+        when(securityService.getUserId()).thenReturn(USER_ID);
+        when(userService.getById(USER_ID)).thenReturn(getUser());
+        stubLocations();
+        when(objectMetadataService.getMetadata(eq(BUCKET), any())).thenReturn(getObjectInfo());
+        when(documentStorage.get(any(), eq(0L), eq(7L))).thenAnswer(invocation -> getHeader());
+        when(documentValidationService.detect(any(), any())).thenThrow(
+                new BadRequestException(ErrorMessage.INVALID_CONTENT_TYPE, "identityCard", List.of()));
+
+        assertThrows(BadRequestException.class, () -> documentService.confirmUpload());
+        verify(documentRepository, never()).save(any());
+    }
+
     @Test
     @DisplayName("Get document - success")
     void getById_success() {
@@ -208,6 +447,104 @@ class DocumentServiceTest {
         assertThrows(NotFoundException.class, () -> documentService.getById(ID));
     }
 
+    @Test
+    @DisplayName("Get document content - success")
+    void getContent_success() {
+        Document document = getDocument();
+        document.setUser(getUser());
+        document.setStorageLayout(StorageLayout.USER_BUCKET);
+        ObjectInfo info = new ObjectInfo(13, "application/pdf", "etag");
+
+        when(documentRepository.findById(ID)).thenReturn(Optional.of(document));
+        when(documentLocationService.getLocation(USER_ID, StorageLayout.USER_BUCKET, DocumentPart.DIPLOMA))
+                .thenReturn(new ObjectLocation(USER_ID.toString(), "diploma"));
+        when(objectMetadataService.getMetadata(USER_ID.toString(), "diploma")).thenReturn(info);
+
+        DocumentContent content = documentService.getContent(ID, DocumentPart.DIPLOMA);
+
+        assertEquals(USER_ID.toString(), content.bucketName());
+        assertEquals("diploma", content.key());
+        assertEquals(13, content.contentLength());
+        assertEquals("etag", content.eTag());
+    }
+
+    @Test
+    @DisplayName("Open document content - encrypted - success")
+    void openContent_encrypted_success() throws IOException {
+        DocumentContent content = new DocumentContent(BUCKET, "blobs/" + HASH, 13, "application/pdf", "etag", true);
+        ByteArrayInputStream decrypted = new ByteArrayInputStream(new byte[4]);
+
+        when(documentEncryptionService.open(new ObjectLocation(BUCKET, "blobs/" + HASH), 13, 2, 5))
+                .thenReturn(decrypted);
+        when(documentCacheService.open(eq(content), eq(2L), eq(5L), any())).thenAnswer(invocation ->
+                invocation.<DocumentCacheService.ContentLoader>getArgument(3).open(2, 5));
+
+        assertEquals(decrypted, documentService.openContent(content, 2, 5));
+        verify(documentStorage, never()).get(any(), anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Get download url - encrypted document - failure")
+    void getDownloadUrl_encrypted_failure() {
+        Document document = getDocument();
+        document.setUser(getUser());
+        document.setDiplomaHash(HASH);
+        ObjectLocation location = new ObjectLocation(BUCKET, "blobs/" + HASH);
+
+        when(documentStorage.supportsPresignedUrls()).thenReturn(true);
+        when(documentRepository.findById(ID)).thenReturn(Optional.of(document));
+        when(documentBlobService.getLocation(HASH)).thenReturn(location);
+        when(objectMetadataService.getMetadata(BUCKET, "blobs/" + HASH))
+                .thenReturn(new ObjectInfo(13, "application/pdf", "etag", true));
+
+        assertThrows(BadRequestException.class, () -> documentService.getDownloadUrl(ID, DocumentPart.DIPLOMA));
+        verify(presignedUrlService, never()).getDownloadUrl(any(), any());
+    }
+
+    @Test
+    @DisplayName("Get preview content - current hash - success")
+    void getPreviewContent_success() {
+        Document document = getDocument();
+        document.setUser(getUser());
+        document.setDiplomaHash(HASH);
+        DocumentContent content = new DocumentContent(BUCKET, "blobs/" + HASH + ".preview.jpg", 4, "image/jpeg", HASH);
+
+        when(documentRepository.findById(ID)).thenReturn(Optional.of(document));
+        when(documentPreviewService.getPreview(HASH))
+                .thenReturn(new DocumentPreview(HASH, PreviewState.READY, 1, 100, 100));
+        when(documentPreviewService.getContent(HASH)).thenReturn(content);
+
+        assertEquals(content, documentService.getPreviewContent(ID, DocumentPart.DIPLOMA, HASH));
+    }
+
+    @Test
+    @DisplayName("Get preview content - stale hash - failure")
+    void getPreviewContent_staleHash_failure() {
+        Document document = getDocument();
+        document.setUser(getUser());
+        document.setDiplomaHash(HASH);
+
+        when(documentRepository.findById(ID)).thenReturn(Optional.of(document));
+
+        assertThrows(NotFoundException.class, () ->
+                documentService.getPreviewContent(ID, DocumentPart.DIPLOMA, "b".repeat(64)));
+        verify(documentPreviewService, never()).getContent(any());
+    }
+
+    @Test
+    @DisplayName("Get document content - not stored yet - failure")
+    void getContent_notStored_failure() {
+        Document document = getDocument();
+        document.setUser(getUser());
+        document.setDiplomaHash(HASH);
+        document.setState(DocumentPart.DIPLOMA, StorageState.STAGED);
+
+        when(documentRepository.findById(ID)).thenReturn(Optional.of(document));
+
+        assertThrows(ConflictException.class, () -> documentService.getContent(ID, DocumentPart.DIPLOMA));
+        verify(objectMetadataService, never()).getMetadata(any(), any());
+    }
+
     @Test
     @DisplayName("Get documents - success")
     void getAll_success() {
@@ -223,12 +560,17 @@ class DocumentServiceTest {
     void delete_success() {
         Document document = getDocument();
         document.setUser(getUser());
+        document.setDiplomaHash(HASH);
 
+        stubLocations();
         when(documentRepository.findById(ID)).thenReturn(Optional.of(document));
 
         documentService.deleteById(ID);
 
         verify(documentRepository, times(1)).delete(document);
+        verify(documentBlobService, times(1)).release(HASH);
+        verify(documentCacheService).evictBlob(HASH);
+        verify(documentCacheService).evict(BUCKET, USER_ID + "/diploma");
     }
 
     @Test
@@ -253,27 +595,32 @@ class DocumentServiceTest {
         return user;
     }
 
-    private MultipartFile getMultipartFile(boolean needsStubbing) {
-        MultipartFile multipartFile = mock(MultipartFile.class);
-
-        if (needsStubbing) {
-            when(multipartFile.getContentType()).thenReturn("application/pdf");
-        }
-
-        return multipartFile;
+    private MultipartFile getMultipartFile() {
+        return mock(MultipartFile.class);
     }
 
-    private PutObjectResult getS3Result() {
-        Map<String, String> rawMetadata = new HashMap<>();
-        rawMetadata.put("Location", "dummy url");
+    private void stubLocations() {
+        when(documentLocationService.getLocation(eq(USER_ID), any(), any())).thenAnswer(invocation -> {
+            DocumentPart part = invocation.getArgument(2);
+            return new ObjectLocation(BUCKET, USER_ID + "/" + part.getObjectName());
+        });
+    }
 
-        ObjectMetadata metadata = new ObjectMetadata();
-        metadata.setUserMetadata(rawMetadata);
+    private ByteArrayInputStream getHeader() {
+        return new ByteArrayInputStream("%PDF-1.7".getBytes());
+    }
 
-        PutObjectResult result = new PutObjectResult();
-        result.setMetadata(metadata);
+    private ObjectInfo getObjectInfo() {
+        return new ObjectInfo(10, "application/pdf", "etag");
+    }
 
-        return result;
+    private DocumentBlob getBlob() {
+        return DocumentBlob.builder()
+                .hash(HASH)
+                .size(10L)
+                .contentType("application/pdf")
+                .state(StorageState.STORED)
+                .build();
     }
 
     private Document getDocument() {
@@ -0,0 +1,254 @@
+package com.web.service;
+
+import com.web.config.DocumentConfig;
+import com.web.model.DocumentBlob;
+import com.web.model.ObjectLocation;
+import com.web.model.enumeration.StorageState;
+import com.web.repository.DocumentBlobRepository;
+import com.web.repository.DocumentRepository;
+import com.web.storage.DocumentStorage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentStagingServiceTest {
+
+    private static final byte[] CONTENT = "%PDF-dummy content".getBytes();
+    private static final String HASH = "a".repeat(64);
+    private static final String NODE = "node-1";
+    private static final ObjectLocation BLOB_LOCATION = new ObjectLocation("default", "blobs/" + HASH);
+
+    @TempDir
+    Path stagingDirectory;
+
+    @Mock
+    private DocumentBlobRepository documentBlobRepository;
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private DocumentStorage documentStorage;
+
+    @Mock
+    private DocumentLocationService documentLocationService;
+
+    @Mock
+    private DocumentEncryptionService documentEncryptionService;
+
+    @Mock
+    private DocumentPreviewService documentPreviewService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private DocumentStagingService documentStagingService;
+
+    @BeforeEach
+    void setup() {
+        DocumentConfig documentConfig = new DocumentConfig();
+        documentConfig.setStagingDirectory(stagingDirectory.toString());
+        documentConfig.setStagingMaxAttempts(2);
+        documentConfig.setStagingRetryBackoffMs(0);
+        documentConfig.setStagingRecoveryIntervalMs(60_000);
+        documentConfig.setStagingMaxRecoveryBackoffMs(600_000);
+        documentConfig.setStagingNodeId(NODE);
+
+        meterRegistry = new SimpleMeterRegistry();
+        documentStagingService = new DocumentStagingService(documentBlobRepository, documentRepository,
+                documentStorage, documentLocationService, documentEncryptionService, documentPreviewService,
+                documentConfig, new SyncTaskExecutor(), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Ship staged blob - success")
+    void enqueue_success() throws IOException {
+        DocumentBlob blob = getBlob(StorageState.STAGED);
+
+        when(documentBlobRepository.findById(HASH)).thenReturn(Optional.of(blob));
+        when(documentLocationService.getBlobLocation(HASH)).thenReturn(BLOB_LOCATION);
+
+        stage(blob);
+        documentStagingService.enqueue(HASH);
+
+        verify(documentStorage).put(eq(BLOB_LOCATION), any(), eq((long) CONTENT.length), eq("application/pdf"), any());
+        verify(documentRepository).updateDiplomaState(HASH, StorageState.STAGED, StorageState.STORED);
+        verify(documentBlobRepository).updateState(HASH, StorageState.STORED);
+        verify(documentPreviewService).enqueue(HASH);
+        assertFalse(Files.exists(stagingDirectory.resolve("blobs").resolve(HASH)));
+        assertEquals(1.0, meterRegistry.get("document.staging.blobs").tag("result", "stored").counter().count());
+    }
+
+    @Test
+    @DisplayName("Ship staged blob - encrypted - success")
+    void enqueue_encrypted_success() throws IOException {
+        DocumentBlob blob = getBlob(StorageState.STAGED);
+        InputStream encrypted = new ByteArrayInputStream(new byte[CONTENT.length + 100]);
+
+        when(documentBlobRepository.findById(HASH)).thenReturn(Optional.of(blob));
+        when(documentLocationService.getBlobLocation(HASH)).thenReturn(BLOB_LOCATION);
+        when(documentEncryptionService.isEnabled()).thenReturn(true);
+        when(documentEncryptionService.encrypt(any(), eq((long) CONTENT.length))).thenReturn(encrypted);
+        when(documentEncryptionService.getEncryptedLength(CONTENT.length)).thenReturn(CONTENT.length + 100L);
+
+        stage(blob);
+        documentStagingService.enqueue(HASH);
+
+        verify(documentStorage).put(BLOB_LOCATION, encrypted, CONTENT.length + 100L, "application/pdf", null);
+        verify(documentBlobRepository).updateState(HASH, StorageState.STORED);
+    }
+
+    @Test
+    @DisplayName("Ship staged blob - storage keeps failing - deferred while still staged - success")
+    void enqueue_storageOutage_success() throws IOException {
+        DocumentBlob blob = getBlob(StorageState.STAGED);
+
+        when(documentBlobRepository.findById(HASH)).thenReturn(Optional.of(blob));
+        when(documentLocationService.getBlobLocation(HASH)).thenReturn(BLOB_LOCATION);
+        when(documentBlobRepository.findStaged(eq(NODE), any())).thenReturn(List.of(blob));
+        doThrow(new IOException()).when(documentStorage).put(any(), any(), anyLong(), any(), any());
+
+        stage(blob);
+        documentStagingService.enqueue(HASH);
+        documentStagingService.recover();
+
+        verify(documentStorage, times(2)).put(any(), any(), anyLong(), any(), any());
+        verify(documentBlobRepository, never()).updateState(any(), any(), any());
+        verify(documentRepository, never()).updateDiplomaState(any(), any(), any());
+        assertTrue(Files.exists(stagingDirectory.resolve("blobs").resolve(HASH)));
+        assertEquals(1.0, meterRegistry.get("document.staging.retries").counter().count());
+        assertEquals(1.0, meterRegistry.get("document.staging.blobs").tag("result", "deferred").counter().count());
+        assertEquals(0.0, meterRegistry.get("document.staging.blobs").tag("result", "failed").counter().count());
+    }
+
+    @Test
+    @DisplayName("Ship staged blob - corrupt staging copy - failure")
+    void enqueue_corruptCopy_failure() throws IOException {
+        DocumentBlob blob = getBlob(StorageState.STAGED);
+        blob.setContentMd5(Base64.getEncoder().encodeToString(new byte[16]));
+
+        when(documentBlobRepository.findById(HASH)).thenReturn(Optional.of(blob));
+        when(documentLocationService.getBlobLocation(HASH)).thenReturn(BLOB_LOCATION);
+        when(documentBlobRepository.updateState(HASH, StorageState.STAGED, StorageState.FAILED)).thenReturn(1);
+        doThrow(new IOException()).when(documentStorage).put(any(), any(), anyLong(), any(), any());
+
+        stage(blob);
+        documentStagingService.enqueue(HASH);
+
+        verify(documentRepository).updateDiplomaState(HASH, StorageState.STAGED, StorageState.FAILED);
+        assertFalse(Files.exists(stagingDirectory.resolve("blobs").resolve(HASH)));
+        assertEquals(1.0, meterRegistry.get("document.staging.blobs").tag("result", "failed").counter().count());
+    }
+
+    @Test
+    @DisplayName("Ship staged blob - staging copy missing on its node - failure")
+    void enqueue_missingCopy_failure() throws IOException {
+        when(documentBlobRepository.findById(HASH)).thenReturn(Optional.of(getBlob(StorageState.STAGED)));
+        when(documentBlobRepository.updateState(HASH, StorageState.STAGED, StorageState.FAILED)).thenReturn(1);
+
+        documentStagingService.enqueue(HASH);
+
+        verify(documentStorage, never()).put(any(), any(), anyLong(), any(), any());
+        verify(documentRepository).updateDiplomaState(HASH, StorageState.STAGED, StorageState.FAILED);
+        assertEquals(1.0, meterRegistry.get("document.staging.blobs").tag("result", "failed").counter().count());
+    }
+
+    @Test
+    @DisplayName("Ship staged blob - staging copy on another node - success")
+    void enqueue_stagedOnAnotherNode_success() throws IOException {
+        DocumentBlob blob = getBlob(StorageState.STAGED);
+        blob.setStagingNode("node-2");
+
+        when(documentBlobRepository.findById(HASH)).thenReturn(Optional.of(blob));
+
+        documentStagingService.enqueue(HASH);
+
+        verify(documentStorage, never()).put(any(), any(), anyLong(), any(), any());
+        verify(documentBlobRepository, never()).updateState(any(), any(), any());
+        verify(documentRepository, never()).updateDiplomaState(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Ship staged blob - stored elsewhere before the missing copy was noticed - success")
+    void enqueue_storedElsewhere_success() throws IOException {
+        when(documentBlobRepository.findById(HASH)).thenReturn(Optional.of(getBlob(StorageState.STAGED)),
+                Optional.of(getBlob(StorageState.STORED)));
+        when(documentBlobRepository.updateState(HASH, StorageState.STAGED, StorageState.FAILED)).thenReturn(0);
+
+        documentStagingService.enqueue(HASH);
+
+        verify(documentRepository, never()).updateDiplomaState(HASH, StorageState.STAGED, StorageState.FAILED);
+        verify(documentRepository).updateDiplomaState(HASH, StorageState.STAGED, StorageState.STORED);
+        assertEquals(0.0, meterRegistry.get("document.staging.blobs").tag("result", "failed").counter().count());
+    }
+
+    @Test
+    @DisplayName("Ship already stored blob - success")
+    void enqueue_alreadyStored_success() throws IOException {
+        when(documentBlobRepository.findById(HASH)).thenReturn(Optional.of(getBlob(StorageState.STORED)));
+
+        documentStagingService.enqueue(HASH);
+
+        verify(documentStorage, never()).put(any(), any(), anyLong(), any(), any());
+        verify(documentRepository).updateIdentityCardState(HASH, StorageState.STAGED, StorageState.STORED);
+        verify(documentBlobRepository, never()).updateState(any(), any());
+    }
+
+    @Test
+    @DisplayName("Ship blob being deleted waits for the collector - success")
+    void enqueue_deleting_success() throws IOException {
+        when(documentBlobRepository.findById(HASH)).thenReturn(Optional.of(getBlob(StorageState.DELETING)));
+
+        documentStagingService.enqueue(HASH);
+
+        verify(documentStorage, never()).put(any(), any(), anyLong(), any(), any());
+        verify(documentRepository, never()).updateIdentityCardState(any(), any(), any());
+        verify(documentBlobRepository, never()).updateState(any(), any());
+    }
+
+    @Test
+    @DisplayName("Recover staged blobs - success")
+    void recover_success() {
+        when(documentBlobRepository.findStaged(eq(NODE), any())).thenReturn(List.of(getBlob(StorageState.STAGED)));
+        when(documentBlobRepository.findById(HASH)).thenReturn(Optional.empty());
+
+        documentStagingService.recover();
+
+        verify(documentBlobRepository).findById(HASH);
+    }
+
+    private void stage(DocumentBlob blob) throws IOException {
+        Path file = documentStagingService.createTemporaryFile();
+        Files.write(file, CONTENT);
+        documentStagingService.stage(blob, file);
+    }
+
+    private DocumentBlob getBlob(StorageState state) {
+        return DocumentBlob.builder()
+                .hash(HASH)
+                .size((long) CONTENT.length)
+                .contentType("application/pdf")
+                .state(state)
+                .stagingNode(NODE)
+                .build();
+    }
+}
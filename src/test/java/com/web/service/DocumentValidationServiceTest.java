@@ -0,0 +1,123 @@
+package com.web.service;
+
+import com.web.config.DocumentConfig;
+import com.web.error.exception.BadRequestException;
+import com.web.model.ValidatedFile;
+import com.web.model.enumeration.DocumentPart;
+import com.web.model.enumeration.DocumentType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentValidationServiceTest {
+
+    private static final byte[] PDF = "%PDF-1.7 dummy content".getBytes();
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 13};
+
+    @Mock
+    private DocumentConfig documentConfig;
+
+    @InjectMocks
+    private DocumentValidationService documentValidationService;
+
+    @Test
+    @DisplayName("Validate file - pdf - success")
+    void validate_pdf_success() throws IOException, NoSuchAlgorithmException {
+        when(documentConfig.getMaxSize(DocumentPart.DIPLOMA)).thenReturn(100L);
+
+        ValidatedFile validatedFile = documentValidationService.validate(getFile(PDF, "text/plain"), DocumentPart.DIPLOMA);
+
+        assertEquals("application/pdf", validatedFile.contentType());
+        assertEquals(PDF.length, validatedFile.size());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(PDF)), validatedFile.hash());
+        assertEquals(Base64.getEncoder().encodeToString(MessageDigest.getInstance("MD5").digest(PDF)),
+                validatedFile.contentMd5());
+    }
+
+    @Test
+    @DisplayName("Validate file - png declared as pdf - success")
+    void validate_png_success() throws IOException {
+        when(documentConfig.getMaxSize(DocumentPart.IDENTITY_CARD)).thenReturn(100L);
+
+        ValidatedFile validatedFile = documentValidationService.validate(getFile(PNG, "application/pdf"),
+                DocumentPart.IDENTITY_CARD);
+
+        assertEquals("image/png", validatedFile.contentType());
+    }
+
+    @Test
+    @DisplayName("Validate file - unknown signature - failure")
+    void validate_unknownSignature_failure() throws IOException {
+        byte[] content = new byte[64 * 1024];
+        CountingInputStream inputStream = new CountingInputStream(content);
+        MultipartFile file = mock(MultipartFile.class);
+
+        when(documentConfig.getMaxSize(DocumentPart.DIPLOMA)).thenReturn((long) content.length);
+        when(file.getSize()).thenReturn((long) content.length);
+        when(file.getInputStream()).thenReturn(inputStream);
+
+        assertThrows(BadRequestException.class, () -> documentValidationService.validate(file, DocumentPart.DIPLOMA));
+        assertEquals(DocumentType.HEADER_LENGTH, inputStream.getCount());
+    }
+
+    @Test
+    @DisplayName("Validate file - too large - failure")
+    void validate_tooLarge_failure() {
+        when(documentConfig.getMaxSize(DocumentPart.MEDICAL_CERTIFICATE)).thenReturn(10L);
+
+        MultipartFile file = getFile(PDF, "application/pdf");
+
+        assertThrows(BadRequestException.class, () ->
+                documentValidationService.validate(file, DocumentPart.MEDICAL_CERTIFICATE));
+    }
+
+    @Test
+    @DisplayName("Detect type - jpeg - success")
+    void detect_jpeg_success() throws IOException {
+        byte[] jpeg = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0};
+
+        DocumentType type = documentValidationService.detect(new ByteArrayInputStream(jpeg), DocumentPart.DIPLOMA);
+
+        assertEquals(DocumentType.JPEG, type);
+    }
+
+    @Test
+    @DisplayName("Detect type - empty content - failure")
+    void detect_empty_failure() {
+        InputStream inputStream = new ByteArrayInputStream(new byte[0]);
+
+        assertThrows(BadRequestException.class, () -> documentValidationService.detect(inputStream, DocumentPart.DIPLOMA));
+    }
+
+    private MockMultipartFile getFile(byte[] content, String contentType) {
+        return new MockMultipartFile("file", "file", contentType, content);
+    }
+
+    private static class CountingInputStream extends ByteArrayInputStream {
+
+        CountingInputStream(byte[] content) {
+            super(content);
+        }
+
+        int getCount() {
+            return pos;
+        }
+    }
+}
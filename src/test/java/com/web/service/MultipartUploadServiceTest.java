@@ -0,0 +1,119 @@
+package com.web.service;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.*;
+import com.web.config.AwsS3Config;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MultipartUploadServiceTest {
+
+    private static final String BUCKET = "bucket";
+    private static final String KEY = "diploma";
+    private static final String UPLOAD_ID = "upload-id";
+    private static final byte[] CONTENT = "0123456789".getBytes();
+
+    @Mock
+    private AmazonS3 s3Client;
+
+    @Mock
+    private AwsS3Config awsS3Config;
+
+    private MultipartUploadService multipartUploadService;
+
+    @BeforeEach
+    void setup() {
+        multipartUploadService = new MultipartUploadService(s3Client, awsS3Config, new SyncTaskExecutor());
+    }
+
+    @Test
+    @DisplayName("Is multipart - success")
+    void isMultipart_success() {
+        when(awsS3Config.getMultipartThreshold()).thenReturn(10L);
+
+        assertTrue(multipartUploadService.isMultipart(10));
+        assertFalse(multipartUploadService.isMultipart(9));
+    }
+
+    @Test
+    @DisplayName("Upload - success")
+    void upload_success() throws IOException {
+        stubMultipartUpload();
+        when(s3Client.uploadPart(any())).thenAnswer(invocation -> getUploadPartResult(invocation.getArgument(0)));
+        when(s3Client.completeMultipartUpload(any())).thenReturn(new CompleteMultipartUploadResult());
+
+        multipartUploadService.upload(BUCKET, KEY, new ByteArrayInputStream(CONTENT), CONTENT.length, "application/pdf");
+
+        ArgumentCaptor<CompleteMultipartUploadRequest> captor = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(s3Client, times(3)).uploadPart(any());
+        verify(s3Client).completeMultipartUpload(captor.capture());
+        assertEquals(List.of(1, 2, 3), captor.getValue().getPartETags().stream().map(PartETag::getPartNumber).toList());
+    }
+
+    @Test
+    @DisplayName("Upload - retries only the failed part - success")
+    void upload_retriesFailedPart_success() throws IOException {
+        stubMultipartUpload();
+        when(awsS3Config.getMultipartPartRetries()).thenReturn(1);
+        when(s3Client.uploadPart(any()))
+                .thenAnswer(invocation -> getUploadPartResult(invocation.getArgument(0)))
+                .thenThrow(new AmazonClientException("connection reset"))
+                .thenAnswer(invocation -> getUploadPartResult(invocation.getArgument(0)));
+        when(s3Client.completeMultipartUpload(any())).thenReturn(new CompleteMultipartUploadResult());
+
+        multipartUploadService.upload(BUCKET, KEY, new ByteArrayInputStream(CONTENT), CONTENT.length, "application/pdf");
+
+        verify(s3Client, times(4)).uploadPart(any());
+        verify(s3Client, never()).abortMultipartUpload(any());
+    }
+
+    @Test
+    @DisplayName("Upload - part failure - aborts the upload - failure")
+    void upload_partFailure_failure() {
+        stubMultipartUpload();
+        AmazonServiceException exception = new AmazonServiceException("access denied");
+        exception.setErrorType(AmazonServiceException.ErrorType.Client);
+        when(s3Client.uploadPart(any())).thenThrow(exception);
+
+        assertThrows(IOException.class, () -> multipartUploadService
+                .upload(BUCKET, KEY, new ByteArrayInputStream(CONTENT), CONTENT.length, "application/pdf"));
+
+        verify(s3Client, times(1)).uploadPart(any());
+        verify(s3Client).abortMultipartUpload(any());
+        verify(s3Client, never()).completeMultipartUpload(any());
+    }
+
+    private void stubMultipartUpload() {
+        InitiateMultipartUploadResult initiateResult = new InitiateMultipartUploadResult();
+        initiateResult.setUploadId(UPLOAD_ID);
+
+        when(awsS3Config.getMultipartPartSize()).thenReturn(4);
+        when(awsS3Config.getMultipartConcurrency()).thenReturn(2);
+        when(s3Client.initiateMultipartUpload(any())).thenReturn(initiateResult);
+    }
+
+    private UploadPartResult getUploadPartResult(UploadPartRequest request) {
+        UploadPartResult result = new UploadPartResult();
+        result.setPartNumber(request.getPartNumber());
+        result.setETag("etag-" + request.getPartNumber());
+
+        return result;
+    }
+}
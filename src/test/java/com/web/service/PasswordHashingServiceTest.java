@@ -0,0 +1,97 @@
+package com.web.service;
+
+import com.web.config.SecurityConfig;
+import com.web.error.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingServiceTest {
+
+    private static final String PASSWORD = "dummy_password1";
+    private static final int QUEUE_CAPACITY = 4;
+
+    private ThreadPoolTaskExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Encode and match password - success")
+    void encodeAndMatches_success() {
+        PasswordHashingService passwordHashingService = getPasswordHashingService(4, 4, 1, QUEUE_CAPACITY);
+
+        String encodedPassword = passwordHashingService.encode(PASSWORD);
+
+        assertTrue(encodedPassword.startsWith("$2a$04$"));
+        assertTrue(passwordHashingService.matches(PASSWORD, encodedPassword));
+        assertFalse(passwordHashingService.matches("another_password1", encodedPassword));
+    }
+
+    @Test
+    @DisplayName("Calibrate cost - bounded by the configured range - success")
+    void calibrate_bounded_success() {
+        assertEquals(4, getPasswordHashingService(4, 6, 0, QUEUE_CAPACITY).getCost());
+        executor.shutdown();
+        assertEquals(6, getPasswordHashingService(4, 6, 60_000, QUEUE_CAPACITY).getCost());
+    }
+
+    @Test
+    @DisplayName("Upgrade encoding - lower cost hash - success")
+    void upgradeEncoding_lowerCost_success() {
+        PasswordHashingService passwordHashingService = getPasswordHashingService(5, 5, 1, QUEUE_CAPACITY);
+
+        assertTrue(passwordHashingService.upgradeEncoding(new BCryptPasswordEncoder(4).encode(PASSWORD)));
+        assertFalse(passwordHashingService.upgradeEncoding(passwordHashingService.encode(PASSWORD)));
+    }
+
+    @Test
+    @DisplayName("Encode password - executor saturated - failure")
+    void encode_saturated_failure() throws InterruptedException {
+        // No queue, so a submit while the only worker is blocked is always rejected
+        PasswordHashingService passwordHashingService = getPasswordHashingService(4, 4, 1, 0);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        started.await();
+
+        try {
+            assertThrows(ServiceUnavailableException.class, () -> passwordHashingService.encode(PASSWORD));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private PasswordHashingService getPasswordHashingService(int minCost, int maxCost, long targetHashMs,
+                                                             int queueCapacity) {
+        SecurityConfig securityConfig = new SecurityConfig();
+        securityConfig.setPasswordMinCost(minCost);
+        securityConfig.setPasswordMaxCost(maxCost);
+        securityConfig.setPasswordTargetHashMs(targetHashMs);
+        securityConfig.setPasswordWaitTimeoutMs(5000);
+        securityConfig.setPasswordRetryAfterSeconds(1);
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.initialize();
+        return new PasswordHashingService(securityConfig, executor, new SimpleMeterRegistry());
+    }
+}
@@ -3,6 +3,7 @@ package com.web.service;
 import com.web.error.exception.InternalServerErrorException;
 import com.web.error.exception.NotFoundException;
 import com.web.filter.CustomAuthenticationToken;
+import com.web.model.AuthenticatedUser;
 import com.web.model.enumeration.UserRole;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
@@ -10,14 +11,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
-import java.security.Principal;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.EnumSet;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -34,12 +31,8 @@ class SecurityServiceTest {
 
     @BeforeAll
     static void setup() {
-        Principal principal = () -> "Test";
-        List<GrantedAuthority> authorities = List.of(UserRole.ROLE_STUDENT::name);
-        Map<String, String> claims = new HashMap<>();
-        claims.put("USER_ID", USER_ID.toString());
-
-        var authentication = new CustomAuthenticationToken(principal, claims, authorities);
+        var authentication = new CustomAuthenticationToken(
+                new AuthenticatedUser(USER_ID, "Test", EnumSet.of(UserRole.ROLE_STUDENT)));
         SecurityContext securityContext = mock(SecurityContext.class);
         when(securityContext.getAuthentication()).thenReturn(authentication);
         SecurityContextHolder.setContext(securityContext);
@@ -71,6 +64,12 @@ class SecurityServiceTest {
         assertTrue(securityService.hasCustomRole(UserRole.ROLE_STUDENT));
     }
 
+    @Test
+    @DisplayName("Has custom role - missing role - failure")
+    void hasCustomRole_missingRole_failure() {
+        assertFalse(securityService.hasCustomRole(UserRole.ROLE_ADMIN));
+    }
+
     @Test
     @DisplayName("Has custom role - null authentication - failure")
     void hasCustomRole_nullAuthentication_success() {
@@ -0,0 +1,78 @@
+package com.web.service;
+
+import com.web.config.DocumentConfig;
+import com.web.error.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UploadBudgetServiceTest {
+
+    private static final long BUDGET = 4096;
+
+    private DocumentConfig documentConfig;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private UploadBudgetService uploadBudgetService;
+
+    @BeforeEach
+    void setup() {
+        documentConfig = new DocumentConfig();
+        documentConfig.setUploadBudgetMaxBytes(BUDGET);
+        documentConfig.setUploadBudgetMaxWaiting(1);
+        documentConfig.setUploadBudgetWaitTimeoutMs(10);
+        documentConfig.setUploadBudgetRetryAfterSeconds(5);
+        documentConfig.setMaxRequestSize(DataSize.ofBytes(BUDGET));
+
+        meterRegistry = new SimpleMeterRegistry();
+        uploadBudgetService = new UploadBudgetService(documentConfig, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Acquire upload budget - success")
+    void acquire_success() {
+        long reserved = uploadBudgetService.acquire(1500);
+
+        assertEquals(1500, reserved);
+        assertEquals(2048, uploadBudgetService.getUsedBytes());
+        assertEquals(2048.0, meterRegistry.get("document.upload.budget.used").gauge().value());
+
+        uploadBudgetService.release(reserved);
+
+        assertEquals(0, uploadBudgetService.getUsedBytes());
+    }
+
+    @Test
+    @DisplayName("Acquire upload budget - unknown length reserves the max request size - success")
+    void acquire_unknownLength_success() {
+        assertEquals(BUDGET, uploadBudgetService.acquire(-1));
+        assertEquals(BUDGET, uploadBudgetService.getUsedBytes());
+    }
+
+    @Test
+    @DisplayName("Acquire upload budget - wait times out - failure")
+    void acquire_timeout_failure() {
+        uploadBudgetService.acquire(BUDGET);
+
+        ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class,
+                () -> uploadBudgetService.acquire(1024));
+
+        assertEquals(5, exception.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.get("document.upload.budget.rejected").counter().count());
+        assertEquals(0.0, meterRegistry.get("document.upload.budget.waiting").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Acquire upload budget - wait queue full - failure")
+    void acquire_queueFull_failure() {
+        documentConfig.setUploadBudgetMaxWaiting(0);
+        uploadBudgetService.acquire(BUDGET);
+
+        assertThrows(ServiceUnavailableException.class, () -> uploadBudgetService.acquire(1));
+    }
+}
@@ -0,0 +1,265 @@
+package com.web.service;
+
+import com.web.config.DocumentConfig;
+import com.web.error.ErrorMessage;
+import com.web.error.exception.BadRequestException;
+import com.web.error.exception.ConflictException;
+import com.web.error.exception.NotFoundException;
+import com.web.model.Document;
+import com.web.model.UploadSession;
+import com.web.model.enumeration.DocumentPart;
+import com.web.repository.UploadSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UploadSessionServiceTest {
+
+    private static final UUID ID = UUID.randomUUID();
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final byte[] CONTENT = "%PDF-dummy content".getBytes();
+
+    @TempDir
+    Path stagingDirectory;
+
+    @Mock
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Mock
+    private DocumentService documentService;
+
+    @Mock
+    private DocumentValidationService documentValidationService;
+
+    @Mock
+    private SecurityService securityService;
+
+    private UploadSessionService uploadSessionService;
+
+    @BeforeEach
+    void setup() {
+        DocumentConfig documentConfig = new DocumentConfig();
+        documentConfig.setStagingDirectory(stagingDirectory.toString());
+        documentConfig.setUploadSessionTtlMinutes(60);
+        documentConfig.setUploadSessionMaxChunkSize(8);
+
+        uploadSessionService = new UploadSessionService(uploadSessionRepository, documentService,
+                documentValidationService, securityService, documentConfig);
+    }
+
+    @Test
+    @DisplayName("Create upload session - success")
+    void create_success() {
+        when(securityService.getUserId()).thenReturn(USER_ID);
+        when(uploadSessionRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        UploadSession uploadSession = uploadSessionService.create(1, 2, CONTENT.length);
+
+        verify(documentValidationService).checkSize(CONTENT.length, DocumentPart.DIPLOMA);
+        assertEquals(USER_ID, uploadSession.getUserId());
+        assertEquals(0, uploadSession.getDiplomaOffset());
+        assertTrue(uploadSession.getExpiresAt().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    @DisplayName("Append chunks - success")
+    void appendChunk_success() throws IOException {
+        UploadSession uploadSession = getUploadSession();
+
+        when(uploadSessionRepository.findById(ID)).thenReturn(Optional.of(uploadSession));
+        when(uploadSessionRepository.updateDiplomaOffset(eq(ID), anyLong(), anyLong(), any())).thenReturn(1);
+
+        uploadSessionService.appendChunk(ID, DocumentPart.DIPLOMA, 0, 8, getChunk(0, 8));
+        uploadSessionService.appendChunk(ID, DocumentPart.DIPLOMA, 8, 8, getChunk(8, 16));
+        UploadSession result = uploadSessionService.appendChunk(ID, DocumentPart.DIPLOMA, 16, 2,
+                getChunk(16, CONTENT.length));
+
+        assertEquals(CONTENT.length, result.getDiplomaOffset());
+        assertArrayEquals(CONTENT, Files.readAllBytes(getPath(DocumentPart.DIPLOMA)));
+        verify(uploadSessionRepository).updateDiplomaOffset(eq(ID), eq(16L), eq((long) CONTENT.length), any());
+        verify(uploadSessionRepository, never()).findForUpdateById(any());
+        verify(securityService, times(3)).authorize(USER_ID, "upload session", ID);
+    }
+
+    @Test
+    @DisplayName("Append chunk - offset moved while streaming - failure")
+    void appendChunk_offsetMoved_failure() {
+        UploadSession uploadSession = getUploadSession();
+        UploadSession movedSession = getUploadSession();
+        movedSession.setDiplomaOffset(8);
+
+        when(uploadSessionRepository.findById(ID)).thenReturn(Optional.of(uploadSession), Optional.of(movedSession));
+        when(uploadSessionRepository.updateDiplomaOffset(eq(ID), eq(0L), eq(8L), any())).thenReturn(0);
+
+        ConflictException exception = assertThrows(ConflictException.class, () ->
+                uploadSessionService.appendChunk(ID, DocumentPart.DIPLOMA, 0, 8, getChunk(0, 8)));
+        assertEquals(ErrorMessage.UPLOAD_OFFSET_MISMATCH.getErrorCode(), exception.getErrorCode());
+        assertEquals(0, uploadSession.getDiplomaOffset());
+    }
+
+    @Test
+    @DisplayName("Append chunk - chunk already being written - failure")
+    void appendChunk_concurrentWriter_failure() throws IOException {
+        UploadSession uploadSession = getUploadSession();
+
+        when(uploadSessionRepository.findById(ID)).thenReturn(Optional.of(uploadSession));
+        when(uploadSessionRepository.updateDiplomaOffset(eq(ID), eq(0L), eq(8L), any())).thenReturn(1);
+
+        InputStream stalledChunk = new ByteArrayInputStream(CONTENT, 0, 8) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                ConflictException exception = assertThrows(ConflictException.class, () ->
+                        uploadSessionService.appendChunk(ID, DocumentPart.DIPLOMA, 0, 8, getChunk(0, 8)));
+                assertEquals(ErrorMessage.UPLOAD_IN_PROGRESS.getErrorCode(), exception.getErrorCode());
+                return super.read(b, off, len);
+            }
+        };
+
+        uploadSessionService.appendChunk(ID, DocumentPart.DIPLOMA, 0, 8, stalledChunk);
+
+        verify(uploadSessionRepository).updateDiplomaOffset(eq(ID), eq(0L), eq(8L), any());
+        assertArrayEquals(Arrays.copyOf(CONTENT, 8), Files.readAllBytes(getPath(DocumentPart.DIPLOMA)));
+    }
+
+    @Test
+    @DisplayName("Append chunk - offset mismatch - failure")
+    void appendChunk_offsetMismatch_failure() {
+        UploadSession uploadSession = getUploadSession();
+        uploadSession.setDiplomaOffset(8);
+
+        when(uploadSessionRepository.findById(ID)).thenReturn(Optional.of(uploadSession));
+
+        assertThrows(ConflictException.class, () ->
+                uploadSessionService.appendChunk(ID, DocumentPart.DIPLOMA, 0, 8, getChunk(0, 8)));
+        verify(uploadSessionRepository, never()).updateDiplomaOffset(any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Append chunk - past declared size - failure")
+    void appendChunk_pastSize_failure() {
+        when(uploadSessionRepository.findById(ID)).thenReturn(Optional.of(getUploadSession()));
+
+        assertThrows(BadRequestException.class, () ->
+                uploadSessionService.appendChunk(ID, DocumentPart.IDENTITY_CARD, 0, 8, getChunk(0, 8)));
+    }
+
+    @Test
+    @DisplayName("Append chunk - truncated body - failure")
+    void appendChunk_truncatedBody_failure() {
+        UploadSession uploadSession = getUploadSession();
+
+        when(uploadSessionRepository.findById(ID)).thenReturn(Optional.of(uploadSession));
+
+        assertThrows(BadRequestException.class, () ->
+                uploadSessionService.appendChunk(ID, DocumentPart.DIPLOMA, 0, 8, getChunk(0, 5)));
+        assertEquals(0, uploadSession.getDiplomaOffset());
+        verify(uploadSessionRepository, never()).updateDiplomaOffset(any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Append chunk - expired session - failure")
+    void appendChunk_expired_failure() {
+        UploadSession uploadSession = getUploadSession();
+        uploadSession.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+
+        when(uploadSessionRepository.findById(ID)).thenReturn(Optional.of(uploadSession));
+
+        assertThrows(NotFoundException.class, () ->
+                uploadSessionService.appendChunk(ID, DocumentPart.DIPLOMA, 0, 8, getChunk(0, 8)));
+    }
+
+    @Test
+    @DisplayName("Complete upload session - success")
+    void complete_success() throws IOException {
+        UploadSession uploadSession = getUploadSession();
+        for (DocumentPart part : DocumentPart.values()) {
+            uploadSession.setOffset(part, uploadSession.getSize(part));
+            Files.createDirectories(getPath(part).getParent());
+            Files.write(getPath(part), Arrays.copyOf(CONTENT, (int) uploadSession.getSize(part)));
+        }
+        Document document = new Document();
+
+        when(uploadSessionRepository.findForUpdateById(ID)).thenReturn(Optional.of(uploadSession));
+        when(documentService.save(any(), any(), any())).thenReturn(document);
+
+        assertEquals(document, uploadSessionService.complete(ID));
+
+        ArgumentCaptor<MultipartFile> diploma = ArgumentCaptor.forClass(MultipartFile.class);
+        verify(documentService).save(any(), any(), diploma.capture());
+        verify(uploadSessionRepository).delete(uploadSession);
+        assertFalse(Files.exists(getPath(DocumentPart.DIPLOMA)));
+        assertEquals(CONTENT.length, diploma.getValue().getSize());
+    }
+
+    @Test
+    @DisplayName("Complete upload session - incomplete part - failure")
+    void complete_incomplete_failure() {
+        when(uploadSessionRepository.findForUpdateById(ID)).thenReturn(Optional.of(getUploadSession()));
+
+        assertThrows(ConflictException.class, () -> uploadSessionService.complete(ID));
+        verify(documentService, never()).save(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Delete expired upload sessions - success")
+    void deleteExpired_success() throws IOException {
+        UploadSession expired = getUploadSession();
+        UploadSession extended = getUploadSession();
+        extended.setId(UUID.randomUUID());
+        Files.createDirectories(getPath(DocumentPart.DIPLOMA).getParent());
+        Files.write(getPath(DocumentPart.DIPLOMA), CONTENT);
+
+        when(uploadSessionRepository.findTop100ByExpiresAtBeforeOrderByExpiresAtAsc(any()))
+                .thenReturn(List.of(expired, extended));
+        when(uploadSessionRepository.deleteExpired(eq(ID), any())).thenReturn(1);
+        when(uploadSessionRepository.deleteExpired(eq(extended.getId()), any())).thenReturn(0);
+
+        uploadSessionService.deleteExpired();
+
+        assertFalse(Files.exists(stagingDirectory.resolve("sessions").resolve(ID.toString())));
+    }
+
+    private InputStream getChunk(int from, int to) {
+        return new ByteArrayInputStream(CONTENT, from, to - from);
+    }
+
+    private Path getPath(DocumentPart part) {
+        return stagingDirectory.resolve("sessions").resolve(ID.toString()).resolve(part.getValue());
+    }
+
+    private UploadSession getUploadSession() {
+        return UploadSession.builder()
+                .id(ID)
+                .userId(USER_ID)
+                .identityCardSize(5)
+                .medicalCertificateSize(10)
+                .diplomaSize(CONTENT.length)
+                .createdAt(LocalDateTime.now())
+                .expiresAt(LocalDateTime.now().plusMinutes(60))
+                .build();
+    }
+}
@@ -4,6 +4,7 @@ import com.web.error.ErrorMessage;
 import com.web.error.exception.ConflictException;
 import com.web.error.exception.NotFoundException;
 import com.web.model.AdmissionFile;
+import com.web.model.Document;
 import com.web.model.User;
 import com.web.model.UserInfo;
 import com.web.repository.UserRepository;
@@ -13,7 +14,6 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -36,11 +36,14 @@ class UserServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private BCryptPasswordEncoder bCryptPasswordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     @Mock
     private SecurityService securityService;
 
+    @Mock
+    private DocumentBlobService documentBlobService;
+
     @InjectMocks
     private UserService userService;
 
@@ -137,6 +140,39 @@ class UserServiceTest {
         assertEquals(updatedUser.getId(), resultedUser.getId());
     }
 
+    @Test
+    @DisplayName("Update user - changed password - rehashed - success")
+    void update_changedPassword_rehashed_success() {
+        User user = getSavedUser();
+        User updatedUser = getUpdatedUser();
+
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(passwordHashingService.matches(updatedUser.getPassword(), PASSWORD)).thenReturn(false);
+        when(passwordHashingService.encode(updatedUser.getPassword())).thenReturn("new_hash");
+        when(userRepository.save(user)).thenReturn(user);
+
+        userService.update(user.getId(), updatedUser);
+
+        assertEquals("new_hash", user.getPassword());
+    }
+
+    @Test
+    @DisplayName("Update user - unchanged password - not rehashed - success")
+    void update_unchangedPassword_notRehashed_success() {
+        User user = getSavedUser();
+        User updatedUser = getUpdatedUser();
+
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(passwordHashingService.matches(updatedUser.getPassword(), PASSWORD)).thenReturn(true);
+        when(passwordHashingService.upgradeEncoding(PASSWORD)).thenReturn(false);
+        when(userRepository.save(user)).thenReturn(user);
+
+        userService.update(user.getId(), updatedUser);
+
+        assertEquals(PASSWORD, user.getPassword());
+        verify(passwordHashingService, never()).encode(any());
+    }
+
     @Test
     @DisplayName("Update user - existing email - failure")
     void update_existingEmail_failure() {
@@ -183,6 +219,22 @@ class UserServiceTest {
         verify(userRepository, times(1)).delete(user);
     }
 
+    @Test
+    @DisplayName("Delete user - document blobs are released - success")
+    void delete_releasesBlobs_success() {
+        User user = getSavedUser();
+        Document document = new Document();
+        document.setDiplomaHash("hash");
+        user.setDocument(document);
+
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+
+        userService.deleteById(user.getId());
+
+        verify(documentBlobService).release("hash");
+        verify(userRepository).delete(user);
+    }
+
     @Test
     @DisplayName("Delete user - submitted admission file - failure")
     void delete_submittedAdmissionFile_failure() {
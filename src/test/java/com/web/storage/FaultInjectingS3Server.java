@@ -0,0 +1,223 @@
+package com.web.storage;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory S3 stand-in for path-style object requests that adds latency and 503 SlowDown errors on demand.
+ * Supports bucket creation, the bucket ACL lookup behind doesBucketExistV2, and object PUT, GET (with ranges),
+ * HEAD and DELETE, which covers uploads below the multipart threshold, downloads and metadata lookups.
+ * Run {@link #main} and point {@code config.aws.s3.url} at it to try the API against a slow or failing S3.
+ */
+public class FaultInjectingS3Server implements AutoCloseable {
+
+    public static final String THREAD_NAME_PREFIX = "fault-injecting-s3-";
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d*)");
+    private static final String ACL = "<AccessControlPolicy><Owner><ID>owner</ID></Owner>"
+            + "<AccessControlList></AccessControlList></AccessControlPolicy>";
+
+    private final HttpServer server;
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile long latencyMs;
+    private volatile double errorRate;
+
+    public FaultInjectingS3Server(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        AtomicInteger threads = new AtomicInteger();
+        server.setExecutor(Executors.newCachedThreadPool(runnable ->
+                new Thread(runnable, THREAD_NAME_PREFIX + threads.incrementAndGet())));
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public static void main(String[] args) throws IOException {
+        FaultInjectingS3Server server = new FaultInjectingS3Server(args.length > 0 ? Integer.parseInt(args[0]) : 4566);
+        server.setLatencyMs(args.length > 1 ? Long.parseLong(args[1]) : 0);
+        server.setErrorRate(args.length > 2 ? Double.parseDouble(args[2]) : 0);
+        System.out.println("Fault injecting S3 listening on " + server.getUrl());
+    }
+
+    public String getUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public void setLatencyMs(long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public void putObject(String bucketName, String key, byte[] content) {
+        objects.put(bucketName + "/" + key, content);
+    }
+
+    public int getRequestCount() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.incrementAndGet();
+            byte[] body = readBody(exchange);
+            if (latencyMs > 0) {
+                Thread.sleep(latencyMs);
+            }
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                sendError(exchange, 503, "SlowDown", "Reduce your request rate.");
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath().substring(1);
+            int separator = path.indexOf('/');
+            if (separator < 0 || separator == path.length() - 1) {
+                handleBucket(exchange);
+            } else {
+                handleObject(exchange, path, body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handleBucket(HttpExchange exchange) throws IOException {
+        if (exchange.getRequestMethod().equals("PUT")) {
+            exchange.sendResponseHeaders(200, -1);
+        } else if (exchange.getRequestMethod().equals("GET") && "acl".equals(exchange.getRequestURI().getQuery())) {
+            send(exchange, 200, ACL.getBytes(StandardCharsets.UTF_8), "application/xml");
+        } else {
+            sendError(exchange, 501, "NotImplemented", "Only bucket creation and ACL lookups are supported.");
+        }
+    }
+
+    private void handleObject(HttpExchange exchange, String path, byte[] body) throws IOException {
+        byte[] content = objects.get(path);
+        switch (exchange.getRequestMethod()) {
+            case "PUT" -> {
+                objects.put(path, body);
+                exchange.getResponseHeaders().set("ETag", getETag(body));
+                exchange.sendResponseHeaders(200, -1);
+            }
+            case "DELETE" -> {
+                objects.remove(path);
+                exchange.sendResponseHeaders(204, -1);
+            }
+            case "HEAD" -> {
+                if (content == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                    return;
+                }
+                setObjectHeaders(exchange, content);
+                exchange.getResponseHeaders().set("Content-Length", Integer.toString(content.length));
+                exchange.sendResponseHeaders(200, -1);
+            }
+            case "GET" -> {
+                if (content == null) {
+                    sendError(exchange, 404, "NoSuchKey", "The specified key does not exist.");
+                    return;
+                }
+                setObjectHeaders(exchange, content);
+                Matcher range = RANGE.matcher(String.valueOf(exchange.getRequestHeaders().getFirst("Range")));
+                if (range.matches()) {
+                    int start = Integer.parseInt(range.group(1));
+                    int end = range.group(2).isEmpty() ? content.length - 1 :
+                            Math.min(Integer.parseInt(range.group(2)), content.length - 1);
+                    exchange.getResponseHeaders().set("Content-Range",
+                            "bytes " + start + "-" + end + "/" + content.length);
+                    byte[] slice = new byte[end - start + 1];
+                    System.arraycopy(content, start, slice, 0, slice.length);
+                    send(exchange, 206, slice, null);
+                } else {
+                    send(exchange, 200, content, null);
+                }
+            }
+            default -> sendError(exchange, 501, "NotImplemented", "Unsupported method.");
+        }
+    }
+
+    private byte[] readBody(HttpExchange exchange) throws IOException {
+        try (InputStream inputStream = exchange.getRequestBody()) {
+            byte[] body = inputStream.readAllBytes();
+            String encoding = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+            return encoding != null && encoding.startsWith("STREAMING-") ? decodeChunks(body) : body;
+        }
+    }
+
+    // Unsigned payloads are sent as aws-chunked frames of "hex-size;chunk-signature=...\r\n<data>\r\n"
+    private byte[] decodeChunks(byte[] body) {
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        int position = 0;
+        while (position < body.length) {
+            int lineEnd = indexOf(body, position);
+            String header = new String(body, position, lineEnd - position, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(header.split(";")[0], 16);
+            if (size == 0) {
+                break;
+            }
+            decoded.write(body, lineEnd + 2, size);
+            position = lineEnd + 2 + size + 2;
+        }
+        return decoded.toByteArray();
+    }
+
+    private int indexOf(byte[] body, int from) {
+        for (int i = from; i < body.length - 1; i++) {
+            if (body[i] == '\r' && body[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return body.length;
+    }
+
+    private void setObjectHeaders(HttpExchange exchange, byte[] content) {
+        exchange.getResponseHeaders().set("ETag", getETag(content));
+        exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+        exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+        exchange.getResponseHeaders().set("Last-Modified", "Mon, 01 Jan 2024 00:00:00 GMT");
+    }
+
+    private void sendError(HttpExchange exchange, int status, String code, String message) throws IOException {
+        if (exchange.getRequestMethod().equals("HEAD")) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        String error = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><Error><Code>" + code + "</Code><Message>"
+                + message + "</Message><RequestId>" + requests.get() + "</RequestId></Error>";
+        send(exchange, status, error.getBytes(StandardCharsets.UTF_8), "application/xml");
+    }
+
+    private void send(HttpExchange exchange, int status, byte[] body, String contentType) throws IOException {
+        if (contentType != null) {
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+        }
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+    }
+
+    private String getETag(byte[] content) {
+        return "\"" + Integer.toHexString(java.util.Arrays.hashCode(content)) + "\"";
+    }
+}
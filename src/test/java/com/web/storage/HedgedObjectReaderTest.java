@@ -0,0 +1,146 @@
+package com.web.storage;
+
+import com.amazonaws.AbortedException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.web.config.AwsS3Config;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HedgedObjectReaderTest {
+
+    private static final byte[] PRIMARY = "%PDF-primary".getBytes();
+    private static final byte[] HEDGE = "%PDF-hedge".getBytes();
+
+    @Mock
+    private AmazonS3 s3Client;
+
+    private AwsS3Config awsS3Config;
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutorService executorService;
+    private HedgedObjectReader hedgedObjectReader;
+
+    @BeforeEach
+    void setup() {
+        awsS3Config = new AwsS3Config();
+        awsS3Config.setHedgingEnabled(true);
+        awsS3Config.setHedgingPercentile(0.95);
+        awsS3Config.setHedgingMinDelayMs(10);
+        awsS3Config.setHedgingMaxDelayMs(50);
+        awsS3Config.setHedgingMaxPercent(100);
+
+        meterRegistry = new SimpleMeterRegistry();
+        executorService = Executors.newCachedThreadPool();
+        hedgedObjectReader = new HedgedObjectReader(s3Client, awsS3Config, new TaskExecutorAdapter(executorService),
+                meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Read object - primary answers in time - success")
+    void read_fastPrimary_success() throws IOException {
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenReturn(getObject(PRIMARY));
+
+        assertArrayEquals(PRIMARY, read());
+
+        verify(s3Client, times(1)).getObject(any(GetObjectRequest.class));
+        assertEquals(0, meterRegistry.get("s3.read.hedged").counter().count());
+        assertEquals(1, meterRegistry.get("s3.read.requests").counter().count());
+    }
+
+    @Test
+    @DisplayName("Read object - primary slow - hedge wins and primary is cancelled")
+    void read_hedgeWins_success() throws IOException, InterruptedException {
+        CountDownLatch cancelled = new CountDownLatch(1);
+
+        when(s3Client.getObject(any(GetObjectRequest.class)))
+                .thenAnswer(invocation -> {
+                    try {
+                        Thread.sleep(5000);
+                    } catch (InterruptedException e) {
+                        cancelled.countDown();
+                        throw new AbortedException();
+                    }
+                    return getObject(PRIMARY);
+                })
+                .thenReturn(getObject(HEDGE));
+
+        assertArrayEquals(HEDGE, read());
+
+        assertTrue(cancelled.await(1, TimeUnit.SECONDS));
+        ArgumentCaptor<GetObjectRequest> captor = ArgumentCaptor.forClass(GetObjectRequest.class);
+        verify(s3Client, times(2)).getObject(captor.capture());
+        captor.getAllValues().forEach(request -> assertArrayEquals(new long[]{2, 5}, request.getRange()));
+        assertEquals(1, meterRegistry.get("s3.read.hedged").counter().count());
+        assertEquals(1, meterRegistry.get("s3.read.hedge.won").counter().count());
+        assertEquals(1, meterRegistry.get("s3.read.hedge.rate").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Read object - primary slow but hedge budget exhausted - success")
+    void read_budgetExhausted_success() throws IOException {
+        awsS3Config.setHedgingMaxPercent(0);
+
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return getObject(PRIMARY);
+        });
+
+        assertArrayEquals(PRIMARY, read());
+
+        verify(s3Client, times(1)).getObject(any(GetObjectRequest.class));
+        assertEquals(0, meterRegistry.get("s3.read.hedged").counter().count());
+    }
+
+    @Test
+    @DisplayName("Read object - primary and hedge fail - failure")
+    void read_bothFail_failure() {
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            throw new AmazonServiceException("SlowDown");
+        });
+
+        assertThrows(AmazonServiceException.class, this::read);
+
+        verify(s3Client, times(2)).getObject(any(GetObjectRequest.class));
+    }
+
+    private byte[] read() throws IOException {
+        try (InputStream inputStream = hedgedObjectReader.read("bucket", "blobs/hash", 2, 5)) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    private S3Object getObject(byte[] content) {
+        S3Object s3Object = new S3Object();
+        s3Object.setObjectContent(new ByteArrayInputStream(content));
+        return s3Object;
+    }
+}
@@ -0,0 +1,153 @@
+package com.web.storage;
+
+import com.web.config.DocumentConfig;
+import com.web.error.exception.NotFoundException;
+import com.web.model.ObjectInfo;
+import com.web.model.ObjectLocation;
+import com.web.model.StoredObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalDocumentStorageTest {
+
+    private static final ObjectLocation LOCATION = new ObjectLocation("bucket", "user/diploma");
+    private static final byte[] CONTENT = "%PDF-dummy content".getBytes();
+
+    @TempDir
+    Path rootDirectory;
+
+    private LocalDocumentStorage localDocumentStorage;
+
+    @BeforeEach
+    void setup() {
+        DocumentConfig documentConfig = new DocumentConfig();
+        documentConfig.setLocalStorageRoot(rootDirectory.toString());
+        localDocumentStorage = new LocalDocumentStorage(documentConfig);
+    }
+
+    @Test
+    @DisplayName("Put object - success")
+    void put_success() throws IOException, NoSuchAlgorithmException {
+        String contentMd5 = Base64.getEncoder().encodeToString(MessageDigest.getInstance("MD5").digest(CONTENT));
+
+        localDocumentStorage.put(LOCATION, new ByteArrayInputStream(CONTENT), CONTENT.length, "application/pdf",
+                contentMd5);
+
+        Path path = rootDirectory.resolve("bucket/user/diploma");
+        assertArrayEquals(CONTENT, Files.readAllBytes(path));
+        try (var files = Files.list(path.getParent())) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Put object - checksum mismatch - failure")
+    void put_checksumMismatch_failure() {
+        assertThrows(IOException.class, () -> localDocumentStorage.put(LOCATION, new ByteArrayInputStream(CONTENT),
+                CONTENT.length, "application/pdf", "bWlzbWF0Y2g="));
+        assertFalse(Files.exists(rootDirectory.resolve("bucket/user/diploma")));
+    }
+
+    @Test
+    @DisplayName("Put object - truncated content - failure")
+    void put_truncated_failure() {
+        assertThrows(IOException.class, () -> localDocumentStorage.put(LOCATION, new ByteArrayInputStream(CONTENT),
+                CONTENT.length + 1, "application/pdf", null));
+    }
+
+    @Test
+    @DisplayName("Get object - ranged - success")
+    void get_success() throws IOException {
+        localDocumentStorage.put(LOCATION, new ByteArrayInputStream(CONTENT), CONTENT.length, "application/pdf", null);
+
+        try (InputStream inputStream = localDocumentStorage.get(LOCATION, 5, 9)) {
+            assertEquals("dummy", new String(inputStream.readAllBytes()));
+        }
+    }
+
+    @Test
+    @DisplayName("Get object info - success")
+    void getInfo_success() throws IOException {
+        localDocumentStorage.put(LOCATION, new ByteArrayInputStream(CONTENT), CONTENT.length, "application/pdf", null);
+
+        ObjectInfo info = localDocumentStorage.getInfo(LOCATION);
+
+        assertEquals(CONTENT.length, info.contentLength());
+        assertEquals("application/pdf", info.contentType());
+        assertNotNull(info.eTag());
+    }
+
+    @Test
+    @DisplayName("Get object info - not found - failure")
+    void getInfo_notFound_failure() {
+        assertThrows(NotFoundException.class, () -> localDocumentStorage.getInfo(LOCATION));
+    }
+
+    @Test
+    @DisplayName("Resolve object - path traversal - failure")
+    void get_pathTraversal_failure() {
+        ObjectLocation location = new ObjectLocation("bucket", "../other/diploma");
+
+        assertThrows(IllegalArgumentException.class, () -> localDocumentStorage.get(location, 0, 1));
+    }
+
+    @Test
+    @DisplayName("List objects - sorted after start key - success")
+    void list_success() throws IOException {
+        for (String key : List.of("b/diploma", "a/diploma", "blobs/hash", "a/identity-card")) {
+            localDocumentStorage.put(new ObjectLocation("bucket", key), new ByteArrayInputStream(CONTENT),
+                    CONTENT.length, "application/pdf", null);
+        }
+
+        List<StoredObject> objects = localDocumentStorage.list("bucket", "a/diploma", 2);
+
+        assertEquals(List.of("a/identity-card", "b/diploma"), objects.stream().map(StoredObject::key).toList());
+        assertEquals(CONTENT.length, objects.get(0).size());
+        assertTrue(localDocumentStorage.list("missing", null, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("List objects - paged in key order across directories - success")
+    void list_pagedKeyOrder_success() throws IOException {
+        List<String> keys = List.of("a-1", "a/x", "a/y/z", "a0", "b/diploma", "blobs/hash", "blobs/hash.jpg");
+        for (String key : keys) {
+            localDocumentStorage.put(new ObjectLocation("bucket", key), new ByteArrayInputStream(CONTENT),
+                    CONTENT.length, "application/pdf", null);
+        }
+
+        List<String> listed = new ArrayList<>();
+        List<StoredObject> page = localDocumentStorage.list("bucket", null, 3);
+        while (!page.isEmpty()) {
+            page.forEach(object -> listed.add(object.key()));
+            page = localDocumentStorage.list("bucket", listed.get(listed.size() - 1), 3);
+        }
+
+        assertEquals(keys.stream().sorted().toList(), listed);
+    }
+
+    @Test
+    @DisplayName("Delete objects - success")
+    void delete_success() throws IOException {
+        localDocumentStorage.put(LOCATION, new ByteArrayInputStream(CONTENT), CONTENT.length, "application/pdf", null);
+
+        List<String> deleted = localDocumentStorage.delete("bucket", List.of(LOCATION.key(), "user/missing"));
+
+        assertEquals(List.of(LOCATION.key(), "user/missing"), deleted);
+        assertFalse(Files.exists(rootDirectory.resolve("bucket").resolve(LOCATION.key())));
+    }
+}
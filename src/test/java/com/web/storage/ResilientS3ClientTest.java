@@ -0,0 +1,154 @@
+package com.web.storage;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.web.config.AwsS3Config;
+import com.web.error.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResilientS3ClientTest {
+
+    private static final String BUCKET = "default";
+    private static final String KEY = "user/diploma";
+    private static final byte[] CONTENT = "%PDF-diploma".getBytes();
+
+    private FaultInjectingS3Server server;
+    private AwsS3Config awsS3Config;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setup() throws IOException {
+        server = new FaultInjectingS3Server(0);
+        server.putObject(BUCKET, KEY, CONTENT);
+
+        awsS3Config = new AwsS3Config();
+        awsS3Config.setRegion("eu-central-1");
+        awsS3Config.setS3EndpointUrl(server.getUrl());
+        awsS3Config.setBucketName(BUCKET);
+        awsS3Config.setAccessKey("access");
+        awsS3Config.setSecretKey("secret");
+        awsS3Config.setConnectTimeoutMs(1000);
+        awsS3Config.setSocketTimeoutMs(2000);
+        awsS3Config.setReadTimeoutMs(300);
+        awsS3Config.setWriteTimeoutMs(1000);
+        awsS3Config.setMaxErrorRetry(0);
+        awsS3Config.setMaxConcurrentCalls(4);
+        awsS3Config.setBulkheadMaxWaitMs(50);
+        awsS3Config.setCircuitBreakerWindowSize(4);
+        awsS3Config.setCircuitBreakerMinimumCalls(4);
+        awsS3Config.setCircuitBreakerFailureRateThreshold(50);
+        awsS3Config.setCircuitBreakerOpenDurationMs(300);
+        awsS3Config.setCircuitBreakerHalfOpenCalls(1);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Get object metadata - success")
+    void getObjectMetadata_success() {
+        AmazonS3 amazonS3 = awsS3Config.amazonS3(meterRegistry);
+
+        assertEquals(CONTENT.length, amazonS3.getObjectMetadata(BUCKET, KEY).getContentLength());
+        assertEquals(1.0, meterRegistry.get("s3.client.calls").tag("result", "success").counter().count());
+    }
+
+    @Test
+    @DisplayName("Get object metadata - slower than the read timeout - failure")
+    void getObjectMetadata_timeout_failure() {
+        AmazonS3 amazonS3 = awsS3Config.amazonS3(meterRegistry);
+        server.setLatencyMs(2000);
+
+        long start = System.nanoTime();
+        assertThrows(AmazonClientException.class, () -> amazonS3.getObjectMetadata(BUCKET, KEY));
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1500);
+        assertEquals(1.0, meterRegistry.get("s3.client.calls").tag("result", "failure").counter().count());
+    }
+
+    @Test
+    @DisplayName("Get object metadata - storage failing - circuit opens and fails fast")
+    void getObjectMetadata_circuitOpen_failure() {
+        AmazonS3 amazonS3 = awsS3Config.amazonS3(meterRegistry);
+        server.setErrorRate(1);
+
+        for (int i = 0; i < 4; i++) {
+            AmazonServiceException exception = assertThrows(AmazonServiceException.class,
+                    () -> amazonS3.getObjectMetadata(BUCKET, KEY));
+            assertEquals(503, exception.getStatusCode());
+        }
+        int requests = server.getRequestCount();
+
+        ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class,
+                () -> amazonS3.getObjectMetadata(BUCKET, KEY));
+
+        assertEquals(1L, exception.getRetryAfterSeconds());
+        assertEquals(requests, server.getRequestCount());
+        assertEquals(1.0, meterRegistry.get("s3.client.circuit.state").gauge().value());
+        assertEquals(1.0, meterRegistry.get("s3.client.calls").tag("result", "short_circuited").counter().count());
+    }
+
+    @Test
+    @DisplayName("Get object metadata - storage recovered after open duration - circuit closes")
+    void getObjectMetadata_circuitRecovers_success() throws InterruptedException {
+        AmazonS3 amazonS3 = awsS3Config.amazonS3(meterRegistry);
+        server.setErrorRate(1);
+        for (int i = 0; i < 4; i++) {
+            assertThrows(AmazonServiceException.class, () -> amazonS3.getObjectMetadata(BUCKET, KEY));
+        }
+
+        server.setErrorRate(0);
+        Thread.sleep(400);
+
+        assertEquals(CONTENT.length, amazonS3.getObjectMetadata(BUCKET, KEY).getContentLength());
+        assertEquals(0.0, meterRegistry.get("s3.client.circuit.state").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Get object metadata - missing objects - circuit stays closed")
+    void getObjectMetadata_notFound_success() {
+        AmazonS3 amazonS3 = awsS3Config.amazonS3(meterRegistry);
+
+        for (int i = 0; i < 6; i++) {
+            AmazonServiceException exception = assertThrows(AmazonServiceException.class,
+                    () -> amazonS3.getObjectMetadata(BUCKET, "missing"));
+            assertEquals(404, exception.getStatusCode());
+        }
+
+        assertEquals(0.0, meterRegistry.get("s3.client.circuit.state").gauge().value());
+        assertEquals(CONTENT.length, amazonS3.getObjectMetadata(BUCKET, KEY).getContentLength());
+    }
+
+    @Test
+    @DisplayName("Get object metadata - bulkhead saturated - rejected")
+    void getObjectMetadata_bulkheadFull_failure() throws Exception {
+        awsS3Config.setMaxConcurrentCalls(1);
+        awsS3Config.setReadTimeoutMs(2000);
+        AmazonS3 amazonS3 = awsS3Config.amazonS3(meterRegistry);
+        server.setLatencyMs(500);
+
+        CompletableFuture<Long> slowCall = CompletableFuture.supplyAsync(
+                () -> amazonS3.getObjectMetadata(BUCKET, KEY).getContentLength());
+        while (server.getRequestCount() == 0) {
+            Thread.sleep(10);
+        }
+
+        assertThrows(ServiceUnavailableException.class, () -> amazonS3.getObjectMetadata(BUCKET, KEY));
+        assertEquals(CONTENT.length, slowCall.get(5, TimeUnit.SECONDS));
+        assertEquals(1.0, meterRegistry.get("s3.client.calls").tag("result", "rejected").counter().count());
+    }
+}
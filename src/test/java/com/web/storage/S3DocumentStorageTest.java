@@ -0,0 +1,128 @@
+package com.web.storage;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsResult;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.web.config.AwsS3Config;
+import com.web.error.exception.NotFoundException;
+import com.web.model.ObjectLocation;
+import com.web.service.MultipartUploadService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class S3DocumentStorageTest {
+
+    private static final ObjectLocation LOCATION = new ObjectLocation("bucket", "blobs/hash");
+    private static final byte[] CONTENT = "%PDF-dummy content".getBytes();
+
+    @Mock
+    private AmazonS3 s3Client;
+
+    @Mock
+    private HedgedObjectReader hedgedObjectReader;
+
+    @Mock
+    private MultipartUploadService multipartUploadService;
+
+    @Mock
+    private AwsS3Config awsS3Config;
+
+    @InjectMocks
+    private S3DocumentStorage s3DocumentStorage;
+
+    @Test
+    @DisplayName("Put object - streamed with checksum - success")
+    void put_success() throws IOException {
+        when(awsS3Config.getUploadReadLimit()).thenReturn(1024);
+
+        s3DocumentStorage.put(LOCATION, new ByteArrayInputStream(CONTENT), CONTENT.length, "application/pdf", "md5");
+
+        ArgumentCaptor<PutObjectRequest> captor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(s3Client).putObject(captor.capture());
+        PutObjectRequest request = captor.getValue();
+        assertEquals("bucket", request.getBucketName());
+        assertEquals("blobs/hash", request.getKey());
+        assertNull(request.getFile());
+        assertNotNull(request.getInputStream());
+        assertEquals(CONTENT.length, request.getMetadata().getContentLength());
+        assertEquals("md5", request.getMetadata().getContentMD5());
+        assertEquals(1024, request.getRequestClientOptions().getReadLimit());
+    }
+
+    @Test
+    @DisplayName("Put object - large content uses multipart - success")
+    void put_multipart_success() throws IOException {
+        InputStream inputStream = new ByteArrayInputStream(CONTENT);
+
+        when(multipartUploadService.isMultipart(CONTENT.length)).thenReturn(true);
+
+        s3DocumentStorage.put(LOCATION, inputStream, CONTENT.length, "application/pdf", "md5");
+
+        verify(multipartUploadService).upload("bucket", "blobs/hash", inputStream, CONTENT.length, "application/pdf");
+        verify(s3Client, never()).putObject(any(PutObjectRequest.class));
+    }
+
+    @Test
+    @DisplayName("Get object - ranged - success")
+    void get_success() throws IOException {
+        InputStream inputStream = new ByteArrayInputStream(CONTENT);
+
+        when(hedgedObjectReader.read("bucket", "blobs/hash", 2, 5)).thenReturn(inputStream);
+
+        assertSame(inputStream, s3DocumentStorage.get(LOCATION, 2, 5));
+    }
+
+    @Test
+    @DisplayName("Get object info - not found - failure")
+    void getInfo_notFound_failure() {
+        AmazonS3Exception exception = new AmazonS3Exception("Not Found");
+        exception.setStatusCode(404);
+
+        when(s3Client.getObjectMetadata("bucket", "blobs/hash")).thenThrow(exception);
+
+        assertThrows(NotFoundException.class, () -> s3DocumentStorage.getInfo(LOCATION));
+    }
+
+    @Test
+    @DisplayName("Delete objects - split into batches of 1000 keys - success")
+    void delete_batches_success() {
+        List<String> keys = IntStream.range(0, 1500).mapToObj(i -> "blobs/" + i).toList();
+
+        when(s3Client.deleteObjects(any(DeleteObjectsRequest.class))).thenAnswer(invocation -> {
+            DeleteObjectsRequest request = invocation.getArgument(0);
+            return new DeleteObjectsResult(request.getKeys().stream()
+                    .map(key -> {
+                        DeleteObjectsResult.DeletedObject deletedObject = new DeleteObjectsResult.DeletedObject();
+                        deletedObject.setKey(key.getKey());
+                        return deletedObject;
+                    })
+                    .toList());
+        });
+
+        List<String> deleted = s3DocumentStorage.delete("bucket", keys);
+
+        ArgumentCaptor<DeleteObjectsRequest> captor = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+        verify(s3Client, times(2)).deleteObjects(captor.capture());
+        assertEquals(1000, captor.getAllValues().get(0).getKeys().size());
+        assertEquals(500, captor.getAllValues().get(1).getKeys().size());
+        assertEquals(keys, deleted);
+    }
+}